@@ -0,0 +1,21 @@
+package com.example;
+
+/* AssignmentCandidates
+Description: The rooms a strategy proposes for one reservation, best first, produced lazily. Used by the optimistic
+commit in Hotel.assignReservation: when a proposed room was taken or no longer fits, the hotel asks for the next one
+instead of running the strategy again from scratch. */
+public interface AssignmentCandidates {
+
+    /* next
+    Inputs: none.
+    Outputs: the next room to try, or null when the strategy has nothing left to propose.
+    Description: Continues where the previous call stopped. */
+    Room next();
+
+    /* isStillValid
+    Inputs: room – a room returned by next.
+    Outputs: true if the room still meets the strategy's constraints.
+    Description: Called under the room's floor lock right before committing, so the floor's state cannot change meanwhile. */
+    boolean isStillValid(Room room);
+
+}
@@ -0,0 +1,54 @@
+package com.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/* AssignmentMetrics
+Description: Counters of the optimistic commit protocol (see Hotel.assignReservation). They are striped adders, so
+workers on every core can update them without contending; reads are a sum and may lag concurrent updates. */
+public class AssignmentMetrics {
+
+    private final LongAdder assignments = new LongAdder(); // Calls to Hotel.assignReservation
+    private final LongAdder attempts = new LongAdder(); // Candidates tried
+    private final LongAdder commits = new LongAdder(); // Candidates reserved
+    private final LongAdder conflicts = new LongAdder(); // Candidate already reserved by someone else
+    private final LongAdder staleCandidates = new LongAdder(); // Candidate free but no longer meeting the strategy's constraints
+    private final LongAdder exhausted = new LongAdder(); // Assignments for which the strategy ran out of candidates
+
+    void assignmentStarted() { assignments.increment(); }
+    void attempted() { attempts.increment(); }
+    void committed() { commits.increment(); }
+    void conflicted() { conflicts.increment(); }
+    void staleCandidate() { staleCandidates.increment(); }
+    void exhausted() { exhausted.increment(); }
+
+    public long getAssignments() { return assignments.sum(); }
+    public long getAttempts() { return attempts.sum(); }
+    public long getCommits() { return commits.sum(); }
+    public long getConflicts() { return conflicts.sum(); }
+    public long getStaleCandidates() { return staleCandidates.sum(); }
+    public long getExhausted() { return exhausted.sum(); }
+
+    /* getRetries
+    Inputs: none.
+    Outputs: candidates tried beyond the first one of each assignment.
+    Description: Attempts minus assignments. */
+    public long getRetries() {
+        return Math.max(0, getAttempts() - getAssignments());
+    }
+
+    /* getConflictRate
+    Inputs: none.
+    Outputs: share of attempts that did not commit (taken or stale), between 0 and 1.
+    Description: 0 when nothing was attempted yet. */
+    public double getConflictRate() {
+        long attempted = getAttempts();
+        return attempted == 0 ? 0 : (double) (getConflicts() + getStaleCandidates()) / attempted;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("assignments=%d attempts=%d commits=%d conflicts=%d stale=%d exhausted=%d retries=%d conflictRate=%.4f",
+                getAssignments(), getAttempts(), getCommits(), getConflicts(), getStaleCandidates(), getExhausted(), getRetries(), getConflictRate());
+    }
+
+}
@@ -1,10 +1,72 @@
 package com.example;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.RecursiveTask;
 
 public interface AssignmentStrategy {
     String getStrategyDescription();
-    AssignmentRequest createAssignmentRequest(List<Room> availableRooms, Reservation reservation);
+    AssignmentRequest createAssignmentRequest(AvailableRooms availableRooms, Reservation reservation);
+
+    /* createAssignmentRequest
+    Inputs: availableRooms – explicit list of candidate rooms; reservation – reservation to assign.
+    Outputs: the AssignmentRequest chosen by the strategy.
+    Description: Convenience overload for hand-picked candidates; wraps the list as an AvailableRooms view. */
+    default AssignmentRequest createAssignmentRequest(List<Room> availableRooms, Reservation reservation) {
+        return createAssignmentRequest(AvailableRooms.of(availableRooms), reservation);
+    }
+
+    /* createAssignmentRequests
+    Inputs: reservations – reservations to place, in arrival order; batch – scratch availability from Hotel.newBatch.
+    Outputs: one AssignmentRequest per placed reservation (stops when the batch runs out of rooms).
+    Description: Plans a whole batch in one pass; every pick is claimed in the batch so the next one sees it.
+    The default goes through the per-reservation path; strategies with their own scratch state override it. */
+    default List<AssignmentRequest> createAssignmentRequests(List<Reservation> reservations, RoomBatch batch) {
+        List<AssignmentRequest> requests = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            if (batch.isEmpty()) break; // Hotel full
+            AssignmentRequest request = createAssignmentRequest(batch, reservation);
+            batch.claim(request);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    /* candidates
+    Inputs: availableRooms – live view of the free rooms; reservation – reservation to assign.
+    Outputs: the rooms to try for the optimistic commit (Hotel.assignReservation), best first.
+    Description: By default the strategy is asked again on the live view: a room lost to another worker has left the
+    view, so the next answer is the next candidate. Strategies that walk the rooms override this to resume their walk. */
+    default AssignmentCandidates candidates(AvailableRooms availableRooms, Reservation reservation) {
+        return askAgain(availableRooms, reservation);
+    }
+
+    /* candidatesForStay
+    Inputs: freeForStay – live view of the rooms free every night of the reservation's stay (Hotel.getAvailableRooms
+    with its dates); reservation – a dated reservation.
+    Outputs: the rooms to try for the stay, best first.
+    Description: Date-aware counterpart of candidates, used by Hotel.assignReservation for dated reservations. The
+    strategy is asked again on the view after each lost room; the overrides of candidates walk the current occupancy,
+    which says nothing about other nights, so they are not used here. */
+    default AssignmentCandidates candidatesForStay(AvailableRooms freeForStay, Reservation reservation) {
+        return askAgain(freeForStay, reservation);
+    }
+
+    // Candidates that ask the strategy again on the live view each time
+    private AssignmentCandidates askAgain(AvailableRooms availableRooms, Reservation reservation) {
+        return new AssignmentCandidates() {
+            @Override
+            public Room next() {
+                return availableRooms.isEmpty() ? null : createAssignmentRequest(availableRooms, reservation).room;
+            }
+
+            @Override
+            public boolean isStillValid(Room room) { return true; }
+        };
+    }
 
     static final int[][] ADJACENT_OFFSETS = {
         {1, 0}, {-1, 0}, {0, 1}, {0, -1}
@@ -30,16 +92,13 @@ public interface AssignmentStrategy {
     }
 
     /* fallbackByType
-    Inputs: rooms – list of candidate rooms; reservation – reservation to assign; type – desired room type.
+    Inputs: rooms – candidate rooms; reservation – reservation to assign; type – desired room type.
     Outputs: an AssignmentRequest pairing the reservation with a matching or fallback room.
-    Description: Searches for a room of the specified type; if none is found, assigns the first available room as fallback. */
-    static AssignmentRequest fallbackByType(List<Room> rooms, Reservation reservation, char type) {
-        for (Room room : rooms) { // Iterate through all candidate rooms
-            if (room.getType() == type) { // Check if room type matches
-                return new AssignmentRequest(reservation, room); // Return matching room
-            }
-        }
-        return new AssignmentRequest(reservation, rooms.get(0)); // Fallback to first room if no match
+    Description: Takes the first room of the specified type; if none is free, assigns the first available room as fallback. */
+    static AssignmentRequest fallbackByType(AvailableRooms rooms, Reservation reservation, char type) {
+        Room room = rooms.firstOfType(type); // First free room of the desired type
+        if (room == null) room = rooms.first(); // Fallback to first room if no match
+        return new AssignmentRequest(reservation, room);
     }
 
 }
@@ -55,23 +114,81 @@ class RandomAssignment implements AssignmentStrategy {
     }
 
     /* createAssignmentRequest
-    Inputs: availableRooms – list of rooms to choose from; reservation – reservation to assign.
+    Inputs: availableRooms – rooms to choose from; reservation – reservation to assign.
     Outputs: an AssignmentRequest with a randomly selected room.
     Description: Assigns the reservation to a random room from the list of available rooms. */
     @Override
-    public AssignmentRequest createAssignmentRequest(List<Room> availableRooms, Reservation reservation) {
+    public AssignmentRequest createAssignmentRequest(AvailableRooms availableRooms, Reservation reservation) {
         return new AssignmentRequest(reservation, availableRooms.get(random.nextInt(availableRooms.size()))); // Pick random room
     }
 
+    /* createAssignmentRequests
+    Inputs: reservations – reservations to place; batch – scratch availability.
+    Outputs: the AssignmentRequests of the batch.
+    Description: Lists the free room IDs once, then draws without replacement in O(1) per reservation. */
+    @Override
+    public List<AssignmentRequest> createAssignmentRequests(List<Reservation> reservations, RoomBatch batch) {
+        int[] freeIds = new int[batch.size()];
+        int remaining = 0;
+        for (Room room : batch) { freeIds[remaining++] = room.getId(); } // Scratch copy of the free rooms
+
+        List<AssignmentRequest> requests = new ArrayList<>(Math.min(reservations.size(), remaining));
+        for (Reservation reservation : reservations) {
+            if (remaining == 0) break; // Hotel full
+            int pick = random.nextInt(remaining);
+            AssignmentRequest request = new AssignmentRequest(reservation, batch.getHotel().getRoom(freeIds[pick]));
+            freeIds[pick] = freeIds[--remaining]; // Swap-remove the drawn room
+            batch.claim(request);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    /* candidates
+    Inputs: availableRooms – live view of the free rooms; reservation – reservation to assign.
+    Outputs: random free rooms, one per call.
+    Description: Draws again when the view shrank between reading its size and picking (other workers reserving). */
+    @Override
+    public AssignmentCandidates candidates(AvailableRooms availableRooms, Reservation reservation) {
+        return new AssignmentCandidates() {
+            @Override
+            public Room next() {
+                while (true) {
+                    int size = availableRooms.size();
+                    if (size == 0) return null; // Hotel full
+                    try {
+                        return availableRooms.get(random.nextInt(size));
+                    } catch (IndexOutOfBoundsException e) {
+                        // Rooms were taken meanwhile, draw again
+                    }
+                }
+            }
+
+            @Override
+            public boolean isStillValid(Room room) { return true; }
+        };
+    }
 
 }
 
 class QuietZoneAssignment implements AssignmentStrategy {
 
+    static final int DEFAULT_PARALLEL_THRESHOLD = 50_000; // Rooms; smaller searches stay on the calling thread
+
     private final Hotel hotel;
+    private final int parallelThreshold;
 
     public QuietZoneAssignment(Hotel hotel) {
+        this(hotel, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /* QuietZoneAssignment constructor
+    Inputs: hotel – the hotel; parallelThreshold – number of rooms above which the search is split across floors with fork/join.
+    Outputs: none.
+    Description: Integer.MAX_VALUE keeps every search on the calling thread. */
+    public QuietZoneAssignment(Hotel hotel, int parallelThreshold) {
         this.hotel = hotel;
+        this.parallelThreshold = Math.max(1, parallelThreshold);
     }
 
     @Override
@@ -80,51 +197,138 @@ class QuietZoneAssignment implements AssignmentStrategy {
     }
 
     /* createAssignmentRequest
-    Inputs: availableRooms – list of rooms to consider; reservation – reservation to assign.
+    Inputs: availableRooms – rooms to consider; reservation – reservation to assign.
     Outputs: an AssignmentRequest with a valid room, or fallback room if none meet constraints.
     Description: Tries to find a valid room based on quiet zone rules; falls back to the first room if none qualify. */
     @Override
-    public AssignmentRequest createAssignmentRequest(List<Room> availableRooms, Reservation reservation) {
+    public AssignmentRequest createAssignmentRequest(AvailableRooms availableRooms, Reservation reservation) {
+        return pickRoom(availableRooms, reservation, null);
+    }
+
+    /* createAssignmentRequests
+    Inputs: reservations – reservations to place; batch – scratch availability.
+    Outputs: the AssignmentRequests of the batch.
+    Description: Same rules as one by one; the adjacency rule also sees the rooms claimed earlier in the batch. */
+    @Override
+    public List<AssignmentRequest> createAssignmentRequests(List<Reservation> reservations, RoomBatch batch) {
+        List<AssignmentRequest> requests = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            if (batch.isEmpty()) break; // Hotel full
+            AssignmentRequest request = pickRoom(batch, reservation, batch);
+            batch.claim(request);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    /* candidates
+    Inputs: availableRooms – live view of the free rooms; reservation – reservation to assign.
+    Outputs: the valid rooms in room order, then the first free room as a fallback.
+    Description: One walk over the rooms, resumed after each lost candidate. A valid room is checked again at commit
+    time, since a neighbour may have been reserved with the opposite profile in the meantime. */
+    @Override
+    public AssignmentCandidates candidates(AvailableRooms availableRooms, Reservation reservation) {
+        Iterator<Room> walk = availableRooms.iterator();
+        return new AssignmentCandidates() {
+            private boolean fallback; // No valid room left: any free room will do
+
+            @Override
+            public Room next() {
+                while (!fallback && walk.hasNext()) {
+                    Room room = walk.next();
+                    if (isValidRoom(room.getId(), reservation, null)) return room; // Next valid room after the previous candidate
+                }
+                fallback = true;
+                return availableRooms.first();
+            }
+
+            @Override
+            public boolean isStillValid(Room room) {
+                return fallback || isValidRoom(room.getId(), reservation, null);
+            }
+        };
+    }
+
+    /* pickRoom
+    Inputs: availableRooms – rooms to consider; reservation – reservation to assign; batch – batch being planned, or null.
+    Outputs: an AssignmentRequest with the first valid room, or the first room if none qualify.
+    Description: Shared by the single and batch entry points. */
+    private AssignmentRequest pickRoom(AvailableRooms availableRooms, Reservation reservation, RoomBatch batch) {
+        if (availableRooms instanceof AvailabilityIndex) { // The hotel's live view: search by room ID, by floor ranges
+            AvailabilityIndex index = (AvailabilityIndex) availableRooms;
+            int id = new FloorSearch(index, reservation, 1, hotel.getNumberOfFloors() + 1).invoke();
+            return new AssignmentRequest(reservation, id >= 0 ? hotel.getRoom(id) : index.first()); // Fallback to first available room
+        }
+
         for (Room room : availableRooms) {
-            if (isValidRoom(room, reservation)) { // Check if room satisfies quiet zone conditions
+            if (isValidRoom(room.getId(), reservation, batch)) { // Check if room satisfies quiet zone conditions
                 return new AssignmentRequest(reservation, room); // Return the first valid match
             }
         }
 
-        return new AssignmentRequest(reservation, availableRooms.get(0)); // Fallback to first available room
+        return new AssignmentRequest(reservation, availableRooms.first()); // Fallback to first available room
     }
 
+    /* FloorSearch
+    Description: Lowest valid free room of the floors [fromLevel, toLevel). Above the threshold the range is halved and
+    both halves are searched in parallel; the lower half's answer wins whenever it has one, so the result is exactly
+    the room the sequential walk would return. Floors own contiguous ID ranges, so a leaf is a single bitset walk. */
+    private class FloorSearch extends RecursiveTask<Integer> {
 
-    /* isValidRoom
-    Inputs: room – candidate room; reservation – reservation being evaluated.
-    Outputs: true – if the room satisfies smoking and adjacency constraints; false – otherwise.
-    Description: Checks if the room respects edge placement for smokers and avoids child/adult neighbor conflicts. */
-    private boolean isValidRoom(Room room, Reservation reservation) {
-        int row = room.getRow(); // Get room row
-        int col = room.getCol(); // Get room column
-        int numRows = hotel.getNumRows(); // Total rows on floor
-        int numCols = hotel.getNumCols(); // Total columns on floor
-        int floorLevel = room.getName().charAt(0) - 'A' + 1; // Extract floor level from room name
+        private static final long serialVersionUID = 1L; // Tasks are never serialized; ForkJoinTask is Serializable
 
-        if (reservation.isSmoker()) { // Rule 1: Smokers must be on the edge
-            if (!(row == 0 || row == numRows - 1 || col == 0 || col == numCols - 1)) return false;
-        }
+        private final AvailabilityIndex index;
+        private final Reservation reservation;
+        private final int fromLevel;
+        private final int toLevel;
 
-        boolean currentHasChildren = reservation.getNumChildren() > 0; // Rule 2: no child/adult neighbor mix
-
-        for (int[] offset : AssignmentStrategy.ADJACENT_OFFSETS) { // Check all 4 neighbors
-            int neighborRow = row + offset[0];
-            int neighborCol = col + offset[1];
+        FloorSearch(AvailabilityIndex index, Reservation reservation, int fromLevel, int toLevel) {
+            this.index = index;
+            this.reservation = reservation;
+            this.fromLevel = fromLevel;
+            this.toLevel = toLevel;
+        }
 
-            if (neighborRow >= 0 && neighborRow < numRows && neighborCol >= 0 && neighborCol < numCols) {
-                Room neighbor = hotel.getFloor(floorLevel).getRoomAt(neighborRow, neighborCol); // Get neighbor room
-                if (neighbor != null && neighbor.isReserved()) {
-                    if (neighbor.hasChildren() != currentHasChildren) return false; // Conflict: child next to adult or vice versa
+        @Override
+        protected Integer compute() {
+            FloorLayout layout = hotel.getLayout();
+            int floors = toLevel - fromLevel;
+            if (floors == 1 || (long) floors * layout.getNumRooms() <= parallelThreshold) {
+                int to = layout.toRoomId(toLevel, 0);
+                for (int id = index.nextFree(layout.toRoomId(fromLevel, 0)); id >= 0 && id < to; id = index.nextFree(id + 1)) {
+                    if (isValidRoom(id, reservation, null)) return id; // Lowest valid room of the range
                 }
+                return -1;
             }
+
+            int middle = fromLevel + floors / 2;
+            FloorSearch upper = new FloorSearch(index, reservation, middle, toLevel);
+            upper.fork(); // Search the upper floors meanwhile
+            int lower = new FloorSearch(index, reservation, fromLevel, middle).compute();
+            if (lower >= 0) {
+                upper.cancel(false); // Lower floors win, the upper answer is not needed
+                return lower;
+            }
+            return upper.join();
         }
+    }
 
-        return true; // Room is valid
+
+    /* isValidRoom
+    Inputs: roomId – candidate room ID; reservation – reservation being evaluated; batch – batch being planned, or null.
+    Outputs: true – if the room satisfies smoking and adjacency constraints; false – otherwise.
+    Description: Checks if the room respects edge placement for smokers and avoids child/adult neighbor conflicts.
+    Safe to call from several threads; floors that were never built have no neighbours to conflict with. */
+    private boolean isValidRoom(int roomId, Reservation reservation, RoomBatch batch) {
+        FloorLayout layout = hotel.getLayout();
+        int roomIndex = layout.getRoomIndexOf(roomId); // Position on its floor
+
+        if (reservation.isSmoker() && !layout.isEdge(roomIndex)) return false; // Rule 1: Smokers must be on the edge
+
+        boolean currentHasChildren = reservation.getNumChildren() > 0; // Rule 2: no child/adult neighbor mix
+        if (batch != null) return !batch.hasNeighbourConflict(roomId, currentHasChildren); // Committed and claimed neighbours
+        int level = layout.getLevelOf(roomId);
+        return !hotel.isFloorMaterialized(level) || !hotel.getFloor(level).hasNeighbourConflict(roomIndex, currentHasChildren); // Maintained neighbour counters
     }
 
 }
@@ -137,11 +341,11 @@ class StayPurposeAssignment implements AssignmentStrategy {
     }
 
    /* createAssignmentRequest
-    Inputs: availableRooms – list of available rooms; reservation – reservation to assign.
+    Inputs: availableRooms – available rooms; reservation – reservation to assign.
     Outputs: an AssignmentRequest based on preferred room type.
     Description: Determines the target room type for the reservation and assigns a matching or fallback room. */
     @Override
-    public AssignmentRequest createAssignmentRequest(List<Room> availableRooms, Reservation reservation) {
+    public AssignmentRequest createAssignmentRequest(AvailableRooms availableRooms, Reservation reservation) {
         char targetType = AssignmentStrategy.determineTargetType(reservation); // Determine desired room type
         return AssignmentStrategy.fallbackByType(availableRooms, reservation, targetType); // Assign matching or fallback room
     }
@@ -162,46 +366,253 @@ class SequentialAssignment implements AssignmentStrategy {
     }
 
     /* createAssignmentRequest
-    Inputs: availableRooms – list of available rooms; reservation – reservation to assign.
+    Inputs: availableRooms – available rooms; reservation – reservation to assign.
     Outputs: an AssignmentRequest using sequential logic or fallback.
-    Description: Tries to assign a room of the target type that is adjacent to another reserved room, floor by floor. Falls back if none match. */
-    public AssignmentRequest createAssignmentRequest(List<Room> availableRooms, Reservation reservation) {
+    Description: Tries to assign a room of the target type that is adjacent to another reserved room, lowest floor first. Falls back if none match. */
+    public AssignmentRequest createAssignmentRequest(AvailableRooms availableRooms, Reservation reservation) {
         char targetType = AssignmentStrategy.determineTargetType(reservation); // Determine preferred room type
 
-        for (int floorNum = 1; floorNum <= hotel.getNumberOfFloors(); floorNum++) { // Loop over each floor
-            Floor floor = hotel.getFloor(floorNum); // Get current floor
-            for (Room room : floor.getRoomMap().values()) { // Check all rooms on floor
-                if (!room.isReserved() && room.getType() == targetType && isAdjacentToReserved(room, floor)) {
-                    return new AssignmentRequest(reservation, room); // Found a suitable room
-                }
-            }
+        Room room = hotel.getFrontierRoom(targetType); // Maintained set of free rooms next to a reserved one
+        if (room != null) {
+            return new AssignmentRequest(reservation, room); // Found a suitable room
         }
 
         return AssignmentStrategy.fallbackByType(availableRooms, reservation, targetType); // Fallback to general strategy
     }
 
+    /* candidatesForStay
+    Inputs: freeForStay – rooms free for the whole stay; reservation – a dated reservation.
+    Outputs: rooms of the target type first, then any room.
+    Description: The frontier follows today's occupancy, not the stay's nights, so only the type preference is kept. */
+    @Override
+    public AssignmentCandidates candidatesForStay(AvailableRooms freeForStay, Reservation reservation) {
+        char targetType = AssignmentStrategy.determineTargetType(reservation);
+        return new AssignmentCandidates() {
+            @Override
+            public Room next() {
+                return freeForStay.isEmpty() ? null : AssignmentStrategy.fallbackByType(freeForStay, reservation, targetType).room;
+            }
+
+            @Override
+            public boolean isStillValid(Room room) { return true; }
+        };
+    }
+
+    /* createAssignmentRequests
+    Inputs: reservations – reservations to place; batch – scratch availability.
+    Outputs: the AssignmentRequests of the batch.
+    Description: Reads the batch's own frontier, which grows around the rooms claimed earlier in the batch. */
+    @Override
+    public List<AssignmentRequest> createAssignmentRequests(List<Reservation> reservations, RoomBatch batch) {
+        List<AssignmentRequest> requests = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            if (batch.isEmpty()) break; // Hotel full
+            char targetType = AssignmentStrategy.determineTargetType(reservation);
+            Room room = batch.firstOnFrontier(targetType);
+            AssignmentRequest request = room != null ? new AssignmentRequest(reservation, room)
+                    : AssignmentStrategy.fallbackByType(batch, reservation, targetType);
+            batch.claim(request);
+            requests.add(request);
+        }
+        return requests;
+    }
 
+}
 
-    /* isAdjacentToReserved
-    Inputs: room – room to evaluate; floor – floor where the room is located.
-    Outputs: true – if at least one adjacent room is reserved; false – otherwise.
-    Description: Checks the four adjacent cells around the room to see if any are currently reserved. */
-    private boolean isAdjacentToReserved(Room room, Floor floor) {
-        int row = room.getRow(); // Current room row
-        int col = room.getCol(); // Current room column
+class MatchingAssignment implements AssignmentStrategy {
 
-        for (int[] offset : AssignmentStrategy.ADJACENT_OFFSETS) { // Loop over 4 directions
-            Room neighbor = floor.getRoomAt(row + offset[0], col + offset[1]); // Get neighbor
-            if (neighbor != null && neighbor.isReserved()) return true; // Found a reserved neighbor
+    static final int TYPE_MISMATCH_COST = 1; // Room of another type than determineTargetType
+    static final int SMOKER_OFF_EDGE_COST = 4; // Smoker away from the edge (Quiet Zone rule 1)
+    static final int NEIGHBOUR_CONFLICT_COST = 4; // Children next to adults or the reverse (Quiet Zone rule 2)
+
+    private static final int RESERVATION_CLASSES = 12; // Target type x smoker x children
+    private static final int ROOM_CLASSES = 24; // Room type x edge x adults next door x children next door
+    private static final int[][] CLASSES_BY_COST = new int[RESERVATION_CLASSES][]; // Per reservation class, room classes cheapest first
+
+    static {
+        for (int reservationClass = 0; reservationClass < RESERVATION_CLASSES; reservationClass++) {
+            Integer[] order = new Integer[ROOM_CLASSES];
+            for (int roomClass = 0; roomClass < ROOM_CLASSES; roomClass++) { order[roomClass] = roomClass; }
+            int current = reservationClass;
+            Arrays.sort(order, (a, b) -> Integer.compare(cost(current, a), cost(current, b))); // Stable: ties keep class order
+            CLASSES_BY_COST[reservationClass] = new int[ROOM_CLASSES];
+            for (int i = 0; i < ROOM_CLASSES; i++) { CLASSES_BY_COST[reservationClass][i] = order[i]; }
         }
+    }
 
-        return false; // No reserved neighbors found
+    private final Hotel hotel;
+
+    public MatchingAssignment(Hotel hotel) {
+        this.hotel = hotel;
     }
 
-}
+    @Override
+    public String getStrategyDescription() {
+        return "Optimal Matching";
+    }
+
+    /* createAssignmentRequest
+    Inputs: availableRooms – rooms to choose from; reservation – reservation to assign.
+    Outputs: an AssignmentRequest with the cheapest room for this reservation alone.
+    Description: A batch of one: the first room of lowest cost under the matching cost model. */
+    @Override
+    public AssignmentRequest createAssignmentRequest(AvailableRooms availableRooms, Reservation reservation) {
+        int reservationClass = reservationClass(reservation);
+        Room best = null;
+        int bestCost = Integer.MAX_VALUE;
+        for (Room room : availableRooms) {
+            int cost = cost(reservationClass, roomClass(room.getId()));
+            if (cost < bestCost) {
+                best = room;
+                bestCost = cost;
+                if (cost == 0) break; // Cannot do better
+            }
+        }
+        return new AssignmentRequest(reservation, best);
+    }
 
+    /* createAssignmentRequests
+    Inputs: reservations – reservations to place, in arrival order; batch – scratch availability.
+    Outputs: the AssignmentRequests of the batch, of minimum total cost.
+    Description: The cost of a pair only depends on the reservation's class and the room's class, so the assignment
+    problem collapses to a transportation problem between at most 12 reservation classes and 24 room classes,
+    solved exactly as a min-cost flow. Rooms are then handed out inside each planned class (see takeRoom); the child/adult
+    rule between rooms of the same batch is enforced at that point. When the hotel cannot hold everyone, the earliest
+    reservations are the ones placed, as with the other strategies. */
+    @Override
+    public List<AssignmentRequest> createAssignmentRequests(List<Reservation> reservations, RoomBatch batch) {
+        List<Reservation> placed = reservations.subList(0, Math.min(reservations.size(), batch.size()));
+
+        BitSet[] roomsByClass = new BitSet[ROOM_CLASSES];
+        int[] roomCount = new int[ROOM_CLASSES];
+        for (int roomClass = 0; roomClass < ROOM_CLASSES; roomClass++) { roomsByClass[roomClass] = new BitSet(); }
+        for (int id = batch.nextFreeId(0); id >= 0; id = batch.nextFreeId(id + 1)) { // Bucket the free rooms
+            int roomClass = roomClass(id);
+            roomsByClass[roomClass].set(id);
+            roomCount[roomClass]++;
+        }
+        int[] reservationCount = new int[RESERVATION_CLASSES];
+        for (Reservation reservation : placed) { reservationCount[reservationClass(reservation)]++; }
+
+        int[][] plan = solveTransportation(reservationCount, roomCount);
+
+        int[][] cursor = new int[ROOM_CLASSES][]; // Per room class: {adults scan down from, children scan up from}
+        for (int roomClass = 0; roomClass < ROOM_CLASSES; roomClass++) { cursor[roomClass] = new int[] {Integer.MAX_VALUE - 1, 0}; }
+        List<AssignmentRequest> requests = new ArrayList<>(placed.size());
+        for (Reservation reservation : placed) {
+            int reservationClass = reservationClass(reservation);
+            boolean withChildren = reservation.getNumChildren() > 0;
+            int id = -1, takenClass = -1; // The bucket the room comes from: its class may have changed since
+            for (int roomClass : CLASSES_BY_COST[reservationClass]) { // Planned classes, cheapest first
+                if (plan[reservationClass][roomClass] == 0) continue;
+                id = takeRoom(roomsByClass[roomClass], cursor[roomClass], withChildren, batch);
+                if (id >= 0) { plan[reservationClass][roomClass]--; takenClass = roomClass; break; }
+            }
+            for (int i = 0; id < 0 && i < ROOM_CLASSES; i++) { // Batch neighbours ruled the plan out: cheapest conflict-free room
+                takenClass = CLASSES_BY_COST[reservationClass][i];
+                id = takeRoom(roomsByClass[takenClass], cursor[takenClass], withChildren, batch);
+            }
+            for (int i = 0; id < 0 && i < ROOM_CLASSES; i++) { // Last resort: cheapest room left
+                takenClass = CLASSES_BY_COST[reservationClass][i];
+                id = roomsByClass[takenClass].nextSetBit(0);
+            }
 
+            roomsByClass[takenClass].clear(id);
+            AssignmentRequest request = new AssignmentRequest(reservation, hotel.getRoom(id));
+            batch.claim(request);
+            requests.add(request);
+        }
+        return requests;
+    }
 
+    /* solveTransportation
+    Inputs: reservationCount – reservations per class; roomCount – free rooms per class.
+    Outputs: plan[reservation class][room class] – how many reservations of the class go to rooms of the class.
+    Description: Source -> reservation classes -> room classes -> sink, one priced edge per pair of classes. */
+    private static int[][] solveTransportation(int[] reservationCount, int[] roomCount) {
+        int source = 0;
+        int sink = 1 + RESERVATION_CLASSES + ROOM_CLASSES;
+        MinCostFlow flow = new MinCostFlow(sink + 1);
+        int[][] pairEdge = new int[RESERVATION_CLASSES][ROOM_CLASSES];
+        for (int roomClass = 0; roomClass < ROOM_CLASSES; roomClass++) {
+            if (roomCount[roomClass] > 0) flow.addEdge(1 + RESERVATION_CLASSES + roomClass, sink, roomCount[roomClass], 0);
+        }
+        for (int reservationClass = 0; reservationClass < RESERVATION_CLASSES; reservationClass++) {
+            Arrays.fill(pairEdge[reservationClass], -1);
+            if (reservationCount[reservationClass] == 0) continue;
+            flow.addEdge(source, 1 + reservationClass, reservationCount[reservationClass], 0);
+            for (int roomClass = 0; roomClass < ROOM_CLASSES; roomClass++) {
+                if (roomCount[roomClass] == 0) continue;
+                pairEdge[reservationClass][roomClass] = flow.addEdge(1 + reservationClass, 1 + RESERVATION_CLASSES + roomClass,
+                        reservationCount[reservationClass], cost(reservationClass, roomClass));
+            }
+        }
+        flow.solve(source, sink);
 
+        int[][] plan = new int[RESERVATION_CLASSES][ROOM_CLASSES];
+        for (int reservationClass = 0; reservationClass < RESERVATION_CLASSES; reservationClass++) {
+            for (int roomClass = 0; roomClass < ROOM_CLASSES; roomClass++) {
+                if (pairEdge[reservationClass][roomClass] >= 0) plan[reservationClass][roomClass] = flow.getFlow(pairEdge[reservationClass][roomClass]);
+            }
+        }
+        return plan;
+    }
 
+    /* takeRoom
+    Inputs: rooms – free rooms of one class; cursor – per-profile scan positions for that class; withChildren – profile; batch – batch being planned.
+    Outputs: the next room of the class with no opposite profile claimed next door, or -1.
+    Description: Stays with children fill each class from its lowest room, adult stays from its highest, so the two
+    profiles only meet once in the class. Claims only accumulate, so a room rejected once for a profile stays rejected
+    and the cursors never move back. */
+    private static int takeRoom(BitSet rooms, int[] cursor, boolean withChildren, RoomBatch batch) {
+        if (withChildren) {
+            int id = rooms.nextSetBit(cursor[1]);
+            while (id >= 0 && batch.hasClaimedConflict(id, true)) { id = rooms.nextSetBit(id + 1); }
+            cursor[1] = id < 0 ? Integer.MAX_VALUE : id;
+            return id;
+        }
+        int id = rooms.previousSetBit(cursor[0]);
+        while (id >= 0 && batch.hasClaimedConflict(id, false)) { id = rooms.previousSetBit(id - 1); }
+        cursor[0] = id; // -1 once the class is exhausted for adults
+        return id;
+    }
+
+    /* reservationClass
+    Inputs: reservation – the reservation.
+    Outputs: a class in [0, 12): target type, smoker, children. */
+    static int reservationClass(Reservation reservation) {
+        int type = FloorLayout.typeIndex(AssignmentStrategy.determineTargetType(reservation));
+        return type * 4 + (reservation.isSmoker() ? 2 : 0) + (reservation.getNumChildren() > 0 ? 1 : 0);
+    }
 
+    /* roomClass
+    Inputs: roomId – a free room.
+    Outputs: a class in [0, 24): room type, edge, adults next door, children next door (committed reservations).
+    Description: Floors that were never built have no reservation, so they are not materialized for this. */
+    private int roomClass(int roomId) {
+        FloorLayout layout = hotel.getLayout();
+        int level = layout.getLevelOf(roomId);
+        int roomIndex = layout.getRoomIndexOf(roomId);
+        int roomClass = FloorLayout.typeIndex(layout.getType(roomIndex)) * 8 + (layout.isEdge(roomIndex) ? 4 : 0);
+        if (hotel.isFloorMaterialized(level)) {
+            Floor floor = hotel.getFloor(level);
+            if (floor.hasNeighbourConflict(roomIndex, true)) roomClass += 2; // Adults next door
+            if (floor.hasNeighbourConflict(roomIndex, false)) roomClass += 1; // Children next door
+        }
+        return roomClass;
+    }
+
+    /* cost
+    Inputs: reservationClass – see reservationClass; roomClass – see roomClass.
+    Outputs: the penalty of placing such a reservation in such a room.
+    Description: Sum of the broken preferences: room type, smoker edge rule, child/adult adjacency. */
+    static int cost(int reservationClass, int roomClass) {
+        int cost = 0;
+        if (reservationClass / 4 != roomClass / 8) cost += TYPE_MISMATCH_COST;
+        if ((reservationClass & 2) != 0 && (roomClass & 4) == 0) cost += SMOKER_OFF_EDGE_COST;
+        boolean withChildren = (reservationClass & 1) != 0;
+        if ((roomClass & (withChildren ? 2 : 1)) != 0) cost += NEIGHBOUR_CONFLICT_COST;
+        return cost;
+    }
+
+}
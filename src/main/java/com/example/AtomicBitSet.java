@@ -0,0 +1,84 @@
+package com.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* AtomicBitSet
+Description: Fixed-size bitset whose words are updated with compare-and-set, so threads can flip bits of different
+floors that share a word without a lock. set/clear report whether they changed the bit, which makes them usable as
+"only one thread wins" primitives. Scans are weakly consistent: a bit flipped while nextSetBit runs may or may not be seen. */
+class AtomicBitSet {
+
+    private final AtomicLongArray words;
+
+    AtomicBitSet(int numberOfBits) {
+        this.words = new AtomicLongArray((numberOfBits + 63) >>> 6);
+    }
+
+    /* AtomicBitSet copy constructor
+    Inputs: source – the bitset to copy.
+    Outputs: none.
+    Description: Word-by-word snapshot of the source. */
+    AtomicBitSet(AtomicBitSet source) {
+        this.words = new AtomicLongArray(source.words.length());
+        for (int i = 0; i < words.length(); i++) { words.set(i, source.words.get(i)); }
+    }
+
+    boolean get(int index) {
+        return (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /* set
+    Inputs: index – bit to set.
+    Outputs: true if the bit was clear and this call set it.
+    Description: Compare-and-set loop on the bit's word. */
+    boolean set(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) != 0) return false; // Already set
+            if (words.compareAndSet(word, current, current | mask)) return true;
+        }
+    }
+
+    /* set
+    Inputs: from – first bit (inclusive); to – last bit (exclusive).
+    Outputs: none.
+    Description: Meant for initialization: whole words are written directly, partial ones bit by bit. */
+    void set(int from, int to) {
+        int index = from;
+        for (; index < to && (index & 63) != 0; index++) { set(index); } // Leading partial word
+        for (; index + 64 <= to; index += 64) { words.set(index >>> 6, -1L); } // Full words
+        for (; index < to; index++) { set(index); } // Trailing partial word
+    }
+
+    /* clear
+    Inputs: index – bit to clear.
+    Outputs: true if the bit was set and this call cleared it.
+    Description: Compare-and-set loop on the bit's word. */
+    boolean clear(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) == 0) return false; // Already clear
+            if (words.compareAndSet(word, current, current & ~mask)) return true;
+        }
+    }
+
+    /* nextSetBit
+    Inputs: from – first bit to look at.
+    Outputs: the index of the first set bit at or after from, or -1.
+    Description: Same contract as BitSet.nextSetBit. */
+    int nextSetBit(int from) {
+        int word = from >>> 6;
+        if (from < 0 || word >= words.length()) return -1;
+        long bits = words.get(word) & (-1L << from); // Ignore the bits below from
+        while (true) {
+            if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if (++word == words.length()) return -1;
+            bits = words.get(word);
+        }
+    }
+
+}
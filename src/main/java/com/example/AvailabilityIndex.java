@@ -0,0 +1,228 @@
+package com.example;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* AvailabilityIndex
+Description: Live set of free rooms over the hotel's room IDs, kept both globally and per room type. Rooms report their
+own reserve/free transitions (through their floor), so every update is O(1), nothing is rebuilt per assignment, and
+"first free room of type X" is a single nextSetBit. The index also keeps the frontier: free rooms next to at least
+one reserved room, per type, in the same floor/room order.
+Thread safety: the bitsets are updated with compare-and-set and the counters are atomic, so rooms of different floors
+can be reserved concurrently without a global lock (a room's own transitions are serialized by its floor). Queries are
+weakly consistent: a room returned as free may be taken before the caller reserves it, see Hotel.tryReserveRoom. */
+class AvailabilityIndex implements AvailableRooms, RoomListener {
+
+    private final Hotel hotel;
+    private final AtomicBitSet free; // Bit set <=> room ID is free
+    private final AtomicBitSet[] freeByType; // One bitset per FloorLayout.ROOM_TYPES entry
+    private final AtomicLongArray lowestFreeHint; // Per type, then global: no free room below this ID (see lowerHint)
+    private final AtomicBitSet[] frontierByType; // Free rooms adjacent to a reserved room, one bitset per type
+    private final AtomicLongArray lowestFrontierHint; // Per type: no frontier room below this ID
+    private final AtomicInteger freeCount;
+
+    AvailabilityIndex(Hotel hotel, FloorLayout layout, int numberOfFloors) {
+        int numberOfRooms = numberOfFloors * layout.getNumRooms();
+        this.hotel = hotel;
+        this.free = new AtomicBitSet(numberOfRooms);
+        this.free.set(0, numberOfRooms); // Every room starts free
+        this.freeCount = new AtomicInteger(numberOfRooms);
+
+        this.freeByType = new AtomicBitSet[FloorLayout.ROOM_TYPES.length];
+        for (int t = 0; t < freeByType.length; t++) { freeByType[t] = new AtomicBitSet(numberOfRooms); }
+        this.lowestFreeHint = new AtomicLongArray(freeByType.length + 1);
+        this.frontierByType = new AtomicBitSet[FloorLayout.ROOM_TYPES.length];
+        for (int t = 0; t < frontierByType.length; t++) { frontierByType[t] = new AtomicBitSet(numberOfRooms); } // Empty until the first reservation
+        this.lowestFrontierHint = new AtomicLongArray(frontierByType.length);
+        for (int level = 1; level <= numberOfFloors; level++) {
+            for (int roomIndex = 0; roomIndex < layout.getNumRooms(); roomIndex++) {
+                freeByType[FloorLayout.typeIndex(layout.getType(roomIndex))].set(layout.toRoomId(level, roomIndex));
+            }
+        }
+    }
+
+    /* AvailabilityIndex copy constructor
+    Inputs: source – the index to copy.
+    Outputs: none.
+    Description: Detached snapshot of the index (not registered with any floor), used as scratch state by batches.
+    Taken while other threads reserve, it is weakly consistent like any other query. */
+    AvailabilityIndex(AvailabilityIndex source) {
+        this.hotel = source.hotel;
+        this.freeByType = new AtomicBitSet[source.freeByType.length];
+        this.frontierByType = new AtomicBitSet[source.frontierByType.length];
+        this.lowestFreeHint = new AtomicLongArray(source.lowestFreeHint.length()); // Hints restart at 0: the source's may not match the copied bits
+        this.lowestFrontierHint = new AtomicLongArray(source.lowestFrontierHint.length());
+        this.freeCount = new AtomicInteger(source.freeCount.get());
+        this.free = new AtomicBitSet(source.free);
+        for (int t = 0; t < freeByType.length; t++) {
+            freeByType[t] = new AtomicBitSet(source.freeByType[t]);
+            frontierByType[t] = new AtomicBitSet(source.frontierByType[t]);
+        }
+    }
+
+    @Override
+    public void roomReserved(int roomId, char roomType) {
+        if (free.clear(roomId)) { // Only the transition counts
+            int type = FloorLayout.typeIndex(roomType);
+            freeByType[type].clear(roomId);
+            frontierByType[type].clear(roomId); // Reserved rooms leave the frontier
+            freeCount.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void roomFreed(int roomId, char roomType, boolean adjacentToReserved) {
+        int type = FloorLayout.typeIndex(roomType);
+        freeByType[type].set(roomId);
+        if (adjacentToReserved) addToFrontier(type, roomId); // Back on the frontier if a neighbour is still booked
+        if (free.set(roomId)) { // Only the transition counts
+            freeCount.incrementAndGet();
+        }
+        lowerHint(lowestFreeHint, type, roomId); // A lower room may be free again
+        lowerHint(lowestFreeHint, freeByType.length, roomId);
+    }
+
+    @Override
+    public void adjacencyChanged(int roomId, char roomType, boolean adjacentToReserved) {
+        if (!free.get(roomId)) return; // Only free rooms are on the frontier
+        int type = FloorLayout.typeIndex(roomType);
+        if (adjacentToReserved) addToFrontier(type, roomId);
+        else frontierByType[type].clear(roomId);
+    }
+
+    private void addToFrontier(int type, int roomId) {
+        frontierByType[type].set(roomId);
+        lowerHint(lowestFrontierHint, type, roomId);
+    }
+
+    /* lowerHint
+    Inputs: hints – one of the hint arrays; slot – entry to update; roomId – a room that just became eligible.
+    Outputs: none.
+    Description: A hint packs a version (high 32 bits) and the room ID (low 32 bits). Lowering always bumps the
+    version, so a scan that started before this room was set cannot raise the hint past it (see raiseHint). */
+    private static void lowerHint(AtomicLongArray hints, int slot, int roomId) {
+        while (true) {
+            long current = hints.get(slot);
+            long next = (current & 0xFFFFFFFF00000000L) + (1L << 32) | Math.min((int) current, roomId);
+            if (hints.compareAndSet(slot, current, next)) return;
+        }
+    }
+
+    /* scanFromHint
+    Inputs: bits – bitset to scan; hints – its hint array; slot – entry to use.
+    Outputs: the lowest set bit, or -1.
+    Description: Starts from the hint and raises it to what was found, unless a lowerHint happened in between. */
+    private int scanFromHint(AtomicBitSet bits, AtomicLongArray hints, int slot) {
+        long current = hints.get(slot);
+        int id = bits.nextSetBit((int) current);
+        int raised = id < 0 ? hotel.getNumberOfRooms() : id; // Nothing set below this point
+        hints.compareAndSet(slot, current, (current & 0xFFFFFFFF00000000L) | raised);
+        return id;
+    }
+
+    @Override
+    public boolean isEmpty() { return freeCount.get() == 0; }
+
+    @Override
+    public int size() { return freeCount.get(); }
+
+    /* get
+    Inputs: index – position among the free rooms.
+    Outputs: the index-th free room in ID order.
+    Description: Walks the set bits; linear in the number of bitset words, which is fine for random picks. */
+    @Override
+    public Room get(int index) {
+        if (index < 0 || index >= freeCount.get()) throw new IndexOutOfBoundsException("No free room at " + index);
+        int id = free.nextSetBit(0);
+        for (int i = 0; i < index && id >= 0; i++) { id = free.nextSetBit(id + 1); } // Skip to the index-th free room
+        if (id < 0) throw new IndexOutOfBoundsException("No free room at " + index); // Taken by another thread meanwhile
+        return hotel.getRoom(id);
+    }
+
+    @Override
+    public Room first() {
+        int id = scanFromHint(free, lowestFreeHint, freeByType.length);
+        return id < 0 ? null : hotel.getRoom(id);
+    }
+
+    @Override
+    public Room firstOfType(char type) {
+        int slot = FloorLayout.typeIndex(type);
+        int id = scanFromHint(freeByType[slot], lowestFreeHint, slot);
+        return id < 0 ? null : hotel.getRoom(id);
+    }
+
+    /* firstOnFrontier
+    Inputs: type – room type code.
+    Outputs: the lowest floor / room of that type that is free and next to a reserved room, or null.
+    Description: Single nextSetBit on the maintained frontier. */
+    Room firstOnFrontier(char type) {
+        int slot = FloorLayout.typeIndex(type);
+        int id = scanFromHint(frontierByType[slot], lowestFrontierHint, slot);
+        return id < 0 ? null : hotel.getRoom(id);
+    }
+
+    @Override
+    public Iterable<Room> ofType(char type, int level) {
+        FloorLayout layout = hotel.getLayout();
+        AtomicBitSet bucket = freeByType[FloorLayout.typeIndex(type)];
+        int from = layout.toRoomId(level, 0); // Floors own contiguous ID ranges
+        int to = layout.toRoomId(level + 1, 0);
+        return () -> new FreeRoomIterator(bucket, from, to);
+    }
+
+    @Override
+    public Iterator<Room> iterator() {
+        return new FreeRoomIterator(free, 0, hotel.getNumberOfRooms());
+    }
+
+    /* isFree
+    Inputs: roomId – hotel-wide room ID.
+    Outputs: true if the room is free.
+    Description: Constant-time membership test. */
+    boolean isFree(int roomId) {
+        return free.get(roomId);
+    }
+
+    /* nextFree
+    Inputs: fromId – first room ID to look at.
+    Outputs: the lowest free room ID at or after fromId, or -1.
+    Description: ID-level iteration, for callers that do not need Room objects. */
+    int nextFree(int fromId) {
+        return free.nextSetBit(fromId);
+    }
+
+    /* FreeRoomIterator
+    Description: Iterates the set bits of one of the index's bitsets within [from, to), as rooms. */
+    private class FreeRoomIterator implements Iterator<Room> {
+
+        private final AtomicBitSet bits;
+        private final int to;
+        private int next;
+
+        FreeRoomIterator(AtomicBitSet bits, int from, int to) {
+            this.bits = bits;
+            this.to = to;
+            this.next = advance(from);
+        }
+
+        private int advance(int from) {
+            int id = bits.nextSetBit(from);
+            return id < to ? id : -1; // Stop at the end of the range
+        }
+
+        @Override
+        public boolean hasNext() { return next >= 0; }
+
+        @Override
+        public Room next() {
+            if (next < 0) throw new NoSuchElementException();
+            Room room = hotel.getRoom(next);
+            next = advance(next + 1);
+            return room;
+        }
+    }
+
+}
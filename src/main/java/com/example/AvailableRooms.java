@@ -0,0 +1,90 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/* AvailableRooms
+Description: Read-only view of the rooms a strategy may choose from, in floor then room order. The hotel's view is live:
+it follows reservations as they happen instead of being copied for each assignment. */
+public interface AvailableRooms extends Iterable<Room> {
+
+    boolean isEmpty();
+    int size();
+
+    /* get
+    Inputs: index – position in the view, from 0 to size() - 1.
+    Outputs: the room at that position.
+    Description: Positional access, used for random picks. */
+    Room get(int index);
+
+    /* first
+    Inputs: none.
+    Outputs: the first available room, or null if there is none.
+    Description: Returns the lowest floor / room number that is available. */
+    Room first();
+
+    /* firstOfType
+    Inputs: type – room type code ('E', 'B', 'L').
+    Outputs: the first available room of that type, or null if there is none.
+    Description: Returns the lowest floor / room number of the given type that is available. */
+    Room firstOfType(char type);
+
+    /* ofType
+    Inputs: type – room type code ('E', 'B', 'L'); level – floor number.
+    Outputs: the available rooms of that type on that floor, in room order.
+    Description: Iterates a single floor / type bucket without looking at the rest of the hotel. */
+    Iterable<Room> ofType(char type, int level);
+
+    /* of
+    Inputs: rooms – an explicit candidate list.
+    Outputs: a view over exactly these rooms, in list order.
+    Description: Wraps a plain list, for callers that hand-pick the candidates. */
+    static AvailableRooms of(List<Room> rooms) {
+        return new RoomListAvailability(rooms);
+    }
+
+}
+
+
+class RoomListAvailability implements AvailableRooms {
+
+    private final List<Room> rooms;
+
+    RoomListAvailability(List<Room> rooms) {
+        this.rooms = rooms;
+    }
+
+    @Override
+    public boolean isEmpty() { return rooms.isEmpty(); }
+
+    @Override
+    public int size() { return rooms.size(); }
+
+    @Override
+    public Room get(int index) { return rooms.get(index); }
+
+    @Override
+    public Room first() { return rooms.isEmpty() ? null : rooms.get(0); }
+
+    @Override
+    public Room firstOfType(char type) {
+        for (Room room : rooms) {
+            if (room.getType() == type) return room; // First match in list order
+        }
+        return null;
+    }
+
+    @Override
+    public Iterable<Room> ofType(char type, int level) {
+        List<Room> matches = new ArrayList<>();
+        for (Room room : rooms) {
+            if (room.getType() == type && room.getLevel() == level) matches.add(room); // Same bucket
+        }
+        return matches;
+    }
+
+    @Override
+    public Iterator<Room> iterator() { return rooms.iterator(); }
+
+}
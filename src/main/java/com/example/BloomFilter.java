@@ -0,0 +1,47 @@
+package com.example;
+
+/* BloomFilter
+Description: Bloom filter over 64-bit keys that are already well-mixed hashes. The probe positions come from the key's
+two halves (double hashing), so no further hashing is done. "No" is certain, "maybe" is wrong with the probability
+chosen at construction as long as no more than the expected number of keys were added. Not thread-safe. */
+class BloomFilter {
+
+    private final long[] bits;
+    private final long numberOfBits;
+    private final int hashes;
+    private final int capacity;
+
+    /* BloomFilter constructor
+    Inputs: capacity – number of keys it is sized for; falsePositiveRate – wanted rate at that size.
+    Outputs: none.
+    Description: Standard sizing: m = -n ln p / (ln 2)^2 bits and k = m/n ln 2 probes. */
+    BloomFilter(int capacity, double falsePositiveRate) {
+        this.capacity = Math.max(1, capacity);
+        long wanted = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.max(1, (wanted + 63) >>> 6)];
+        this.numberOfBits = bits.length * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) numberOfBits / this.capacity * Math.log(2)));
+    }
+
+    void add(long key) {
+        long h1 = key, h2 = (key >>> 32) | 1; // Odd step, so probes never collapse
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numberOfBits);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long key) {
+        long h1 = key, h2 = (key >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numberOfBits);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+}
@@ -1,11 +1,15 @@
 package com.example;
-import java.io.File;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Scanner;
 
 public class ConfigurationParser {
 
+    private static final String ROOM_CODES = "EBLZ";
+
     private int numberOfFloors;
     private ArrayList<ArrayList<String>> floorLayout = new ArrayList<>();
 
@@ -24,20 +28,22 @@ public class ConfigurationParser {
     /* parse
     Inputs: filename – path to the configuration file (.hconfig format).
     Outputs: none (fills numberOfFloors and floorLayout fields).
-    Description: Reads the hotel layout config file, extracts number of floors and room types for each row. */
+    Description: Reads the hotel layout config file, extracts number of floors and room types for each row. Large
+    layouts are better compiled once into a HotelImage. */
     private void parse(String filename) {
-        try (Scanner scanner = new Scanner(new File(filename))) {
-            if (!scanner.hasNextLine()) { throw new IllegalArgumentException("Missing number of floors."); } // File must have at least one line
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+            String firstLine = reader.readLine();
+            if (firstLine == null) { throw new IllegalArgumentException("Missing number of floors."); } // File must have at least one line
 
-            String firstLine = scanner.nextLine().trim(); // Read first line
+            firstLine = firstLine.trim();
             try {
                 numberOfFloors = Integer.parseInt(firstLine); // Parse number of floors
             } catch (NumberFormatException e) {
                 throw new IllegalArgumentException("Invalid number of floors."); // Must be a number
             }
 
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim(); // Read next line
+            for (String line; (line = reader.readLine()) != null; ) {
+                line = line.trim(); // Read next line
                 if (line.isEmpty()) continue; // Skip empty lines
 
                 String[] tokens = line.split(","); // Split line into room codes
@@ -45,7 +51,7 @@ public class ConfigurationParser {
 
                 for (String token : tokens) {
                     token = token.trim();
-                    if (!token.matches("[EBLZ]")) { // Validate room code
+                    if (token.length() != 1 || ROOM_CODES.indexOf(token.charAt(0)) < 0) { // Validate room code
                         throw new IllegalArgumentException("Invalid room code: " + token);
                     }
                     row.add(token); // Add valid code to row
@@ -1,6 +1,6 @@
 package com.example;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class Floor {
@@ -8,53 +8,196 @@ public class Floor {
     private Map<String, Room> roomMap = new HashMap<>();
     private final String floorName;
     private final int level;
-    
-    private final ArrayList<ArrayList<String>> floorLayout;
 
-    public Floor(int level, ArrayList<ArrayList<String>> floorLayout) {
+    private final FloorLayout layout;
+    private final RoomStore store; // Struct-of-arrays backend, or null when rooms are plain objects
+    private final Room[] rooms; // Indexed by the layout's room index (object backend only)
+    private final Room[][] neighbours; // Room index -> adjacent rooms (object backend only)
+    private final RoomListener listener;
+    private volatile byte[] childNeighbours; // Room index -> reserved neighbours whose stay has children (null until the first reservation)
+    private volatile byte[] adultNeighbours; // Room index -> reserved neighbours whose stay has no children (null until the first reservation)
+
+    public Floor(int level, FloorLayout layout, RoomListener listener) {
+        this(level, layout, listener, null);
+    }
+
+    /* Floor constructor
+    Inputs: level – floor number; layout – shared layout; listener – hotel indexes; store – array backend holding the room state, or null.
+    Outputs: none.
+    Description: With a store, no Room object is kept: rooms are handed out as lightweight views over the store. */
+    public Floor(int level, FloorLayout layout, RoomListener listener, RoomStore store) {
         this.level = level;
+        this.listener = listener;
+        this.store = store;
         this.floorName = Hotel.getLetterFromNumber(level) + 1;
-        this.floorLayout = floorLayout;
-        initializeRooms();
+        this.layout = layout;
+        if (store == null) {
+            this.rooms = new Room[layout.getNumRooms()];
+            this.neighbours = new Room[layout.getNumRooms()][];
+            initializeRooms();
+        } else {
+            this.rooms = null;
+            this.neighbours = null;
+            this.roomMap = null; // Built on demand, see getRoomMap
+        }
     }
 
     /* initializeRooms
-    Inputs: none (uses floorLayout and level fields).
-    Outputs: none (populates the roomMap with Room instances).
-    Description: Iterates over the floor layout and creates Room objects for each valid cell (not 'Z'), assigning them unique names. */
+    Inputs: none (uses layout and level fields).
+    Outputs: none (populates the room table, the roomMap and the neighbour table).
+    Description: Creates a Room for each room of the shared layout, assigning them unique names, then resolves every room's neighbours once. */
     private void initializeRooms() {
-        int roomCounter = 1; // Used to number rooms on this floor
-        for (int rowIndex = 0; rowIndex < floorLayout.size(); rowIndex++) {
-            ArrayList<String> row = floorLayout.get(rowIndex);
-            for (int colIndex = 0; colIndex < row.size(); colIndex++) {
-                String code = row.get(colIndex); // Get room type code
-                if (!code.equals("Z")) { // Skip if marked as void space
-                    String roomName = Hotel.getLetterFromNumber(level - 1) + roomCounter + code; // Generate unique room name
-                    Room room = new Room(roomName, rowIndex, colIndex, code.charAt(0));
-                    roomMap.put(roomName, room); 
-                    roomCounter++;
-                }
-            }
+        for (int roomIndex = 0; roomIndex < rooms.length; roomIndex++) {
+            Room room = new Room(layout.toRoomId(level, roomIndex), level, getRoomName(roomIndex), layout.getRow(roomIndex), layout.getCol(roomIndex), layout.getType(roomIndex));
+            room.setFloor(this);
+            rooms[roomIndex] = room;
+            roomMap.put(room.getName(), room);
         }
+
+        for (int roomIndex = 0; roomIndex < rooms.length; roomIndex++) {
+            neighbours[roomIndex] = new Room[layout.getNeighbourCount(roomIndex)];
+            for (int i = 0; i < neighbours[roomIndex].length; i++) { neighbours[roomIndex][i] = rooms[layout.getNeighbour(roomIndex, i)]; } // Link neighbour rooms
+        }
+    }
+
+    /* getRoomName
+    Inputs: roomIndex – room index on this floor.
+    Outputs: the room name, e.g. B12L.
+    Description: Floor letters, room number (1-based), then room type code. */
+    private String getRoomName(int roomIndex) {
+        return Hotel.getLetterFromNumber(level - 1) + (roomIndex + 1) + layout.getType(roomIndex);
     }
 
-    
-    
+
+    /* getRoomMap
+    Inputs: none.
+    Outputs: the rooms of this floor by name.
+    Description: With the array backend the map is built on each call, as views; meant for the UI, not for hot paths. */
     public Map<String, Room> getRoomMap() {
-        return roomMap;
+        if (store == null) return roomMap;
+
+        Map<String, Room> views = new LinkedHashMap<>();
+        for (int roomIndex = 0; roomIndex < layout.getNumRooms(); roomIndex++) {
+            Room room = getRoom(roomIndex);
+            views.put(room.getName(), room);
+        }
+        return views;
+    }
+
+    /* getRoom
+    Inputs: roomIndex – room index on this floor.
+    Outputs: the Room at that index.
+    Description: Direct access to the floor's room table, or a new view over the array store. */
+    public Room getRoom(int roomIndex) {
+        if (store == null) return rooms[roomIndex];
+
+        Room view = new RoomView(store, layout.toRoomId(level, roomIndex), level, getRoomName(roomIndex),
+                layout.getRow(roomIndex), layout.getCol(roomIndex), layout.getType(roomIndex));
+        view.setFloor(this);
+        return view;
     }
 
     /* getRoomAt
     Inputs: row – target row index; col – target column index.
     Outputs: the Room located at the given coordinates, or null if not found.
-    Description: Searches the floor’s room map for a room at the specified position. */
+    Description: Looks the position up in the layout's dense coordinate index. */
     public Room getRoomAt(int row, int col) {
-        for (Room room : roomMap.values()) {
-            if (room.getRow() == row && room.getCol() == col) { return room; } // Match found
+        int roomIndex = layout.getRoomIndexAt(row, col);
+        return roomIndex < 0 ? null : getRoom(roomIndex); // Void cell or outside of the floor
+    }
+
+    /* getNeighbours
+    Inputs: room – a room of this floor.
+    Outputs: the rooms adjacent to it (up to four).
+    Description: Returns the precomputed neighbour list of the room (new views with the array backend). */
+    public Room[] getNeighbours(Room room) {
+        int roomIndex = layout.getRoomIndexOf(room.getId());
+        if (store == null) return neighbours[roomIndex];
+
+        Room[] views = new Room[layout.getNeighbourCount(roomIndex)];
+        for (int i = 0; i < views.length; i++) { views[i] = getRoom(layout.getNeighbour(roomIndex, i)); }
+        return views;
+    }
+
+    /* hasNeighbourConflict
+    Inputs: roomIndex – room index on this floor; withChildren – whether the candidate stay has children.
+    Outputs: true if a reserved neighbour has the opposite profile (children next to adults or the reverse).
+    Description: Constant-time check on the maintained neighbour counters (without the floor's lock, may be stale). */
+    public boolean hasNeighbourConflict(int roomIndex, boolean withChildren) {
+        byte[] counters = withChildren ? adultNeighbours : childNeighbours;
+        return counters != null && counters[roomIndex] > 0; // Null: nothing was ever reserved on this floor
+    }
+
+    /* isAdjacentToReserved
+    Inputs: roomIndex – room index on this floor.
+    Outputs: true if at least one neighbour is reserved.
+    Description: Constant-time check on the maintained neighbour counters (without the floor's lock, may be stale). */
+    public boolean isAdjacentToReserved(int roomIndex) {
+        byte[] children = childNeighbours;
+        byte[] adults = adultNeighbours;
+        if (children == null || adults == null) return false; // Nothing was ever reserved on this floor
+        return children[roomIndex] + adults[roomIndex] > 0;
+    }
+
+    /* roomReserved
+    Inputs: room – a room of this floor that just became reserved.
+    Outputs: none.
+    Description: Called by the room itself, under this floor's lock; updates the neighbours' counters and forwards the
+    changes to the hotel indexes. */
+    void roomReserved(Room room) {
+        if (childNeighbours == null) { // First reservation on this floor: allocate its occupancy state
+            childNeighbours = new byte[layout.getNumRooms()];
+            adultNeighbours = new byte[layout.getNumRooms()];
+        }
+        int roomIndex = layout.getRoomIndexOf(room.getId());
+        byte[] counters = room.hasChildren() ? childNeighbours : adultNeighbours;
+        for (int i = 0, count = layout.getNeighbourCount(roomIndex); i < count; i++) {
+            int neighbour = layout.getNeighbour(roomIndex, i);
+            counters[neighbour]++;
+            if (childNeighbours[neighbour] + adultNeighbours[neighbour] == 1) { // First reserved neighbour
+                listener.adjacencyChanged(layout.toRoomId(level, neighbour), layout.getType(neighbour), true);
+            }
         }
-        return null; // No room found at given coordinates
+        listener.roomReserved(room.getId(), room.getType());
+    }
+
+    /* roomFreed
+    Inputs: room – a room of this floor that just became free; hadChildren – whether the released stay had children.
+    Outputs: none.
+    Description: Called by the room itself, under this floor's lock; updates the neighbours' counters and forwards the
+    changes to the hotel indexes. */
+    void roomFreed(Room room, boolean hadChildren) {
+        int roomIndex = layout.getRoomIndexOf(room.getId());
+        byte[] counters = hadChildren ? childNeighbours : adultNeighbours;
+        for (int i = 0, count = layout.getNeighbourCount(roomIndex); i < count; i++) {
+            int neighbour = layout.getNeighbour(roomIndex, i);
+            counters[neighbour]--;
+            if (childNeighbours[neighbour] + adultNeighbours[neighbour] == 0) { // Last reserved neighbour left
+                listener.adjacencyChanged(layout.toRoomId(level, neighbour), layout.getType(neighbour), false);
+            }
+        }
+        listener.roomFreed(room.getId(), room.getType(), isAdjacentToReserved(roomIndex));
+    }
+
+    /* roomHeld
+    Inputs: room – a free room of this floor with a dated stay from tonight on.
+    Outputs: none.
+    Description: Called by the hotel under this floor's lock; takes the room out of the availability index so undated
+    reservations are not offered it. Its neighbours are unaffected: nobody is in the room yet. */
+    void roomHeld(Room room) {
+        listener.roomReserved(room.getId(), room.getType());
+    }
+
+    /* roomReleased
+    Inputs: room – a held room whose stays are over or cancelled.
+    Outputs: none.
+    Description: Called by the hotel under this floor's lock; the room is back in the availability index. */
+    void roomReleased(Room room) {
+        listener.roomFreed(room.getId(), room.getType(), isAdjacentToReserved(layout.getRoomIndexOf(room.getId())));
     }
 
-    
+    public int getLevel() { return level; }
+    public int getNumRooms() { return layout.getNumRooms(); }
+    public FloorLayout getLayout() { return layout; }
 
 }
@@ -0,0 +1,192 @@
+package com.example;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/* FloorLayout
+Description: The compiled room layout shared by every floor: the cell table, each room's row, column and type, its
+neighbours (as one list of room indexes with a start offset per room) and the edge rooms. The tables are buffers: on
+the heap when compiled from the text layout, slices of the file mapping when opened from a HotelImage, in which case
+queries read the mapping directly. Immutable, so thread-safe. */
+public class FloorLayout {
+
+    private static final int VOID_CELL = -1;
+    static final char[] ROOM_TYPES = {'E', 'B', 'L'};
+
+    private final int numRows;
+    private final int numCols;
+    private final int numRooms;
+    private final IntBuffer roomIndexByCell; // row * numCols + col -> room index, or VOID_CELL
+    private final IntBuffer roomRows;
+    private final IntBuffer roomCols;
+    private final ByteBuffer roomTypes; // Type code as an ASCII byte
+    private final IntBuffer neighbourStart; // room index -> first entry in neighbourList, numRooms + 1 entries
+    private final IntBuffer neighbourList; // Room indexes of adjacent rooms, room after room
+    private final LongBuffer edgeWords; // Bit per room: on the outer ring of the grid
+
+    /* FloorLayout constructor
+    Inputs: layout – rows of room codes as read from the .hconfig file ('E', 'B', 'L' or 'Z').
+    Outputs: none.
+    Description: Compiles the textual layout into dense coordinate and neighbour tables shared by every floor. */
+    public FloorLayout(ArrayList<ArrayList<String>> layout) {
+        this.numRows = layout.size();
+        int widest = 0;
+        for (ArrayList<String> row : layout) { widest = Math.max(widest, row.size()); } // Ragged rows are padded with void cells
+        this.numCols = widest;
+
+        int[] cells = new int[numRows * numCols];
+        Arrays.fill(cells, VOID_CELL);
+
+        int[] rows = new int[numRows * numCols];
+        int[] cols = new int[numRows * numCols];
+        byte[] types = new byte[numRows * numCols];
+        int roomIndex = 0;
+        for (int rowIndex = 0; rowIndex < numRows; rowIndex++) {
+            ArrayList<String> row = layout.get(rowIndex);
+            for (int colIndex = 0; colIndex < row.size(); colIndex++) {
+                String code = row.get(colIndex);
+                if (code.equals("Z")) continue; // Void space, no room here
+                cells[rowIndex * numCols + colIndex] = roomIndex;
+                rows[roomIndex] = rowIndex;
+                cols[roomIndex] = colIndex;
+                types[roomIndex] = (byte) code.charAt(0);
+                roomIndex++;
+            }
+        }
+
+        this.numRooms = roomIndex;
+        this.roomIndexByCell = IntBuffer.wrap(cells);
+        this.roomRows = IntBuffer.wrap(Arrays.copyOf(rows, numRooms));
+        this.roomCols = IntBuffer.wrap(Arrays.copyOf(cols, numRooms));
+        this.roomTypes = ByteBuffer.wrap(Arrays.copyOf(types, numRooms));
+
+        int[] starts = new int[numRooms + 1];
+        int[] list = new int[numRooms * AssignmentStrategy.ADJACENT_OFFSETS.length];
+        int count = 0;
+        for (int room = 0; room < numRooms; room++) { // The four adjacent cells of every room, resolved once
+            starts[room] = count;
+            for (int[] offset : AssignmentStrategy.ADJACENT_OFFSETS) {
+                int neighbour = getRoomIndexAt(rows[room] + offset[0], cols[room] + offset[1]);
+                if (neighbour != VOID_CELL) list[count++] = neighbour; // Keep only real rooms
+            }
+        }
+        starts[numRooms] = count;
+        this.neighbourStart = IntBuffer.wrap(starts);
+        this.neighbourList = IntBuffer.wrap(Arrays.copyOf(list, count));
+
+        long[] edges = new long[(numRooms + 63) >>> 6];
+        for (int room = 0; room < numRooms; room++) {
+            if (rows[room] == 0 || rows[room] == numRows - 1 || cols[room] == 0 || cols[room] == numCols - 1) {
+                edges[room >>> 6] |= 1L << room; // Outer row or column
+            }
+        }
+        this.edgeWords = LongBuffer.wrap(edges);
+    }
+
+    /* FloorLayout constructor
+    Inputs: numRows, numCols, numRooms – grid and room counts; the tables as described in the fields, typically
+    slices of a HotelImage mapping.
+    Outputs: none.
+    Description: Takes the tables as they are, nothing is copied or checked (HotelImage checks their sizes). */
+    FloorLayout(int numRows, int numCols, int numRooms, IntBuffer roomIndexByCell, IntBuffer roomRows, IntBuffer roomCols,
+                ByteBuffer roomTypes, IntBuffer neighbourStart, IntBuffer neighbourList, LongBuffer edgeWords) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.numRooms = numRooms;
+        this.roomIndexByCell = roomIndexByCell;
+        this.roomRows = roomRows;
+        this.roomCols = roomCols;
+        this.roomTypes = roomTypes;
+        this.neighbourStart = neighbourStart;
+        this.neighbourList = neighbourList;
+        this.edgeWords = edgeWords;
+    }
+
+    /* getRoomIndexAt
+    Inputs: row – row index; col – column index.
+    Outputs: the room index at the given cell, or -1 if the cell is void or outside the grid.
+    Description: Constant-time coordinate lookup in the dense cell table. */
+    public int getRoomIndexAt(int row, int col) {
+        if (row < 0 || row >= numRows || col < 0 || col >= numCols) return VOID_CELL; // Outside of the floor
+        return roomIndexByCell.get(row * numCols + col);
+    }
+
+    /* toRoomId
+    Inputs: level – floor number (1-based); roomIndex – room index on the floor.
+    Outputs: the hotel-wide room ID.
+    Description: Encodes floor and position into a dense integer, so IDs of a floor form a contiguous range. */
+    public int toRoomId(int level, int roomIndex) {
+        return (level - 1) * numRooms + roomIndex;
+    }
+
+    /* getLevelOf
+    Inputs: roomId – hotel-wide room ID.
+    Outputs: the floor number (1-based) holding the room.
+    Description: Decodes the floor from a room ID. */
+    public int getLevelOf(int roomId) {
+        return roomId / numRooms + 1;
+    }
+
+    /* getRoomIndexOf
+    Inputs: roomId – hotel-wide room ID.
+    Outputs: the room index on its floor.
+    Description: Decodes the position on the floor from a room ID. */
+    public int getRoomIndexOf(int roomId) {
+        return roomId % numRooms;
+    }
+
+    /* typeIndex
+    Inputs: type – room type code.
+    Outputs: the position of the type in ROOM_TYPES.
+    Description: Maps a room type to a small array index, for per-type tables. */
+    static int typeIndex(char type) {
+        switch (type) {
+            case 'E': return 0;
+            case 'B': return 1;
+            case 'L': return 2;
+            default: throw new IllegalArgumentException("Invalid room type: " + type);
+        }
+    }
+
+    public int getNumRows() { return numRows; }
+    public int getNumCols() { return numCols; }
+    public int getNumRooms() { return numRooms; }
+    public int getRow(int roomIndex) { return roomRows.get(roomIndex); }
+    public int getCol(int roomIndex) { return roomCols.get(roomIndex); }
+    public char getType(int roomIndex) { return (char) roomTypes.get(roomIndex); }
+    public boolean isEdge(int roomIndex) { return (edgeWords.get(roomIndex >>> 6) & (1L << roomIndex)) != 0; }
+
+    /* getNeighbourCount
+    Inputs: roomIndex – room index on a floor.
+    Outputs: the number of rooms adjacent to it (up to four).
+    Description: With getNeighbour, walks the neighbour list without copying it:
+        for (int i = 0; i < layout.getNeighbourCount(r); i++) { int neighbour = layout.getNeighbour(r, i); ... } */
+    public int getNeighbourCount(int roomIndex) {
+        return neighbourStart.get(roomIndex + 1) - neighbourStart.get(roomIndex);
+    }
+
+    public int getNeighbour(int roomIndex, int i) {
+        return neighbourList.get(neighbourStart.get(roomIndex) + i);
+    }
+
+    /* toCodes
+    Inputs: none.
+    Outputs: the layout as rows of room codes, as ConfigurationParser reads them (void cells are "Z").
+    Description: For the UI, which draws from the textual form; a layout opened from a HotelImage has no other. */
+    public ArrayList<ArrayList<String>> toCodes() {
+        ArrayList<ArrayList<String>> codes = new ArrayList<>(numRows);
+        for (int row = 0; row < numRows; row++) {
+            ArrayList<String> cells = new ArrayList<>(numCols);
+            for (int col = 0; col < numCols; col++) {
+                int roomIndex = getRoomIndexAt(row, col);
+                cells.add(roomIndex == VOID_CELL ? "Z" : String.valueOf(getType(roomIndex)));
+            }
+            codes.add(cells);
+        }
+        return codes;
+    }
+
+}
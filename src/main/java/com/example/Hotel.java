@@ -1,16 +1,43 @@
 package com.example;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ObjIntConsumer;
 
+/* Hotel
+Description: The hotel model. It is safe to reserve, free and query from several threads: each floor is the lock of
+its rooms, and the shared availability index is lock-free. Queries are weakly consistent, so concurrent assigners
+should commit with tryReserveRoom rather than reserveRoom. The observer is called on the thread that made the change.
+Dated reservations (Reservation.isDated) book nights in a per-room calendar instead of the room's current state. The
+two never share a room: an undated reservation holds its room from tonight on, with no end, so a room reserved now
+takes no stay reaching tonight or later, and a room with such a stay is "held": it leaves the availability index, and
+undated reservations are not offered it until its stays are over or cancelled. Both commits check this again under
+the room's lock.
+With a journal (setJournal), every change made through the hotel is recorded under the room's floor lock and is on
+disk before the method making it returns. */
 public class Hotel {
 
-    private Map<Integer, Floor> floorMap;
+    /* RoomStorage
+    Description: Storage backend for room state – one object per room, or struct-of-arrays with rooms handed out as views. */
+    public enum RoomStorage { OBJECTS, ARRAYS }
+
+    private final AtomicReferenceArray<Floor> floors; // Index 0 is level 1, null until first accessed; with the floor layout, the room directory by ID
+    private final RoomStore store; // Array backend, null with RoomStorage.OBJECTS
+    private final AvailabilityIndex availability;
+    private final AtomicReferenceArray<RoomCalendar> calendars; // By room ID, null until the room's first dated stay
+    private final OccupancyCalendar occupancy; // The same stays, per night over all rooms
+    private final PriorityQueue<Long> holds = new PriorityQueue<>(); // Held rooms, (last night + 1) << 32 | room ID; guarded by itself
+    private volatile int nextHoldEnd = Integer.MAX_VALUE; // Earliest day a held room may be released
+    private final AssignmentMetrics metrics = new AssignmentMetrics();
     private HotelObserver observer;
+    private volatile ReservationWaitlist waitlist; // Served when a room is freed, or null
+    private volatile HotelJournal journal; // Records every change, or null
     private final int numberOfFloors;
-    private final ArrayList<ArrayList<String>> floorLayout;
+    private final ArrayList<ArrayList<String>> floorLayout; // Text form, null when opened from a HotelImage
+    private final FloorLayout layout;
     private final int numRows;
     private final int numCols;
 
@@ -21,86 +48,597 @@ public class Hotel {
     Outputs: none.
     Description: Initializes a Hotel with given structure, dimensions, and sets up all floors with rooms. */
     public Hotel(int numberOfFloors, ArrayList<ArrayList<String>> floorLayout, HotelObserver observer) {
+        this(numberOfFloors, floorLayout, observer, RoomStorage.OBJECTS);
+    }
+
+    /* Hotel constructor
+    Inputs: numberOfFloors, floorLayout, observer – as above; storage – backend holding the room state.
+    Outputs: none.
+    Description: Same as above, with the choice of keeping Room objects or primitive arrays indexed by room ID. */
+    public Hotel(int numberOfFloors, ArrayList<ArrayList<String>> floorLayout, HotelObserver observer, RoomStorage storage) {
+        this(numberOfFloors, new FloorLayout(floorLayout), floorLayout, observer, storage); // Compile the layout once, shared by all floors
+    }
+
+    /* Hotel constructor
+    Inputs: image – a compiled hotel (HotelImage.open); observer, storage – as above.
+    Outputs: none.
+    Description: The layout is read in place from the image's mapping: nothing is parsed or compiled. The image's
+    reservations, if any, are loaded separately with HotelImage.restoreReservations. */
+    public Hotel(HotelImage image, HotelObserver observer, RoomStorage storage) {
+        this(image.getNumberOfFloors(), image.getLayout(), null, observer, storage);
+    }
+
+    private Hotel(int numberOfFloors, FloorLayout layout, ArrayList<ArrayList<String>> floorLayout, HotelObserver observer, RoomStorage storage) {
         this.numberOfFloors = numberOfFloors; 
         this.floorLayout = floorLayout; 
         this.observer = observer; // Store observer for UI updates
-        this.floorMap = new HashMap<>(); 
-        this.numRows = floorLayout.size(); // Get number of layout rows
-        this.numCols = floorLayout.get(0).size(); // Get number of layout columns
-        initializeFloors(); // Populate floor map with Floor objects
+        this.layout = layout;
+        this.numRows = layout.getNumRows(); // Get number of layout rows
+        this.numCols = layout.getNumCols(); // Get number of layout columns
+        this.floors = new AtomicReferenceArray<>(numberOfFloors);
+        this.store = storage == RoomStorage.ARRAYS ? new RoomStore(layout, numberOfFloors) : null;
+        this.availability = new AvailabilityIndex(this, layout, numberOfFloors); // Floors themselves are materialized on first access
+        this.calendars = new AtomicReferenceArray<>(getNumberOfRooms());
+        this.occupancy = new OccupancyCalendar(layout, numberOfFloors);
+    }
+
+
+
+    /* getAvailableRooms
+    Inputs: none.
+    Outputs: a live view of all unreserved rooms in the hotel.
+    Description: Returns the incrementally maintained availability index; it is never rebuilt and follows every reserve/free. */
+    public AvailableRooms getAvailableRooms() {
+        if (nextHoldEnd != Integer.MAX_VALUE) releaseEndedHolds(today()); // One read when no room is held
+        return availability;
     }
 
-    
 
-    /* initializeFloors
+    /* getAvailableRooms
+    Inputs: checkIn – first night; checkOut – day of departure, after checkIn.
+    Outputs: a live view of the rooms free every night of [checkIn, checkOut).
+    Description: Any strategy can pick from it like from the current availability; the free rooms come from the
+    occupancy calendar's per-night bitmaps, without the rooms reserved now if the stay reaches tonight or later. */
+    public AvailableRooms getAvailableRooms(LocalDate checkIn, LocalDate checkOut) {
+        int to = (int) checkOut.toEpochDay();
+        return new StayAvailability(this, occupancy, (int) checkIn.toEpochDay(), to, to > today());
+    }
+
+    /* getOccupancyCalendar
     Inputs: none.
+    Outputs: the per-night occupancy of the dated stays.
+    Description: For building-wide questions, e.g. the L rooms of floor 3 free from the 12th to the 19th:
+    freeRooms(from, to, getTypeMask('L').and(getFloorMask(3))). */
+    public OccupancyCalendar getOccupancyCalendar() {
+        return occupancy;
+    }
+
+    /* isFreeForStay
+    Inputs: roomId – hotel-wide room ID; checkIn, checkOut – the stay's dates.
+    Outputs: true if no dated stay of the room covers a night of [checkIn, checkOut).
+    Description: O(log n) in the room's number of stays. */
+    public boolean isFreeForStay(int roomId, LocalDate checkIn, LocalDate checkOut) {
+        return isFreeForNights(roomId, (int) checkIn.toEpochDay(), (int) checkOut.toEpochDay());
+    }
+
+    boolean isFreeForNights(int roomId, int from, int to) {
+        RoomCalendar calendar = calendars.get(roomId);
+        return calendar == null || calendar.isFree(from, to);
+    }
+
+    /* getStay
+    Inputs: roomId – hotel-wide room ID; night – a date.
+    Outputs: the dated reservation holding the room that night, or null.
+    Description: O(log n). */
+    public Reservation getStay(int roomId, LocalDate night) {
+        RoomCalendar calendar = calendars.get(roomId);
+        return calendar == null ? null : calendar.reservationOn((int) night.toEpochDay());
+    }
+
+    /* cancelStay
+    Inputs: request – a dated assignment made by assignReservation.
+    Outputs: true if the stay was booked and its nights are free again.
+    Description: The room's current state is not touched; a held room with no stay left from tonight on is offered to
+    undated reservations again. */
+    public boolean cancelStay(AssignmentRequest request) {
+        RoomCalendar calendar = calendars.get(request.room.getId());
+        int from = (int) request.reservation.getCheckIn().toEpochDay(), to = (int) request.reservation.getCheckOut().toEpochDay();
+        if (calendar == null) return false;
+        long record;
+        synchronized (getRoom(request.room.getId()).getLock()) { // Same lock as the booking, so both indexes agree
+            if (!calendar.cancel(from, request.reservation)) return false;
+            occupancy.release(request.room.getId(), from, to);
+            release(getRoom(request.room.getId()), today());
+            record = logCancelled(request.room.getId(), from, to);
+        }
+        awaitDurable(record);
+        return true;
+    }
+
+    /* getFrontierRoom
+    Inputs: type – room type code.
+    Outputs: the first free room of this type adjacent to a reserved room, in floor then room order, or null if none.
+    Description: Reads the frontier maintained by the availability index; no floor is scanned. */
+    public Room getFrontierRoom(char type) {
+        return availability.firstOnFrontier(type);
+    }
+
+    /* reserveRoom
+    Inputs: request – contains reservation and room to assign.
+    Outputs: true if the room is now reserved (or the stay booked); false if it was taken.
+    Description: Same as tryReserveRoom: a plan made earlier never replaces whoever took the room since. */
+    public boolean reserveRoom(AssignmentRequest request) {
+        return tryReserveRoom(request);
+    }
+
+    /* tryReserveRoom
+    Inputs: request – contains reservation and room to assign.
+    Outputs: true if the room was free and is now reserved; false if another reservation or a stay from tonight on holds it.
+    Description: Compare-and-set commit for concurrent assigners; never replaces an occupant or a stay. A dated
+    reservation is booked in the room's calendar instead, if the room is free for it (see isFreeFor), and the observer
+    is not notified. */
+    public boolean tryReserveRoom(AssignmentRequest request) {
+        Reservation reservation = request.reservation;
+        long record = commit(getRoom(request.room.getId()), reservation);
+        if (record < 0) return false;
+        awaitDurable(record);
+        if (!reservation.isDated()) observer.reserveRoom(request.room.getName()); // Notify observer (UI update)
+        return true;
+    }
+
+    // The commit of a planned request under the room's lock: its journal record, or -1 if the room or nights are taken
+    private long commit(Room room, Reservation reservation) {
+        synchronized (room.getLock()) {
+            if (reservation.isDated()) {
+                if (!bookStay(room, reservation, today())) return -1; // Nights or occupant in the way
+            } else {
+                if (isBookedFromTonight(room.getId())) return -1; // Held by a stay
+                if (!room.tryReserveRoom(reservation)) return -1; // Lost the race
+            }
+            return logReserved(room.getId(), reservation);
+        }
+    }
+
+    /* isFreeFor
+    Inputs: roomId – hotel-wide room ID; reservation – dated or not.
+    Outputs: true if tryReserveRoom would give the room to the reservation now.
+    Description: A room is free for an undated reservation if nobody is in it and no stay reaches tonight, and for a
+    dated one if its nights are free and, when the stay reaches tonight, nobody is in it. Weakly consistent: only the
+    commit decides. */
+    public boolean isFreeFor(int roomId, Reservation reservation) {
+        if (!reservation.isDated()) return !getRoom(roomId).isReserved() && !isBookedFromTonight(roomId);
+        int from = (int) reservation.getCheckIn().toEpochDay(), to = (int) reservation.getCheckOut().toEpochDay();
+        return isFreeForNights(roomId, from, to) && !(to > today() && isReservedNow(roomId));
+    }
+
+    /* assignReservation
+    Inputs: strategy – assignment strategy; reservation – reservation to place.
+    Outputs: the committed AssignmentRequest, or null if the strategy ran out of candidates (hotel full).
+    Description: Optimistic commit: takes the strategy's candidates one by one and, under the candidate's floor lock,
+    checks that the room is still free and still valid for the strategy before reserving it. A lost candidate costs
+    one more call to the same candidate source, never a new scan; no global lock is taken. */
+    public AssignmentRequest assignReservation(AssignmentStrategy strategy, Reservation reservation) {
+        if (reservation.isDated()) return assignStay(strategy, reservation);
+        metrics.assignmentStarted();
+        AssignmentCandidates candidates = strategy.candidates(getAvailableRooms(), reservation);
+        for (Room candidate = candidates.next(); candidate != null; candidate = candidates.next()) {
+            metrics.attempted();
+            Room room = getRoom(candidate.getId());
+            long record;
+            synchronized (room.getLock()) {
+                if (room.isReserved() || isBookedFromTonight(room.getId())) { // Taken, or held by a stay, since the strategy looked
+                    metrics.conflicted();
+                    continue;
+                }
+                if (!candidates.isStillValid(room)) { // Free, but its neighbourhood changed
+                    metrics.staleCandidate();
+                    continue;
+                }
+                room.reserveRoom(reservation);
+                record = logReserved(room.getId(), reservation);
+            }
+            awaitDurable(record); // Outside the lock, so the floor is not held during the fsync
+            metrics.committed();
+            observer.reserveRoom(room.getName()); // Notify observer (UI update)
+            return new AssignmentRequest(reservation, room);
+        }
+        metrics.exhausted();
+        return null;
+    }
+
+    /* assignStay
+    Inputs: strategy – assignment strategy; reservation – a dated reservation.
+    Outputs: the committed AssignmentRequest, or null if no room is free for the whole stay.
+    Description: Same optimistic commit as above, over the rooms free for the stay (AssignmentStrategy.candidatesForStay)
+    and with the room's calendar as the thing committed to. The room's current state and the observer are left alone:
+    the stay may be months away; the commit itself is bookStay. A strategy proposing a room that is not free for the stay twice in a row is treated as having nothing
+    left, since asking again would give the same answer. */
+    private AssignmentRequest assignStay(AssignmentStrategy strategy, Reservation reservation) {
+        metrics.assignmentStarted();
+        int from = (int) reservation.getCheckIn().toEpochDay(), to = (int) reservation.getCheckOut().toEpochDay();
+        int today = today();
+        AssignmentCandidates candidates = strategy.candidatesForStay(new StayAvailability(this, occupancy, from, to, to > today), reservation);
+        int lostId = -1;
+        for (Room candidate = candidates.next(); candidate != null && candidate.getId() != lostId; candidate = candidates.next()) {
+            metrics.attempted();
+            Room room = getRoom(candidate.getId());
+            long record;
+            synchronized (room.getLock()) {
+                if (!candidates.isStillValid(room) || !bookStay(room, reservation, today)) { // Taken since the strategy looked
+                    metrics.conflicted();
+                    lostId = candidate.getId();
+                    continue;
+                }
+                record = logReserved(room.getId(), reservation);
+            }
+            awaitDurable(record);
+            metrics.committed();
+            return new AssignmentRequest(reservation, room);
+        }
+        metrics.exhausted();
+        return null;
+    }
+
+    /* bookStay
+    Inputs: room – the room, under its lock; reservation – a dated reservation; today – epoch day.
+    Outputs: true if the stay is now in the room's calendar.
+    Description: The commit of a stay: a stay reaching tonight or later cannot go to a room reserved now, and holds the
+    room it gets. */
+    private boolean bookStay(Room room, Reservation reservation, int today) {
+        int from = (int) reservation.getCheckIn().toEpochDay(), to = (int) reservation.getCheckOut().toEpochDay();
+        if (to > today && room.isReserved()) return false; // Taken now, and the stay reaches tonight
+        if (!calendar(room.getId()).book(from, to, reservation)) return false; // Nights taken
+        occupancy.occupy(room.getId(), from, to);
+        holdIfBooked(room, today);
+        return true;
+    }
+
+    // Today as an epoch day, for the nights "from tonight on"
+    static int today() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+
+    // True if a stay of the room covers tonight or a later night; O(1) for a room that never had one
+    private boolean isBookedFromTonight(int roomId) {
+        RoomCalendar calendar = calendars.get(roomId);
+        return calendar != null && calendar.lastCheckOut() > today();
+    }
+
+    /* isReservedNow
+    Inputs: roomId – hotel-wide room ID.
+    Outputs: true if the room has an undated occupant.
+    Description: For StayAvailability; a room still in the availability index is answered without materializing its floor. */
+    boolean isReservedNow(int roomId) {
+        return !availability.isFree(roomId) && getRoom(roomId).isReserved();
+    }
+
+    /* holdIfBooked
+    Inputs: room – a room whose stays or occupant just changed, under its lock; today – epoch day.
     Outputs: none.
-    Description: Creates and stores Floor objects for each hotel level using the shared floor layout. */
-    private void initializeFloors() {
-        for (int i = 0; i < numberOfFloors; i++) {
-            Floor floor = new Floor(i + 1, floorLayout);
-            floorMap.put(i + 1, floor); // Add to floor map with level as key
+    Description: A free room with a stay from tonight on leaves the availability index until its last stay is over;
+    releaseEndedHolds puts it back then. */
+    private void holdIfBooked(Room room, int today) {
+        RoomCalendar calendar = calendars.get(room.getId());
+        if (calendar == null || room.isReserved()) return;
+        int until = calendar.lastCheckOut();
+        if (until <= today) return;
+        if (availability.isFree(room.getId())) getFloor(layout.getLevelOf(room.getId())).roomHeld(room);
+        synchronized (holds) {
+            holds.add((long) until << 32 | room.getId());
+            nextHoldEnd = (int) (holds.peek() >>> 32);
         }
     }
 
+    /* release
+    Inputs: room – a room whose stays changed, under its lock or not; today – epoch day.
+    Outputs: none.
+    Description: Puts a held room back in the availability index once it has neither an occupant nor a stay from
+    tonight on. */
+    private void release(Room room, int today) {
+        synchronized (room.getLock()) {
+            if (availability.isFree(room.getId()) || room.isReserved()) return; // Not held
+            if (!isFreeForNights(room.getId(), today, Integer.MAX_VALUE)) return; // Still booked
+            getFloor(layout.getLevelOf(room.getId())).roomReleased(room);
+        }
+    }
 
-    /* getAvailableRooms
+    /* releaseEndedHolds
+    Inputs: today – epoch day.
+    Outputs: none.
+    Description: Releases the rooms whose holds ended by today, earliest first; a room booked again meanwhile has a
+    later hold of its own and stays held. */
+    private void releaseEndedHolds(int today) {
+        while (nextHoldEnd <= today) {
+            long hold;
+            synchronized (holds) {
+                Long first = holds.peek();
+                if (first == null || (int) (first >>> 32) > today) return; // Another thread released them
+                hold = holds.poll();
+                nextHoldEnd = holds.isEmpty() ? Integer.MAX_VALUE : (int) (holds.peek() >>> 32);
+            }
+            release(getRoom((int) hold), today); // Outside the lock of the queue
+        }
+    }
+
+    // The room's calendar, created on its first dated stay
+    private RoomCalendar calendar(int roomId) {
+        RoomCalendar calendar = calendars.get(roomId);
+        if (calendar == null) {
+            calendars.compareAndSet(roomId, null, new RoomCalendar());
+            calendar = calendars.get(roomId);
+        }
+        return calendar;
+    }
+
+    /* getAssignmentMetrics
     Inputs: none.
-    Outputs: a list of all unreserved rooms in the hotel.
-    Description: Iterates through all floors and collects rooms that are currently not reserved. */
-    public List<Room> getAvailableRooms() {
-        List<Room> availableRooms = new ArrayList<>(); // List to store free rooms
-
-        for (int i = 1; i <= numberOfFloors; i++) {
-            Floor floor = floorMap.get(i); // Get floor by number
-            for (Room room : floor.getRoomMap().values()) {
-                if (!room.isReserved()) { availableRooms.add(room); } // Add if room is free
+    Outputs: the conflict and retry counters of assignReservation.
+    Description: Live counters, shared by all workers. */
+    public AssignmentMetrics getAssignmentMetrics() {
+        return metrics;
+    }
+
+    /* newBatch
+    Inputs: none.
+    Outputs: a scratch availability view for planning several assignments at once.
+    Description: Snapshot of the availability index; see RoomBatch. */
+    public RoomBatch newBatch() {
+        return new RoomBatch(this, availability);
+    }
+
+    /* reserveRooms
+    Inputs: requests – assignments planned together, usually by AssignmentStrategy.createAssignmentRequests.
+    Outputs: the requests whose room was taken since the plan (or whose nights were), in order; usually none.
+    Description: Commits each request like tryReserveRoom, then notifies the observer once for the whole batch (and,
+    with a journal, waits for a single fsync). The plan may be out of date by then: a request that lost its room is
+    returned for the caller to place again, never forced over whoever took the room. */
+    public List<AssignmentRequest> reserveRooms(List<AssignmentRequest> requests) {
+        List<String> roomNames = new ArrayList<>(requests.size());
+        List<AssignmentRequest> lost = new ArrayList<>();
+        long record = 0;
+        for (AssignmentRequest request : requests) {
+            long committed = commit(getRoom(request.room.getId()), request.reservation);
+            if (committed < 0) {
+                lost.add(request);
+                continue;
             }
+            record = committed;
+            if (!request.reservation.isDated()) roomNames.add(request.room.getName());
+        }
+        awaitDurable(record); // The last record: the ones before it are written with it
+        if (!roomNames.isEmpty()) observer.reserveRooms(roomNames); // Single notification (UI update)
+        return lost;
+    }
+
+    /* freeRoom
+    Inputs: roomId – ID of the room to release.
+    Outputs: none.
+    Description: Frees the specified room and notifies the observer with its type, then lets the waitlist, if any, take
+    it on its own thread (see ReservationWaitlist.drainLater). */
+    public void freeRoom(int roomId) {
+        Room room = getRoom(roomId); // Find room by ID
+        long record;
+        synchronized (room.getLock()) {
+            record = room.isReserved() ? logFreed(roomId) : 0;
+            room.freeRoom(); // Clear reservation
+            if (calendars.get(roomId) != null) holdIfBooked(room, today()); // Only reserveRoom or recovery can leave a stay behind
         }
+        awaitDurable(record);
+        observer.freeRoom(room.getName(), room.getType()); // Notify observer (UI update)
+        ReservationWaitlist waiting = waitlist;
+        if (waiting != null && !waiting.isEmpty()) waiting.drainLater(this, room.getType()); // O(1) when nobody waits
+    }
 
-        return availableRooms; // Return all collected free rooms
+    /* setWaitlist
+    Inputs: waitlist – reservations to serve when rooms are freed, or null.
+    Outputs: none.
+    Description: Also read by ReservationPipeline, which queues there the reservations that find the hotel full. */
+    public void setWaitlist(ReservationWaitlist waitlist) {
+        this.waitlist = waitlist;
     }
 
+    public ReservationWaitlist getWaitlist() {
+        return waitlist;
+    }
 
-    /* reserveRoom
-    Inputs: request – contains reservation and room to assign.
+    /* setJournal
+    Inputs: journal – where changes are recorded, usually after it recovered this hotel; or null.
     Outputs: none.
-    Description: Reserves the specified room for the reservation and notifies the observer. */
-    public void reserveRoom(AssignmentRequest request) {
-        Room room = getRoom(request.room.getName()); // Find room by name
-        room.reserveRoom(request.reservation); // Assign reservation to room
-        observer.reserveRoom(request.room.getName()); // Notify observer (UI update)
+    Description: Changes made before are not recorded. */
+    public void setJournal(HotelJournal journal) {
+        this.journal = journal;
+    }
+
+    public HotelJournal getJournal() {
+        return journal;
+    }
+
+    // Called under the room's lock, so a room's records are in the order of its changes; 0 without a journal
+    private long logReserved(int roomId, Reservation reservation) {
+        HotelJournal current = journal;
+        return current == null ? 0 : current.reserved(roomId, reservation);
+    }
+
+    private long logFreed(int roomId) {
+        HotelJournal current = journal;
+        return current == null ? 0 : current.freed(roomId);
+    }
+
+    private long logCancelled(int roomId, int from, int to) {
+        HotelJournal current = journal;
+        return current == null ? 0 : current.cancelled(roomId, from, to);
+    }
+
+    // Returns once the record is on disk, see HotelJournal.commit
+    private void awaitDurable(long record) {
+        HotelJournal current = journal;
+        if (current != null && record > 0) current.commit(record);
+    }
+
+    /* getAssignments
+    Inputs: none.
+    Outputs: an AssignmentRequest for every reserved room and every dated stay, in room order.
+    Description: O(rooms of the materialized floors). After a recovery (HotelJournal), the assignments of previous runs. */
+    public List<AssignmentRequest> getAssignments() {
+        List<AssignmentRequest> requests = new ArrayList<>();
+        for (int level = 1; level <= numberOfFloors; level++) {
+            forEachReservation(level, (reservation, roomId) -> requests.add(new AssignmentRequest(reservation, getRoom(roomId))));
+        }
+        return requests;
+    }
+
+    /* forEachReservation
+    Inputs: level – floor number (1-based); action – receives every reservation of the floor with its room ID: the
+    current occupants, then the room's dated stays, room by room.
+    Outputs: none.
+    Description: Runs under the floor's lock, so the floor is seen between two changes. A floor never materialized has
+    no reservation and is skipped. Reads the array store directly, so no room view is created. */
+    void forEachReservation(int level, ObjIntConsumer<Reservation> action) {
+        if (!isFloorMaterialized(level)) return;
+        Floor floor = getFloor(level);
+        int first = layout.toRoomId(level, 0);
+        synchronized (floor) { // The lock of its rooms, see Room.getLock
+            for (int roomIndex = 0; roomIndex < layout.getNumRooms(); roomIndex++) {
+                int roomId = first + roomIndex;
+                if (store != null) {
+                    if (store.isReserved(roomId)) action.accept(store.getReservation(roomId), roomId);
+                } else {
+                    Room room = floor.getRoom(roomIndex);
+                    if (room.isReserved()) action.accept(room.getReservation(), roomId);
+                }
+                RoomCalendar calendar = calendars.get(roomId);
+                if (calendar != null) calendar.forEachStay(stay -> action.accept(stay, roomId));
+            }
+        }
+    }
+
+    /* restoreReserved
+    Inputs: roomId – hotel-wide room ID; reservation – its occupant, or one of its stays if dated.
+    Outputs: none.
+    Description: Recovery only (HotelJournal): applies a recorded change without observer, waitlist or journal. Like
+    every restore method it is idempotent, so records already reflected in a snapshot can be replayed: an occupant
+    replaces the current one, a stay clashing with one already booked is skipped. */
+    void restoreReserved(int roomId, Reservation reservation) {
+        Room room = getRoom(roomId);
+        synchronized (room.getLock()) {
+            if (!reservation.isDated()) {
+                room.reserveRoom(reservation);
+                return;
+            }
+            int from = (int) reservation.getCheckIn().toEpochDay(), to = (int) reservation.getCheckOut().toEpochDay();
+            if (calendar(roomId).book(from, to, reservation)) occupancy.occupy(roomId, from, to);
+            holdIfBooked(room, today());
+        }
+    }
+
+    void restoreFreed(int roomId) {
+        Room room = getRoom(roomId);
+        synchronized (room.getLock()) {
+            room.freeRoom();
+            holdIfBooked(room, today());
+        }
+    }
+
+    void restoreCancelled(int roomId, int from, int to) {
+        RoomCalendar calendar = calendars.get(roomId);
+        if (calendar == null) return;
+        Room room = getRoom(roomId);
+        synchronized (room.getLock()) {
+            if (calendar.cancel(from, to)) occupancy.release(roomId, from, to);
+            release(room, today());
+        }
     }
 
     /* freeRoom
     Inputs: roomName – name of the room to release.
     Outputs: none.
-    Description: Frees the specified room and notifies the observer with its type. */
+    Description: Frees the room with the given name. */
     public void freeRoom(String roomName) {
-        Room room = getRoom(roomName); // Find room by name
-        room.freeRoom(); // Clear reservation
-        observer.freeRoom(roomName, room.getType()); // Notify observer (UI update)
+        freeRoom(getRoom(roomName).getId());
+    }
+
+    /* getRoom
+    Inputs: roomId – hotel-wide room ID.
+    Outputs: the Room object with this ID.
+    Description: Decodes floor and position from the ID and reads the floor's room table; throws if the ID is unknown. */
+    public Room getRoom(int roomId) {
+        if (roomId < 0 || roomId >= getNumberOfRooms()) throw new IllegalArgumentException("Room #" + roomId + " not found."); // Not part of this hotel
+        return getFloor(layout.getLevelOf(roomId)).getRoom(layout.getRoomIndexOf(roomId));
     }
 
     /* getRoom
     Inputs: roomName – name of the room to find.
     Outputs: the Room object corresponding to the given name.
-    Description: Searches all floors to find and return a room by its name; throws if not found. */
+    Description: Decodes the name (floor letters, room number, type) into a room ID; throws if not found. */
     public Room getRoom(String roomName) {
-        for (Floor floor : floorMap.values()) {
-            Room room = floor.getRoomMap().get(roomName); // Try to find the room
-            if (room != null) return room; // Return if found
+        int roomId = parseRoomId(roomName); // Try to find the room
+        if (roomId < 0) throw new IllegalArgumentException("Room " + roomName + " not found."); // Not found
+        return getRoom(roomId);
+    }
+
+    /* parseRoomId
+    Inputs: roomName – a room name such as B12L or AA3E.
+    Outputs: the room ID, or -1 if the name does not denote a room of this hotel.
+    Description: Reverses the naming scheme of Floor: bijective base-26 floor letters, 1-based room number, type code. */
+    private int parseRoomId(String roomName) {
+        if (roomName == null) return -1;
+        int pos = 0;
+        int level = 0;
+        while (pos < roomName.length() && roomName.charAt(pos) >= 'A' && roomName.charAt(pos) <= 'Z') {
+            level = level * 26 + (roomName.charAt(pos++) - 'A' + 1); // Floor letters
+            if (level > numberOfFloors) return -1;
         }
-        throw new IllegalArgumentException("Room " + roomName + " not found."); // Not found
+        int number = 0;
+        int digitsStart = pos;
+        while (pos < roomName.length() && Character.isDigit(roomName.charAt(pos))) {
+            number = number * 10 + (roomName.charAt(pos++) - '0'); // Room number
+            if (number > layout.getNumRooms()) return -1;
+        }
+        if (level == 0 || pos == digitsStart || number == 0 || pos != roomName.length() - 1) return -1; // Malformed
+        if (layout.getType(number - 1) != roomName.charAt(pos)) return -1; // Type code must match the layout
+        return layout.toRoomId(level, number - 1);
     }
 
 
     public int getNumRows() { return numRows; }
     public int getNumCols() { return numCols; }
     public int getNumberOfFloors(){ return numberOfFloors; }
-    public ArrayList<ArrayList<String>> getFloorLayout(){ return floorLayout; }
-    public Floor getFloor(int level){ return floorMap.get(level);}
-    public static String getLetterFromNumber(int number){return String.valueOf((char) ('A' + number));}
-    public Map<Integer, Floor> getFloorMap() { return floorMap; }
-    
+    public ArrayList<ArrayList<String>> getFloorLayout(){ return floorLayout != null ? floorLayout : layout.toCodes(); }
+    public FloorLayout getLayout(){ return layout; }
+    /* getFloor
+    Inputs: level – floor number (1-based).
+    Outputs: the Floor of that level.
+    Description: Materializes the floor on first access; until then a floor costs nothing beyond the shared layout.
+    When two threads race, the first floor published wins and the other one is dropped. */
+    public Floor getFloor(int level) {
+        Floor floor = floors.get(level - 1);
+        if (floor == null) {
+            floors.compareAndSet(level - 1, null, new Floor(level, layout, availability, store));
+            floor = floors.get(level - 1);
+        }
+        return floor;
+    }
+
+    /* isFloorMaterialized
+    Inputs: level – floor number (1-based).
+    Outputs: true if the Floor object of that level exists.
+    Description: Lets callers skip floors nobody has touched yet. */
+    public boolean isFloorMaterialized(int level) {
+        return floors.get(level - 1) != null;
+    }
+
+    public int getNumberOfRooms(){ return numberOfFloors * layout.getNumRooms(); }
+
+    /* getLetterFromNumber
+    Inputs: number – 0-based floor index.
+    Outputs: the floor letters: A..Z, then AA, AB, ... like spreadsheet columns.
+    Description: Converts a floor index to its letter code, without running out of letters past 26 floors. */
+    public static String getLetterFromNumber(int number) {
+        StringBuilder letters = new StringBuilder();
+        for (int n = number + 1; n > 0; n = (n - 1) / 26) {
+            letters.insert(0, (char) ('A' + (n - 1) % 26)); // Bijective base 26
+        }
+        return letters.toString();
+    }
+
 }
@@ -1,20 +1,21 @@
 package com.example;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
+import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import javafx.util.Duration;
 
 public class HotelController {
 
@@ -22,29 +23,95 @@ public class HotelController {
     private HotelView view;
     private final String configurationFile = "src/main/java/com/example/configuration.hconfig";
     private final String reservationFile = "src/main/java/com/example/reservation.csv";
-    private List<Reservation> reservations;
+    private final Path dataDirectory = Paths.get(System.getProperty("hotel.data", "target/hotel-data")); // Runtime state, never in the source tree
+    private final Path imageFile = dataDirectory.resolve("configuration.himg"); // Compiled from configurationFile
+    private final ReservationTailReader reservationReader = new ReservationTailReader(Paths.get(reservationFile),
+            dataDirectory.resolve("reservation.csv.offset"), dataDirectory.resolve("reservation.csv.rejected")); // Reads appended lines only
+    private final String spoolDirectory = System.getProperty("hotel.spool"); // Set to ingest a directory of channel files instead
+    private ReservationSpool spool;
     private List<AssignmentRequest> assignments = new ArrayList<AssignmentRequest>();
     private final Map<String, AssignmentStrategy> strategies = new LinkedHashMap<>();
 
     private static final String SORT_BY_NAME = "Sort by : Name";
     private static final String SORT_BY_ROOM = "Sort by : Room";
     private static final int DISCOUNT_CODE_LENGTH = 10;
-    private static final int POLL_INTERVAL_SECONDS = 2;
+    private static final int POLL_INTERVAL_SECONDS = 2; // Only used where the file system cannot be watched
+    private static final int DEBOUNCE_MILLIS = 20; // Quiet time that ends a burst of appends
+    private static final int PARSE_THREADS = 2; // Parallelism of the ingestion pipeline's stages
+    private static final int VALIDATE_THREADS = 1;
+    private static final int ASSIGN_THREADS = 2;
+    private static final boolean WAITLIST_BY_ROOM_TYPE = true; // A freed room goes first to who wants its type
+    private static final long SNAPSHOT_INTERVAL = 100_000; // Journal records between two snapshots
+    private final AtomicBoolean refreshPending = new AtomicBoolean(); // A refresh is already queued on the FX thread
+    private ReservationPipeline pipeline;
+    private ReservationDedupIndex dedup;
+    private ReservationWaitlist waitlist;
+    private HotelJournal journal;
+    private final ConcurrentLinkedQueue<AssignmentRequest> assignedFromWaitlist = new ConcurrentLinkedQueue<>(); // Drained on the FX thread
+    private volatile AssignmentStrategy selectedStrategy; // Read by the pipeline's assign workers
 
     /* HotelController constructor
     Inputs: view – the HotelView instance used for the UI.
     Outputs: none.
-    Description: Initializes the controller, parses config, creates hotel and strategies, sets up UI and starts simulation. */
+    Description: Initializes the controller, loads config, creates hotel and strategies, sets up UI and starts simulation. */
     public HotelController(HotelView view) {
         this.view = view; // Store reference to view
-        ConfigurationParser configurationParser = new ConfigurationParser(configurationFile); // Load config
-        hotel = new Hotel(configurationParser.getNumberOfFloors(), configurationParser.getFloorLayout(), this.view); // Create hotel
+        createDataDirectory(); // Before any state is read or written
+        hotel = createHotel(); // Load config and create hotel
+        recoverHotel(); // Reservations of previous runs
         initStrategies(); // Load available strategies
         view.initView(hotel, strategies); // Initialize UI
+        displayUI(); // Show recovered reservations
+        selectedStrategy = strategies.get(view.getStrategySelector().getValue()); // Default selection
         setActions(); // Bind event handlers
         startSimulation(); // Begin periodic polling
     }
 
+    /* createDataDirectory
+    Inputs: none.
+    Outputs: none.
+    Description: Creates the directory holding the runtime state (read offset, rejected lines, keys, waitlist, journal,
+    compiled image): target/hotel-data, or the one given with -Dhotel.data=<directory>. Without it, each feature
+    reports its own error and runs without its state. */
+    private void createDataDirectory() {
+        try {
+            Files.createDirectories(dataDirectory);
+        } catch (IOException e) {
+            System.err.println("Cannot create data directory " + dataDirectory + ": " + e.getMessage());
+        }
+    }
+
+    /* createHotel
+    Inputs: none.
+    Outputs: the hotel, still empty.
+    Description: Opens the compiled image of the configuration, converting it first if the .hconfig changed; parses
+    the text as before if the image cannot be written or read. */
+    private Hotel createHotel() {
+        try {
+            HotelImage image = HotelImage.openCompiled(Paths.get(configurationFile), imageFile);
+            return new Hotel(image, new FxThreadObserver(this.view), Hotel.RoomStorage.OBJECTS);
+        } catch (IOException e) {
+            System.err.println("Cannot use hotel image, parsing " + configurationFile + ": " + e.getMessage());
+        }
+        ConfigurationParser configurationParser = new ConfigurationParser(configurationFile); // Load config
+        return new Hotel(configurationParser.getNumberOfFloors(), configurationParser.getFloorLayout(), new FxThreadObserver(this.view));
+    }
+
+    /* recoverHotel
+    Inputs: none.
+    Outputs: none.
+    Description: Restores the hotel from the journal kept in the data directory, then journals every change.
+    Without a journal, the hotel starts empty on every run. */
+    private void recoverHotel() {
+        try {
+            journal = new HotelJournal(dataDirectory.resolve("reservation.csv.journal"), hotel, SNAPSHOT_INTERVAL);
+            hotel.setJournal(journal);
+            assignments.addAll(hotel.getAssignments()); // Recovered reservations
+        } catch (IOException e) {
+            System.err.println("Cannot load hotel journal, reservations will not survive a restart: " + e.getMessage());
+        }
+    }
+
     /* displayUI
     Inputs: none.
     Outputs: none.
@@ -62,6 +129,7 @@ public class HotelController {
         floorSelectionAction(); // Handle floor changes
         refreshButtonAction(); // Bind refresh buttons
         sortSelectorAction(); // Enable reservation sorting
+        view.getStrategySelector().valueProperty().addListener((observable, previous, selected) -> selectedStrategy = strategies.get(selected));
         addClickHandlersToRoomButtons(); // Make room buttons interactive
 
         view.getVerifyCodeButton().setOnAction(e -> {
@@ -100,8 +168,7 @@ public class HotelController {
     Outputs: none.
     Description: Binds reassign logic to each reservation's refresh button in the UI list. */
     private void refreshButtonAction() {
-        forEachReservationEntry((roomName, hbox) -> {
-            AssignmentRequest request = findRequestByRoomName(roomName); // Match UI row to reservation
+        forEachReservationEntry((request, hbox) -> {
             Node last = hbox.getChildren().get(hbox.getChildren().size() - 1); // Get the refresh button
             if (last instanceof Button) {
                 ((Button) last).setOnAction(e -> reassignReservation(request)); // Reassign on click
@@ -114,11 +181,8 @@ public class HotelController {
     Outputs: none.
     Description: Binds mouse click events to each reservation row to open its detail view. */
     private void addClickHandlersToReservations() {
-        forEachReservationEntry((roomName, hbox) -> {
-            AssignmentRequest request = findRequestByRoomName(roomName); // Retrieve reservation from room name
-            if (request != null) {
-                hbox.setOnMouseClicked(e -> ReservationView.show(request, hotel, view, this, false)); // Open detail popup
-            }
+        forEachReservationEntry((request, hbox) -> {
+            hbox.setOnMouseClicked(e -> ReservationView.show(request, hotel, view, this, false)); // Open detail popup
         });
     }
 
@@ -136,25 +200,7 @@ public class HotelController {
                     assignments.sort((a1, a2) -> a1.reservation.getLastName().compareToIgnoreCase(a2.reservation.getLastName())); // Sort by last name
                     break;
                 case SORT_BY_ROOM:
-                    assignments.sort((a1, a2) -> {
-                        String r1 = a1.room.getName();
-                        String r2 = a2.room.getName();
-
-                        char floor1 = r1.charAt(0); // Extract floor letters
-                        char floor2 = r2.charAt(0);
-
-                        int floorIndex1 = floor1 - 'A'; // Convert to index
-                        int floorIndex2 = floor2 - 'A';
-
-                        int num1 = extractRoomNumber(r1); // Extract room numbers
-                        int num2 = extractRoomNumber(r2);
-
-                        if (floorIndex1 != floorIndex2) {
-                            return Integer.compare(floorIndex1, floorIndex2); // Sort by floor
-                        } else {
-                            return Integer.compare(num1, num2); // Then by room number
-                        }
-                    });
+                    assignments.sort((a1, a2) -> Integer.compare(a1.room.getId(), a2.room.getId())); // Room IDs follow floor then room number
                     break;
                 default:
                     break;
@@ -167,15 +213,6 @@ public class HotelController {
     }
 
 
-    /* extractRoomNumber
-    Inputs: roomName – formatted room name (e.g., A12L).
-    Outputs: the numeric part of the room name as integer.
-    Description: Extracts and parses the room number from the full room name. */
-    private int extractRoomNumber(String roomName) {
-        String digits = roomName.substring(1, roomName.length() - 1); // Remove first and last char
-        return Integer.parseInt(digits); // Convert to integer
-    }
-
     /* initStrategies
     Inputs: none.
     Outputs: none.
@@ -185,6 +222,7 @@ public class HotelController {
         strategies.put("Quiet Zone", new QuietZoneAssignment(hotel));
         strategies.put("Stay Purpose", new StayPurposeAssignment());
         strategies.put("Sequential Assignment", new SequentialAssignment(hotel));
+        strategies.put("Optimal Matching", new MatchingAssignment(hotel));
     }
 
     /* getSelectedStrategy
@@ -192,109 +230,158 @@ public class HotelController {
     Outputs: the currently selected AssignmentStrategy.
     Description: Retrieves the strategy selected by the user from the UI. */
     private AssignmentStrategy getSelectedStrategy() {
-        String selected = view.getStrategySelector().getValue(); // Get selected strategy label
-        return strategies.get(selected); // Return corresponding strategy
+        return selectedStrategy; // Kept up to date by the selector's listener, so any thread can read it
     }
 
     /* assignReservation
     Inputs: reservation – the reservation to assign.
-    Outputs: the created AssignmentRequest.
+    Outputs: the created AssignmentRequest, or null if no room could be reserved.
     Description: Uses the selected strategy to assign a room, reserves it, and stores the request. */
     public AssignmentRequest assignReservation(Reservation reservation) {
-        AssignmentRequest request = getSelectedStrategy().createAssignmentRequest(hotel.getAvailableRooms(), reservation); // Create request
-        hotel.reserveRoom(request); // Apply reservation
-        assignments.add(request); // Track request
+        AssignmentRequest request = hotel.assignReservation(getSelectedStrategy(), reservation); // Choose and reserve
+        if (request != null) assignments.add(request); // Track request
         return request;
     }
 
+    /* assignReservations
+    Inputs: reservations – the reservations to assign, in arrival order.
+    Outputs: the created AssignmentRequests (fewer than the reservations if the hotel fills up).
+    Description: Plans all the assignments on one batch, then reserves them and notifies the view once. A planned room
+    taken meanwhile (by the pipeline, for example) is planned again for its reservation alone, which waits in the
+    waitlist if nothing is left. */
+    public List<AssignmentRequest> assignReservations(List<Reservation> reservations) {
+        List<AssignmentRequest> requests = new ArrayList<>(getSelectedStrategy().createAssignmentRequests(reservations, hotel.newBatch())); // Plan the batch
+        List<AssignmentRequest> lost = hotel.reserveRooms(requests); // Apply reservations
+        requests.removeAll(lost);
+        assignments.addAll(requests); // Track requests
+        for (AssignmentRequest request : lost) {
+            AssignmentRequest replanned = assignReservation(request.reservation); // Tracked there
+            if (replanned != null) requests.add(replanned);
+            else if (waitlist != null && !request.reservation.isDated()) waitlist.add(request.reservation); // Waits for the next free room
+        }
+        return requests;
+    }
+
     /* reassignReservation
     Inputs: request – the reservation to reassign.
     Outputs: none.
-    Description: Frees the current room, removes the request, and reassigns the reservation to a new available room. */
+    Description: Frees the current room, removes the request, and reassigns the reservation to a new available room.
+    The freed room may go to the waitlist first; if nothing is left, the reservation joins the waitlist. A dated stay
+    gives its nights back and books them again in another room if one is free. */
     public void reassignReservation(AssignmentRequest request) {
-        int index = findRequestIndexByRoomName(request.room.getName()); // Find current index
+        int index = assignments.indexOf(request); // Find current index
         if (index != -1) {
-            hotel.freeRoom(request.room.getName()); // Free room
+            if (request.reservation.isDated()) hotel.cancelStay(request); // Free its nights only
+            else hotel.freeRoom(request.room.getId()); // Free room
             assignments.remove(index); // Remove current assignment
-            if (!hotel.getAvailableRooms().isEmpty()) {
-                AssignmentRequest newRequest = assignReservation(request.reservation); // Create new assignment
-                assignments.remove(newRequest); // Remove duplicate
-                assignments.add(index, newRequest); // Insert at original index
+            AssignmentRequest newRequest = null;
+            if (request.reservation.isDated() || !hotel.getAvailableRooms().isEmpty()) {
+                newRequest = assignReservation(request.reservation); // Create new assignment
+                if (newRequest != null) {
+                    assignments.remove(newRequest); // Remove duplicate
+                    assignments.add(index, newRequest); // Insert at original index
+                }
             }
+            if (newRequest == null && waitlist != null && !request.reservation.isDated()) waitlist.add(request.reservation); // Waits for the next free room
         }
     }
 
-    /* findRequestIndexByRoomName
-    Inputs: roomName – the name of the room.
-    Outputs: index of the assignment in the list; -1 if not found.
-    Description: Searches the assignment list for a reservation matching the given room name. */
-    private int findRequestIndexByRoomName(String roomName) {
-        for (int i = 0; i < assignments.size(); i++) {
-            if (assignments.get(i).room.getName().equals(roomName)) {
-                return i; // Found the index
+    /* startSimulation
+    Inputs: none.
+    Outputs: none.
+    Description: Starts the ingestion pipeline, feeds it the reservations already in the file, then feeds it again on
+    every change of the file (or polls it where it cannot be watched). Reading, parsing and assignment happen on the
+    pipeline's threads; the FX thread only shows the results. With -Dhotel.spool=<directory>, the files dropped in that
+    directory are ingested instead. Reservations that find the hotel full wait in a waitlist kept in the data directory,
+    which is served first when rooms are freed. */
+    private void startSimulation() {
+        try {
+            dedup = new ReservationDedupIndex(dataDirectory.resolve("reservation.csv.keys")); // Reservations assigned by previous runs
+            dedup.claimAssigned(hotel); // Including those whose key a crash lost after the journal had them
+        } catch (IOException e) {
+            System.err.println("Cannot load reservation keys, duplicates will not be detected: " + e.getMessage());
+        }
+        try {
+            waitlist = new ReservationWaitlist(dataDirectory.resolve("reservation.csv.waitlist"), WAITLIST_BY_ROOM_TYPE,
+                    this::getSelectedStrategy, this::waitlistAssigned);
+            if (dedup != null) {
+                for (Reservation reservation : waitlist.getReservations()) { dedup.claim(reservation.getIdempotencyKey()); } // Already waiting
+            }
+            hotel.setWaitlist(waitlist);
+            waitlist.drainLater(hotel, (char) 0); // Waiting since a previous run; rooms may have been freed since
+        } catch (IOException e) {
+            System.err.println("Cannot load waitlist, reservations finding the hotel full are dropped: " + e.getMessage());
+        }
+        pipeline = new ReservationPipeline(hotel, this::getSelectedStrategy, PARSE_THREADS, VALIDATE_THREADS, ASSIGN_THREADS,
+                ReservationPipeline.DEFAULT_QUEUE_CAPACITY, this::requestRefresh, reservationReader::reject, dedup, reservationReader::finished);
+        pipeline.start();
+
+        if (spoolDirectory != null) {
+            spool = new ReservationSpool(Paths.get(spoolDirectory), this::feedPipeline);
+            try {
+                spool.start();
+                return;
+            } catch (IOException e) {
+                System.err.println("Cannot use spool directory, reading " + reservationFile + ": " + e.getMessage());
+                spool.close();
+                spool = null;
             }
         }
-        return -1; // Not found
+        Thread reader = new Thread(this::feedPipeline, "reservation-reader"); // Lines written before start-up
+        reader.setDaemon(true);
+        reader.start();
+        ReservationFileWatcher watcher = new ReservationFileWatcher(Paths.get(reservationFile), DEBOUNCE_MILLIS,
+                POLL_INTERVAL_SECONDS * 1000L, this::feedPipeline);
+        watcher.start();
     }
 
-    /* updateReservationList
+    /* feedPipeline
     Inputs: none.
     Outputs: none.
-    Description: Goes through all reservations and assigns them if rooms are available. */
-    public void updateReservationList() {
-        for (Reservation res : reservations) {
-            System.err.println(res.getFirstName()); // Debug output
-            if (hotel.getAvailableRooms().size() > 0) {
-                assignReservation(res); // Assign if a room is available
+    Description: Hands the new lines of the reservation file (or the spool's reservations) to the pipeline. Runs on the
+    watcher or spool threads, one at a time, and blocks while the pipeline is full. */
+    private synchronized void feedPipeline() {
+        try {
+            if (spool != null) {
+                for (Reservation reservation : spool.drain()) { pipeline.submitValid(reservation); }
+            } else {
+                reservationReader.pollLines(pipeline::submit);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Shutting down
         }
     }
 
-    /* findRequestByRoomName
-    Inputs: roomName – the name of the room.
-    Outputs: the AssignmentRequest for the room, or null if not found.
-    Description: Retrieves an assignment request based on the room's name. */
-    private AssignmentRequest findRequestByRoomName(String roomName) {
-        for (AssignmentRequest request : assignments) {
-            if (request.room.getName().equals(roomName)) {
-                return request; // Match found
-            }
-        }
-        return null; // No match
+    /* waitlistAssigned
+    Inputs: request – a waiting reservation that got a room.
+    Outputs: none.
+    Description: Called on the thread that freed the room; the assignment is shown by the next refresh. */
+    private void waitlistAssigned(AssignmentRequest request) {
+        if (dedup != null) dedup.commit(request.reservation.getIdempotencyKey()); // Claimed when it was queued
+        assignedFromWaitlist.add(request);
+        requestRefresh();
     }
 
-    /* startSimulation
+    /* requestRefresh
     Inputs: none.
     Outputs: none.
-    Description: Starts a recurring timer that checks for new reservations and refreshes the UI. */
-    private void startSimulation() {
-        Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(POLL_INTERVAL_SECONDS), new EventHandler<ActionEvent>() {
-            @Override
-            public void handle(ActionEvent event) {
-                pollForNewReservations(); // Check for new data
-                displayUI(); // Refresh UI
-                refreshButtonAction(); // Rebind buttons
-            }
-        }));
-        timeline.setCycleCount(Animation.INDEFINITE); // Loop forever
-        timeline.play(); // Start timer
+    Description: Called from the pipeline's threads; queues one refresh on the FX thread, where model and UI live. */
+    private void requestRefresh() {
+        if (refreshPending.compareAndSet(false, true)) Platform.runLater(this::refreshReservations);
     }
 
-    /* pollForNewReservations
+    /* refreshReservations
     Inputs: none.
     Outputs: none.
-    Description: Reads the reservation file and assigns any new reservations to available rooms. */
-    private void pollForNewReservations() {
-        List<Reservation> latest = ReservationParser.parseFile(reservationFile); // Parse file
-
-        for (Reservation res : latest) {
-            if (!hotel.getAvailableRooms().isEmpty()) {
-                assignReservation(res); // Assign new reservation
-            }
-        }
+    Description: Collects the assignments made by the pipeline and the waitlist and refreshes the UI. */
+    private void refreshReservations() {
+        refreshPending.set(false); // Later assignments need a new refresh
+        assignments.addAll(pipeline.drainAssigned()); // Frees room in the pipeline's output queue
+        for (AssignmentRequest request; (request = assignedFromWaitlist.poll()) != null; ) { assignments.add(request); }
+        displayUI(); // Refresh UI
+        refreshButtonAction(); // Rebind buttons
     }
 
-
     /* removeReservation
     Inputs: request – the reservation to remove.
     Outputs: none.
@@ -303,13 +390,17 @@ public class HotelController {
         assignments.removeIf(r -> r.equals(request)); // Remove from data list
 
         VBox reservationList = view.getReservationList(); // Get UI reservation list
-        reservationList.getChildren().removeIf(node -> {
-            if (node instanceof HBox) {
-                Object userData = node.getUserData(); // Check if the HBox corresponds to the room
-                return userData instanceof String && userData.equals(request.room.getName());
-            }
-            return false;
-        });
+        reservationList.getChildren().removeIf(node -> node instanceof HBox && request.equals(node.getUserData())); // Rows show their assignment
+    }
+
+    /* addReservation
+    Inputs: request – an assignment already committed to the hotel, e.g. a reservation moved by hand.
+    Outputs: none.
+    Description: Tracks the assignment and shows it in the reservation list. */
+    public void addReservation(AssignmentRequest request) {
+        assignments.add(request); // Track request
+        displayUI(); // Refresh UI
+        refreshButtonAction(); // Rebind buttons
     }
 
     /* addClickHandlersToRoomButtons
@@ -317,8 +408,8 @@ public class HotelController {
     Outputs: none.
     Description: Binds actions to each room button to open the reservation popup if the room is reserved. */
     private void addClickHandlersToRoomButtons() {
-        for (Floor floor : hotel.getFloorMap().values()) {
-            for (Room room : floor.getRoomMap().values()) {
+        for (int level = 1; level <= hotel.getNumberOfFloors(); level++) {
+            for (Room room : hotel.getFloor(level).getRoomMap().values()) {
                 Button roomButton = view.getButton(room.getName()); // Get the button linked to this room
                 roomButton.setOnAction(e -> {
                     if (room.isReserved()) {
@@ -332,11 +423,11 @@ public class HotelController {
     }
 
     /* ReservationEntryHandler
-    Inputs: roomName – name of the room; hbox – corresponding HBox UI element.
+    Inputs: request – the assignment shown by the entry; hbox – corresponding HBox UI element.
     Outputs: none (interface method).
     Description: Functional interface to apply logic to each reservation entry in the UI. */
     private static interface ReservationEntryHandler {
-        void handle(String roomName, HBox hbox); // Functional method to handle reservation entry
+        void handle(AssignmentRequest request, HBox hbox); // Functional method to handle reservation entry
     }
 
     /* forEachReservationEntry
@@ -349,15 +440,46 @@ public class HotelController {
         for (javafx.scene.Node node : reservationList.getChildren()) {
             if (node instanceof HBox) {
                 HBox hbox = (HBox) node;
-                Object userData = hbox.getUserData(); // Get associated room name
-                if (userData instanceof String) {
-                    handler.handle((String) userData, hbox); // Apply handler function
+                Object userData = hbox.getUserData(); // Get associated assignment
+                if (userData instanceof AssignmentRequest) {
+                    handler.handle((AssignmentRequest) userData, hbox); // Apply handler function
                 }
             }
         }
     }
 
+    /* FxThreadObserver
+    Description: Forwards the hotel's notifications to the view on the FX thread. Notifications raised by the
+    pipeline's threads are queued and applied together by a single pending runLater, so a surge of assignments
+    costs the FX thread one pass instead of one task per room. */
+    private static class FxThreadObserver implements HotelObserver {
+        private final HotelObserver view;
+        private final ConcurrentLinkedQueue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+        FxThreadObserver(HotelObserver view) {
+            this.view = view;
+        }
 
-}
+        public void reserveRoom(String roomName) { dispatch(() -> view.reserveRoom(roomName)); }
+        public void freeRoom(String roomName, char type) { dispatch(() -> view.freeRoom(roomName, type)); }
 
+        @Override
+        public void reserveRooms(List<String> roomNames) { dispatch(() -> view.reserveRooms(roomNames)); }
 
+        private void dispatch(Runnable notification) {
+            if (Platform.isFxApplicationThread() && pending.isEmpty()) {
+                notification.run(); // Already on the FX thread and nothing queued before it
+                return;
+            }
+            pending.add(notification);
+            if (flushQueued.compareAndSet(false, true)) Platform.runLater(this::flush);
+        }
+
+        private void flush() {
+            flushQueued.set(false); // Notifications queued from now on need a new flush
+            for (Runnable notification = pending.poll(); notification != null; notification = pending.poll()) { notification.run(); }
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/* HotelImage
+Description: Compiled binary form of a hotel's configuration, and optionally of its reservations, opened through a
+read-only memory mapping. Layout, little-endian, every section starting on 8 bytes:
+  header – magic, version, floors, rows, columns, rooms, neighbour entries, flags, the reservations' offset and length,
+           the file length and a CRC32C of the header;
+  tables – the FloorLayout tables as they are queried: cell -> room index (int per cell), row and column (int per
+           room), type (ASCII byte per room), neighbour start (int per room, plus one), neighbour list (int per entry),
+           edge rooms (bit per room, in longs);
+  reservations – optional, a HotelSnapshot of the hotel the image was written from.
+Opening checks the header and maps the file; the FloorLayout is built on slices of the mapping, so nothing is read per
+room: the OS pages the tables in as queries touch them, and processes opening the same image share the pages. Only
+the header is checked: the tables are trusted as written by write. Convert a text configuration with convert, or run
+    java -cp target/classes com.example.HotelImage configuration.hconfig configuration.himg */
+public final class HotelImage {
+
+    private static final int MAGIC = 0x474d4948; // "HIMG" in the file
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int RESERVATIONS = 1; // Flag: a reservations section follows the tables
+
+    private final Path file;
+    private final int numberOfFloors;
+    private final FloorLayout layout;
+    private final ByteBuffer reservations; // Slice of the mapping, or null
+
+    private HotelImage(Path file, int numberOfFloors, FloorLayout layout, ByteBuffer reservations) {
+        this.file = file;
+        this.numberOfFloors = numberOfFloors;
+        this.layout = layout;
+        this.reservations = reservations;
+    }
+
+    /* open
+    Inputs: file – an image written by write or convert.
+    Outputs: the image, its tables mapped.
+    Description: Throws an IOException if the file is not an image of this version, or is truncated. The mapping
+    stays valid after the file is closed, until the image is collected. */
+    public static HotelImage open(Path file) throws IOException {
+        MappedByteBuffer mapping;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException(file + " is not a hotel image");
+            if (size > Integer.MAX_VALUE) throw new IOException("Image " + file + " is larger than 2 GB");
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        ByteBuffer header = mapping.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        crc.update(header.duplicate().limit(HEADER_BYTES - 4));
+        if (header.getInt(0) != MAGIC) throw new IOException(file + " is not a hotel image");
+        if (header.getInt(4) != VERSION) throw new IOException("Image " + file + " is of version " + header.getInt(4) + ", not " + VERSION);
+        if ((int) crc.getValue() != header.getInt(HEADER_BYTES - 4)) throw new IOException("Image " + file + " has a damaged header");
+        int floors = header.getInt(8), rows = header.getInt(12), cols = header.getInt(16), rooms = header.getInt(20);
+        int entries = header.getInt(24), flags = header.getInt(28);
+        long reservationsOffset = header.getLong(32), reservationsLength = header.getLong(40);
+        if (header.getLong(48) != mapping.capacity()) throw new IOException("Image " + file + " is truncated");
+
+        long[] offsets = sectionOffsets(rows, cols, rooms, entries);
+        long end = (flags & RESERVATIONS) != 0 ? reservationsOffset + reservationsLength : offsets[offsets.length - 1];
+        if (end > mapping.capacity() || (flags & RESERVATIONS) != 0 && reservationsOffset < offsets[offsets.length - 1]) {
+            throw new IOException("Image " + file + " is truncated");
+        }
+        FloorLayout layout = new FloorLayout(rows, cols, rooms,
+                slice(mapping, offsets[0], offsets[1]).asIntBuffer(),
+                slice(mapping, offsets[1], offsets[2]).asIntBuffer(),
+                slice(mapping, offsets[2], offsets[3]).asIntBuffer(),
+                slice(mapping, offsets[3], offsets[3] + rooms), // Types, then padding
+                slice(mapping, offsets[4], offsets[5]).asIntBuffer(),
+                slice(mapping, offsets[5], offsets[6]).asIntBuffer(),
+                slice(mapping, offsets[6], offsets[7]).asLongBuffer());
+        ByteBuffer reservations = (flags & RESERVATIONS) != 0 ? slice(mapping, reservationsOffset, end) : null;
+        return new HotelImage(file, floors, layout, reservations);
+    }
+
+    /* write
+    Inputs: file – where to write; numberOfFloors, layout – the hotel's structure; hotel – a hotel of that structure
+    whose reservations are stored too, or null for the structure only.
+    Outputs: none.
+    Description: Writes a temporary file, fsyncs it and moves it over the previous image, so a crash leaves one of
+    them whole. */
+    public static void write(Path file, int numberOfFloors, FloorLayout layout, Hotel hotel) throws IOException {
+        int rows = layout.getNumRows(), cols = layout.getNumCols(), rooms = layout.getNumRooms();
+        int entries = 0;
+        for (int room = 0; room < rooms; room++) { entries += layout.getNeighbourCount(room); }
+        long[] offsets = sectionOffsets(rows, cols, rooms, entries);
+        ByteBuffer snapshot = hotel != null ? HotelSnapshot.encode(0, hotel) : null;
+        long reservationsOffset = offsets[offsets.length - 1];
+        long length = reservationsOffset + (snapshot != null ? snapshot.remaining() : 0);
+        if (length > Integer.MAX_VALUE) throw new IOException("Image of " + rooms + " rooms per floor is larger than 2 GB");
+
+        ByteBuffer out = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(numberOfFloors).putInt(rows).putInt(cols).putInt(rooms).putInt(entries)
+                .putInt(snapshot != null ? RESERVATIONS : 0)
+                .putLong(snapshot != null ? reservationsOffset : 0).putLong(snapshot != null ? snapshot.remaining() : 0)
+                .putLong(length);
+        CRC32C crc = new CRC32C();
+        crc.update(out.array(), 0, HEADER_BYTES - 4);
+        out.putInt(HEADER_BYTES - 4, (int) crc.getValue());
+
+        out.position((int) offsets[0]);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) { out.putInt(layout.getRoomIndexAt(row, col)); }
+        }
+        out.position((int) offsets[1]);
+        for (int room = 0; room < rooms; room++) { out.putInt(layout.getRow(room)); }
+        out.position((int) offsets[2]);
+        for (int room = 0; room < rooms; room++) { out.putInt(layout.getCol(room)); }
+        out.position((int) offsets[3]);
+        for (int room = 0; room < rooms; room++) { out.put((byte) layout.getType(room)); }
+        out.position((int) offsets[4]);
+        for (int room = 0, start = 0; room <= rooms; room++) {
+            out.putInt(start);
+            if (room < rooms) start += layout.getNeighbourCount(room);
+        }
+        out.position((int) offsets[5]);
+        for (int room = 0; room < rooms; room++) {
+            for (int i = 0; i < layout.getNeighbourCount(room); i++) { out.putInt(layout.getNeighbour(room, i)); }
+        }
+        out.position((int) offsets[6]);
+        for (int word = 0; word < (rooms + 63) >>> 6; word++) {
+            long bits = 0;
+            for (int room = word << 6; room < Math.min(rooms, (word + 1) << 6); room++) {
+                if (layout.isEdge(room)) bits |= 1L << room;
+            }
+            out.putLong(bits);
+        }
+        if (snapshot != null) {
+            out.position((int) reservationsOffset);
+            out.put(snapshot);
+        }
+        out.position(0);
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) { channel.write(out); }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /* convert
+    Inputs: configuration – a .hconfig file; image – where to write its image.
+    Outputs: none.
+    Description: The conversion step: parses and compiles the text once, then writes the structure (no reservations). */
+    public static void convert(Path configuration, Path image) throws IOException {
+        ConfigurationParser parser = new ConfigurationParser(configuration.toString());
+        if (parser.getFloorLayout().isEmpty()) throw new IOException("Cannot read " + configuration);
+        write(image, parser.getNumberOfFloors(), new FloorLayout(parser.getFloorLayout()), null);
+    }
+
+    /* openCompiled
+    Inputs: configuration – a .hconfig file; image – its image.
+    Outputs: the image, converted first if it is missing or older than the configuration.
+    Description: What start-up uses, so editing the .hconfig is enough to change the hotel. */
+    public static HotelImage openCompiled(Path configuration, Path image) throws IOException {
+        boolean stale;
+        try {
+            stale = Files.getLastModifiedTime(image).compareTo(Files.getLastModifiedTime(configuration)) < 0;
+        } catch (NoSuchFileException e) {
+            stale = true; // Never converted
+        }
+        if (stale) convert(configuration, image);
+        return open(image);
+    }
+
+    /* restoreReservations
+    Inputs: hotel – an empty hotel opened on this image.
+    Outputs: true if the image holds reservations, which are then in the hotel.
+    Description: Unlike the tables, reservations are objects: this decodes one per occupied room or stay. */
+    public boolean restoreReservations(Hotel hotel) throws IOException {
+        if (reservations == null) return false;
+        HotelSnapshot.decode(reservations, hotel, file.toString());
+        return true;
+    }
+
+    public int getNumberOfFloors() { return numberOfFloors; }
+    public FloorLayout getLayout() { return layout; }
+    public boolean hasReservations() { return reservations != null; }
+
+    // Start of each table, then the end of the last one (8-byte aligned), for a layout of these sizes
+    private static long[] sectionOffsets(int rows, int cols, int rooms, int entries) {
+        long[] bytes = {4L * rows * cols, 4L * rooms, 4L * rooms, rooms, 4L * (rooms + 1), 4L * entries, 8L * ((rooms + 63) >>> 6)};
+        long[] offsets = new long[bytes.length + 1];
+        offsets[0] = HEADER_BYTES;
+        for (int i = 0; i < bytes.length; i++) { offsets[i + 1] = offsets[i] + (bytes[i] + 7 & ~7L); }
+        return offsets;
+    }
+
+    private static ByteBuffer slice(ByteBuffer mapping, long from, long to) {
+        return mapping.duplicate().position((int) from).limit((int) to).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /* main
+    Inputs: args – the .hconfig file, then the image to write.
+    Outputs: none.
+    Description: The conversion step, from the command line. */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java com.example.HotelImage <configuration.hconfig> <image.himg>");
+            System.exit(2);
+        }
+        convert(Paths.get(args[0]), Paths.get(args[1]));
+        HotelImage image = open(Paths.get(args[1]));
+        System.out.printf("%s: %d floors of %d rooms (%dx%d), %,d bytes%n", args[1], image.getNumberOfFloors(),
+                image.getLayout().getNumRooms(), image.getLayout().getNumRows(), image.getLayout().getNumCols(), Files.size(Paths.get(args[1])));
+    }
+
+}
@@ -0,0 +1,350 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32C;
+
+/* HotelJournal
+Description: Makes the hotel's reservations survive restarts. Every change made through the Hotel – a room reserved or
+freed, a stay booked or cancelled; a reassignment is the free and the reserve it consists of – is appended as a binary
+record under the lock of the room's floor, so a room's records are in the order of its changes, and the Hotel method
+returns once commit has it on disk. Commit is a group commit: the first waiting thread writes and fsyncs everything
+appended so far while the others wait, and whoever was behind it finds its record already written, so concurrent
+assigners share fsyncs instead of queueing for one each.
+Every snapshotInterval records, a background thread writes a HotelSnapshot and deletes the journal segments it covers;
+records go to a new segment file from the moment the snapshot starts. The snapshot is fuzzy – floors are copied one at
+a time while assignments go on – which is safe because replaying a record is idempotent (see Hotel.restoreReserved).
+At start-up, the constructor loads the latest snapshot into the hotel and replays the records written after it; a torn
+record (crash mid-write) ends the replay and is cut off. Thread-safe. A write error is fatal: every later commit fails
+too, since the records lost would leave a gap in the journal. */
+public class HotelJournal implements Closeable {
+
+    private static final byte RESERVED = 1, FREED = 2, CANCELLED = 3;
+    private static final int RECORD_HEADER_BYTES = 4 + 4; // Body length, CRC32C of the body
+    private static final int BODY_HEADER_BYTES = 8 + 1 + 4; // Sequence, type, room ID
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+
+    private final Path journalFile; // Segments are journalFile.1, journalFile.2, ...
+    private final Path snapshotFile;
+    private final Hotel hotel;
+    private final long snapshotInterval;
+    private final Object syncLock = new Object(); // Held by the thread writing a group
+    private final Object snapshotLock = new Object();
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    private final CRC32C crc = new CRC32C(); // Guarded by this
+    private int recordStart; // Of the record being appended; guarded by this
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES); // Appended, not written yet; guarded by this
+    private ByteBuffer writing = ByteBuffer.allocate(INITIAL_BUFFER_BYTES); // The group being written; guarded by syncLock
+    private FileChannel segment; // Guarded by syncLock and this
+    private int segmentNumber;
+    private long lastSequence; // Guarded by this
+    private volatile long durableSequence; // Every record up to it is on disk
+    private volatile long snapshotSequence; // Covered by the latest snapshot
+    private volatile IOException failure;
+    private long syncs;
+    private long recoveredRecords;
+    private int recoveredReservations;
+
+    /* HotelJournal constructor
+    Inputs: journalFile – base name of the journal's files; hotel – the hotel, freshly created and empty;
+    snapshotInterval – records between two snapshots, 0 for snapshots on demand only.
+    Outputs: none.
+    Description: Recovers the hotel from the latest snapshot and the records after it, then opens a new segment. The
+    caller attaches the journal with Hotel.setJournal. Throws if the snapshot is damaged or of another hotel. */
+    public HotelJournal(Path journalFile, Hotel hotel, long snapshotInterval) throws IOException {
+        this.journalFile = journalFile;
+        this.snapshotFile = journalFile.resolveSibling(journalFile.getFileName() + ".snapshot");
+        this.hotel = hotel;
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotSequence = HotelSnapshot.read(snapshotFile, hotel);
+        this.lastSequence = snapshotSequence;
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (replay(segments.get(i))) continue;
+            for (Path later : segments.subList(i + 1, segments.size())) { Files.delete(later); } // Cannot follow a gap
+            break;
+        }
+        for (int level = 1; level <= hotel.getNumberOfFloors(); level++) {
+            hotel.forEachReservation(level, (reservation, roomId) -> recoveredReservations++);
+        }
+        this.durableSequence = lastSequence;
+        this.segmentNumber = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1));
+        this.segment = openSegment(++segmentNumber);
+    }
+
+    /* reserved
+    Inputs: roomId – hotel-wide room ID; reservation – its new occupant, or a stay booked in it if dated.
+    Outputs: the record's sequence number, for commit.
+    Description: Called by the Hotel under the room's lock; only appends to memory. */
+    long reserved(int roomId, Reservation reservation) {
+        byte[] firstName = reservation.getFirstName().getBytes(StandardCharsets.UTF_8);
+        byte[] lastName = reservation.getLastName().getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            ByteBuffer body = begin(RESERVED, roomId, 10 + firstName.length + lastName.length + HotelSnapshot.MAX_DETAILS_BYTES);
+            HotelSnapshot.putVarint(body, firstName.length);
+            body.put(firstName);
+            HotelSnapshot.putVarint(body, lastName.length);
+            body.put(lastName);
+            HotelSnapshot.putDetails(body, reservation);
+            return end();
+        }
+    }
+
+    synchronized long freed(int roomId) {
+        begin(FREED, roomId, 0);
+        return end();
+    }
+
+    synchronized long cancelled(int roomId, int from, int to) {
+        begin(CANCELLED, roomId, 8).putInt(from).putInt(to);
+        return end();
+    }
+
+    /* commit
+    Inputs: sequence – a record returned by one of the methods above.
+    Outputs: none.
+    Description: Returns once the record is on disk. If another thread is writing a group, waits for it; the group
+    after it then holds everything appended meanwhile, this record included, and takes one fsync for all. Throws an
+    UncheckedIOException if the journal cannot be written. */
+    void commit(long sequence) {
+        if (durableSequence >= sequence) return;
+        long written;
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) return; // Written by the group before
+            if (failure != null) throw new UncheckedIOException("Hotel journal failed earlier", failure);
+            synchronized (this) {
+                ByteBuffer group = pending;
+                pending = writing;
+                writing = group;
+                written = lastSequence;
+            }
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) { segment.write(writing); }
+                segment.force(false);
+            } catch (IOException e) {
+                failure = e;
+                throw new UncheckedIOException("Error writing hotel journal", e);
+            } finally {
+                writing.clear();
+            }
+            durableSequence = written;
+            syncs++;
+        }
+        if (snapshotInterval > 0 && written - snapshotSequence >= snapshotInterval && snapshotRunning.compareAndSet(false, true)) {
+            Thread snapshotter = new Thread(this::backgroundSnapshot, "hotel-snapshot");
+            snapshotter.setDaemon(true);
+            snapshotter.start();
+        }
+    }
+
+    /* snapshot
+    Inputs: none.
+    Outputs: none.
+    Description: Starts a new segment, writes a snapshot of the hotel covering every record before it, then deletes
+    the older segments. Assignments go on meanwhile. */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long covered;
+            int firstKept;
+            synchronized (syncLock) {
+                if (failure != null) throw new IOException("Hotel journal is closed or failed", failure);
+                synchronized (this) {
+                    // Records still pending are written to the new segment; replay skips those the snapshot covers
+                    covered = lastSequence;
+                    firstKept = segmentNumber + 1;
+                    FileChannel previous = segment;
+                    segment = openSegment(firstKept);
+                    segmentNumber = firstKept;
+                    previous.close(); // Every group written to it was fsynced
+                }
+            }
+            HotelSnapshot.write(snapshotFile, covered, hotel);
+            snapshotSequence = covered;
+            for (Path old : segments()) {
+                if (segmentNumber(old) < firstKept) Files.delete(old);
+            }
+        }
+    }
+
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    public long getSnapshotSequence() {
+        return snapshotSequence;
+    }
+
+    /* getSyncCount
+    Inputs: none.
+    Outputs: fsyncs made by commit; fewer than the records committed when groups formed.
+    Description: For the benchmarks. */
+    public long getSyncCount() {
+        synchronized (syncLock) {
+            return syncs;
+        }
+    }
+
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    public int getRecoveredReservations() {
+        return recoveredReservations;
+    }
+
+    /* close
+    Inputs: none.
+    Outputs: none.
+    Description: Writes what is still pending and closes the segment; changes made afterwards fail to commit. */
+    @Override
+    public void close() throws IOException {
+        synchronized (snapshotLock) {
+            long last;
+            synchronized (this) {
+                last = lastSequence;
+            }
+            if (last > durableSequence && failure == null) commit(last);
+            synchronized (syncLock) {
+                failure = new IOException("Hotel journal closed");
+                segment.close();
+            }
+        }
+    }
+
+    private void backgroundSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            System.err.println("Error writing hotel snapshot, the journal keeps growing: " + e.getMessage());
+        } finally {
+            snapshotRunning.set(false);
+        }
+    }
+
+    // Starts a record in pending: header room, sequence, type, room ID; extra – upper bound of the rest of the body
+    private ByteBuffer begin(byte type, int roomId, int extra) {
+        int needed = RECORD_HEADER_BYTES + BODY_HEADER_BYTES + extra;
+        if (pending.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + needed));
+            pending.flip();
+            pending = larger.put(pending);
+        }
+        recordStart = pending.position();
+        pending.position(recordStart + RECORD_HEADER_BYTES); // Filled in by end
+        return pending.putLong(++lastSequence).put(type).putInt(roomId);
+    }
+
+    // Completes the record started by begin with its length and CRC
+    private long end() {
+        int bodyStart = recordStart + RECORD_HEADER_BYTES;
+        int length = pending.position() - bodyStart;
+        crc.reset();
+        crc.update(pending.array(), bodyStart, length);
+        pending.putInt(recordStart, length).putInt(recordStart + 4, (int) crc.getValue());
+        return lastSequence;
+    }
+
+    private FileChannel openSegment(int number) throws IOException {
+        return FileChannel.open(journalFile.resolveSibling(journalFile.getFileName() + "." + number),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    // The journal's segments, oldest first
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        Path directory = journalFile.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, journalFile.getFileName() + ".*")) {
+            for (Path file : files) {
+                if (segmentNumber(file) > 0) segments.add(file);
+            }
+        }
+        segments.sort((a, b) -> Integer.compare(segmentNumber(a), segmentNumber(b)));
+        return segments;
+    }
+
+    // The number of a segment file, or 0 for the journal's other files (snapshot, temporary)
+    private int segmentNumber(Path file) {
+        String suffix = file.getFileName().toString().substring(journalFile.getFileName().toString().length() + 1);
+        for (int i = 0; i < suffix.length(); i++) {
+            if (!Character.isDigit(suffix.charAt(i))) return 0;
+        }
+        return suffix.isEmpty() || suffix.length() > 9 ? 0 : Integer.parseInt(suffix);
+    }
+
+    /* replay
+    Inputs: file – a segment.
+    Outputs: true if it was read to its end, false if a torn or damaged record ended it (the segment is then cut there).
+    Description: Applies the records after the snapshot to the hotel, in order. */
+    private boolean replay(Path file) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        CRC32C check = new CRC32C();
+        int start = 0;
+        while (in.remaining() >= RECORD_HEADER_BYTES) {
+            start = in.position();
+            int length = in.getInt();
+            int checksum = in.getInt();
+            if (length < BODY_HEADER_BYTES || length > in.remaining()) break;
+            check.reset();
+            check.update(in.array(), in.position(), length);
+            if ((int) check.getValue() != checksum) break;
+            long sequence = in.getLong();
+            byte type = in.get();
+            int roomId = in.getInt();
+            if (sequence > snapshotSequence) {
+                try {
+                    apply(type, roomId, in);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Journal " + file + " does not match this hotel: " + e.getMessage(), e);
+                }
+                recoveredRecords++;
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+            in.position(start + RECORD_HEADER_BYTES + length);
+            start = in.position();
+        }
+        if (start == in.limit()) return true;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(start); // The torn record and anything after it
+            channel.force(false);
+        }
+        return false;
+    }
+
+    private void apply(byte type, int roomId, ByteBuffer in) {
+        switch (type) {
+            case RESERVED:
+                String firstName = getString(in), lastName = getString(in);
+                hotel.restoreReserved(roomId, HotelSnapshot.getReservation(in, firstName, lastName));
+                break;
+            case FREED:
+                hotel.restoreFreed(roomId);
+                break;
+            case CANCELLED:
+                int from = in.getInt(), to = in.getInt();
+                hotel.restoreCancelled(roomId, from, to);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown record type " + type);
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = HotelSnapshot.getVarint(in);
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+}
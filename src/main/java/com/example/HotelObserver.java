@@ -1,8 +1,18 @@
 package com.example;
 
+import java.util.List;
+
 public interface HotelObserver {
 
     public void reserveRoom(String roomName);
     public void freeRoom(String roomName, char type);
+
+    /* reserveRooms
+    Inputs: roomNames – rooms reserved together by a batch commit.
+    Outputs: none.
+    Description: One notification per batch; observers that can repaint once should override it. */
+    public default void reserveRooms(List<String> roomNames) {
+        for (String roomName : roomNames) { reserveRoom(roomName); }
+    }
     
 }
@@ -0,0 +1,232 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.CRC32C;
+
+/* HotelSnapshot
+Description: Compact binary image of every reservation in the hotel, written and loaded by HotelJournal and embedded
+in a HotelImage. Layout: magic, version, the journal sequence it covers, the number of rooms (a snapshot only loads
+into a hotel of that size), a table of the distinct strings (guests share first and last names), then one entry per
+occupant or dated stay in room order – the room ID as a varint delta from the previous entry, both names as varint
+indexes into the table, persons and children as varints, a flags byte (smoker, purpose, dated, sourced), the nights of
+a dated stay and the source of a reservation that has one (Reservation.getSource, which its idempotency key depends
+on) – and a CRC32C of all of it. An occupied room costs about 6 bytes plus its share of the string table. */
+final class HotelSnapshot {
+
+    private static final int MAGIC = 0x48534e50; // "HSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    static final int MAX_DETAILS_BYTES = 5 + 5 + 1 + 4 + 5 + 8; // Counts, flags, nights, source (see putDetails)
+    private static final int MAX_ENTRY_BYTES = 5 + 5 + 5 + MAX_DETAILS_BYTES; // Room delta, names, details
+    private static final int SMOKER = 1, DATED = 2, PURPOSE_SHIFT = 2, SOURCED = 16;
+    private static final Reservation.StayPurpose[] PURPOSES = Reservation.StayPurpose.values();
+
+    private HotelSnapshot() {}
+
+    /* write
+    Inputs: file – where to write; sequence – last journal record reflected in the hotel's state; hotel – the hotel.
+    Outputs: none.
+    Description: Encodes the hotel, writes it to a temporary file that is fsynced, then moves it over the previous
+    snapshot, so a crash leaves one of them whole. */
+    static void write(Path file, long sequence, Hotel hotel) throws IOException {
+        ByteBuffer out = encode(sequence, hotel);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) { channel.write(out); }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /* read
+    Inputs: file – a snapshot written by write; hotel – an empty hotel of the same size.
+    Outputs: the journal sequence the snapshot covers, or 0 if there is no snapshot.
+    Description: See decode. */
+    static long read(Path file, Hotel hotel) throws IOException {
+        try {
+            return decode(ByteBuffer.wrap(Files.readAllBytes(file)), hotel, file.toString());
+        } catch (NoSuchFileException e) {
+            return 0; // Never taken
+        }
+    }
+
+    /* encode
+    Inputs: sequence – as for write; hotel – the hotel.
+    Outputs: the snapshot, ready to be written.
+    Description: Copies the hotel one floor at a time (Hotel.forEachReservation), then encodes it. */
+    static ByteBuffer encode(long sequence, Hotel hotel) {
+        Contents contents = new Contents();
+        for (int level = 1; level <= hotel.getNumberOfFloors(); level++) { hotel.forEachReservation(level, contents); }
+
+        ByteBuffer out = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE - 8, HEADER_BYTES + 10 + contents.stringBytes
+                + 5L * contents.strings.size() + (long) MAX_ENTRY_BYTES * contents.reservations.size() + 4));
+        out.putInt(MAGIC).putInt(VERSION).putLong(sequence).putInt(hotel.getNumberOfRooms());
+        putVarint(out, contents.strings.size());
+        for (byte[] string : contents.strings) {
+            putVarint(out, string.length);
+            out.put(string);
+        }
+        putVarint(out, contents.reservations.size());
+        int previousRoom = 0;
+        for (int i = 0; i < contents.reservations.size(); i++) {
+            int roomId = contents.entries[i * 3];
+            putVarint(out, roomId - previousRoom); // Entries come in room order, so the delta is never negative
+            putVarint(out, contents.entries[i * 3 + 1]);
+            putVarint(out, contents.entries[i * 3 + 2]);
+            putDetails(out, contents.reservations.get(i));
+            previousRoom = roomId;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(out.array(), 0, out.position());
+        out.putInt((int) crc.getValue());
+        out.flip();
+        return out;
+    }
+
+    /* decode
+    Inputs: in – a snapshot from encode, from its position to its limit (a heap buffer or a mapping); hotel – an empty
+    hotel of the same size; source – where it comes from, for the messages.
+    Outputs: the journal sequence the snapshot covers.
+    Description: Checks the CRC and the hotel's size before touching the hotel, then restores every entry through
+    Hotel.restoreReserved. Throws an IOException for a damaged snapshot or one of another hotel. */
+    static long decode(ByteBuffer in, Hotel hotel, String source) throws IOException {
+        in = in.slice(); // Big-endian, from 0
+        if (in.limit() < HEADER_BYTES + 4) throw new IOException("Snapshot " + source + " is truncated");
+        CRC32C crc = new CRC32C();
+        ByteBuffer content = in.duplicate();
+        content.limit(in.limit() - 4);
+        crc.update(content);
+        if ((int) crc.getValue() != in.getInt(in.limit() - 4)) throw new IOException("Snapshot " + source + " is damaged");
+        in.limit(in.limit() - 4);
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) throw new IOException(source + " is not a hotel snapshot");
+        long sequence = in.getLong();
+        int rooms = in.getInt();
+        if (rooms != hotel.getNumberOfRooms()) {
+            throw new IOException("Snapshot " + source + " is of a hotel of " + rooms + " rooms, not " + hotel.getNumberOfRooms());
+        }
+
+        String[] strings = new String[getVarint(in)];
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int length = getVarint(in);
+            if (length > bytes.length) bytes = new byte[length];
+            in.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        int count = getVarint(in);
+        int roomId = 0;
+        for (int i = 0; i < count; i++) {
+            roomId += getVarint(in);
+            String firstName = strings[getVarint(in)];
+            String lastName = strings[getVarint(in)];
+            hotel.restoreReserved(roomId, getReservation(in, firstName, lastName));
+        }
+        return sequence;
+    }
+
+    /* putDetails
+    Inputs: out – target buffer, with at least MAX_DETAILS_BYTES left; reservation – the reservation.
+    Outputs: none.
+    Description: Everything but the names, which the journal writes inline and the snapshot as table indexes. */
+    static void putDetails(ByteBuffer out, Reservation reservation) {
+        putVarint(out, reservation.getNumPersons());
+        putVarint(out, reservation.getNumChildren());
+        boolean sourced = reservation.getSource() != Reservation.NO_SOURCE;
+        int flags = (reservation.isSmoker() ? SMOKER : 0) | (reservation.isDated() ? DATED : 0)
+                | reservation.getStayPurpose().ordinal() << PURPOSE_SHIFT | (sourced ? SOURCED : 0);
+        out.put((byte) flags);
+        if (reservation.isDated()) {
+            int checkIn = (int) reservation.getCheckIn().toEpochDay();
+            out.putInt(checkIn);
+            putVarint(out, (int) reservation.getCheckOut().toEpochDay() - checkIn); // Nights, checkOut is after checkIn
+        }
+        if (sourced) out.putLong(reservation.getSource()); // So its idempotency key survives recovery
+    }
+
+    /* getReservation
+    Inputs: in – buffer positioned after the names; firstName, lastName – the names read before.
+    Outputs: the reservation.
+    Description: Reverse of putDetails. */
+    static Reservation getReservation(ByteBuffer in, String firstName, String lastName) {
+        int persons = getVarint(in);
+        int children = getVarint(in);
+        int flags = in.get();
+        LocalDate checkIn = null, checkOut = null;
+        if ((flags & DATED) != 0) {
+            int night = in.getInt();
+            checkIn = LocalDate.ofEpochDay(night);
+            checkOut = LocalDate.ofEpochDay(night + getVarint(in));
+        }
+        Reservation reservation = new Reservation(firstName, lastName, persons, (flags & SMOKER) != 0,
+                PURPOSES[flags >>> PURPOSE_SHIFT & 3], children, checkIn, checkOut);
+        return (flags & SOURCED) != 0 ? reservation.withSource(in.getLong()) : reservation;
+    }
+
+    /* putVarint
+    Inputs: out – target buffer; value – a non-negative int.
+    Outputs: none.
+    Description: 7 bits per byte, low bits first; 1 byte below 128, at most 5. */
+    static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.put((byte) (value & 0x7f | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    /* Contents
+    Description: The reservations collected for a snapshot, with their room ID and the table indexes of their names. */
+    private static class Contents implements ObjIntConsumer<Reservation> {
+        final Map<String, Integer> stringIndex = new HashMap<>();
+        final List<byte[]> strings = new ArrayList<>();
+        final List<Reservation> reservations = new ArrayList<>();
+        int[] entries = new int[3 * 1024]; // Room ID, first name, last name per reservation
+        long stringBytes;
+
+        @Override
+        public void accept(Reservation reservation, int roomId) {
+            int at = reservations.size() * 3;
+            if (at == entries.length) entries = Arrays.copyOf(entries, entries.length * 2);
+            entries[at] = roomId;
+            entries[at + 1] = index(reservation.getFirstName());
+            entries[at + 2] = index(reservation.getLastName());
+            reservations.add(reservation);
+        }
+
+        private int index(String string) {
+            Integer index = stringIndex.get(string);
+            if (index != null) return index;
+            byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+            stringIndex.put(string, strings.size());
+            strings.add(encoded);
+            stringBytes += encoded.length;
+            return strings.size() - 1;
+        }
+    }
+
+}
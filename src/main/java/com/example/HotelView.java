@@ -288,7 +288,6 @@ public class HotelView implements HotelObserver {
         HBox box = new HBox(roomSpacing * 0.5); // Horizontal container
         box.setPadding(new Insets(roomSpacing * 0.5));
         box.getChildren().addAll(nameLabel, roomLabel, refreshButton); // Add components
-        box.setUserData(roomName); // Store room reference for logic
         return box;
     }
 
@@ -299,20 +298,24 @@ public class HotelView implements HotelObserver {
     public void showReservations(List<AssignmentRequest> assignments) {
         reservationList.getChildren().clear(); // Remove old entries
         for (AssignmentRequest request : assignments) {
-            showReservation(request.reservation, request.room); // Add each entry
+            showReservation(request); // Add each entry
         }
     }
 
     /* showReservation
-    Inputs: res – Reservation object; assignedRoom – room currently assigned.
+    Inputs: request – the reservation and its assigned room.
     Outputs: the HBox created and displayed for the reservation.
-    Description: Creates and displays a reservation entry in the list. */
-    public HBox showReservation(Reservation res, Room assignedRoom) {
+    Description: Creates and displays a reservation entry in the list. The entry keeps the request as its user data:
+    a room name does not identify a row, since dated stays share rooms. */
+    public HBox showReservation(AssignmentRequest request) {
+        Reservation res = request.reservation;
+        Room assignedRoom = request.room;
         String clientName = res.getFirstName().charAt(0) + ". " + res.getLastName(); // Short name
         String roomName = assignedRoom.getName(); // Room label
         String colorStyle = getRoomColorStyle(assignedRoom.getType()); // Get type color
         Button refreshButton = createRefreshButton(); // Add refresh option
         HBox reservationEntry = createReservationEntry(clientName, roomName, colorStyle, refreshButton);
+        reservationEntry.setUserData(request); // Store the assignment for logic
         reservationList.getChildren().add(reservationEntry); // Add to UI
         return reservationEntry;
     }
@@ -0,0 +1,117 @@
+package com.example;
+
+/* LongHashSet
+Description: Set of longs in a single open-addressing table (linear probing), 8 bytes per slot instead of a boxed Long
+and a node per entry in a HashSet. Removal shifts the following entries back, so no tombstones pile up. 0 marks an
+empty slot; the key 0 itself is tracked by a flag. Not thread-safe. */
+class LongHashSet {
+
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] slots;
+    private int shift; // 64 - log2(slots.length): slot takes the top bits of the mixed key
+    private int size;
+    private boolean containsZero;
+
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit((int) Math.max(16, expectedSize / MAX_LOAD) - 1) << 1; // Power of two
+        slots = new long[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /* add
+    Inputs: key – value to add.
+    Outputs: true if it was not in the set.
+    Description: Grows the table past MAX_LOAD. */
+    boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int mask = slots.length - 1;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (slots[slot] == key) return false;
+            if (slots[slot] == 0) {
+                slots[slot] = key;
+                if (++size > slots.length * MAX_LOAD) resize(slots.length * 2);
+                return true;
+            }
+        }
+    }
+
+    boolean contains(long key) {
+        if (key == 0) return containsZero;
+        int mask = slots.length - 1;
+        for (int slot = slot(key); slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (slots[slot] == key) return true;
+        }
+        return false;
+    }
+
+    /* remove
+    Inputs: key – value to remove.
+    Outputs: true if it was in the set.
+    Description: Backward-shift deletion: the entries after the hole that belong at or before it move into it. */
+    boolean remove(long key) {
+        if (key == 0) {
+            if (!containsZero) return false;
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int hole = slot(key);
+        while (slots[hole] != key) {
+            if (slots[hole] == 0) return false;
+            hole = (hole + 1) & mask;
+        }
+        for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            int home = slot(slots[next]);
+            boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next); // Home not in (hole, next]
+            if (movable) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        slots[hole] = 0;
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /* forEach
+    Inputs: action – called with every key.
+    Outputs: none.
+    Description: Table order. */
+    void forEach(java.util.function.LongConsumer action) {
+        if (containsZero) action.accept(0);
+        for (long key : slots) {
+            if (key != 0) action.accept(key);
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        int mask = capacity - 1;
+        for (long key : old) {
+            if (key == 0) continue;
+            int slot = slot(key);
+            while (slots[slot] != 0) { slot = (slot + 1) & mask; }
+            slots[slot] = key;
+        }
+    }
+
+    // Fibonacci hashing: the top bits of the product are the best mixed, and there are as many as the table needs
+    private int slot(long key) {
+        long mixed = key * 0x9e3779b97f4a7c15L; // Spread keys that are not already well distributed
+        return (int) (mixed >>> shift);
+    }
+
+}
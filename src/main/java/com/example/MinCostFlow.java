@@ -0,0 +1,78 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/* MinCostFlow
+Description: Small min-cost max-flow solver (successive shortest paths, Bellman-Ford on the residual graph). Meant for
+compact graphs such as reservation classes against room classes, where each augmentation pushes a whole bottleneck
+at once; it is not meant for one node per room. */
+class MinCostFlow {
+
+    private final List<int[]> edges = new ArrayList<>(); // {from, to, capacity, cost}; edge i ^ 1 is its reverse
+    private final int numberOfNodes;
+
+    MinCostFlow(int numberOfNodes) {
+        this.numberOfNodes = numberOfNodes;
+    }
+
+    /* addEdge
+    Inputs: from, to – node indexes; capacity – maximum flow; cost – cost per unit of flow.
+    Outputs: the edge index, to read its flow back with getFlow.
+    Description: Adds the edge and its zero-capacity reverse. */
+    int addEdge(int from, int to, int capacity, int cost) {
+        int index = edges.size();
+        edges.add(new int[] {from, to, capacity, cost});
+        edges.add(new int[] {to, from, 0, -cost}); // Residual reverse edge
+        return index;
+    }
+
+    /* getFlow
+    Inputs: edge – an index returned by addEdge.
+    Outputs: the flow pushed through that edge.
+    Description: Read from the residual capacity of the reverse edge. */
+    int getFlow(int edge) {
+        return edges.get(edge ^ 1)[2];
+    }
+
+    /* solve
+    Inputs: source, sink – node indexes.
+    Outputs: the total cost of a maximum flow of minimum cost.
+    Description: Repeatedly augments along the cheapest residual path until the sink is unreachable. */
+    long solve(int source, int sink) {
+        long[] distance = new long[numberOfNodes];
+        int[] viaEdge = new int[numberOfNodes];
+        long totalCost = 0;
+
+        while (true) {
+            Arrays.fill(distance, Long.MAX_VALUE);
+            Arrays.fill(viaEdge, -1);
+            distance[source] = 0;
+            boolean relaxed = true;
+            for (int round = 0; round < numberOfNodes && relaxed; round++) { // Bellman-Ford, residual costs may be negative
+                relaxed = false;
+                for (int i = 0; i < edges.size(); i++) {
+                    int[] edge = edges.get(i);
+                    if (edge[2] > 0 && distance[edge[0]] != Long.MAX_VALUE && distance[edge[0]] + edge[3] < distance[edge[1]]) {
+                        distance[edge[1]] = distance[edge[0]] + edge[3];
+                        viaEdge[edge[1]] = i;
+                        relaxed = true;
+                    }
+                }
+            }
+            if (distance[sink] == Long.MAX_VALUE) return totalCost; // No augmenting path left
+
+            int bottleneck = Integer.MAX_VALUE;
+            for (int node = sink; node != source; node = edges.get(viaEdge[node])[0]) {
+                bottleneck = Math.min(bottleneck, edges.get(viaEdge[node])[2]);
+            }
+            for (int node = sink; node != source; node = edges.get(viaEdge[node])[0]) {
+                edges.get(viaEdge[node])[2] -= bottleneck;
+                edges.get(viaEdge[node] ^ 1)[2] += bottleneck;
+            }
+            totalCost += (long) bottleneck * distance[sink];
+        }
+    }
+
+}
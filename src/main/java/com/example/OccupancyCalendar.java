@@ -0,0 +1,141 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/* OccupancyCalendar
+Description: Hotel-wide calendar of dated stays: for every night, a RoomBitmap of the rooms occupied that night. "Which
+rooms are free every night of [a, b)" is a mask (a room type, a floor, the whole hotel) minus the union of the nights'
+bitmaps, computed 65,536 rooms at a time on plain words, without looking at any Room. Type and floor masks are built
+from the FloorLayout the floors share, a type mask on its first use. The per-room RoomCalendar remains the authority at commit time; this is
+the index for questions about the whole building. Thread-safe: one lock; getVersion changes with every update, so
+views can tell when a computed answer is stale. */
+public class OccupancyCalendar {
+
+    private final int numberOfRooms;
+    private final FloorLayout layout;
+    private final Map<Integer, RoomBitmap> occupiedByNight = new HashMap<>(); // Epoch day -> occupied rooms; no entry when empty
+    private final RoomBitmap allRooms;
+    private final RoomBitmap[] typeMasks = new RoomBitmap[FloorLayout.ROOM_TYPES.length]; // Null until first asked for
+    private long version;
+
+    /* OccupancyCalendar constructor
+    Inputs: layout – the compiled floor layout; numberOfFloors – floors of the hotel.
+    Outputs: none.
+    Description: Nights are added as they get stays; nothing is done per room, so a large hotel starts fast. */
+    public OccupancyCalendar(FloorLayout layout, int numberOfFloors) {
+        this.layout = layout;
+        this.numberOfRooms = numberOfFloors * layout.getNumRooms();
+        this.allRooms = RoomBitmap.range(numberOfRooms, 0, numberOfRooms);
+    }
+
+    /* occupy
+    Inputs: roomId – hotel-wide room ID; from – first night; to – night after the last one (epoch days).
+    Outputs: none.
+    Description: Marks the room occupied on each night. */
+    public synchronized void occupy(int roomId, int from, int to) {
+        for (int night = from; night < to; night++) {
+            occupiedByNight.computeIfAbsent(night, n -> new RoomBitmap(numberOfRooms)).add(roomId);
+        }
+        version++;
+    }
+
+    /* release
+    Inputs: as occupy.
+    Outputs: none.
+    Description: Marks the room free again on each night; a night left without stays is dropped. */
+    public synchronized void release(int roomId, int from, int to) {
+        for (int night = from; night < to; night++) {
+            RoomBitmap occupied = occupiedByNight.get(night);
+            if (occupied != null && occupied.remove(roomId) && occupied.isEmpty()) occupiedByNight.remove(night);
+        }
+        version++;
+    }
+
+    /* freeRooms
+    Inputs: from – first night; to – night after the last one; mask – rooms to consider (see the mask getters).
+    Outputs: the rooms of mask free every night of [from, to).
+    Description: Per chunk: the mask's words, minus each night's occupied rooms; chunks the mask does not cover are
+    skipped. O(nights x chunks) word operations, independent of how many stays there are. */
+    public synchronized RoomBitmap freeRooms(int from, int to, RoomBitmap mask) {
+        List<RoomBitmap> nights = new ArrayList<>(Math.max(0, to - from));
+        for (int night = from; night < to; night++) {
+            RoomBitmap occupied = occupiedByNight.get(night);
+            if (occupied != null) nights.add(occupied);
+        }
+        RoomBitmap free = new RoomBitmap(numberOfRooms);
+        long[] words = new long[RoomBitmap.WORDS_PER_CHUNK];
+        for (int chunk = 0; chunk < free.chunks(); chunk++) {
+            if (!mask.copyChunk(chunk, words)) continue;
+            for (RoomBitmap occupied : nights) { occupied.andNotChunk(chunk, words); }
+            free.setChunk(chunk, words);
+        }
+        return free;
+    }
+
+    /* isFree
+    Inputs: roomId, from, to – as occupy.
+    Outputs: true if the room is free every night of the range.
+    Description: One lookup per night; for a single room, RoomCalendar.isFree is O(log n) instead. */
+    public synchronized boolean isFree(int roomId, int from, int to) {
+        for (int night = from; night < to; night++) {
+            RoomBitmap occupied = occupiedByNight.get(night);
+            if (occupied != null && occupied.contains(roomId)) return false;
+        }
+        return true;
+    }
+
+    /* getOccupiedRooms
+    Inputs: night – epoch day.
+    Outputs: the number of rooms occupied that night.
+    Description: O(number of chunks). */
+    public synchronized int getOccupiedRooms(int night) {
+        RoomBitmap occupied = occupiedByNight.get(night);
+        return occupied == null ? 0 : occupied.cardinality();
+    }
+
+    public RoomBitmap getAllRooms() {
+        return allRooms;
+    }
+
+    /* getTypeMask
+    Inputs: type – room type code.
+    Outputs: the rooms of that type.
+    Description: Built on first use in one pass over the room IDs, then kept. */
+    public synchronized RoomBitmap getTypeMask(char type) {
+        int t = FloorLayout.typeIndex(type);
+        if (typeMasks[t] == null) {
+            typeMasks[t] = new RoomBitmap(numberOfRooms);
+            for (int id = 0; id < numberOfRooms; id++) {
+                if (layout.getType(layout.getRoomIndexOf(id)) == type) typeMasks[t].add(id);
+            }
+        }
+        return typeMasks[t];
+    }
+
+    /* getFloorMask
+    Inputs: level – floor number (1-based).
+    Outputs: the rooms of that floor.
+    Description: A floor's rooms are a contiguous range of IDs. */
+    public RoomBitmap getFloorMask(int level) {
+        int first = layout.toRoomId(level, 0);
+        return RoomBitmap.range(numberOfRooms, first, first + layout.getNumRooms());
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /* getSizeInBytes
+    Inputs: none.
+    Outputs: approximate heap taken by the nights' bitmaps.
+    Description: Masks excluded. */
+    public synchronized long getSizeInBytes() {
+        long bytes = 0;
+        for (RoomBitmap occupied : occupiedByNight.values()) { bytes += occupied.getSizeInBytes(); }
+        return bytes;
+    }
+
+}
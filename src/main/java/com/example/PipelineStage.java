@@ -0,0 +1,128 @@
+package com.example;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/* PipelineStage
+Description: One step of ReservationPipeline: a bounded input queue served by a fixed number of worker threads, each
+handing its result to the next stage. Since handing over blocks while the next queue is full, a slow stage stops the
+ones before it instead of letting a backlog build up. Latency is measured per item, from entering this stage's queue
+to the step being done (queue wait plus work). Counters are striped adders, reads may lag concurrent updates. */
+public class PipelineStage<I, O> {
+
+    // The work of a stage; returning null drops the item
+    interface Step<I, O> {
+        O apply(I item) throws InterruptedException;
+    }
+
+    // Where the results go: the next stage, or the pipeline's output
+    interface Sink<O> {
+        void accept(O item) throws InterruptedException;
+    }
+
+    private final String name;
+    private final BlockingQueue<Queued<I>> queue;
+    private final Step<I, O> step;
+    private final Sink<O> next;
+    private final Thread[] workers;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /* PipelineStage constructor
+    Inputs: name – stage name, also used for its threads; threads – parallelism; capacity – bound of the input queue; step – the work; next – receives the results.
+    Outputs: none.
+    Description: The workers are created here and started by start. */
+    PipelineStage(String name, int threads, int capacity, Step<I, O> step, Sink<O> next) {
+        if (threads < 1 || capacity < 1) throw new IllegalArgumentException(name + ": threads and capacity must be positive");
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.step = step;
+        this.next = next;
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "pipeline-" + name + "-" + i);
+            workers[i].setDaemon(true);
+        }
+    }
+
+    void start() {
+        for (Thread worker : workers) { worker.start(); }
+    }
+
+    void stop() {
+        for (Thread worker : workers) { worker.interrupt(); }
+    }
+
+    /* put
+    Inputs: item – input of this stage.
+    Outputs: none.
+    Description: Blocks while the queue is full; this is how backpressure reaches the caller. */
+    void put(I item) throws InterruptedException {
+        queue.put(new Queued<>(item, System.nanoTime()));
+    }
+
+    /* work
+    Inputs: none.
+    Outputs: none.
+    Description: Worker loop. A step that throws only loses its own item. */
+    private void work() {
+        try {
+            while (true) {
+                Queued<I> queued = queue.take();
+                O result;
+                try {
+                    result = step.apply(queued.item);
+                } catch (RuntimeException e) {
+                    System.err.println("Pipeline stage " + name + " failed on an item: " + e);
+                    result = null;
+                }
+                long latency = System.nanoTime() - queued.enqueuedAt;
+                latencyNanos.add(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                processed.increment();
+
+                if (result == null) dropped.increment();
+                else next.accept(result); // Blocks while the next stage is full
+            }
+        } catch (InterruptedException e) {
+            // Stopped
+        }
+    }
+
+    public String getName() { return name; }
+    public int getThreads() { return workers.length; }
+    public int getQueueDepth() { return queue.size(); }
+    public long getProcessed() { return processed.sum(); }
+    public long getDropped() { return dropped.sum(); }
+    public double getMaxLatencyMillis() { return maxLatencyNanos.get() / 1e6; }
+
+    /* getAverageLatencyMillis
+    Inputs: none.
+    Outputs: mean time an item spent in this stage, queue included, in milliseconds.
+    Description: 0 before the first item. */
+    public double getAverageLatencyMillis() {
+        long count = getProcessed();
+        return count == 0 ? 0 : latencyNanos.sum() / 1e6 / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-8s threads=%d depth=%d processed=%d dropped=%d avg=%.2fms max=%.2fms",
+                name, getThreads(), getQueueDepth(), getProcessed(), getDropped(), getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+
+    private static class Queued<I> {
+        final I item;
+        final long enqueuedAt;
+
+        Queued(I item, long enqueuedAt) {
+            this.item = item;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.example;
 
+import java.time.LocalDate;
+
 public class Reservation {
 
     private final String firstName;
@@ -8,6 +10,11 @@ public class Reservation {
     private final boolean smoker;
     private final StayPurpose stayPurpose;
     private final int numChildren;
+    private final LocalDate checkIn; // First night, or null for an undated reservation
+    private final LocalDate checkOut; // Day of departure (exclusive), or null
+    private final long source; // Where it was read (see withSource), or NO_SOURCE
+
+    public static final long NO_SOURCE = -1;
 
     /* StayPurpose
     Description: Enum representing the reason for a reservation stay – tourism, business, or other. */
@@ -31,12 +38,46 @@ public class Reservation {
 
 
     public Reservation(String firstName, String lastName, int numPersons, boolean smoker, StayPurpose stayPurpose, int numChildren) {
+        this(firstName, lastName, numPersons, smoker, stayPurpose, numChildren, null, null);
+    }
+
+    /* Reservation constructor
+    Inputs: as above; checkIn – first night; checkOut – day of departure, after checkIn (both null for an undated reservation).
+    Outputs: none.
+    Description: A dated reservation occupies its room for the nights [checkIn, checkOut) only, see Hotel.assignReservation. */
+    public Reservation(String firstName, String lastName, int numPersons, boolean smoker, StayPurpose stayPurpose, int numChildren,
+                       LocalDate checkIn, LocalDate checkOut) {
         this.firstName = firstName;
         this.lastName = lastName;
         this.numPersons = numPersons;
         this.smoker = smoker;
         this.stayPurpose = stayPurpose;
         this.numChildren = numChildren;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.source = NO_SOURCE;
+    }
+
+    private Reservation(Reservation reservation, long source) {
+        this.firstName = reservation.firstName;
+        this.lastName = reservation.lastName;
+        this.numPersons = reservation.numPersons;
+        this.smoker = reservation.smoker;
+        this.stayPurpose = reservation.stayPurpose;
+        this.numChildren = reservation.numChildren;
+        this.checkIn = reservation.checkIn;
+        this.checkOut = reservation.checkOut;
+        this.source = source;
+    }
+
+    /* withSource
+    Inputs: source – where the reservation was read, never negative: the position of its line in the reservation file
+    (ReservationTailReader), or a hash of a spool file's name and the reservation's rank in it (ReservationSpool).
+    Outputs: the same reservation, remembering where it was read.
+    Description: Lets the pipeline tell the reader which line it has finished, and tells undated resends apart from
+    new bookings (getIdempotencyKey). */
+    public Reservation withSource(long source) {
+        return new Reservation(this, source);
     }
 
     // Getters
@@ -46,4 +87,49 @@ public class Reservation {
     public boolean isSmoker() { return smoker; }
     public StayPurpose getStayPurpose() { return stayPurpose; }
     public int getNumChildren() { return numChildren; }
+    public LocalDate getCheckIn() { return checkIn; }
+    public LocalDate getCheckOut() { return checkOut; }
+    public boolean isDated() { return checkIn != null; }
+    public long getSource() { return source; }
+
+    /* getIdempotencyKey
+    Inputs: none.
+    Outputs: a 64-bit hash of the reservation's content, and of where it was read if it is undated.
+    Description: Stable across runs and parsers: two lines describing the same stay (same names, counts, smoker flag,
+    purpose and dates, whatever the spacing or case of the keywords) get the same key. An undated reservation says
+    nothing that sets a second booking of the same party apart from a resend, so its source is part of the key when
+    known: a line read again after a crash keeps its key, the same party on a new line gets a new one. Used by
+    ReservationDedupIndex. */
+    public long getIdempotencyKey() {
+        long hash = 0xcbf29ce484222325L; // FNV-1a offset basis
+        hash = mix(hash, firstName);
+        hash = mix(hash, lastName);
+        hash = mix(hash, numPersons);
+        hash = mix(hash, smoker ? 1 : 0);
+        hash = mix(hash, stayPurpose.ordinal());
+        hash = mix(hash, numChildren);
+        if (isDated()) {
+            hash = mix(hash, (int) checkIn.toEpochDay());
+            hash = mix(hash, (int) checkOut.toEpochDay());
+        } else if (source != NO_SOURCE) {
+            hash = mix(hash, (int) source);
+            hash = mix(hash, (int) (source >>> 32));
+        }
+        // Final avalanche (MurmurHash3 fmix64), so every bit of the key depends on every field
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static long mix(long hash, String value) {
+        hash = mix(hash, value.length()); // Keeps "ab"+"c" apart from "a"+"bc"
+        for (int i = 0; i < value.length(); i++) { hash = (hash ^ value.charAt(i)) * 0x100000001b3L; } // FNV-1a prime
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * 0x100000001b3L;
+    }
 }
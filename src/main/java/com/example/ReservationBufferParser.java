@@ -0,0 +1,287 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/* ReservationBufferParser
+Description: Byte-level version of ReservationParser's line rules, working directly over a ByteBuffer (heap or
+memory-mapped). Fields are located by their byte offsets, numbers are parsed digit by digit and the French keywords are
+compared byte by byte, so a valid line allocates only its two names and the Reservation; an invalid one allocates
+nothing unless its text is asked for. Accepts exactly the lines ReservationParser.parseValidLine accepts, keywords and
+digits being ASCII. */
+public final class ReservationBufferParser {
+
+    private static final int MAP_WINDOW = 256 * 1024 * 1024; // Bytes mapped at once, well under the 2 GB mapping limit
+    private static final long NOT_A_NUMBER = Long.MIN_VALUE;
+
+    private static final byte[] SMOKER = ascii("fumeur");
+    private static final byte[] TOURISM = ascii("tourisme");
+    private static final byte[] BUSINESS = ascii("affaire");
+    private static final byte[][] NO_SCRATCH = {}; // Heap buffers decode from their array and never copy
+
+    private ReservationBufferParser() {}
+
+    /* parseFile
+    Inputs: file – path to the CSV reservation file.
+    Outputs: list of valid Reservation objects, in file order.
+    Description: Maps the file window by window and parses it in place. Unlike ReservationParser.parseFile, the file is
+    only read, never rewritten; rejected lines are dropped. */
+    public static List<Reservation> parseFile(Path file) throws IOException {
+        return parseFile(file, null);
+    }
+
+    /* parseFile
+    Inputs: file – path to the CSV reservation file; rejected – receives the rejected lines, or null to drop them.
+    Outputs: list of valid Reservation objects, in file order.
+    Description: Same as above, keeping the rejected lines. */
+    public static List<Reservation> parseFile(Path file, List<String> rejected) throws IOException {
+        List<Reservation> reservations = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(MAP_WINDOW, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                parse(window, last, reservations, rejected);
+                int consumed = window.position();
+                if (consumed == 0) throw new IOException("Line longer than " + MAP_WINDOW + " bytes at offset " + position);
+                position += consumed; // The cut line starts the next window
+            }
+        }
+        return reservations;
+    }
+
+    /* parse
+    Inputs: buffer – bytes from its position to its limit; endOfInput – true if a last line without newline is complete;
+    reservations – valid output; rejected – rejected lines output, or null to drop them.
+    Outputs: number of lines consumed, blank ones included.
+    Description: Parses every complete line and moves the buffer's position past the last one. Without endOfInput, a
+    trailing line with no newline is left in the buffer for the caller to complete. */
+    static int parse(ByteBuffer buffer, boolean endOfInput, List<Reservation> reservations, List<String> rejected) {
+        return parse(buffer, endOfInput, reservations, rejected == null ? null : (lineIndex, line) -> rejected.add(line));
+    }
+
+    /* parse
+    Inputs: buffer – bytes from its position to its limit; endOfInput – true if a last line without newline is complete;
+    reservations – valid output; rejected – receives rejected lines with their index in the buffer, or null.
+    Outputs: number of lines consumed, blank ones included.
+    Description: Same as above, for callers that need to know where the rejected lines were. */
+    static int parse(ByteBuffer buffer, boolean endOfInput, List<Reservation> reservations, RejectedLineHandler rejected) {
+        int limit = buffer.limit();
+        int lineStart = buffer.position();
+        int lineIndex = 0;
+        byte[][] scratch = {new byte[64]}; // Reused to copy names out of the buffer
+        for (int i = lineStart; i < limit; i++) {
+            if (buffer.get(i) != '\n') continue;
+            handleLine(buffer, lineStart, i, lineIndex++, reservations, rejected, scratch);
+            lineStart = i + 1;
+        }
+        if (endOfInput && lineStart < limit) {
+            handleLine(buffer, lineStart, limit, lineIndex++, reservations, rejected, scratch);
+            lineStart = limit;
+        }
+        buffer.position(lineStart);
+        return lineIndex;
+    }
+
+    /* handleLine
+    Inputs: buffer – source bytes; from, to – the line, newline excluded; lineIndex – its index in the parse;
+    reservations – valid output; rejected – rejected output or null; scratch – copy buffer.
+    Outputs: none.
+    Description: Trims the line like String.trim (which also drops the \r of Windows line endings) and skips it if blank. */
+    private static void handleLine(ByteBuffer buffer, int from, int to, int lineIndex, List<Reservation> reservations,
+                                   RejectedLineHandler rejected, byte[][] scratch) {
+        while (from < to && isSpace(buffer.get(from))) from++;
+        while (to > from && isSpace(buffer.get(to - 1))) to--;
+        if (from == to) return; // Skip blank lines
+
+        Reservation reservation = parseLine(buffer, from, to, scratch);
+        if (reservation != null) {
+            reservations.add(reservation);
+        } else if (rejected != null) {
+            rejected.reject(lineIndex, decode(buffer, from, to, scratch)); // Only rejected lines become Strings
+        }
+    }
+
+    /* parseLine
+    Inputs: buffer – source bytes; from, to – one trimmed, non-empty line; scratch – copy buffer, replaced if too small.
+    Outputs: the Reservation, or null if the line is malformed or the reservation invalid.
+    Description: Same rules as ReservationParser.parseValidLine; the names are decoded only once the line is known to be valid. */
+    static Reservation parseLine(ByteBuffer buffer, int from, int to, byte[][] scratch) {
+        while (to > from && buffer.get(to - 1) == ',') to--; // String.split drops trailing empty fields
+
+        int comma1 = indexOfComma(buffer, from, to);
+        int comma2 = indexOfComma(buffer, comma1 + 1, to);
+        int comma3 = indexOfComma(buffer, comma2 + 1, to);
+        int comma4 = indexOfComma(buffer, comma3 + 1, to);
+        int comma5 = indexOfComma(buffer, comma4 + 1, to);
+        int comma6 = indexOfComma(buffer, comma5 + 1, to);
+        if (comma5 == to) return null; // Expect 6 fields, 8 with dates
+
+        LocalDate checkIn = null, checkOut = null;
+        if (comma6 != to) {
+            int comma7 = indexOfComma(buffer, comma6 + 1, to);
+            if (comma7 == to || indexOfComma(buffer, comma7 + 1, to) != to) return null;
+            checkIn = parseDate(buffer, comma6 + 1, comma7, scratch);
+            checkOut = parseDate(buffer, comma7 + 1, to, scratch);
+            if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) return null;
+        }
+
+        long numPersons = parseInt(buffer, comma2 + 1, comma3);
+        long numChildren = parseInt(buffer, comma5 + 1, comma6);
+        if (numPersons == NOT_A_NUMBER || numChildren == NOT_A_NUMBER) return null;
+        if (numPersons < 1 || numPersons > 4 || numChildren >= numPersons) return null;
+
+        int firstNameFrom = skipSpaces(buffer, from, comma1), firstNameTo = trimEnd(buffer, firstNameFrom, comma1);
+        int lastNameFrom = skipSpaces(buffer, comma1 + 1, comma2), lastNameTo = trimEnd(buffer, lastNameFrom, comma2);
+        if (firstNameFrom == firstNameTo || lastNameFrom == lastNameTo) return null; // Names must not be empty
+
+        boolean smoker = equalsIgnoreCase(buffer, comma3 + 1, comma4, SMOKER); // French word
+        Reservation.StayPurpose purpose = Reservation.StayPurpose.OTHER; // Default fallback, like StayPurpose.fromString
+        if (equalsIgnoreCase(buffer, comma4 + 1, comma5, TOURISM)) purpose = Reservation.StayPurpose.TOURISM;
+        else if (equalsIgnoreCase(buffer, comma4 + 1, comma5, BUSINESS)) purpose = Reservation.StayPurpose.BUSINESS;
+
+        return new Reservation(decode(buffer, firstNameFrom, firstNameTo, scratch), decode(buffer, lastNameFrom, lastNameTo, scratch),
+                (int) numPersons, smoker, purpose, (int) numChildren, checkIn, checkOut);
+    }
+
+    /* parseLine
+    Inputs: buffer – source bytes; from, to – one trimmed, non-empty line.
+    Outputs: the Reservation, or null if the line is malformed or the reservation invalid.
+    Description: Same as above for a single line, from any thread; only a direct buffer needs its own copy buffer. */
+    static Reservation parseLine(ByteBuffer buffer, int from, int to) {
+        return parseLine(buffer, from, to, buffer.hasArray() ? NO_SCRATCH : new byte[][] {new byte[64]});
+    }
+
+    /* parseDate
+    Inputs: buffer – source bytes; from, to – one field; scratch – as for parseLine.
+    Outputs: the date, or null.
+    Description: The usual yyyy-MM-dd is read in place; any other shape goes through ReservationParser.DATE_FORMAT on
+    the decoded text, so both parsers accept the same dates. */
+    private static LocalDate parseDate(ByteBuffer buffer, int from, int to, byte[][] scratch) {
+        from = skipSpaces(buffer, from, to);
+        to = trimEnd(buffer, from, to);
+        if (to - from == 10 && buffer.get(from + 4) == '-' && buffer.get(from + 7) == '-') {
+            int year = digits(buffer, from, from + 4), month = digits(buffer, from + 5, from + 7), day = digits(buffer, from + 8, to);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException e) {
+                    return null; // 2025-02-30
+                }
+            }
+        }
+        try {
+            return LocalDate.parse(decode(buffer, from, to, scratch), ReservationParser.DATE_FORMAT);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    // Unsigned decimal value of the bytes, or -1 if one is not a digit
+    private static int digits(ByteBuffer buffer, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /* parseInt
+    Inputs: buffer – source bytes; from, to – one field.
+    Outputs: the value, or NOT_A_NUMBER.
+    Description: Integer.parseInt on the trimmed field: optional sign, at least one digit, no overflow. */
+    private static long parseInt(ByteBuffer buffer, int from, int to) {
+        from = skipSpaces(buffer, from, to);
+        to = trimEnd(buffer, from, to);
+        if (from == to) return NOT_A_NUMBER;
+
+        boolean negative = buffer.get(from) == '-';
+        if (negative || buffer.get(from) == '+') from++;
+        if (from == to) return NOT_A_NUMBER; // Sign alone
+
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return NOT_A_NUMBER;
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) return NOT_A_NUMBER; // Overflow
+        }
+        if (!negative && value > Integer.MAX_VALUE) return NOT_A_NUMBER;
+        return negative ? -value : value;
+    }
+
+    /* equalsIgnoreCase
+    Inputs: buffer – source bytes; from, to – one field; keyword – lower-case ASCII keyword.
+    Outputs: true if the trimmed field is the keyword, ignoring case.
+    Description: Compares in place. */
+    private static boolean equalsIgnoreCase(ByteBuffer buffer, int from, int to, byte[] keyword) {
+        from = skipSpaces(buffer, from, to);
+        to = trimEnd(buffer, from, to);
+        if (to - from != keyword.length) return false;
+        for (int i = 0; i < keyword.length; i++) {
+            byte b = buffer.get(from + i);
+            if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+            if (b != keyword[i]) return false;
+        }
+        return true;
+    }
+
+    // Returns to if there is no comma, so a missing one makes every following search return to as well
+    private static int indexOfComma(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == ',') return i;
+        }
+        return to;
+    }
+
+    static int skipSpaces(ByteBuffer buffer, int from, int to) {
+        while (from < to && isSpace(buffer.get(from))) from++;
+        return from;
+    }
+
+    static int trimEnd(ByteBuffer buffer, int from, int to) {
+        while (to > from && isSpace(buffer.get(to - 1))) to--;
+        return to;
+    }
+
+    // String.trim removes every char up to the space; UTF-8 continuation bytes are negative and never match
+    private static boolean isSpace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    interface RejectedLineHandler {
+        void reject(int lineIndex, String line);
+    }
+
+    // The text of a line, for the callers that reject it
+    static String decode(ByteBuffer buffer, int from, int to) {
+        return decode(buffer, from, to, new byte[][] {new byte[0]});
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to, byte[][] scratch) {
+        int length = to - from;
+        if (buffer.hasArray()) return new String(buffer.array(), buffer.arrayOffset() + from, length, StandardCharsets.UTF_8);
+        if (scratch[0].length < length) scratch[0] = new byte[Math.max(length, scratch[0].length * 2)];
+        byte[] bytes = scratch[0];
+        for (int i = 0; i < length; i++) { bytes[i] = buffer.get(from + i); }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(String keyword) {
+        return keyword.getBytes(StandardCharsets.US_ASCII);
+    }
+
+}
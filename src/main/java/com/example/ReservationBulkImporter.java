@@ -0,0 +1,177 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/* ReservationBulkImporter
+Description: Bulk import mode for the large partner files in the reservation.csv format. The file is cut into
+line-aligned chunks that are memory-mapped and parsed in parallel with ReservationBufferParser, each worker keeping its
+own results; they are merged in chunk order, so the reservations come out in file order. Rejected lines are kept with
+their line number (1-based, blank lines counted). The file itself is only read. */
+public class ReservationBulkImporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 32 * 1024 * 1024;
+    private static final int ALIGN_BLOCK = 4096; // Bytes read at a time when looking for the end of a line
+
+    private final int parallelism;
+    private final int chunkSize;
+
+    /* ReservationBulkImporter constructor
+    Inputs: none.
+    Outputs: none.
+    Description: One worker per available processor, 32 MB chunks. */
+    public ReservationBulkImporter() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /* ReservationBulkImporter constructor
+    Inputs: parallelism – number of worker threads; chunkSize – target bytes per chunk (a chunk is extended to the end of its last line).
+    Outputs: none.
+    Description: Small chunks balance better across workers, large ones map and merge less often. */
+    public ReservationBulkImporter(int parallelism, int chunkSize) {
+        if (parallelism < 1 || chunkSize < 1) throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /* importFile
+    Inputs: file – a CSV in the reservation.csv format.
+    Outputs: the valid reservations in file order, and the rejected lines with their line numbers.
+    Description: Splits, parses the chunks on the worker pool, then merges. */
+    public Result importFile(Path file) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Future<Chunk>> chunks = new ArrayList<>();
+            long size = channel.size();
+            for (long start = 0; start < size; ) {
+                long end = alignToLine(channel, Math.min(size, start + chunkSize), size);
+                long chunkStart = start;
+                chunks.add(pool.submit(() -> parseChunk(channel, chunkStart, end, end == size)));
+                start = end;
+            }
+            return merge(chunks);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /* alignToLine
+    Inputs: channel – the file; position – tentative end of a chunk; size – file size.
+    Outputs: the position just after the first newline at or after position, or size.
+    Description: Moves a chunk boundary to a line boundary, so no line is split between two workers. */
+    private static long alignToLine(FileChannel channel, long position, long size) throws IOException {
+        if (position >= size) return size;
+        ByteBuffer block = ByteBuffer.allocate(ALIGN_BLOCK);
+        long at = position - 1; // The byte before the boundary may already be the newline
+        while (at < size) {
+            block.clear();
+            int read = channel.read(block, at);
+            if (read <= 0) return size;
+            for (int i = 0; i < read; i++) {
+                if (block.get(i) == '\n') return at + i + 1;
+            }
+            at += read;
+        }
+        return size;
+    }
+
+    /* parseChunk
+    Inputs: channel – the file; start, end – a line-aligned range; last – true for the final chunk.
+    Outputs: the chunk's reservations, rejected lines and line count.
+    Description: Runs on a worker; the range is mapped read-only and parsed in place. */
+    private static Chunk parseChunk(FileChannel channel, long start, long end, boolean last) throws IOException {
+        Chunk chunk = new Chunk();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        chunk.lines = ReservationBufferParser.parse(buffer, last, chunk.reservations,
+                (lineIndex, line) -> chunk.rejected.add(new RejectedLine(lineIndex, line)));
+        return chunk;
+    }
+
+    /* merge
+    Inputs: chunks – the workers' results, in file order.
+    Outputs: the concatenated result, with chunk-relative line indexes turned into file line numbers.
+    Description: Waits for each chunk in turn; a failed chunk fails the import. */
+    private static Result merge(List<Future<Chunk>> chunks) throws IOException {
+        List<Chunk> parsed = new ArrayList<>(chunks.size());
+        int valid = 0;
+        try {
+            for (Future<Chunk> future : chunks) {
+                Chunk chunk = future.get();
+                parsed.add(chunk);
+                valid += chunk.reservations.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bulk import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IllegalStateException("Bulk import failed", e.getCause());
+        }
+
+        List<Reservation> reservations = new ArrayList<>(valid);
+        List<RejectedLine> rejected = new ArrayList<>();
+        long firstLine = 1;
+        for (Chunk chunk : parsed) {
+            reservations.addAll(chunk.reservations);
+            for (RejectedLine line : chunk.rejected) { rejected.add(new RejectedLine(firstLine + line.lineNumber, line.line)); }
+            firstLine += chunk.lines;
+        }
+        return new Result(reservations, rejected);
+    }
+
+    // One worker's output; lines counts every line of the chunk, blank ones included
+    private static class Chunk {
+        final List<Reservation> reservations = new ArrayList<>();
+        final List<RejectedLine> rejected = new ArrayList<>();
+        int lines;
+    }
+
+    /* RejectedLine
+    Description: A line that did not parse or failed validation, with its 1-based line number in the file. */
+    public static class RejectedLine {
+        private final long lineNumber;
+        private final String line;
+
+        RejectedLine(long lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+
+        public long getLineNumber() { return lineNumber; }
+        public String getLine() { return line; }
+
+        @Override
+        public String toString() { return lineNumber + ": " + line; }
+    }
+
+    /* Result
+    Description: Outcome of an import; both lists are in file order. */
+    public static class Result {
+        private final List<Reservation> reservations;
+        private final List<RejectedLine> rejected;
+
+        Result(List<Reservation> reservations, List<RejectedLine> rejected) {
+            this.reservations = Collections.unmodifiableList(reservations);
+            this.rejected = Collections.unmodifiableList(rejected);
+        }
+
+        public List<Reservation> getReservations() { return reservations; }
+        public List<RejectedLine> getRejected() { return rejected; }
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/* ReservationDedupIndex
+Description: Remembers the idempotency keys (Reservation.getIdempotencyKey) of every reservation already assigned, so
+a line read again after a crash, or sent twice by a channel, does not get a second room. A Bloom filter answers most
+lookups (new keys) without touching the exact set; only a "maybe" is checked against the exact set, so false positives
+never reject a new reservation. Both are in memory, 15 to 30 bytes per key. Assigned keys are appended to a key file
+with the day they were assigned, 16 bytes each, which is read back at start-up: nothing else of the history is ever
+rescanned. Keys older than the retention are forgotten then – a replay after a crash comes within minutes, a channel
+resending a booking within days – and the file is rewritten once they are half of it, so it does not grow forever.
+commit returns once the key is on disk; like HotelJournal's, it is a group commit, so concurrent assigners share fsyncs.
+A key is claimed before the assignment and committed after it, so two workers cannot assign the same reservation at
+once; a claim whose assignment failed (hotel full) is released. The hotel's journal is fsynced before commit, so a
+crash between the two loses the key but not the room: claimAssigned takes the keys back from the recovered hotel,
+whose journal keeps each reservation's source. Thread-safe. */
+public class ReservationDedupIndex implements Closeable {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    static final int ENTRY_BYTES = 2 * Long.BYTES; // Key, epoch day of the assignment
+    public static final int DEFAULT_RETENTION_DAYS = 30;
+
+    private final FileChannel keyFile;
+    private final Object syncLock = new Object(); // Held by the thread writing a group
+    private final LongHashSet keys; // Committed and claimed
+    private BloomFilter filter;
+    private long bloomNegatives; // Lookups answered by the filter alone
+    private ByteBuffer pending = ByteBuffer.allocate(64 * ENTRY_BYTES); // Committed, not written yet; guarded by this
+    private ByteBuffer writing = ByteBuffer.allocate(64 * ENTRY_BYTES); // The group being written; guarded by syncLock
+    private long lastCommit; // Guarded by this
+    private volatile long durableCommit; // Every commit up to it is on disk
+    private long syncs; // Guarded by syncLock
+
+    public ReservationDedupIndex(Path keyFile) throws IOException {
+        this(keyFile, DEFAULT_RETENTION_DAYS);
+    }
+
+    /* ReservationDedupIndex constructor
+    Inputs: keyFile – the persisted keys; created if missing; retentionDays – days a committed key is remembered.
+    Outputs: none.
+    Description: Loads the keys of previous runs still within the retention. A torn last entry (crash mid-write) is
+    ignored and overwritten. */
+    public ReservationDedupIndex(Path keyFile, int retentionDays) throws IOException {
+        byte[] bytes = Files.exists(keyFile) ? Files.readAllBytes(keyFile) : new byte[0];
+        int complete = bytes.length / ENTRY_BYTES;
+        this.keys = new LongHashSet(Math.max(INITIAL_CAPACITY, complete));
+        this.filter = new BloomFilter(Math.max(INITIAL_CAPACITY, complete * 2), FALSE_POSITIVE_RATE);
+
+        long oldest = LocalDate.now().toEpochDay() - retentionDays;
+        ByteBuffer live = ByteBuffer.wrap(bytes, 0, complete * ENTRY_BYTES); // Entries kept, compacted in place
+        for (int i = 0; i < complete; i++) {
+            long key = live.getLong(i * ENTRY_BYTES), day = live.getLong(i * ENTRY_BYTES + Long.BYTES);
+            if (day < oldest) continue; // Expired
+            if (live.position() != i * ENTRY_BYTES) live.putLong(live.position(), key).putLong(live.position() + Long.BYTES, day);
+            live.position(live.position() + ENTRY_BYTES);
+            add(key);
+        }
+        if (complete > 0 && live.position() <= complete * ENTRY_BYTES / 2) rewrite(keyFile, live.flip()); // Mostly expired
+        this.keyFile = FileChannel.open(keyFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.keyFile.position(this.keyFile.size() / ENTRY_BYTES * ENTRY_BYTES); // After the last complete entry
+    }
+
+    /* claim
+    Inputs: key – idempotency key of a reservation about to be assigned.
+    Outputs: true if the key is new (and is now claimed), false for a duplicate.
+    Description: O(1): the Bloom filter, then the exact set only if the filter says maybe. */
+    public synchronized boolean claim(long key) {
+        if (!filter.mightContain(key)) {
+            bloomNegatives++;
+            add(key);
+            return true;
+        }
+        if (keys.contains(key)) return false;
+        add(key);
+        return true;
+    }
+
+    /* claimAssigned
+    Inputs: hotel – the hotel, recovered from its journal.
+    Outputs: none.
+    Description: Claims the key of every reservation in it, occupants and stays, so a line whose key was lost by a
+    crash after the journal had its room is still a duplicate. Nothing is written: the journal keeps them. */
+    public void claimAssigned(Hotel hotel) {
+        for (AssignmentRequest request : hotel.getAssignments()) { claim(request.reservation.getIdempotencyKey()); }
+    }
+
+    /* commit
+    Inputs: key – a claimed key whose reservation got a room.
+    Outputs: none.
+    Description: Returns once the key is on disk. If another thread is writing a group, waits for it; the group after
+    it then holds every key committed meanwhile and takes one fsync for all. A write error is reported but the key
+    stays known for this run. */
+    public void commit(long key) {
+        long commit;
+        synchronized (this) {
+            if (pending.remaining() < ENTRY_BYTES) pending = grow(pending);
+            pending.putLong(key).putLong(LocalDate.now().toEpochDay());
+            commit = ++lastCommit;
+        }
+        synchronized (syncLock) {
+            if (durableCommit >= commit) return; // Written by the group before
+            long written;
+            synchronized (this) {
+                ByteBuffer group = pending;
+                pending = writing;
+                writing = group;
+                written = lastCommit;
+            }
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) { keyFile.write(writing); }
+                keyFile.force(false);
+                syncs++;
+            } catch (IOException e) {
+                System.err.println("Error persisting reservation keys: " + e.getMessage());
+            } finally {
+                writing.clear();
+            }
+            durableCommit = written;
+        }
+    }
+
+    /* release
+    Inputs: key – a claimed key whose reservation did not get a room.
+    Outputs: none.
+    Description: Removes it from the exact set so the reservation can be sent again; its Bloom bits stay, which only
+    costs an exact lookup. */
+    public synchronized void release(long key) {
+        keys.remove(key);
+    }
+
+    public synchronized boolean contains(long key) {
+        return filter.mightContain(key) && keys.contains(key);
+    }
+
+    public synchronized int size() {
+        return keys.size();
+    }
+
+    public synchronized long getBloomNegatives() {
+        return bloomNegatives;
+    }
+
+    public long getSyncCount() {
+        synchronized (syncLock) { return syncs; }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) { keyFile.close(); } // After the group being written
+    }
+
+    /* rewrite
+    Inputs: keyFile – the key file; live – the entries still within the retention.
+    Outputs: none.
+    Description: Writes them to a temporary file, fsyncs it and moves it over the key file, so a crash leaves either
+    file whole. */
+    private static void rewrite(Path keyFile, ByteBuffer live) throws IOException {
+        Path temporary = keyFile.resolveSibling(keyFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (live.hasRemaining()) { channel.write(live); }
+            channel.force(true);
+        }
+        Files.move(temporary, keyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        return larger.put(buffer);
+    }
+
+    /* add
+    Inputs: key – key to remember.
+    Outputs: none.
+    Description: When the set outgrows the filter's capacity, the filter is rebuilt twice as large so its false positive rate holds. */
+    private void add(long key) {
+        keys.add(key);
+        filter.add(key);
+        if (keys.size() > filter.getCapacity()) {
+            BloomFilter larger = new BloomFilter(filter.getCapacity() * 2, FALSE_POSITIVE_RATE);
+            keys.forEach(larger::add);
+            filter = larger;
+        }
+    }
+
+}
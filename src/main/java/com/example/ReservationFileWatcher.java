@@ -0,0 +1,175 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/* ReservationFileWatcher
+Description: Calls back when the reservation file changes. It relies on the file system's change notifications, so
+appended lines are noticed within milliseconds. A burst of change events is coalesced into one callback once the file
+has been quiet for the debounce delay (bounded, so a writer that never pauses still gets served). Where watching is not
+supported, it falls back to checking the file's size and modification time at a fixed interval.
+It can also watch a whole directory, where any entry created or modified counts as a change.
+The callback runs on the watcher's own daemon thread. */
+public class ReservationFileWatcher implements Closeable {
+
+    private static final int MAX_COALESCE_FACTOR = 10; // A burst is never held back longer than 10 debounce delays
+
+    private final Path directory;
+    private final Path file; // The watched path: the file, or the directory itself
+    private final boolean wholeDirectory;
+    private final long debounceMillis;
+    private final long pollMillis;
+    private final Runnable onChange;
+    private volatile boolean running;
+    private volatile WatchService watchService; // Null in polling mode
+    private Thread watchThread;
+    private ScheduledExecutorService poller;
+
+    /* ReservationFileWatcher constructor
+    Inputs: file – the reservation file; debounceMillis – quiet time that ends a burst; pollMillis – interval of the polling fallback; onChange – callback.
+    Outputs: none.
+    Description: Nothing is watched until start is called. */
+    public ReservationFileWatcher(Path file, long debounceMillis, long pollMillis, Runnable onChange) {
+        this(file.toAbsolutePath().getParent(), file.toAbsolutePath(), false, debounceMillis, pollMillis, onChange);
+    }
+
+    /* forDirectory
+    Inputs: directory – the directory to watch; debounceMillis, pollMillis, onChange – as for the constructor.
+    Outputs: a watcher reporting changes to any entry of the directory.
+    Description: In polling mode, the directory's own size and modification time are compared, which change when entries are added or renamed. */
+    public static ReservationFileWatcher forDirectory(Path directory, long debounceMillis, long pollMillis, Runnable onChange) {
+        Path absolute = directory.toAbsolutePath();
+        return new ReservationFileWatcher(absolute, absolute, true, debounceMillis, pollMillis, onChange);
+    }
+
+    private ReservationFileWatcher(Path directory, Path file, boolean wholeDirectory, long debounceMillis, long pollMillis, Runnable onChange) {
+        this.directory = directory;
+        this.file = file;
+        this.wholeDirectory = wholeDirectory;
+        this.debounceMillis = debounceMillis;
+        this.pollMillis = pollMillis;
+        this.onChange = onChange;
+    }
+
+    /* start
+    Inputs: none.
+    Outputs: none.
+    Description: Watches the directory, or falls back to polling if the file system cannot be watched. */
+    public void start() {
+        running = true;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("Cannot watch " + file + ", polling instead: " + e.getMessage());
+            closeWatchService();
+            startPolling();
+            return;
+        }
+        WatchService service = watchService;
+        watchThread = new Thread(() -> watchLoop(service), "reservation-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /* startPolling
+    Inputs: none.
+    Outputs: none.
+    Description: The fallback: compares size and modification time every pollMillis. */
+    void startPolling() {
+        running = true;
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long[] lastSeen = {-1, -1}; // Size, modification time
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                long size = Files.exists(file) ? Files.size(file) : -1;
+                long modified = size < 0 ? -1 : Files.getLastModifiedTime(file).toMillis();
+                if (size != lastSeen[0] || modified != lastSeen[1]) {
+                    lastSeen[0] = size;
+                    lastSeen[1] = modified;
+                    if (size >= 0) onChange.run();
+                }
+            } catch (IOException e) {
+                System.err.println("Error checking reservation file: " + e.getMessage());
+            }
+        }, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /* watchLoop
+    Inputs: service – the watch service the directory is registered with.
+    Outputs: none.
+    Description: Waits for an event on the file, absorbs the rest of the burst, then calls back once. */
+    private void watchLoop(WatchService service) {
+        try {
+            while (running) {
+                if (!drain(service.take())) continue; // Another file of the directory
+
+                long deadline = System.currentTimeMillis() + debounceMillis * MAX_COALESCE_FACTOR;
+                while (System.currentTimeMillis() < deadline) { // Coalesce the burst
+                    WatchKey next = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                    if (next == null) break; // Quiet for debounceMillis
+                    drain(next);
+                }
+                onChange.run();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    /* drain
+    Inputs: key – a signalled watch key.
+    Outputs: true if one of its events concerns the watched file or directory (or events were lost).
+    Description: Consumes the events and re-arms the key. */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) relevant = true; // Events were dropped, check anyway
+            else if (wholeDirectory || file.getFileName().equals(event.context())) relevant = true;
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /* isWatching
+    Inputs: none.
+    Outputs: true if change notifications are used, false in polling mode.
+    Description: Meant for diagnostics. */
+    public boolean isWatching() {
+        return watchService != null;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closeWatchService();
+        if (watchThread != null) watchThread.interrupt();
+        if (poller != null) poller.shutdownNow();
+    }
+
+    private void closeWatchService() {
+        if (watchService == null) return;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+        watchService = null;
+    }
+
+}
@@ -3,12 +3,17 @@ package com.example;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
 public class ReservationParser {
 
+    static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd").withResolverStyle(ResolverStyle.STRICT); // 2025-03-12
+
     /* parseFile
     Inputs: filename – path to the CSV reservation file.
     Outputs: list of valid Reservation objects.
@@ -48,13 +53,27 @@ public class ReservationParser {
         return validReservations; // Return parsed list
     }
 
+    /* parseValidLine
+    Inputs: line – one trimmed, non-empty line of the CSV file.
+    Outputs: the Reservation, or null if the line is malformed or the reservation invalid.
+    Description: Single-line version of the rules applied by parseFile; ReservationBufferParser is checked against it. */
+    static Reservation parseValidLine(String line) {
+        try {
+            Reservation res = parseLine(line); // Try parsing line
+            return isValid(res) ? res : null;
+        } catch (Exception e) {
+            return null; // Malformed
+        }
+    }
+
     /* parseLine
     Inputs: line – one line from the CSV file.
     Outputs: a Reservation object.
-    Description: Splits a CSV line and builds a Reservation from the values. */
-    private static Reservation parseLine(String line) {
-        String[] tokens = line.split(","); // Expect 6 tokens
-        if (tokens.length != 6) throw new IllegalArgumentException("Invalid CSV line: " + line);
+    Description: Splits a CSV line and builds a Reservation from the values. Two optional trailing fields give the
+    check-in and check-out dates (yyyy-MM-dd). */
+    static Reservation parseLine(String line) {
+        String[] tokens = line.split(","); // Expect 6 tokens, 8 with dates
+        if (tokens.length != 6 && tokens.length != 8) throw new IllegalArgumentException("Invalid CSV line: " + line);
 
         String firstName = tokens[0].trim();
         String lastName = tokens[1].trim();
@@ -62,19 +81,41 @@ public class ReservationParser {
         boolean smoker = tokens[3].trim().equalsIgnoreCase("fumeur"); // French word
         Reservation.StayPurpose purpose = Reservation.StayPurpose.fromString(tokens[4].trim());
         int numChildren = Integer.parseInt(tokens[5].trim());
+        if (tokens.length == 6) return new Reservation(firstName, lastName, numPersons, smoker, purpose, numChildren);
 
-        return new Reservation(firstName, lastName, numPersons, smoker, purpose, numChildren);
+        LocalDate checkIn = LocalDate.parse(tokens[6].trim(), DATE_FORMAT);
+        LocalDate checkOut = LocalDate.parse(tokens[7].trim(), DATE_FORMAT);
+        return new Reservation(firstName, lastName, numPersons, smoker, purpose, numChildren, checkIn, checkOut);
+    }
+
+    /* format
+    Inputs: res – a Reservation.
+    Outputs: the CSV line parseLine reads back as an equal reservation.
+    Description: Inverse of parseLine, with the French words of the file format. */
+    static String format(Reservation res) {
+        String purpose;
+        switch (res.getStayPurpose()) {
+            case TOURISM: purpose = "tourisme"; break;
+            case BUSINESS: purpose = "affaire"; break;
+            default: purpose = "autre"; break;
+        }
+        String line = res.getFirstName() + "," + res.getLastName() + "," + res.getNumPersons() + ","
+                + (res.isSmoker() ? "fumeur" : "non-fumeur") + "," + purpose + "," + res.getNumChildren();
+        if (!res.isDated()) return line;
+        return line + "," + DATE_FORMAT.format(res.getCheckIn()) + "," + DATE_FORMAT.format(res.getCheckOut());
     }
 
     /* isValid
     Inputs: res – a Reservation to check.
     Outputs: true if valid; false otherwise.
-    Description: Verifies that the reservation meets constraints (person count, child count, names not empty). */
-    private static boolean isValid(Reservation res) {
+    Description: Verifies that the reservation meets constraints (person count, child count, names not empty, at least
+    one night when dated). */
+    static boolean isValid(Reservation res) {
         int total = res.getNumPersons();
         int children = res.getNumChildren();
         return total >= 1 && total <= 4 && children < total
-                && !res.getFirstName().isEmpty() && !res.getLastName().isEmpty();
+                && !res.getFirstName().isEmpty() && !res.getLastName().isEmpty()
+                && (!res.isDated() || res.getCheckOut().isAfter(res.getCheckIn()));
     }
 
 }
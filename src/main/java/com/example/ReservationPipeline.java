@@ -0,0 +1,255 @@
+package com.example;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/* ReservationPipeline
+Description: Staged ingestion: parse -> validate -> assign -> notify, each a PipelineStage with its own threads and a
+bounded queue in front of it. Assignment goes through Hotel.assignReservation, whose optimistic commit lets several
+assign workers share the hotel. The notify stage puts the committed assignments in a bounded output queue and tells the
+UI, which drains it on its own thread; if the UI falls behind, every stage fills up in turn and submit blocks the
+reader. Memory is therefore bounded by the queue capacities, whatever the backlog on disk.
+With more than one thread in a stage, reservations may be assigned out of file order. Given a ReservationDedupIndex,
+the assign stage skips reservations that were already assigned, in this run or a previous one. When the hotel has a
+waitlist (Hotel.setWaitlist), reservations that find it full join the waitlist instead of being dropped; while it is
+full or people are waiting, they go there without asking the strategy, so a full house costs one counter read each.
+Dated reservations book their nights (see Hotel.assignReservation) and are never waitlisted.
+Lines submitted with their file position are reported to onFinished once they are assigned, waitlisted, dropped or
+rejected, so the reader never saves an offset past a line that could still be lost. A reservation whose assignment
+fails (journal or strategy error) is rejected too, and its key released, so it can be sent again. */
+public class ReservationPipeline implements Closeable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final PipelineStage<SourceLine, ParsedLine> parse;
+    private final PipelineStage<ParsedLine, Reservation> validate;
+    private final PipelineStage<Reservation, AssignmentRequest> assign;
+    private final PipelineStage<AssignmentRequest, AssignmentRequest> notify;
+    private final BlockingQueue<AssignmentRequest> assigned;
+    private final LongAdder duplicates = new LongAdder();
+
+    /* ReservationPipeline constructor
+    Inputs: hotel – where rooms are reserved; strategy – gives the strategy to use for each assignment;
+    parseThreads, validateThreads, assignThreads – parallelism per stage; queueCapacity – bound of every queue;
+    onAssigned – called after assignments were queued for the UI; onRejected – receives malformed or invalid lines.
+    Outputs: none.
+    Description: The notify stage has one thread, it only hands over to the UI. Nothing runs until start is called. */
+    public ReservationPipeline(Hotel hotel, Supplier<AssignmentStrategy> strategy, int parseThreads, int validateThreads, int assignThreads,
+                               int queueCapacity, Runnable onAssigned, Consumer<String> onRejected) {
+        this(hotel, strategy, parseThreads, validateThreads, assignThreads, queueCapacity, onAssigned, onRejected, null);
+    }
+
+    /* ReservationPipeline constructor
+    Inputs: as above; dedup – keys of the reservations already assigned, or null to assign every reservation.
+    Outputs: none.
+    Description: Duplicates are dropped by the assign stage and counted by getDuplicates. */
+    public ReservationPipeline(Hotel hotel, Supplier<AssignmentStrategy> strategy, int parseThreads, int validateThreads, int assignThreads,
+                               int queueCapacity, Runnable onAssigned, Consumer<String> onRejected, ReservationDedupIndex dedup) {
+        this(hotel, strategy, parseThreads, validateThreads, assignThreads, queueCapacity, onAssigned, onRejected, dedup, position -> {});
+    }
+
+    /* ReservationPipeline constructor
+    Inputs: as above; onFinished – receives the position of every line submitted with one, once the pipeline is done
+    with it (ReservationTailReader.finished).
+    Outputs: none.
+    Description: Called from the stage that finishes the line, after its result is recorded. */
+    public ReservationPipeline(Hotel hotel, Supplier<AssignmentStrategy> strategy, int parseThreads, int validateThreads, int assignThreads,
+                               int queueCapacity, Runnable onAssigned, Consumer<String> onRejected, ReservationDedupIndex dedup,
+                               LongConsumer onFinished) {
+        assigned = new ArrayBlockingQueue<>(queueCapacity);
+        notify = new PipelineStage<>("notify", 1, queueCapacity, request -> request, request -> {
+            if (!assigned.offer(request)) {
+                onAssigned.run(); // Make sure the UI knows before waiting on it
+                assigned.put(request);
+            }
+            onAssigned.run();
+        });
+        assign = new PipelineStage<>("assign", assignThreads, queueCapacity, reservation -> {
+            try {
+                return assign(hotel, strategy.get(), reservation, dedup);
+            } catch (RuntimeException e) {
+                onRejected.accept(ReservationParser.format(reservation)); // Not placed: kept for a resend
+                throw e; // The stage reports it and drops the item
+            } finally {
+                if (reservation.getSource() != Reservation.NO_SOURCE) onFinished.accept(reservation.getSource());
+            }
+        }, notify::put);
+        validate = new PipelineStage<>("validate", validateThreads, queueCapacity, parsed -> {
+            if (ReservationParser.isValid(parsed.reservation)) return parsed.reservation;
+            onRejected.accept(parsed.source.text());
+            if (parsed.reservation.getSource() != Reservation.NO_SOURCE) onFinished.accept(parsed.reservation.getSource());
+            return null;
+        }, assign::put);
+        parse = new PipelineStage<>("parse", parseThreads, queueCapacity, source -> {
+            Reservation reservation = source.parse();
+            if (reservation == null) {
+                onRejected.accept(source.text()); // Malformed
+                if (source.position != Reservation.NO_SOURCE) onFinished.accept(source.position);
+                return null;
+            }
+            return new ParsedLine(source, source.position == Reservation.NO_SOURCE ? reservation : reservation.withSource(source.position));
+        }, validate::put);
+    }
+
+    /* assign
+    Inputs: hotel, strategy – as given to the constructor; reservation – to place; dedup – the index or null.
+    Outputs: the committed assignment, or null for a duplicate, a waitlisted reservation or when the hotel is full.
+    Description: The key is claimed first, so two workers holding the same reservation cannot both assign it. A
+    waitlisted reservation keeps its claim; whoever places it later commits the key. If placing it throws, the claim
+    is released before the exception goes on. */
+    private AssignmentRequest assign(Hotel hotel, AssignmentStrategy strategy, Reservation reservation, ReservationDedupIndex dedup) {
+        long key = reservation.getIdempotencyKey();
+        if (dedup != null && !dedup.claim(key)) {
+            duplicates.increment();
+            return null;
+        }
+        try {
+            return place(hotel, strategy, reservation, dedup, key);
+        } catch (RuntimeException e) {
+            if (dedup != null) dedup.release(key);
+            throw e;
+        }
+    }
+
+    // The reservation once its key is claimed: waitlisted, assigned, or released when the hotel is full
+    private AssignmentRequest place(Hotel hotel, AssignmentStrategy strategy, Reservation reservation, ReservationDedupIndex dedup, long key) {
+        ReservationWaitlist waitlist = reservation.isDated() ? null : hotel.getWaitlist(); // A freed room says nothing of other nights
+        if (waitlist != null && (!waitlist.isEmpty() || hotel.getAvailableRooms().isEmpty())) {
+            waitlist.add(reservation); // Behind those already waiting
+            if (!hotel.getAvailableRooms().isEmpty()) waitlist.drain(hotel, (char) 0); // Rooms freed meanwhile
+            return null;
+        }
+        AssignmentRequest request = hotel.assignReservation(strategy, reservation);
+        if (request == null && waitlist != null) {
+            waitlist.add(reservation); // Lost the last rooms to another worker
+        } else if (dedup != null) {
+            if (request != null) dedup.commit(key);
+            else dedup.release(key); // Hotel full: may be sent again later
+        }
+        return request;
+    }
+
+    public void start() {
+        for (PipelineStage<?, ?> stage : getStages()) { stage.start(); }
+    }
+
+    /* submit
+    Inputs: line – one trimmed, non-empty line of the reservation file.
+    Outputs: none.
+    Description: Enters the parse stage; blocks while it is full. */
+    public void submit(String line) throws InterruptedException {
+        parse.put(new SourceLine(line, Reservation.NO_SOURCE));
+    }
+
+    /* submit
+    Inputs: line – as above; position – where the line starts in its file.
+    Outputs: none.
+    Description: As above; the position goes to onFinished once the line is done with. */
+    public void submit(String line, long position) throws InterruptedException {
+        parse.put(new SourceLine(line, position));
+    }
+
+    /* submit
+    Inputs: bytes – holds the line, not written to while it is in the pipeline; from, to – the trimmed, non-empty
+    line; position – where it starts in its file.
+    Outputs: none.
+    Description: As above for ReservationTailReader.pollLines: the line is parsed in place by ReservationBufferParser
+    and only decoded if it is rejected. */
+    public void submit(ByteBuffer bytes, int from, int to, long position) throws InterruptedException {
+        parse.put(new SourceLine(bytes, from, to, position));
+    }
+
+    /* submitValid
+    Inputs: reservation – an already parsed and validated reservation (from the spool, for example).
+    Outputs: none.
+    Description: Enters the assign stage directly; blocks while it is full. */
+    public void submitValid(Reservation reservation) throws InterruptedException {
+        assign.put(reservation);
+    }
+
+    /* drainAssigned
+    Inputs: none.
+    Outputs: the assignments committed since the previous drain.
+    Description: Meant for the UI thread; frees room in the output queue for the notify stage. */
+    public List<AssignmentRequest> drainAssigned() {
+        List<AssignmentRequest> requests = new ArrayList<>();
+        assigned.drainTo(requests);
+        return requests;
+    }
+
+    /* getStages
+    Inputs: none.
+    Outputs: the stages in pipeline order, for their queue depth and latency.
+    Description: The assign stage's dropped count is the number of reservations that found the hotel full (waitlisted
+    or not), plus the duplicates. */
+    public List<PipelineStage<?, ?>> getStages() {
+        return List.of(parse, validate, assign, notify);
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    @Override
+    public void close() {
+        for (PipelineStage<?, ?> stage : getStages()) { stage.stop(); }
+    }
+
+    // A line of the reservation file, as text or as bytes, and where it starts, or NO_SOURCE
+    private static class SourceLine {
+        final String line; // Null for bytes
+        final ByteBuffer bytes;
+        final int from, to;
+        final long position;
+
+        SourceLine(String line, long position) {
+            this(line, null, 0, 0, position);
+        }
+
+        SourceLine(ByteBuffer bytes, int from, int to, long position) {
+            this(null, bytes, from, to, position);
+        }
+
+        private SourceLine(String line, ByteBuffer bytes, int from, int to, long position) {
+            this.line = line;
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+            this.position = position;
+        }
+
+        // The reservation, or null if the line is malformed; bytes may also be found invalid here
+        Reservation parse() {
+            if (line == null) return ReservationBufferParser.parseLine(bytes, from, to);
+            try {
+                return ReservationParser.parseLine(line);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        String text() {
+            return line != null ? line : ReservationBufferParser.decode(bytes, from, to);
+        }
+    }
+
+    // A parsed reservation with its line, kept for the rejected file if validation fails
+    private static class ParsedLine {
+        final SourceLine source;
+        final Reservation reservation;
+
+        ParsedLine(SourceLine source, Reservation reservation) {
+            this.source = source;
+            this.reservation = reservation;
+        }
+    }
+
+}
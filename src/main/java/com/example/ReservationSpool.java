@@ -0,0 +1,171 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* ReservationSpool
+Description: Spool-directory ingestion for many booking channels. Each channel drops its own CSV file (reservation.csv
+format, *.csv) into the spool directory; writers should write under another name and rename, so a file is complete when
+it appears. Every file is parsed by a task of its own on a pool of parser threads, so a slow or malformed file only
+holds up its own thread. Parsed reservations flow into one bounded queue: when the assigner falls behind, the parsers
+block on it. Once all of a file's reservations are queued, its rejected lines are written to <name>.rejected in the done
+directory and the file is moved there atomically; a file that cannot be read is moved there as <name>.failed.
+Delivery is at-least-once: a file still in the spool after a crash is parsed again, and its reservations get the same
+sources, so the dedup index knows those already assigned. */
+public class ReservationSpool implements Closeable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    public static final int DEFAULT_PARSERS = 8; // Small files: parsing is mostly waiting on the file system
+    private static final long DEBOUNCE_MILLIS = 20;
+    private static final long POLL_MILLIS = 1000;
+
+    private final Path spoolDirectory;
+    private final Path doneDirectory;
+    private final BlockingQueue<Reservation> queue;
+    private final Runnable onReservations;
+    private final ExecutorService parsers;
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet(); // Submitted and not yet moved
+    private final AtomicInteger filesDone = new AtomicInteger();
+    private final AtomicInteger filesFailed = new AtomicInteger();
+    private final AtomicLong rejectedLines = new AtomicLong();
+    private ReservationFileWatcher watcher;
+
+    /* ReservationSpool constructor
+    Inputs: spoolDirectory – where the channels drop their files; onReservations – called (on a parser thread) when reservations are queued.
+    Outputs: none.
+    Description: Uses <spool>/done, a queue of DEFAULT_QUEUE_CAPACITY reservations and DEFAULT_PARSERS parser threads. */
+    public ReservationSpool(Path spoolDirectory, Runnable onReservations) {
+        this(spoolDirectory, spoolDirectory.resolve("done"), DEFAULT_QUEUE_CAPACITY, DEFAULT_PARSERS, onReservations);
+    }
+
+    /* ReservationSpool constructor
+    Inputs: spoolDirectory – where the channels drop their files; doneDirectory – where finished files are moved;
+    queueCapacity – bound of the assignment queue; parserThreads – files parsed at once; onReservations – called when reservations are queued.
+    Outputs: none.
+    Description: Nothing is read until start is called. */
+    public ReservationSpool(Path spoolDirectory, Path doneDirectory, int queueCapacity, int parserThreads, Runnable onReservations) {
+        this.spoolDirectory = spoolDirectory;
+        this.doneDirectory = doneDirectory;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.onReservations = onReservations;
+        this.parsers = Executors.newFixedThreadPool(parserThreads, runnable -> {
+            Thread thread = new Thread(runnable, "spool-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /* start
+    Inputs: none.
+    Outputs: none.
+    Description: Creates the directories if needed, picks up the files already waiting, then watches the spool directory for new ones. */
+    public void start() throws IOException {
+        Files.createDirectories(spoolDirectory);
+        Files.createDirectories(doneDirectory);
+        scan();
+        watcher = ReservationFileWatcher.forDirectory(spoolDirectory, DEBOUNCE_MILLIS, POLL_MILLIS, this::scan);
+        watcher.start();
+    }
+
+    /* scan
+    Inputs: none.
+    Outputs: none.
+    Description: Submits every complete *.csv file of the spool directory that is not already being parsed. */
+    void scan() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDirectory, "*.csv")) {
+            for (Path file : files) {
+                if (file.getFileName().toString().startsWith(".") || !Files.isRegularFile(file)) continue; // Hidden or not a file
+                if (inFlight.add(file)) parsers.execute(() -> ingest(file));
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing spool directory: " + e.getMessage());
+        }
+    }
+
+    /* ingest
+    Inputs: file – a file of the spool directory.
+    Outputs: none.
+    Description: Parses the file, queues its reservations (blocking while the queue is full), then archives it. */
+    private void ingest(Path file) {
+        Path archived = doneDirectory.resolve(file.getFileName());
+        try {
+            List<String> rejected = new ArrayList<>();
+            List<Reservation> reservations = ReservationBufferParser.parseFile(file, rejected);
+            long name = (long) file.getFileName().toString().hashCode() << 32; // String.hashCode is the same in every run
+            for (int rank = 0; rank < reservations.size(); rank++) {
+                Reservation reservation = reservations.get(rank).withSource((name | rank) & Long.MAX_VALUE); // Same keys if parsed again
+                if (!queue.offer(reservation)) {
+                    onReservations.run(); // Make sure the assigner knows before waiting on it
+                    queue.put(reservation);
+                }
+            }
+            if (!reservations.isEmpty()) onReservations.run();
+
+            if (!rejected.isEmpty()) {
+                Files.write(doneDirectory.resolve(file.getFileName() + ".rejected"), rejected, StandardCharsets.UTF_8);
+                rejectedLines.addAndGet(rejected.size());
+            }
+            Files.move(file, archived, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            filesDone.incrementAndGet();
+        } catch (NoSuchFileException e) {
+            // Listed by a scan that raced with the previous task's move: already archived
+        } catch (IOException e) {
+            System.err.println("Error ingesting " + file.getFileName() + ": " + e.getMessage());
+            failed(file, archived);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Closing, the file stays in the spool
+        } finally {
+            inFlight.remove(file);
+        }
+    }
+
+    /* failed
+    Inputs: file – the file that could not be ingested; archived – its place in the done directory.
+    Outputs: none.
+    Description: Moves it aside as <name>.failed, so it is not retried forever. */
+    private void failed(Path file, Path archived) {
+        filesFailed.incrementAndGet();
+        try {
+            Files.move(file, archived.resolveSibling(archived.getFileName() + ".failed"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Cannot move " + file.getFileName() + " out of the spool: " + e.getMessage());
+        }
+    }
+
+    /* drain
+    Inputs: none.
+    Outputs: the reservations queued so far, in queue order.
+    Description: Empties the queue, which lets blocked parsers go on. */
+    public List<Reservation> drain() {
+        List<Reservation> reservations = new ArrayList<>();
+        queue.drainTo(reservations);
+        return reservations;
+    }
+
+    public int getFilesDone() { return filesDone.get(); }
+    public int getFilesFailed() { return filesFailed.get(); }
+    public long getRejectedLines() { return rejectedLines.get(); }
+
+    @Override
+    public void close() {
+        if (watcher != null) watcher.close();
+        parsers.shutdownNow();
+    }
+
+}
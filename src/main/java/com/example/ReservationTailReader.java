@@ -0,0 +1,243 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/* ReservationTailReader
+Description: Incremental reader for the reservation CSV. Writers only ever append to the file; the reader remembers,
+in a small offset file (by default next to it), how many bytes it has consumed and only reads what was appended
+since. Rejected lines go to an append-only file, and the source file is never rewritten. A trailing line without its
+newline is left for the next poll, so a writer caught mid-line is never misread. Lines are parsed in the read buffer
+by ReservationBufferParser; pollLines hands them over as byte ranges, parsed the same way by the pipeline.
+Delivery is at-least-once: poll saves the offset after its lines were read, and pollLines saves the start of the
+first line the pipeline has not finished (see finished), so a crash replays the lines still in flight on restart;
+the dedup index drops those that were assigned after all. */
+public class ReservationTailReader {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int SAVE_EVERY = 256; // Finished lines between two saves of the offset while lines are in flight
+
+    private final Path source;
+    private final Path offsetFile;
+    private final Path rejectedFile;
+    private long offset; // Bytes of the source already consumed
+    private final TreeSet<Long> pending = new TreeSet<>(); // Start of the lines handed over and not finished
+    private int finishedSinceSave;
+
+    /* ReservationTailReader constructor
+    Inputs: source – the reservation CSV.
+    Outputs: none.
+    Description: Keeps its state in <source>.offset and rejected lines in <source>.rejected. */
+    public ReservationTailReader(String source) {
+        this(Paths.get(source), Paths.get(source + ".offset"), Paths.get(source + ".rejected"));
+    }
+
+    /* ReservationTailReader constructor
+    Inputs: source – the reservation CSV; offsetFile – where the consumed byte count is persisted; rejectedFile – append-only file for rejected lines.
+    Outputs: none.
+    Description: Resumes from the persisted offset, or from the start of the file on first use. */
+    public ReservationTailReader(Path source, Path offsetFile, Path rejectedFile) {
+        this.source = source;
+        this.offsetFile = offsetFile;
+        this.rejectedFile = rejectedFile;
+        this.offset = loadOffset();
+    }
+
+    /* poll
+    Inputs: none.
+    Outputs: the valid reservations appended since the previous poll, in file order.
+    Description: Reads the new complete lines only, appends the rejected ones to the rejected file, then saves the offset.
+    If the source became shorter than the offset (replaced or truncated by hand), it is read again from the start. */
+    public synchronized List<Reservation> poll() {
+        List<Reservation> reservations = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < offset) restart(); // Not the file we were reading
+            if (size == offset) return reservations; // Nothing appended
+
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            long position = offset;
+            while (position < size) {
+                if (!chunk.hasRemaining()) chunk = grow(chunk); // A single line fills the chunk
+                int read = channel.read(chunk, position);
+                if (read <= 0) break;
+                position += read;
+
+                chunk.flip();
+                ReservationBufferParser.parse(chunk, false, reservations, rejected);
+                offset += chunk.position(); // Consumed up to the last newline
+                chunk.compact(); // Incomplete line, kept for the next read or poll
+            }
+        } catch (NoSuchFileException e) {
+            return reservations; // No reservation file yet
+        } catch (IOException e) {
+            System.err.println("Error reading reservation file: " + e.getMessage()); // Read error
+            return reservations;
+        }
+
+        appendRejected(rejected);
+        saveOffset();
+        return reservations;
+    }
+
+    /* pollLines
+    Inputs: handler – receives each new complete line, trimmed and non-empty, as a byte range with the file position of its start; it may block.
+    Outputs: none.
+    Description: Streaming version of poll for ReservationPipeline: lines are handed over as they are read, so a
+    blocking handler stops the reading. Each chunk is copied once and its lines point into the copy, which stays
+    alive while they are in flight; no line becomes a String unless it is rejected. Lines are not parsed here; the
+    pipeline reports the rejected ones through reject, and every line it is done with through finished. The saved
+    offset never passes a line that is not finished, so the lines still inside the pipeline when the process dies are
+    read again. */
+    public void pollLines(LineHandler handler) throws InterruptedException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            synchronized (this) {
+                if (size < offset) restart(); // Not the file we were reading
+            }
+
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            long position = offset; // Only this thread moves the offset while it reads
+            while (position < size) {
+                if (!chunk.hasRemaining()) chunk = grow(chunk); // A single line fills the chunk
+                int read = channel.read(chunk, position);
+                if (read <= 0) break;
+                position += read;
+
+                chunk.flip();
+                long chunkOffset = offset; // File position of the chunk's first byte
+                ByteBuffer lines = null; // The chunk's bytes for the handler, as the chunk itself is reused
+                int lineStart = 0;
+                for (int i = 0; i < chunk.limit(); i++) {
+                    if (chunk.get(i) != '\n') continue;
+                    int from = ReservationBufferParser.skipSpaces(chunk, lineStart, i); // Trimmed like String.trim, \r included
+                    int to = ReservationBufferParser.trimEnd(chunk, from, i);
+                    if (from < to) {
+                        if (lines == null) lines = ByteBuffer.wrap(Arrays.copyOf(chunk.array(), chunk.limit()));
+                        synchronized (this) { pending.add(chunkOffset + lineStart); } // Before the pipeline can finish it
+                        handler.accept(lines, from, to, chunkOffset + lineStart);
+                    }
+                    lineStart = i + 1;
+                    synchronized (this) { offset = chunkOffset + lineStart; } // Read, maybe not finished
+                }
+                chunk.position(lineStart);
+                chunk.compact(); // Incomplete line, kept for the next read or poll
+            }
+        } catch (NoSuchFileException e) {
+            return; // No reservation file yet
+        } catch (IOException e) {
+            System.err.println("Error reading reservation file: " + e.getMessage()); // Read error
+            return;
+        } finally {
+            synchronized (this) { saveOffset(); }
+        }
+    }
+
+    /* finished
+    Inputs: position – start of a line pollLines handed over, now assigned, waitlisted, dropped or rejected.
+    Outputs: none.
+    Description: Called by the pipeline's threads, in any order. The offset is saved once every SAVE_EVERY lines, or
+    as soon as nothing is in flight; a crash in between only replays lines the dedup index knows. Positions that were
+    not handed over (a spool's, for example) are ignored. */
+    public synchronized void finished(long position) {
+        if (!pending.remove(position)) return;
+        if (++finishedSinceSave >= SAVE_EVERY || pending.isEmpty()) saveOffset();
+    }
+
+    /* reject
+    Inputs: line – a line found malformed or invalid after pollLines handed it over.
+    Outputs: none.
+    Description: Appends it to the rejected file; safe to call from several threads. */
+    public synchronized void reject(String line) {
+        appendRejected(List.of(line));
+    }
+
+    public interface LineHandler {
+        // bytes is shared by the lines of a chunk and must not be written; from, to – the line in it
+        void accept(ByteBuffer bytes, int from, int to, long position) throws InterruptedException;
+    }
+
+    /* restart
+    Inputs: none.
+    Outputs: none.
+    Description: The source was replaced by a shorter file: it is read again from the start, and the lines of the old
+    file still in flight no longer hold the offset back. */
+    private void restart() {
+        offset = 0;
+        pending.clear();
+    }
+
+    /* grow
+    Inputs: chunk – a full read buffer.
+    Outputs: a buffer twice as large holding the same bytes, ready for the next read.
+    Description: Only needed for lines longer than CHUNK_SIZE. */
+    private static ByteBuffer grow(ByteBuffer chunk) {
+        ByteBuffer larger = ByteBuffer.allocate(chunk.capacity() * 2);
+        chunk.flip();
+        larger.put(chunk);
+        return larger;
+    }
+
+    /* appendRejected
+    Inputs: lines – rejected lines of this poll.
+    Outputs: none.
+    Description: Appends them to the rejected file, creating it if needed; existing content is never touched. */
+    private void appendRejected(List<String> lines) {
+        if (lines.isEmpty()) return;
+        try (Writer writer = Files.newBufferedWriter(rejectedFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write(System.lineSeparator());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing rejected reservations", e);
+        }
+    }
+
+    /* saveOffset
+    Inputs: none.
+    Outputs: none.
+    Description: Writes the start of the first line in flight, or the offset if there is none, to a temporary file and
+    moves it over the offset file, so a crash never leaves a half-written offset. */
+    private void saveOffset() {
+        finishedSinceSave = 0;
+        try {
+            Path temporary = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+            Files.write(temporary, Long.toString(pending.isEmpty() ? offset : pending.first()).getBytes(StandardCharsets.US_ASCII));
+            Files.move(temporary, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error saving reservation offset", e);
+        }
+    }
+
+    /* loadOffset
+    Inputs: none.
+    Outputs: the persisted offset, or 0 if there is none or it is unreadable.
+    Description: Called once, when the reader is created. */
+    private long loadOffset() {
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(offsetFile), StandardCharsets.US_ASCII).trim());
+        } catch (IOException | NumberFormatException e) {
+            return 0; // First run, start from the beginning
+        }
+    }
+
+    public synchronized long getOffset() { return offset; }
+
+}
@@ -88,7 +88,9 @@ public class ReservationView {
     /* handleRoomReassignment
     Inputs: hotel, view, controller – app components; request – reservation to reassign; box – popup content; detailStage – popup stage.
     Outputs: none.
-    Description: Adds a form to allow users to reassign the reservation to another available room. */
+    Description: Adds a form to allow users to reassign the reservation to another available room: free now for an
+    undated reservation, free for its nights for a dated one (Hotel.isFreeFor). The new room is taken before the old
+    one is freed, so a room taken meanwhile leaves the reservation where it was. */
     private static void handleRoomReassignment(Hotel hotel, HotelView view, HotelController controller, AssignmentRequest request, VBox box, Stage detailStage) {
         Reservation res = request.reservation;
         Room assignedRoom = request.room;
@@ -97,12 +99,12 @@ public class ReservationView {
         roomInput.setPromptText("Enter new room name");
 
         Button confirmButton = new Button(BUTTON_CONFIRM_TEXT);
-        confirmButton.setDisable(hotel.getRoom(roomInput.getText()).isReserved()); // Disable if already reserved
+        confirmButton.setDisable(true); // The current room is not free for it
 
         roomInput.textProperty().addListener((obs, oldText, newText) -> {
             try {
                 Room testRoom = hotel.getRoom(newText);
-                confirmButton.setDisable(testRoom.isReserved()); // Enable only if room is available
+                confirmButton.setDisable(!hotel.isFreeFor(testRoom.getId(), res)); // Enable only if room is available
             } catch (Exception ex) {
                 confirmButton.setDisable(true); // Invalid room name
             }
@@ -112,9 +114,12 @@ public class ReservationView {
             String newRoomName = roomInput.getText();
             Room newRoom = hotel.getRoom(newRoomName);
 
-            freeReservation(hotel, view, controller, request); // Free current
-            hotel.reserveRoom(new AssignmentRequest(res, newRoom)); // Assign new
-            view.reserveRoom(newRoom.getName()); // Update UI
+            AssignmentRequest moved = new AssignmentRequest(res, newRoom);
+            if (hotel.tryReserveRoom(moved)) { // Assign new, unless taken since the check
+                freeReservation(hotel, view, controller, request); // Free current
+                if (!res.isDated()) view.reserveRoom(newRoom.getName()); // Update UI
+                controller.addReservation(moved);
+            }
 
             detailStage.close(); // Close popup
         });
@@ -154,11 +159,15 @@ public class ReservationView {
     /* freeReservation
     Inputs: hotel, view, controller – system components; request – reservation to cancel.
     Outputs: none.
-    Description: Frees a room, updates the view, and removes the reservation from the system. */
+    Description: Frees a room, or a dated stay's nights, updates the view, and removes the reservation from the system. */
     private static void freeReservation(Hotel hotel, HotelView view, HotelController controller, AssignmentRequest request) {
         Room room = request.room;
-        hotel.freeRoom(room.getName());
-        view.freeRoom(room.getName(), room.getType());
+        if (request.reservation.isDated()) {
+            hotel.cancelStay(request); // The room's current state is not the stay's
+        } else {
+            hotel.freeRoom(room.getId());
+            view.freeRoom(room.getName(), room.getType());
+        }
         controller.removeReservation(request);
     }
 
@@ -0,0 +1,369 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/* ReservationWaitlist
+Description: Reservations that arrived while the hotel was full, served when rooms are freed: Hotel.freeRoom calls
+drainLater, which hands the drain to the waitlist's own thread, so the thread freeing the room (the FX thread) never
+runs the strategy or writes the log, and an error there is reported instead of reaching it. Waiting reservations are kept in arrival order in a heap; in room-type mode there is also one heap per preferred
+room type (see AssignmentStrategy.determineTargetType), and a freed room goes to the earliest reservation that wants its
+type before anyone else. An entry taken from one heap is only flagged in the other and skipped when it surfaces, so
+each item costs O(log n). isEmpty is a counter read, so the hotel-full path never takes the lock.
+The waitlist survives restarts: every change is appended to a log file ("+seq,line" when added, "+seq@source,line" if
+the reservation knows where it was read, "-seq" when served), which is replayed at start-up and rewritten with the live entries only once it has grown past twice their number.
+add and drain return once their record is on disk, so a line the reader has finished with is never only in memory.
+Like ReservationDedupIndex.commit, the fsync is a group commit: records appended while one is running share the next. */
+public class ReservationWaitlist implements Closeable {
+
+    private static final int MIN_COMPACTION = 1024; // Log entries before compaction is considered
+
+    private final Path logFile;
+    private final boolean byRoomType;
+    private final Supplier<AssignmentStrategy> strategy;
+    private final Consumer<AssignmentRequest> onAssigned;
+    private final PriorityQueue<Entry> arrivals = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.sequence));
+    private final Map<Character, PriorityQueue<Entry>> byType = new HashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ExecutorService drainer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waitlist-drain");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object syncLock = new Object(); // Held by the thread forcing the log
+    private FileChannel log;
+    private long nextSequence;
+    private long logEntries;
+    private long lastWrite; // Records appended so far; guarded by this
+    private volatile long durableWrite; // Every record up to it is on disk
+    private long syncs; // Guarded by syncLock
+
+    /* ReservationWaitlist constructor
+    Inputs: logFile – where the waitlist is persisted; byRoomType – serve a freed room to who wants its type first;
+    strategy – gives the strategy used to place waiting reservations; onAssigned – receives every reservation placed by drain.
+    Outputs: none.
+    Description: Replays the log of previous runs. */
+    public ReservationWaitlist(Path logFile, boolean byRoomType, Supplier<AssignmentStrategy> strategy, Consumer<AssignmentRequest> onAssigned) throws IOException {
+        this.logFile = logFile;
+        this.byRoomType = byRoomType;
+        this.strategy = strategy;
+        this.onAssigned = onAssigned;
+        for (Map.Entry<Long, Reservation> waiting : replay().entrySet()) {
+            push(new Entry(waiting.getKey(), waiting.getValue()));
+            nextSequence = waiting.getKey() + 1;
+        }
+        compact(); // Start from a log holding the live entries only
+    }
+
+    /* add
+    Inputs: reservation – a reservation that found no room.
+    Outputs: none.
+    Description: Queues it behind every reservation already waiting and logs it; returns once the record is on disk. */
+    public void add(Reservation reservation) {
+        long write;
+        synchronized (this) {
+            Entry entry = new Entry(nextSequence++, reservation);
+            push(entry); // Before append, whose compaction keeps the live entries only
+            write = append(added(entry));
+        }
+        sync(write);
+    }
+
+    /* isEmpty
+    Inputs: none.
+    Outputs: true if nobody is waiting.
+    Description: O(1) and lock-free. */
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /* drain
+    Inputs: hotel – the hotel; freedType – type of the room just freed, or 0 if unknown.
+    Outputs: none.
+    Description: Places waiting reservations while the hotel has free rooms, each through Hotel.assignReservation. The
+    first one is chosen for the freed room's type in room-type mode. If a concurrent assigner took the room first, the
+    reservation goes back to its place in the line. */
+    public void drain(Hotel hotel, char freedType) {
+        char type = freedType;
+        while (!isEmpty() && !hotel.getAvailableRooms().isEmpty()) {
+            Entry entry;
+            synchronized (this) {
+                entry = pollEntry(type);
+                if (entry == null) return;
+            }
+            AssignmentRequest request = null;
+            try {
+                request = hotel.assignReservation(strategy.get(), entry.reservation);
+            } finally {
+                if (request == null) {
+                    synchronized (this) { push(new Entry(entry.sequence, entry.reservation)); } // Lost the room, or failed
+                }
+            }
+            if (request == null) return;
+            try {
+                long write;
+                synchronized (this) { write = append("-" + entry.sequence); }
+                sync(write);
+            } catch (UncheckedIOException e) { // The room is taken whatever the log says
+                System.err.println("Error logging a served waitlist entry, it waits again after a restart: " + e.getMessage());
+            }
+            onAssigned.accept(request);
+            type = 0; // Any further room is not the freed one
+        }
+    }
+
+    /* drainLater
+    Inputs: hotel – the hotel; freedType – type of the room just freed, or 0 if unknown.
+    Outputs: none.
+    Description: Runs drain on the waitlist's thread, in the order the rooms were freed, and returns at once. An error
+    is reported on System.err; the reservation it was serving stays in the waitlist or in its room. */
+    public void drainLater(Hotel hotel, char freedType) {
+        try {
+            drainer.execute(() -> {
+                try {
+                    drain(hotel, freedType);
+                } catch (RuntimeException e) {
+                    System.err.println("Error serving the waitlist: " + e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Closed: whoever is waiting is served at the next start
+        }
+    }
+
+    /* awaitDrains
+    Inputs: none.
+    Outputs: none.
+    Description: Returns once the drains requested so far are done. */
+    void awaitDrains() throws InterruptedException {
+        try {
+            drainer.submit(() -> {}).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause()); // An empty task does not fail
+        }
+    }
+
+    /* getSyncCount
+    Inputs: none.
+    Outputs: the fsyncs of the log so far, shared by the records appended meanwhile. */
+    public long getSyncCount() {
+        synchronized (syncLock) { return syncs; }
+    }
+
+    /* getReservations
+    Inputs: none.
+    Outputs: the waiting reservations in arrival order.
+    Description: A snapshot, O(n log n). */
+    public synchronized List<Reservation> getReservations() {
+        List<Reservation> reservations = new ArrayList<>();
+        for (Entry entry : liveEntries()) { reservations.add(entry.reservation); }
+        return reservations;
+    }
+
+    /* close
+    Inputs: none.
+    Outputs: none.
+    Description: Lets the drains already requested finish, then closes the log. */
+    @Override
+    public void close() throws IOException {
+        drainer.shutdown();
+        try {
+            drainer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (syncLock) {
+            synchronized (this) { log.close(); } // After the group being forced
+        }
+    }
+
+    private void push(Entry entry) {
+        arrivals.add(entry);
+        if (byRoomType) byType.computeIfAbsent(entry.targetType, type -> new PriorityQueue<>(arrivals.comparator())).add(entry);
+        size.incrementAndGet();
+    }
+
+    /* pollEntry
+    Inputs: type – preferred room type, or 0.
+    Outputs: the entry to serve, or null if none is waiting.
+    Description: Flags it as served so its copy in the other heap is skipped later. */
+    private Entry pollEntry(char type) {
+        Entry entry = null;
+        if (byRoomType && type != 0) entry = pollLive(byType.get(type));
+        if (entry == null) entry = pollLive(arrivals);
+        if (entry == null) return null;
+        entry.served = true;
+        size.decrementAndGet();
+        return entry;
+    }
+
+    private static Entry pollLive(PriorityQueue<Entry> queue) {
+        if (queue == null) return null;
+        Entry entry = queue.poll();
+        while (entry != null && entry.served) { entry = queue.poll(); } // Already served through the other heap
+        return entry;
+    }
+
+    /* append
+    Inputs: record – one log line.
+    Outputs: its write number, for sync.
+    Description: Appends it, then compacts the log once it holds more than twice the live entries. Under this. */
+    private long append(String record) {
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) { log.write(bytes); }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing waitlist", e);
+        }
+        if (++logEntries > Math.max(MIN_COMPACTION, 2L * size.get())) {
+            try {
+                compact();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error compacting waitlist", e);
+            }
+        }
+        return ++lastWrite;
+    }
+
+    /* sync
+    Inputs: write – a number returned by append.
+    Outputs: none.
+    Description: Returns once that record is on disk. If another thread is forcing the log, waits for it; the next
+    force then covers every record appended meanwhile. A log replaced by compaction was forced whole before the move. */
+    private void sync(long write) {
+        synchronized (syncLock) {
+            if (durableWrite >= write) return; // Forced by the group before
+            long written;
+            FileChannel channel;
+            synchronized (this) {
+                written = lastWrite;
+                channel = log;
+            }
+            try {
+                channel.force(false);
+                syncs++;
+            } catch (ClosedChannelException e) {
+                // Compacted meanwhile: the new log holds these records and was forced
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error writing waitlist", e);
+            }
+            durableWrite = written;
+        }
+    }
+
+    /* compact
+    Inputs: none.
+    Outputs: none.
+    Description: Writes the live entries to a temporary file, fsyncs it and moves it over the log, so a crash leaves
+    either log whole, and rebuilds the heaps from them. */
+    private void compact() throws IOException {
+        if (log != null) log.close();
+        Path temporary = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        List<Entry> live = liveEntries();
+        StringBuilder records = new StringBuilder();
+        for (Entry entry : live) { records.append(added(entry)).append('\n'); }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) { channel.write(bytes); }
+            channel.force(true);
+        }
+        Files.move(temporary, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        logEntries = live.size();
+
+        // Also drop the served entries still sitting in the heap they were not taken from
+        arrivals.clear();
+        byType.clear();
+        size.set(0);
+        for (Entry entry : live) { push(entry); }
+    }
+
+    // The log line of an entry added; the source keeps its idempotency key across restarts
+    private static String added(Entry entry) {
+        long source = entry.reservation.getSource();
+        return "+" + entry.sequence + (source != Reservation.NO_SOURCE ? "@" + source : "") + "," + ReservationParser.format(entry.reservation);
+    }
+
+    private List<Entry> liveEntries() {
+        List<Entry> entries = new ArrayList<>(size.get());
+        for (Entry entry : arrivals) {
+            if (!entry.served) entries.add(entry);
+        }
+        entries.sort(arrivals.comparator());
+        return entries;
+    }
+
+    /* replay
+    Inputs: none.
+    Outputs: the entries still waiting according to the log, in arrival order.
+    Description: A torn last line (crash mid-write) is ignored. */
+    private LinkedHashMap<Long, Reservation> replay() throws IOException {
+        LinkedHashMap<Long, Reservation> waiting = new LinkedHashMap<>();
+        List<String> records;
+        try {
+            records = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return waiting; // First run
+        }
+        for (String record : records) {
+            try {
+                if (record.startsWith("-")) {
+                    waiting.remove(Long.parseLong(record.substring(1)));
+                } else if (record.startsWith("+")) {
+                    int comma = record.indexOf(','), at = record.lastIndexOf('@', comma);
+                    Reservation reservation = ReservationParser.parseValidLine(record.substring(comma + 1));
+                    if (reservation == null) continue;
+                    if (at > 0) reservation = reservation.withSource(Long.parseLong(record.substring(at + 1, comma)));
+                    waiting.put(Long.parseLong(record.substring(1, at > 0 ? at : comma)), reservation);
+                }
+            } catch (RuntimeException e) {
+                // Torn or foreign line
+            }
+        }
+        return waiting;
+    }
+
+    private static class Entry {
+        final long sequence;
+        final Reservation reservation;
+        final char targetType;
+        boolean served;
+
+        Entry(long sequence, Reservation reservation) {
+            this.sequence = sequence;
+            this.reservation = reservation;
+            this.targetType = AssignmentStrategy.determineTargetType(reservation);
+        }
+    }
+
+}
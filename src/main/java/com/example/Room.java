@@ -1,18 +1,23 @@
 package com.example;
 public class Room {
+    private final int id; // Hotel-wide room ID, see FloorLayout.toRoomId
+    private final int level;
     private final String name;
     private final int row;
     private final int col;
     private final char type; // 'E', 'B', 'L'
 
-    private boolean reserved;
-    private Reservation reservation;
+    private volatile boolean reserved; // Written under the floor's lock, read without it
+    private volatile Reservation reservation;
+    private Floor floor; // Owning floor, told about state changes (null for detached rooms)
 
     /* Room constructor
-    Inputs: name – room identifier; row – row position; col – column position; type – room type ('L', 'B', 'E').
+    Inputs: id – hotel-wide room ID; level – floor number; name – room identifier; row – row position; col – column position; type – room type ('L', 'B', 'E').
     Outputs: none.
     Description: Initializes a Room with its position, type, and sets it as unreserved with an EmptyReservation. */
-    public Room(String name, int row, int col, char type) {
+    public Room(int id, int level, String name, int row, int col, char type) {
+        this.id = id;
+        this.level = level;
         this.name = name;
         this.row = row;
         this.col = col;
@@ -22,13 +27,36 @@ public class Room {
         this.reservation = EmptyReservation.getInstance(); // Placeholder reservation
     }
 
+    /* Room constructor
+    Inputs: name – room identifier; row – row position; col – column position; type – room type ('L', 'B', 'E').
+    Outputs: none.
+    Description: Creates a room that does not belong to any hotel (no ID, no floor). */
+    public Room(String name, int row, int col, char type) {
+        this(-1, 0, name, row, col, type);
+    }
+
     /* reserveRoom
     Inputs: reservation – the reservation to assign to this room.
     Outputs: none.
     Description: Marks the room as reserved and stores the reservation object. */
     public void reserveRoom(Reservation reservation) {
-        this.reserved = true; // Mark as reserved
-        this.reservation = reservation; // Assign actual reservation
+        synchronized (getLock()) {
+            if (isReserved()) freeRoom(); // Replacing a stay releases the previous one first
+            storeReservation(reservation); // Mark as reserved and keep the reservation
+            if (floor != null) floor.roomReserved(this); // Keep hotel indexes in sync
+        }
+    }
+
+    /* tryReserveRoom
+    Inputs: reservation – the reservation to assign to this room.
+    Outputs: true if the room was free and is now reserved for it; false if it was already reserved.
+    Description: Check and reservation happen under the floor's lock, so of two threads racing for a room only one wins. */
+    public boolean tryReserveRoom(Reservation reservation) {
+        synchronized (getLock()) {
+            if (isReserved()) return false; // Someone else got it first
+            reserveRoom(reservation);
+            return true;
+        }
     }
 
     /* freeRoom
@@ -36,8 +64,39 @@ public class Room {
     Outputs: none.
     Description: Frees the room and replaces the current reservation with an EmptyReservation. */
     public void freeRoom() {
-        this.reserved = false; // Mark as available
-        this.reservation = EmptyReservation.getInstance(); // Reset reservation to empty
+        synchronized (getLock()) {
+            boolean wasReserved = isReserved();
+            boolean hadChildren = hasChildren();
+            clearReservation(); // Mark as available, reset reservation to empty
+            if (wasReserved && floor != null) floor.roomFreed(this, hadChildren); // Keep hotel indexes in sync
+        }
+    }
+
+    /* getLock
+    Inputs: none.
+    Outputs: the monitor guarding this room's state.
+    Description: The owning floor, so rooms of one floor and their neighbour counters change atomically while
+    different floors proceed in parallel; a detached room is its own lock. */
+    Object getLock() {
+        return floor != null ? floor : this;
+    }
+
+    /* storeReservation
+    Inputs: reservation – the reservation to keep.
+    Outputs: none.
+    Description: Writes the reserved state; overridden by views that keep their state elsewhere. */
+    void storeReservation(Reservation reservation) {
+        this.reserved = true;
+        this.reservation = reservation;
+    }
+
+    /* clearReservation
+    Inputs: none.
+    Outputs: none.
+    Description: Writes the free state; overridden by views that keep their state elsewhere. */
+    void clearReservation() {
+        this.reserved = false;
+        this.reservation = EmptyReservation.getInstance();
     }
 
     /* hasChildren
@@ -45,11 +104,15 @@ public class Room {
     Outputs: true if the room is reserved and the reservation includes children.
     Description: Checks whether the current reservation has one or more children. */
     public boolean hasChildren() {
-        return reserved && reservation.getNumChildren() > 0; // Only true if room is reserved and has kids
+        return isReserved() && getReservation().getNumChildren() > 0; // Only true if room is reserved and has kids
     }
 
 
+    void setFloor(Floor floor) { this.floor = floor; }
+
     public boolean isReserved(){ return reserved; }
+    public int getId() { return id; }
+    public int getLevel() { return level; }
     public String getName() { return name; }
     public int getRow() { return row; }
     public int getCol() { return col; }
@@ -0,0 +1,103 @@
+package com.example;
+
+import java.util.BitSet;
+import java.util.Iterator;
+
+/* RoomBatch
+Description: Scratch availability shared by all the assignments of one batch. It starts as a copy of the hotel's
+availability index; every claimed room is removed from it and updates its frontier, and the batch remembers the
+profile of claimed rooms, so later picks of the same batch see earlier ones exactly as if they had been committed.
+Nothing touches the hotel until Hotel.reserveRooms commits the result. */
+public class RoomBatch implements AvailableRooms {
+
+    private final Hotel hotel;
+    private final AvailabilityIndex scratch;
+    private final BitSet claimedWithChildren = new BitSet(); // Room IDs claimed in this batch by stays with children
+    private final BitSet claimedAdults = new BitSet(); // Room IDs claimed in this batch by stays without children
+
+    RoomBatch(Hotel hotel, AvailabilityIndex availability) {
+        this.hotel = hotel;
+        this.scratch = new AvailabilityIndex(availability);
+    }
+
+    /* claim
+    Inputs: request – the assignment just decided.
+    Outputs: none.
+    Description: Takes the room out of the batch's availability and records it as a reserved neighbour for later picks. */
+    public void claim(AssignmentRequest request) {
+        Room room = request.room;
+        FloorLayout layout = hotel.getLayout();
+        scratch.roomReserved(room.getId(), room.getType());
+        (request.reservation.getNumChildren() > 0 ? claimedWithChildren : claimedAdults).set(room.getId());
+
+        int firstId = layout.toRoomId(room.getLevel(), 0), roomIndex = layout.getRoomIndexOf(room.getId());
+        for (int i = 0, count = layout.getNeighbourCount(roomIndex); i < count; i++) {
+            int neighbour = layout.getNeighbour(roomIndex, i);
+            scratch.adjacencyChanged(firstId + neighbour, layout.getType(neighbour), true); // Free neighbours join the frontier
+        }
+    }
+
+    /* hasNeighbourConflict
+    Inputs: roomId – candidate room ID; withChildren – whether the candidate stay has children.
+    Outputs: true if a committed or claimed neighbour has the opposite profile.
+    Description: Floor counters for committed stays (floors never built have none), plus this batch's claims. */
+    public boolean hasNeighbourConflict(int roomId, boolean withChildren) {
+        FloorLayout layout = hotel.getLayout();
+        int level = layout.getLevelOf(roomId);
+        if (hotel.isFloorMaterialized(level) && hotel.getFloor(level).hasNeighbourConflict(layout.getRoomIndexOf(roomId), withChildren)) return true;
+        return hasClaimedConflict(roomId, withChildren);
+    }
+
+    /* hasClaimedConflict
+    Inputs: roomId – candidate room ID; withChildren – whether the candidate stay has children.
+    Outputs: true if a room claimed in this batch next to it has the opposite profile.
+    Description: Only looks at this batch's claims, not at committed reservations. */
+    boolean hasClaimedConflict(int roomId, boolean withChildren) {
+        FloorLayout layout = hotel.getLayout();
+        BitSet opposite = withChildren ? claimedAdults : claimedWithChildren;
+        int firstId = layout.toRoomId(layout.getLevelOf(roomId), 0), roomIndex = layout.getRoomIndexOf(roomId);
+        for (int i = 0, count = layout.getNeighbourCount(roomIndex); i < count; i++) {
+            if (opposite.get(firstId + layout.getNeighbour(roomIndex, i))) return true; // Claimed earlier in this batch
+        }
+        return false;
+    }
+
+    /* nextFreeId
+    Inputs: fromId – first room ID to look at.
+    Outputs: the lowest room ID still free in this batch at or after fromId, or -1. */
+    int nextFreeId(int fromId) {
+        return scratch.nextFree(fromId);
+    }
+
+    /* firstOnFrontier
+    Inputs: type – room type code.
+    Outputs: the first free room of that type next to a committed or claimed room, or null.
+    Description: Reads the batch's copy of the frontier. */
+    public Room firstOnFrontier(char type) {
+        return scratch.firstOnFrontier(type);
+    }
+
+    public Hotel getHotel() { return hotel; }
+
+    @Override
+    public boolean isEmpty() { return scratch.isEmpty(); }
+
+    @Override
+    public int size() { return scratch.size(); }
+
+    @Override
+    public Room get(int index) { return scratch.get(index); }
+
+    @Override
+    public Room first() { return scratch.first(); }
+
+    @Override
+    public Room firstOfType(char type) { return scratch.firstOfType(type); }
+
+    @Override
+    public Iterable<Room> ofType(char type, int level) { return scratch.ofType(type, level); }
+
+    @Override
+    public Iterator<Room> iterator() { return scratch.iterator(); }
+
+}
@@ -0,0 +1,280 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/* RoomBitmap
+Description: Compressed set of room IDs, roaring-style: the IDs are cut in chunks of 65,536 and each chunk is stored
+the cheaper way for its content – a sorted array of 16-bit offsets while it holds at most 4,096 rooms (2 bytes per
+room), a plain 8 KB bitmap above that. A quiet night over a million rooms costs a few bytes per occupied room, a busy
+one 128 KB, and intersections run chunk by chunk on 64-bit words. Bitmaps returned by OccupancyCalendar queries are
+never changed afterwards; the calendar's own bitmaps are mutated under its lock. Not thread-safe. */
+public final class RoomBitmap {
+
+    static final int CHUNK_BITS = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    static final int WORDS_PER_CHUNK = CHUNK_SIZE / 64;
+    private static final int ARRAY_MAX = 4096; // Above this many rooms, the 8 KB bitmap is the smaller container
+
+    private final int capacity;
+    private final char[][] arrays; // Per chunk: sorted offsets, or null
+    private final long[][] bitmaps; // Per chunk: 1,024 words, or null (never both set)
+    private final int[] cardinalities;
+
+    /* RoomBitmap constructor
+    Inputs: capacity – number of room IDs, from 0 to capacity - 1.
+    Outputs: none.
+    Description: Starts empty; an empty chunk costs nothing. */
+    RoomBitmap(int capacity) {
+        int chunks = (capacity + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+        this.capacity = capacity;
+        this.arrays = new char[chunks][];
+        this.bitmaps = new long[chunks][];
+        this.cardinalities = new int[chunks];
+    }
+
+    /* range
+    Inputs: capacity – as above; from, to – the IDs [from, to) to include.
+    Outputs: a bitmap of that range.
+    Description: Used for masks (a floor, the whole hotel). */
+    static RoomBitmap range(int capacity, int from, int to) {
+        RoomBitmap bitmap = new RoomBitmap(capacity);
+        long[] words = new long[WORDS_PER_CHUNK];
+        for (int chunk = from >>> CHUNK_BITS; chunk < bitmap.chunks() && chunk << CHUNK_BITS < to; chunk++) {
+            Arrays.fill(words, 0);
+            int start = Math.max(from, chunk << CHUNK_BITS) - (chunk << CHUNK_BITS);
+            int end = Math.min(to, (chunk + 1) << CHUNK_BITS) - (chunk << CHUNK_BITS);
+            for (int bit = start; bit < end; bit++) { words[bit >>> 6] |= 1L << bit; }
+            bitmap.setChunk(chunk, words);
+        }
+        return bitmap;
+    }
+
+    /* add
+    Inputs: id – room ID.
+    Outputs: true if it was not in the set.
+    Description: An array chunk past ARRAY_MAX turns into a bitmap. */
+    boolean add(int id) {
+        int chunk = id >>> CHUNK_BITS;
+        char low = (char) id;
+        long[] bits = bitmaps[chunk];
+        if (bits != null) {
+            long before = bits[low >>> 6];
+            bits[low >>> 6] = before | (1L << low);
+            if (before == bits[low >>> 6]) return false;
+            cardinalities[chunk]++;
+            return true;
+        }
+        char[] offsets = arrays[chunk];
+        int size = cardinalities[chunk];
+        int at = offsets == null ? -1 : Arrays.binarySearch(offsets, 0, size, low);
+        if (at >= 0) return false;
+        at = -at - 1;
+        if (size == ARRAY_MAX) { // Convert, then set
+            bitmaps[chunk] = toWords(offsets, size);
+            arrays[chunk] = null;
+            return add(id);
+        }
+        if (offsets == null) offsets = arrays[chunk] = new char[4];
+        else if (size == offsets.length) offsets = arrays[chunk] = Arrays.copyOf(offsets, Math.min(ARRAY_MAX, size + (size >> 1))); // Half again: less slack than doubling
+        System.arraycopy(offsets, at, offsets, at + 1, size - at);
+        offsets[at] = low;
+        cardinalities[chunk]++;
+        return true;
+    }
+
+    /* remove
+    Inputs: id – room ID.
+    Outputs: true if it was in the set.
+    Description: A bitmap chunk that falls to half of ARRAY_MAX turns back into an array, so a room going back and
+    forth at the limit does not convert every time. */
+    boolean remove(int id) {
+        int chunk = id >>> CHUNK_BITS;
+        char low = (char) id;
+        long[] bits = bitmaps[chunk];
+        if (bits != null) {
+            long before = bits[low >>> 6];
+            bits[low >>> 6] = before & ~(1L << low);
+            if (before == bits[low >>> 6]) return false;
+            if (--cardinalities[chunk] <= ARRAY_MAX / 2) setChunk(chunk, bits);
+            return true;
+        }
+        char[] offsets = arrays[chunk];
+        int size = cardinalities[chunk];
+        int at = offsets == null ? -1 : Arrays.binarySearch(offsets, 0, size, low);
+        if (at < 0) return false;
+        System.arraycopy(offsets, at + 1, offsets, at, size - at - 1);
+        if (--cardinalities[chunk] == 0) arrays[chunk] = null;
+        return true;
+    }
+
+    public boolean contains(int id) {
+        if (id < 0 || id >= capacity) return false;
+        int chunk = id >>> CHUNK_BITS;
+        char low = (char) id;
+        if (bitmaps[chunk] != null) return (bitmaps[chunk][low >>> 6] & (1L << low)) != 0;
+        return arrays[chunk] != null && Arrays.binarySearch(arrays[chunk], 0, cardinalities[chunk], low) >= 0;
+    }
+
+    /* cardinality
+    Inputs: none.
+    Outputs: the number of rooms in the set.
+    Description: O(number of chunks). */
+    public int cardinality() {
+        int total = 0;
+        for (int count : cardinalities) { total += count; }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        for (int count : cardinalities) {
+            if (count > 0) return false;
+        }
+        return true;
+    }
+
+    /* nextSetBit
+    Inputs: id – first room ID to look at.
+    Outputs: the first room ID of the set from id on, or -1.
+    Description: Skips empty chunks; a word scan in a bitmap chunk, a binary search in an array chunk. */
+    public int nextSetBit(int id) {
+        if (id < 0) id = 0;
+        for (int chunk = id >>> CHUNK_BITS; chunk < chunks(); chunk++) {
+            int low = chunk == id >>> CHUNK_BITS ? id & (CHUNK_SIZE - 1) : 0;
+            int base = chunk << CHUNK_BITS;
+            long[] bits = bitmaps[chunk];
+            if (bits != null) {
+                int word = low >>> 6;
+                long current = bits[word] & (-1L << low);
+                while (true) {
+                    if (current != 0) return base + word * 64 + Long.numberOfTrailingZeros(current);
+                    if (++word == WORDS_PER_CHUNK) break;
+                    current = bits[word];
+                }
+            } else if (arrays[chunk] != null) {
+                int at = Arrays.binarySearch(arrays[chunk], 0, cardinalities[chunk], (char) low);
+                if (at < 0) at = -at - 1;
+                if (at < cardinalities[chunk]) return base + arrays[chunk][at];
+            }
+        }
+        return -1;
+    }
+
+    /* forEach
+    Inputs: action – called with every room ID.
+    Outputs: none.
+    Description: Increasing order. */
+    public void forEach(IntConsumer action) {
+        for (int chunk = 0; chunk < chunks(); chunk++) {
+            int base = chunk << CHUNK_BITS;
+            if (bitmaps[chunk] != null) {
+                long[] bits = bitmaps[chunk];
+                for (int word = 0; word < WORDS_PER_CHUNK; word++) {
+                    for (long current = bits[word]; current != 0; current &= current - 1) {
+                        action.accept(base + word * 64 + Long.numberOfTrailingZeros(current));
+                    }
+                }
+            } else if (arrays[chunk] != null) {
+                for (int i = 0; i < cardinalities[chunk]; i++) { action.accept(base + arrays[chunk][i]); }
+            }
+        }
+    }
+
+    /* and
+    Inputs: other – a bitmap over the same room IDs.
+    Outputs: a new bitmap of the rooms in both.
+    Description: Chunk by chunk; chunks empty on either side are skipped. */
+    public RoomBitmap and(RoomBitmap other) {
+        RoomBitmap result = new RoomBitmap(capacity);
+        long[] words = new long[WORDS_PER_CHUNK];
+        long[] otherWords = new long[WORDS_PER_CHUNK];
+        for (int chunk = 0; chunk < chunks(); chunk++) {
+            if (!copyChunk(chunk, words) || !other.copyChunk(chunk, otherWords)) continue;
+            for (int i = 0; i < WORDS_PER_CHUNK; i++) { words[i] &= otherWords[i]; }
+            result.setChunk(chunk, words);
+        }
+        return result;
+    }
+
+    /* getSizeInBytes
+    Inputs: none.
+    Outputs: approximate heap taken by the containers.
+    Description: For the benchmarks: arrays count their allocated length, bitmaps 8 KB. */
+    public long getSizeInBytes() {
+        long bytes = 16L * chunks() + 4L * chunks();
+        for (int chunk = 0; chunk < chunks(); chunk++) {
+            if (bitmaps[chunk] != null) bytes += 16 + 8L * WORDS_PER_CHUNK;
+            else if (arrays[chunk] != null) bytes += 16 + 2L * arrays[chunk].length;
+        }
+        return bytes;
+    }
+
+    int chunks() {
+        return cardinalities.length;
+    }
+
+    /* copyChunk
+    Inputs: chunk – chunk index; words – 1,024 words to overwrite.
+    Outputs: false if the chunk is empty (words are then left untouched).
+    Description: Expands the chunk into plain bits. */
+    boolean copyChunk(int chunk, long[] words) {
+        if (cardinalities[chunk] == 0) return false;
+        if (bitmaps[chunk] != null) {
+            System.arraycopy(bitmaps[chunk], 0, words, 0, WORDS_PER_CHUNK);
+        } else {
+            Arrays.fill(words, 0);
+            char[] offsets = arrays[chunk];
+            for (int i = 0; i < cardinalities[chunk]; i++) { words[offsets[i] >>> 6] |= 1L << offsets[i]; }
+        }
+        return true;
+    }
+
+    /* andNotChunk
+    Inputs: chunk – chunk index; words – plain bits of that chunk.
+    Outputs: none.
+    Description: Clears in words every room of this bitmap's chunk. */
+    void andNotChunk(int chunk, long[] words) {
+        if (bitmaps[chunk] != null) {
+            long[] bits = bitmaps[chunk];
+            for (int i = 0; i < WORDS_PER_CHUNK; i++) { words[i] &= ~bits[i]; }
+        } else if (arrays[chunk] != null) {
+            char[] offsets = arrays[chunk];
+            for (int i = 0; i < cardinalities[chunk]; i++) { words[offsets[i] >>> 6] &= ~(1L << offsets[i]); }
+        }
+    }
+
+    /* setChunk
+    Inputs: chunk – chunk index; words – plain bits of that chunk.
+    Outputs: none.
+    Description: Stores them in the cheaper container for their count. */
+    void setChunk(int chunk, long[] words) {
+        int count = 0;
+        for (long word : words) { count += Long.bitCount(word); }
+        cardinalities[chunk] = count;
+        if (count > ARRAY_MAX) {
+            bitmaps[chunk] = words == bitmaps[chunk] ? words : words.clone();
+            arrays[chunk] = null;
+            return;
+        }
+        bitmaps[chunk] = null;
+        if (count == 0) {
+            arrays[chunk] = null;
+            return;
+        }
+        char[] offsets = new char[count];
+        int size = 0;
+        for (int word = 0; word < WORDS_PER_CHUNK; word++) {
+            for (long current = words[word]; current != 0; current &= current - 1) {
+                offsets[size++] = (char) (word * 64 + Long.numberOfTrailingZeros(current));
+            }
+        }
+        arrays[chunk] = offsets;
+    }
+
+    private static long[] toWords(char[] offsets, int size) {
+        long[] words = new long[WORDS_PER_CHUNK];
+        for (int i = 0; i < size; i++) { words[offsets[i] >>> 6] |= 1L << offsets[i]; }
+        return words;
+    }
+
+}
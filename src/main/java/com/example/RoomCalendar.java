@@ -0,0 +1,112 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/* RoomCalendar
+Description: The dated stays of one room: non-overlapping night ranges [checkIn, checkOut) in epoch days, sorted, in
+parallel primitive arrays (about 12 bytes per stay instead of a tree node per interval). Since stays never overlap,
+the only one that can clash with a range is the last stay starting before the range ends, so "free for nights [a, b)"
+is one binary search, O(log n). Booking or cancelling shifts the later stays, a short copy for a room's year of
+bookings. Thread-safe: each calendar is its own lock, so checking and booking a range is atomic. */
+class RoomCalendar {
+
+    private int[] checkIns = new int[4];
+    private int[] checkOuts = new int[4];
+    private Reservation[] reservations = new Reservation[4];
+    private int size;
+
+    /* isFree
+    Inputs: from – first night; to – night after the last one (epoch days).
+    Outputs: true if no stay covers any night of [from, to).
+    Description: O(log n). */
+    synchronized boolean isFree(int from, int to) {
+        int last = lastStartingBefore(to);
+        return last < 0 || checkOuts[last] <= from;
+    }
+
+    /* book
+    Inputs: from, to – nights as for isFree; reservation – the guest.
+    Outputs: true if the range was free and is now booked, false if a stay covers one of its nights.
+    Description: Check and insertion happen under the calendar's lock. */
+    synchronized boolean book(int from, int to, Reservation reservation) {
+        int last = lastStartingBefore(to);
+        if (last >= 0 && checkOuts[last] > from) return false; // Overlaps a stay
+        if (size == checkIns.length) {
+            checkIns = Arrays.copyOf(checkIns, size * 2);
+            checkOuts = Arrays.copyOf(checkOuts, size * 2);
+            reservations = Arrays.copyOf(reservations, size * 2);
+        }
+        int at = last + 1; // Every earlier stay ends by from, every later one starts at to or after
+        System.arraycopy(checkIns, at, checkIns, at + 1, size - at);
+        System.arraycopy(checkOuts, at, checkOuts, at + 1, size - at);
+        System.arraycopy(reservations, at, reservations, at + 1, size - at);
+        checkIns[at] = from;
+        checkOuts[at] = to;
+        reservations[at] = reservation;
+        size++;
+        return true;
+    }
+
+    /* cancel
+    Inputs: from – first night of the stay; reservation – its guest.
+    Outputs: true if that stay was booked and is now removed.
+    Description: O(log n) to find it. */
+    synchronized boolean cancel(int from, Reservation reservation) {
+        int stay = lastStartingBefore(from + 1);
+        if (stay < 0 || checkIns[stay] != from || reservations[stay] != reservation) return false;
+        System.arraycopy(checkIns, stay + 1, checkIns, stay, size - stay - 1);
+        System.arraycopy(checkOuts, stay + 1, checkOuts, stay, size - stay - 1);
+        System.arraycopy(reservations, stay + 1, reservations, stay, size - stay - 1);
+        reservations[--size] = null;
+        return true;
+    }
+
+    /* cancel
+    Inputs: from, to – the nights of a stay.
+    Outputs: true if a stay of exactly these nights was booked and is now removed.
+    Description: For journal replay, where the reservation is a decoded copy rather than the booked instance. */
+    synchronized boolean cancel(int from, int to) {
+        int stay = lastStartingBefore(from + 1);
+        if (stay < 0 || checkIns[stay] != from || checkOuts[stay] != to) return false;
+        return cancel(from, reservations[stay]);
+    }
+
+    /* forEachStay
+    Inputs: action – called with each booked reservation.
+    Outputs: none.
+    Description: In night order. */
+    synchronized void forEachStay(Consumer<Reservation> action) {
+        for (int stay = 0; stay < size; stay++) { action.accept(reservations[stay]); }
+    }
+
+    /* reservationOn
+    Inputs: night – epoch day.
+    Outputs: the reservation staying that night, or null.
+    Description: O(log n). */
+    synchronized Reservation reservationOn(int night) {
+        int stay = lastStartingBefore(night + 1);
+        return stay >= 0 && checkOuts[stay] > night ? reservations[stay] : null;
+    }
+
+    // Day of departure of the last stay, or Integer.MIN_VALUE if there is none
+    synchronized int lastCheckOut() {
+        return size == 0 ? Integer.MIN_VALUE : checkOuts[size - 1];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // Index of the last stay whose check-in is before night, or -1
+    private int lastStartingBefore(int night) {
+        int low = 0, high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (checkIns[middle] < night) low = middle + 1;
+            else high = middle - 1;
+        }
+        return high;
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.example;
+
+/* RoomListener
+Description: Receives room state changes from the floors, so hotel-wide indexes can be kept up to date without rescanning.
+Rooms are identified by ID and type only, so no Room object is needed to report a change. */
+interface RoomListener {
+
+    void roomReserved(int roomId, char type);
+    void roomFreed(int roomId, char type, boolean adjacentToReserved);
+    void adjacencyChanged(int roomId, char type, boolean adjacentToReserved); // First reserved neighbour arrived or last one left
+
+}
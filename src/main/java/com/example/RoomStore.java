@@ -0,0 +1,100 @@
+package com.example;
+
+import java.util.Arrays;
+
+/* RoomStore
+Description: Struct-of-arrays storage for the room state of very large hotels. The reserved flag is a bitset and the
+reservation an int index into a compact table, both indexed by room ID. The index is paged per floor and a page is
+only allocated when its floor gets a reservation. Row, column and type are not stored per room: they come from the
+FloorLayout tables shared by all floors.
+Thread safety: a room is only written under its floor's lock (see Room), the reserved bits are atomic and the shared
+reservation table is guarded by the store's own monitor. Reads made without the floor's lock may be stale. */
+class RoomStore {
+
+    private static final int INITIAL_TABLE_SIZE = 16;
+
+    private final AtomicBitSet reserved; // Bit set <=> room ID is reserved
+    private final FloorLayout layout;
+    private final int[][] reservationIndex; // Floor, then room index -> slot in reservations (valid only when reserved)
+    private Reservation[] reservations = new Reservation[INITIAL_TABLE_SIZE];
+    private int[] freeSlots = new int[INITIAL_TABLE_SIZE]; // Released slots, reused before growing
+    private int freeSlotCount;
+    private int usedSlots;
+
+    RoomStore(FloorLayout layout, int numberOfFloors) {
+        this.layout = layout;
+        this.reserved = new AtomicBitSet(numberOfFloors * layout.getNumRooms());
+        this.reservationIndex = new int[numberOfFloors][]; // Pages allocated on first reservation
+    }
+
+    boolean isReserved(int roomId) {
+        return reserved.get(roomId);
+    }
+
+    /* getReservation
+    Inputs: roomId – hotel-wide room ID.
+    Outputs: the room's reservation, or the EmptyReservation if it is free.
+    Description: Follows the reservation index into the table. */
+    Reservation getReservation(int roomId) {
+        return reserved.get(roomId) ? lookup(slotOf(roomId)) : EmptyReservation.getInstance();
+    }
+
+    /* reserve
+    Inputs: roomId – hotel-wide room ID; reservation – the stay to record.
+    Outputs: none.
+    Description: Stores the reservation in a free table slot and points the room at it; the reserved bit is set last,
+    so a reader that sees it also sees the slot. */
+    void reserve(int roomId, Reservation reservation) {
+        if (reserved.get(roomId)) free(roomId); // Drop the previous slot
+        int slot = allocate(reservation);
+        int[] page = reservationIndex[layout.getLevelOf(roomId) - 1];
+        if (page == null) { // First reservation on this floor
+            page = new int[layout.getNumRooms()];
+            reservationIndex[layout.getLevelOf(roomId) - 1] = page;
+        }
+        page[layout.getRoomIndexOf(roomId)] = slot;
+        reserved.set(roomId);
+    }
+
+    /* free
+    Inputs: roomId – hotel-wide room ID.
+    Outputs: none.
+    Description: Releases the room and recycles its table slot. */
+    void free(int roomId) {
+        if (!reserved.get(roomId)) return;
+        int slot = slotOf(roomId);
+        reserved.clear(roomId);
+        release(slot);
+    }
+
+    private int slotOf(int roomId) {
+        return reservationIndex[layout.getLevelOf(roomId) - 1][layout.getRoomIndexOf(roomId)];
+    }
+
+    /* allocate
+    Inputs: reservation – the stay to record.
+    Outputs: its slot in the table.
+    Description: Reuses a released slot, or grows the table. */
+    private synchronized int allocate(Reservation reservation) {
+        int slot;
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            if (usedSlots == reservations.length) reservations = Arrays.copyOf(reservations, reservations.length * 2); // Grow the table
+            slot = usedSlots++;
+        }
+        reservations[slot] = reservation;
+        return slot;
+    }
+
+    private synchronized void release(int slot) {
+        reservations[slot] = null; // Let the reservation be collected
+        if (freeSlotCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private synchronized Reservation lookup(int slot) {
+        return reservations[slot];
+    }
+
+}
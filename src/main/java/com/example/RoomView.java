@@ -0,0 +1,31 @@
+package com.example;
+
+/* RoomView
+Description: Room handed out by the struct-of-arrays backend. It holds no state of its own: reserved flag and
+reservation are read from and written to the RoomStore, so any number of views of a room stay consistent. */
+class RoomView extends Room {
+
+    private final RoomStore store;
+
+    RoomView(RoomStore store, int id, int level, String name, int row, int col, char type) {
+        super(id, level, name, row, col, type);
+        this.store = store;
+    }
+
+    @Override
+    void storeReservation(Reservation reservation) {
+        store.reserve(getId(), reservation);
+    }
+
+    @Override
+    void clearReservation() {
+        store.free(getId());
+    }
+
+    @Override
+    public boolean isReserved() { return store.isReserved(getId()); }
+
+    @Override
+    public Reservation getReservation() { return store.getReservation(getId()); }
+
+}
@@ -0,0 +1,133 @@
+package com.example;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/* StayAvailability
+Description: The rooms free every night of a date range, as seen by Hotel.getAvailableRooms(checkIn, checkOut). The
+free rooms are one OccupancyCalendar query (all rooms minus the union of the nights' bitmaps), kept until the calendar
+changes and then computed again, so the view stays live at the cost of one intersection per change. Types come from
+the shared FloorLayout, so floors are only materialized for the rooms handed out. A stay reaching tonight or later also
+skips the rooms reserved now (undated reservations hold their room with no end); those are looked up room by room, from
+the hotel's availability index first. Weakly consistent, like the hotel's own view: the commit in
+Hotel.assignReservation checks the room's calendar and occupant again. */
+class StayAvailability implements AvailableRooms {
+
+    private final Hotel hotel;
+    private final OccupancyCalendar occupancy;
+    private final FloorLayout layout;
+    private final int from;
+    private final int to;
+    private final boolean skipReserved; // Whether rooms reserved now are out too
+    private RoomBitmap free; // Null until first queried
+    private long version; // Calendar version free was computed at
+
+    /* StayAvailability constructor
+    Inputs: hotel – the hotel; occupancy – its calendar; from – first night; to – night after the last one (epoch days);
+    skipReserved – true if the stay reaches tonight or later, so rooms reserved now are not free for it.
+    Outputs: none.
+    Description: Nothing is computed until queried. */
+    StayAvailability(Hotel hotel, OccupancyCalendar occupancy, int from, int to, boolean skipReserved) {
+        this.hotel = hotel;
+        this.occupancy = occupancy;
+        this.layout = hotel.getLayout();
+        this.from = from;
+        this.to = to;
+        this.skipReserved = skipReserved;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return skipReserved ? first() == null : free().isEmpty();
+    }
+
+    @Override
+    public int size() {
+        if (!skipReserved) return free().cardinality();
+        RoomBitmap rooms = free();
+        int size = 0;
+        for (int id = nextFree(rooms, 0, hotel.getNumberOfRooms(), (char) 0); id >= 0; id = nextFree(rooms, id + 1, hotel.getNumberOfRooms(), (char) 0)) { size++; }
+        return size;
+    }
+
+    @Override
+    public Room get(int index) {
+        RoomBitmap rooms = free();
+        int end = hotel.getNumberOfRooms();
+        int id = nextFree(rooms, 0, end, (char) 0);
+        for (int i = 0; i < index && id >= 0; i++) { id = nextFree(rooms, id + 1, end, (char) 0); }
+        if (id < 0) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size() + " rooms");
+        return hotel.getRoom(id);
+    }
+
+    @Override
+    public Room first() {
+        int id = nextFree(free(), 0, hotel.getNumberOfRooms(), (char) 0);
+        return id >= 0 ? hotel.getRoom(id) : null;
+    }
+
+    @Override
+    public Room firstOfType(char type) {
+        int id = nextFree(free(), 0, hotel.getNumberOfRooms(), type);
+        return id >= 0 ? hotel.getRoom(id) : null;
+    }
+
+    @Override
+    public Iterable<Room> ofType(char type, int level) {
+        int start = layout.toRoomId(level, 0), end = start + layout.getNumRooms();
+        return () -> new RoomIterator(free(), start, end, type);
+    }
+
+    @Override
+    public Iterator<Room> iterator() {
+        return new RoomIterator(free(), 0, hotel.getNumberOfRooms(), (char) 0);
+    }
+
+    // The free rooms, computed again if a stay was booked or cancelled since
+    private synchronized RoomBitmap free() {
+        long current = occupancy.getVersion();
+        if (free == null || current != version) {
+            free = occupancy.freeRooms(from, to, occupancy.getAllRooms());
+            version = current;
+        }
+        return free;
+    }
+
+    /* nextFree
+    Inputs: rooms – free rooms; id – first room ID to look at; end – room ID to stop at; type – wanted type, or 0 for any.
+    Outputs: the first matching room ID in [id, end), or -1.
+    Description: Jumps from free room to free room, checking their type, then whether they are reserved now if that
+    matters. */
+    private int nextFree(RoomBitmap rooms, int id, int end, char type) {
+        for (id = rooms.nextSetBit(id); id >= 0 && id < end; id = rooms.nextSetBit(id + 1)) {
+            if ((type == 0 || layout.getType(layout.getRoomIndexOf(id)) == type) && (!skipReserved || !hotel.isReservedNow(id))) return id;
+        }
+        return -1;
+    }
+
+    private class RoomIterator implements Iterator<Room> {
+        private final RoomBitmap rooms;
+        private final int end;
+        private final char type;
+        private int next;
+
+        RoomIterator(RoomBitmap rooms, int start, int end, char type) {
+            this.rooms = rooms;
+            this.end = end;
+            this.type = type;
+            this.next = nextFree(rooms, start, end, type);
+        }
+
+        @Override
+        public boolean hasNext() { return next >= 0; }
+
+        @Override
+        public Room next() {
+            if (next < 0) throw new NoSuchElementException();
+            Room room = hotel.getRoom(next);
+            next = nextFree(rooms, next + 1, end, type);
+            return room;
+        }
+    }
+
+}
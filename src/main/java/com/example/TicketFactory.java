@@ -51,7 +51,7 @@ public class TicketFactory {
     }
 
     private static int getFloorNumber(Room room) {
-        return room.getName().charAt(0) - 'A' + 1;
+        return room.getLevel();
     }
 
     private static int getDiscount(int score) {
@@ -0,0 +1,1050 @@
+package com.example;
+
+import static com.example.HotelFixtures.mixedLayout;
+import static com.example.HotelFixtures.squareLayout;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+
+/* HotelBenchmark
+Description: Stand-alone micro-benchmarks for the hotel model. Not picked up by surefire; run it after `mvn test-compile` with
+    java -cp target/classes:target/test-classes com.example.HotelBenchmark [scenario]
+where scenario is one of the names listed in main, or nothing to run them all. */
+public class HotelBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final Random random = new Random(42);
+
+    public static void main(String[] args) {
+        String scenario = args.length > 0 ? args[0] : "all";
+
+        if (selected(scenario, "quietzone")) quietZoneLatency();
+        if (selected(scenario, "burst")) reservationBurst();
+        if (selected(scenario, "typepick")) typePick();
+        if (selected(scenario, "quietfill")) quietZoneFill();
+        if (selected(scenario, "sequential")) sequentialFill();
+        if (selected(scenario, "memory")) memoryFootprint();
+        if (selected(scenario, "startup")) startup();
+        if (selected(scenario, "batch")) batchAssignment();
+        if (selected(scenario, "matching")) matching();
+        if (selected(scenario, "concurrent")) concurrentThroughput();
+        if (selected(scenario, "optimistic")) optimisticCommit();
+        if (selected(scenario, "parallel")) parallelSearch();
+        if (selected(scenario, "ingest")) ingestionLatency();
+        if (selected(scenario, "csvparse")) csvParse(args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000);
+        if (selected(scenario, "spool")) spoolIngestion();
+        if (selected(scenario, "pipeline")) pipelineSurge();
+        if (selected(scenario, "dedup")) dedupIndex();
+        if (selected(scenario, "waitlist")) waitlist();
+        if (selected(scenario, "stays")) datedStays();
+        if (selected(scenario, "nights")) nightBitmaps();
+        if (selected(scenario, "journal")) journal();
+        if (selected(scenario, "image")) hotelImage();
+        if (selected(scenario, "bulkimport")) bulkImport(args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000);
+    }
+
+    /* quietZoneLatency
+    Description: Measures the cost of one Quiet Zone decision on a single candidate room while the floor grows; the time per assignment should stay flat. */
+    private static void quietZoneLatency() {
+        System.out.println("== Quiet Zone latency per assignment (1 floor, one candidate per call)");
+        Reservation family = new Reservation("Bench", "Family", 3, false, Reservation.StayPurpose.TOURISM, 1);
+
+        for (int side : new int[] {10, 50, 100, 200, 400}) {
+            Hotel hotel = new Hotel(1, squareLayout(side, "E"), new NullObserver());
+            QuietZoneAssignment strategy = new QuietZoneAssignment(hotel);
+            List<Room> rooms = new ArrayList<>(hotel.getFloor(1).getRoomMap().values());
+            Collections.shuffle(rooms, random);
+            for (int i = 0; i < rooms.size() / 4; i++) { rooms.get(i).reserveRoom(family); } // A quarter of the floor is busy
+
+            int calls = 200_000;
+            long nanos = 0;
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < calls; i++) {
+                    strategy.createAssignmentRequest(Collections.singletonList(rooms.get(i % rooms.size())), family);
+                }
+                nanos = System.nanoTime() - start; // Keep the last (warm) round
+            }
+            System.out.printf("%4dx%-4d rooms=%7d  %8.1f ns/assignment%n", side, side, side * side, (double) nanos / calls);
+        }
+    }
+
+    /* quietZoneFill
+    Description: Fills a large single floor through the Quiet Zone strategy and the live availability view, as the controller would. */
+    private static void quietZoneFill() {
+        System.out.println("== Quiet Zone fill (1 floor, half the rooms booked)");
+        for (int side : new int[] {50, 100, 200}) {
+            Hotel hotel = new Hotel(1, mixedLayout(side), new NullObserver());
+            QuietZoneAssignment strategy = new QuietZoneAssignment(hotel);
+            List<Reservation> reservations = randomReservations(side * side / 2);
+
+            long start = System.nanoTime();
+            for (Reservation reservation : reservations) {
+                hotel.reserveRoom(strategy.createAssignmentRequest(hotel.getAvailableRooms(), reservation));
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.printf("%4dx%-4d rooms=%6d  %8.1f ms total  %8.1f ns/reservation%n",
+                    side, side, side * side, nanos / 1e6, (double) nanos / reservations.size());
+        }
+    }
+
+    /* sequentialFill
+    Description: Books most of a tall hotel through the Sequential strategy; each pick reads the maintained frontier instead of sweeping the hotel. */
+    private static void sequentialFill() {
+        System.out.println("== Sequential fill (80% of the rooms booked)");
+        for (int floors : new int[] {10, 100, 1000}) {
+            Hotel hotel = new Hotel(floors, mixedLayout(30), new NullObserver());
+            SequentialAssignment strategy = new SequentialAssignment(hotel);
+            List<Reservation> reservations = randomReservations(hotel.getNumberOfRooms() * 4 / 5);
+
+            long start = System.nanoTime();
+            for (Reservation reservation : reservations) {
+                hotel.reserveRoom(strategy.createAssignmentRequest(hotel.getAvailableRooms(), reservation));
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.printf("floors=%5d rooms=%8d  %8.1f ms total  %8.1f ns/reservation%n",
+                    floors, hotel.getNumberOfRooms(), nanos / 1e6, (double) nanos / reservations.size());
+        }
+    }
+
+    /* memoryFootprint
+    Description: Compares the retained heap of the Room object graph with the struct-of-arrays store, for 1M rooms half booked. */
+    private static void memoryFootprint() {
+        System.out.println("== Memory footprint (250 floors of 40x100 = 1M rooms, 50% booked)");
+        List<Reservation> reservations = randomReservations(500_000); // Shared by both runs, not counted
+        for (Hotel.RoomStorage storage : Hotel.RoomStorage.values()) {
+            long before = usedHeap();
+            long start = System.nanoTime();
+            Hotel hotel = new Hotel(250, mixedLayout(40, 100), new NullObserver(), storage);
+            long buildNanos = System.nanoTime() - start;
+            for (int id = 0; id < reservations.size(); id++) {
+                hotel.getRoom(id * 2).reserveRoom(reservations.get(id)); // Every other room
+            }
+            long after = usedHeap();
+            System.out.printf("%-8s %8.1f MB retained  %6.1f bytes/room  build %7.1f ms%n", storage,
+                    (after - before) / 1e6, (double) (after - before) / hotel.getNumberOfRooms(), buildNanos / 1e6);
+            if (hotel.getAvailableRooms().size() != 500_000) throw new IllegalStateException(); // Keep the hotel reachable
+        }
+    }
+
+    /* startup
+    Description: Time to build a 10,000-floor hotel, lazily (as the constructor does) and with every floor forced into existence. */
+    private static void startup() {
+        System.out.println("== Startup, 10,000 floors");
+        for (int side : new int[] {4, 20}) {
+            long start = System.nanoTime();
+            Hotel hotel = new Hotel(10_000, mixedLayout(side), new NullObserver());
+            long lazyNanos = System.nanoTime() - start;
+            for (int level = 1; level <= hotel.getNumberOfFloors(); level++) { hotel.getFloor(level); } // Former eager initialization
+            long eagerNanos = System.nanoTime() - start;
+            System.out.printf("%2dx%-2d layout, rooms=%8d  lazy %8.1f ms  all floors materialized %8.1f ms%n",
+                    side, side, hotel.getNumberOfRooms(), lazyNanos / 1e6, eagerNanos / 1e6);
+        }
+    }
+
+    /* batchAssignment
+    Description: One poll cycle of 20,000 reservations, assigned one by one against the live hotel and planned as a single batch. */
+    private static void batchAssignment() {
+        System.out.println("== Batch vs one by one (100 floors of 20x20, 20,000 reservations)");
+        List<Reservation> reservations = randomReservations(20_000);
+        for (String name : new String[] {"Random", "Quiet Zone", "Stay Purpose", "Sequential"}) {
+            Hotel single = new Hotel(100, mixedLayout(20), new NullObserver());
+            long start = System.nanoTime();
+            AssignmentStrategy strategy = strategy(name, single);
+            for (Reservation reservation : reservations) {
+                if (!single.getAvailableRooms().isEmpty()) {
+                    single.reserveRoom(strategy.createAssignmentRequest(single.getAvailableRooms(), reservation));
+                }
+            }
+            long singleNanos = System.nanoTime() - start;
+
+            Hotel batched = new Hotel(100, mixedLayout(20), new NullObserver());
+            start = System.nanoTime();
+            batched.reserveRooms(strategy(name, batched).createAssignmentRequests(reservations, batched.newBatch()));
+            long batchNanos = System.nanoTime() - start;
+            System.out.printf("%-13s one by one %8.1f ms  batch %8.1f ms%n", name, singleNanos / 1e6, batchNanos / 1e6);
+        }
+    }
+
+    /* matching
+    Description: Plans 10,000 reservations against 100,000 free rooms with the min-cost matching, and compares the broken
+    preferences with the greedy strategies on the same batch. */
+    private static void matching() {
+        System.out.println("== Optimal matching (250 floors of 20x20 = 100k rooms, batch of 10k reservations)");
+        List<Reservation> reservations = randomReservations(10_000);
+        for (String name : new String[] {"Stay Purpose", "Quiet Zone", "Matching"}) {
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                Hotel hotel = new Hotel(250, mixedLayout(20), new NullObserver());
+                AssignmentStrategy strategy = name.equals("Matching") ? new MatchingAssignment(hotel) : strategy(name, hotel);
+                long start = System.nanoTime();
+                List<AssignmentRequest> requests = strategy.createAssignmentRequests(reservations, hotel.newBatch());
+                long nanos = System.nanoTime() - start;
+                hotel.reserveRooms(requests);
+                if (round < WARMUP_ROUNDS) continue;
+
+                int typeMisses = 0, smokersOffEdge = 0, neighbourConflicts = 0;
+                for (AssignmentRequest request : requests) {
+                    int roomIndex = hotel.getLayout().getRoomIndexOf(request.room.getId());
+                    if (request.room.getType() != AssignmentStrategy.determineTargetType(request.reservation)) typeMisses++;
+                    if (request.reservation.isSmoker() && !hotel.getLayout().isEdge(roomIndex)) smokersOffEdge++;
+                    if (hotel.getFloor(request.room.getLevel()).hasNeighbourConflict(roomIndex, request.reservation.getNumChildren() > 0)) neighbourConflicts++;
+                }
+                System.out.printf("%-13s plan %7.1f ms  type misses %5d  smokers off edge %5d  neighbour conflicts %5d%n",
+                        name, nanos / 1e6, typeMisses, smokersOffEdge, neighbourConflicts);
+            }
+        }
+    }
+
+    private static AssignmentStrategy strategy(String name, Hotel hotel) {
+        switch (name) {
+            case "Random": return new RandomAssignment();
+            case "Quiet Zone": return new QuietZoneAssignment(hotel);
+            case "Stay Purpose": return new StayPurposeAssignment();
+            default: return new SequentialAssignment(hotel);
+        }
+    }
+
+    /* concurrentThroughput
+    Description: Reserve/free churn on random rooms of 1,000 floors (100k rooms) from 1 thread up to the core count;
+    floors are independent locks and the availability index is lock-free, so throughput should grow with the threads. */
+    private static void concurrentThroughput() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("== Concurrent reserve/free churn (1000 floors of 10x10, " + cores + " cores)");
+        int operationsPerThread = 2_000_000;
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            double best = 0;
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                Hotel hotel = new Hotel(1000, mixedLayout(10), new NullObserver());
+                Thread[] workers = new Thread[threads];
+                for (int t = 0; t < threads; t++) {
+                    int seed = t;
+                    workers[t] = new Thread(() -> {
+                        Random local = new Random(seed);
+                        Reservation guest = new Reservation("Bench", "Thread" + seed, 2, false, Reservation.StayPurpose.OTHER, seed % 2);
+                        for (int i = 0; i < operationsPerThread; i++) {
+                            Room room = hotel.getRoom(local.nextInt(hotel.getNumberOfRooms()));
+                            if (!hotel.tryReserveRoom(new AssignmentRequest(guest, room))) hotel.freeRoom(room.getId());
+                        }
+                    });
+                }
+                long start = System.nanoTime();
+                for (Thread worker : workers) { worker.start(); }
+                for (Thread worker : workers) {
+                    try { worker.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); return; }
+                }
+                best = Math.max(best, (double) threads * operationsPerThread / ((System.nanoTime() - start) / 1e9));
+            }
+            System.out.printf("threads=%3d  %8.2f M ops/s%n", threads, best / 1e6);
+            if (threads < cores && threads * 2 > cores) threads = cores / 2; // Always finish on the core count
+        }
+    }
+
+    /* optimisticCommit
+    Description: Workers fill 100 floors of 20x20 through Hotel.assignReservation; prints the throughput and the
+    conflict / retry metrics of the optimistic commit for 1 to 8 workers. */
+    private static void optimisticCommit() {
+        System.out.println("== Optimistic commit (100 floors of 20x20, workers fill the hotel)");
+        for (String name : new String[] {"Stay Purpose", "Sequential", "Random"}) {
+            for (int threads = 1; threads <= 8; threads *= 2) {
+                Hotel hotel = new Hotel(100, mixedLayout(20), new NullObserver());
+                AssignmentStrategy strategy = strategy(name, hotel);
+                List<Reservation> reservations = randomReservations(hotel.getNumberOfRooms());
+                Thread[] workers = new Thread[threads];
+                for (int t = 0; t < threads; t++) {
+                    int first = t;
+                    int step = threads;
+                    workers[t] = new Thread(() -> {
+                        for (int i = first; i < reservations.size(); i += step) { hotel.assignReservation(strategy, reservations.get(i)); }
+                    });
+                }
+                long start = System.nanoTime();
+                for (Thread worker : workers) { worker.start(); }
+                for (Thread worker : workers) {
+                    try { worker.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); return; }
+                }
+                long nanos = System.nanoTime() - start;
+                AssignmentMetrics metrics = hotel.getAssignmentMetrics();
+                System.out.printf("%-13s workers=%d  %8.1f ms  conflicts %6d  retries %6d  conflict rate %.4f%n",
+                        name, threads, nanos / 1e6, metrics.getConflicts(), metrics.getRetries(), metrics.getConflictRate());
+            }
+        }
+    }
+
+    /* parallelSearch
+    Description: Quiet Zone decision for a smoker on 2,000 floors of 20x20 where every edge room is taken except on the
+    top floor, so the whole hotel is searched; sequential walk vs fork/join over floors on pools of 1, 8 and 16 workers. */
+    private static void parallelSearch() {
+        System.out.println("== Quiet Zone parallel search (2000 floors of 20x20 = 800k rooms, " + Runtime.getRuntime().availableProcessors() + " cores)");
+        Hotel hotel = new Hotel(2000, mixedLayout(20), new NullObserver());
+        Reservation guest = new Reservation("Bench", "Edge", 2, false, Reservation.StayPurpose.OTHER, 0);
+        FloorLayout layout = hotel.getLayout();
+        for (int level = 1; level < hotel.getNumberOfFloors(); level++) {
+            for (int roomIndex = 0; roomIndex < layout.getNumRooms(); roomIndex++) {
+                if (layout.isEdge(roomIndex)) hotel.getRoom(layout.toRoomId(level, roomIndex)).reserveRoom(guest);
+            }
+        }
+        Reservation smoker = new Reservation("Bench", "Smoker", 2, true, Reservation.StayPurpose.OTHER, 0);
+        int calls = 20;
+
+        QuietZoneAssignment sequential = new QuietZoneAssignment(hotel, Integer.MAX_VALUE);
+        String expected = null;
+        long nanos = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) { expected = sequential.createAssignmentRequest(hotel.getAvailableRooms(), smoker).room.getName(); }
+            nanos = System.nanoTime() - start;
+        }
+        System.out.printf("sequential        %8.2f ms/decision -> %s%n", nanos / 1e6 / calls, expected);
+
+        QuietZoneAssignment parallel = new QuietZoneAssignment(hotel);
+        for (int workers : new int[] {1, 8, 16}) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            String found = null;
+            try {
+                for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    for (int i = 0; i < calls; i++) {
+                        found = pool.submit(() -> parallel.createAssignmentRequest(hotel.getAvailableRooms(), smoker).room.getName()).get();
+                    }
+                    nanos = System.nanoTime() - start;
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                pool.shutdown();
+            }
+            System.out.printf("fork/join pool=%2d %8.2f ms/decision -> %s%n", workers, nanos / 1e6 / calls, found);
+        }
+    }
+
+    /* ingestionLatency
+    Description: End-to-end latency from appending a line to reservation.csv to the room being reserved, with the file
+    watcher and with the polling fallback at the controller's former 2 s interval; 100 lines, one every 20 ms. */
+    private static void ingestionLatency() {
+        System.out.println("== Ingestion latency, append -> room assigned (100 lines, one every 20 ms)");
+        for (boolean watch : new boolean[] {true, false}) {
+            try {
+                Path directory = Files.createTempDirectory("ingest_bench_");
+                Path source = directory.resolve("reservation.csv");
+                Files.createFile(source);
+                Hotel hotel = new Hotel(10, mixedLayout(10), new NullObserver());
+                StayPurposeAssignment strategy = new StayPurposeAssignment();
+                ReservationTailReader reader = new ReservationTailReader(source.toString());
+                int lines = 100;
+                long[] appended = new long[lines];
+                long[] latency = new long[lines];
+                CountDownLatch done = new CountDownLatch(lines);
+
+                Runnable ingest = () -> {
+                    List<Reservation> latest = reader.poll();
+                    hotel.reserveRooms(strategy.createAssignmentRequests(latest, hotel.newBatch()));
+                    long now = System.nanoTime();
+                    for (Reservation reservation : latest) {
+                        int line = Integer.parseInt(reservation.getFirstName().substring(5)); // "Guest<line>"
+                        latency[line] = now - appended[line];
+                        done.countDown();
+                    }
+                };
+                try (ReservationFileWatcher watcher = new ReservationFileWatcher(source, 5, 2000, ingest)) {
+                    if (watch) watcher.start(); else watcher.startPolling();
+                    for (int line = 0; line < lines; line++) {
+                        appended[line] = System.nanoTime();
+                        Files.write(source, ("Guest" + line + ",Bench,2,non-fumeur,tourisme,0\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+                        Thread.sleep(20);
+                    }
+                    done.await();
+                }
+                Arrays.sort(latency);
+                System.out.printf("%-8s p50 %8.1f ms  p99 %8.1f ms  max %8.1f ms%n", watch ? "watch" : "poll 2s",
+                        latency[lines / 2] / 1e6, latency[lines * 99 / 100] / 1e6, latency[lines - 1] / 1e6);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /* usedHeap
+    Outputs: bytes currently used on the heap, after a few collections.
+    Description: Rough retained-size probe; good enough to compare orders of magnitude. */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) { System.gc(); }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /* csvParse
+    Inputs: lines – size of the generated reservation file (10M by default, run with -Xmx3g).
+    Description: ReservationParser's per-line String path (BufferedReader, split, trim, parseInt) against the
+    memory-mapped ReservationBufferParser on the same file, one line in twenty invalid. Reports time and bytes allocated per line. */
+    private static void csvParse(int lines) {
+        System.out.printf("== CSV parsing, %,d lines%n", lines);
+        try {
+            Path file = reservationFile(lines);
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+            for (String parser : new String[] {"String", "ByteBuffer"}) {
+                long nanos = 0, allocated = 0;
+                int parsed = 0;
+                for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                    System.gc();
+                    long allocatedBefore = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+                    long start = System.nanoTime();
+                    List<Reservation> result;
+                    if (parser.equals("String")) {
+                        result = new ArrayList<>();
+                        try (java.io.BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                                String trimmed = line.trim();
+                                if (trimmed.isEmpty()) continue;
+                                Reservation reservation = ReservationParser.parseValidLine(trimmed);
+                                if (reservation != null) result.add(reservation);
+                            }
+                        }
+                    } else {
+                        result = ReservationBufferParser.parseFile(file);
+                    }
+                    nanos = System.nanoTime() - start;
+                    allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+                    parsed = result.size();
+                }
+                System.out.printf("%-10s %8.0f ms %6.1f M lines/s %6.0f bytes/line  (%,d valid)%n", parser, nanos / 1e6,
+                        lines / (nanos / 1e9) / 1e6, (double) allocated / lines, parsed);
+            }
+            Files.delete(file);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* dedupIndex
+    Description: 5M distinct reservation keys claimed, then all claimed again (duplicates); 20,000 keys committed by 4
+    threads, each commit durable; then a key file of 5M keys reloaded as on restart. Reports ns per claim, heap per key,
+    the cost of a commit and commits per fsync, and the reload time. */
+    private static void dedupIndex() {
+        int keys = 5_000_000;
+        System.out.printf("== Dedup index, %,d keys%n", keys);
+        try {
+            Path keyFile = Files.createTempDirectory("dedup_bench_").resolve("reservation.csv.keys");
+            long heapBefore = usedHeap();
+            ReservationDedupIndex index = new ReservationDedupIndex(keyFile);
+            long start = System.nanoTime();
+            for (int i = 0; i < keys; i++) {
+                index.claim(new Reservation("Guest" + i, "Dedup", 2, false, Reservation.StayPurpose.OTHER, 1).withSource(i).getIdempotencyKey());
+            }
+            long firstPass = System.nanoTime() - start;
+            System.out.printf("new keys        %6.0f ns/claim, heap %5.1f bytes/key, filter answered %,d%n",
+                    (double) firstPass / keys, (double) (usedHeap() - heapBefore) / keys, index.getBloomNegatives());
+
+            start = System.nanoTime();
+            int duplicates = 0;
+            for (int i = 0; i < keys; i++) {
+                if (!index.claim(new Reservation("Guest" + i, "Dedup", 2, false, Reservation.StayPurpose.OTHER, 1).withSource(i).getIdempotencyKey())) duplicates++;
+            }
+            System.out.printf("duplicates      %6.0f ns/claim (%,d rejected)%n", (double) (System.nanoTime() - start) / keys, duplicates);
+
+            int committers = 4, commits = 20_000;
+            Thread[] threads = new Thread[committers];
+            start = System.nanoTime();
+            for (int t = 0; t < committers; t++) {
+                int first = t * (commits / committers);
+                threads[t] = new Thread(() -> {
+                    for (int i = first; i < first + commits / committers; i++) { index.commit(i); }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) { thread.join(); }
+            System.out.printf("commits         %6.1f us/commit, %4.1f commits per fsync (%d threads)%n",
+                    (System.nanoTime() - start) / 1e3 / commits, (double) commits / index.getSyncCount(), committers);
+            index.close();
+
+            ByteBuffer entries = ByteBuffer.allocate(keys * ReservationDedupIndex.ENTRY_BYTES); // As 5M commits would leave it
+            long today = LocalDate.now().toEpochDay();
+            Random random = new Random(20);
+            for (int i = 0; i < keys; i++) { entries.putLong(random.nextLong()).putLong(today); }
+            Files.write(keyFile, entries.array());
+            start = System.nanoTime();
+            try (ReservationDedupIndex reloaded = new ReservationDedupIndex(keyFile)) {
+                System.out.printf("restart         %6.0f ms to reload %,d keys (%,d MB key file)%n", (System.nanoTime() - start) / 1e6,
+                        reloaded.size(), Files.size(keyFile) >> 20);
+            }
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* waitlist
+    Description: A full hotel of 1,000 rooms receives 200,000 more reservations. Reports what each one costs when the
+    strategy is still asked (and fails) against the waitlist's full-house path, then the cost per freed room to serve
+    the waitlist through Hotel.freeRoom, in arrival and in room-type order, and the time to reload it on restart. */
+    private static void waitlist() {
+        int waiting = 200_000;
+        System.out.printf("== Waitlist, %,d reservations on a full hotel%n", waiting);
+        List<Reservation> reservations = new ArrayList<>(waiting);
+        Reservation.StayPurpose[] purposes = Reservation.StayPurpose.values();
+        for (int i = 0; i < waiting; i++) {
+            reservations.add(new Reservation("Guest" + i, "Wait", 2, random.nextBoolean(), purposes[random.nextInt(purposes.length)], random.nextInt(2)));
+        }
+        try {
+            for (boolean byRoomType : new boolean[] {false, true}) {
+                Path logFile = Files.createTempDirectory("waitlist_bench_").resolve("reservation.csv.waitlist");
+                Hotel hotel = new Hotel(10, mixedLayout(10), new NullObserver());
+                AssignmentStrategy strategy = new StayPurposeAssignment();
+                while (hotel.assignReservation(strategy, reservations.get(0)) != null) { } // Full house
+                int[] served = {0};
+                ReservationWaitlist waitlist = new ReservationWaitlist(logFile, byRoomType, StayPurposeAssignment::new, request -> served[0]++);
+                hotel.setWaitlist(waitlist);
+
+                long start = System.nanoTime();
+                for (Reservation reservation : reservations) { hotel.assignReservation(strategy, reservation); }
+                long strategyAsked = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (Reservation reservation : reservations) {
+                    if (!waitlist.isEmpty() || hotel.getAvailableRooms().isEmpty()) waitlist.add(reservation); // As the pipeline's assign stage
+                }
+                long queued = System.nanoTime() - start;
+
+                List<Room> rooms = new ArrayList<>();
+                for (int level = 1; level <= hotel.getNumberOfFloors(); level++) { rooms.addAll(hotel.getFloor(level).getRoomMap().values()); }
+                int frees = 0;
+                start = System.nanoTime();
+                for (int round = 0; round < 20; round++) {
+                    for (Room room : rooms) { hotel.freeRoom(room.getId()); frees++; }
+                    waitlist.awaitDrains(); // Before the rooms are freed again
+                }
+                long drained = System.nanoTime() - start;
+                waitlist.close();
+
+                start = System.nanoTime();
+                try (ReservationWaitlist reloaded = new ReservationWaitlist(logFile, byRoomType, StayPurposeAssignment::new, request -> {})) {
+                    System.out.printf("%-9s full house: strategy asked %5.0f ns, waitlisted %5.0f ns; drain %5.0f ns per freed room (%,d served); restart %4.0f ms for %,d waiting%n",
+                            byRoomType ? "by type" : "arrival", (double) strategyAsked / waiting, (double) queued / waiting,
+                            (double) drained / frees, served[0], (System.nanoTime() - start) / 1e6, reloaded.size());
+                }
+            }
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* datedStays
+    Description: A year of dated stays (1 to 7 nights, about 80% of the nights booked) in every room of a 100,352-room
+    hotel, then queries on random ranges: one room's calendar, the first free room of a type for the range, a full
+    dated assignment, and counting every room free for a week. */
+    private static void datedStays() {
+        Hotel hotel = new Hotel(98, mixedLayout(32), new NullObserver());
+        int rooms = hotel.getNumberOfRooms();
+        LocalDate day0 = LocalDate.of(2025, 1, 1);
+        System.out.printf("== Dated stays, %,d rooms x 365 nights%n", rooms);
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        long stays = 0;
+        for (int id = 0; id < rooms; id++) {
+            Room room = hotel.getRoom(id);
+            AssignmentStrategy thisRoom = new StayPurposeAssignment() {
+                @Override
+                public AssignmentCandidates candidatesForStay(AvailableRooms freeForStay, Reservation reservation) {
+                    return new AssignmentCandidates() {
+                        private Room next = room;
+                        public Room next() { Room proposed = next; next = null; return proposed; }
+                        public boolean isStillValid(Room candidate) { return true; }
+                    };
+                }
+            };
+            for (int night = random.nextInt(3); ; ) {
+                int checkOut = night + 1 + random.nextInt(7);
+                if (checkOut > 365) break;
+                Reservation guest = new Reservation("Guest", "Year", 2, false, Reservation.StayPurpose.OTHER, 1, day0.plusDays(night), day0.plusDays(checkOut));
+                if (hotel.assignReservation(thisRoom, guest) != null) stays++;
+                night = checkOut + random.nextInt(3); // 0 to 2 free nights between stays
+            }
+        }
+        System.out.printf("load      %,d stays in %.1f s, %5.1f bytes/stay with their Reservation%n", stays, (System.nanoTime() - start) / 1e9,
+                (double) (usedHeap() - heapBefore) / stays);
+
+        int queries = 200_000;
+        start = System.nanoTime();
+        int free = 0;
+        for (int i = 0; i < queries; i++) {
+            int from = random.nextInt(358);
+            if (hotel.isFreeForStay(random.nextInt(rooms), day0.plusDays(from), day0.plusDays(from + 1 + random.nextInt(7)))) free++;
+        }
+        System.out.printf("room      %6.0f ns per range check (%d%% free)%n", (double) (System.nanoTime() - start) / queries, free * 100 / queries);
+
+        queries = 20_000;
+        long[] latencies = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            int from = random.nextInt(358);
+            long t = System.nanoTime();
+            hotel.getAvailableRooms(day0.plusDays(from), day0.plusDays(from + 1 + random.nextInt(7))).firstOfType(FloorLayout.ROOM_TYPES[i % 3]);
+            latencies[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("first     p50 %6.1f us, p99 %7.1f us, max %7.1f us for the first free room of a type%n",
+                latencies[queries / 2] / 1e3, latencies[queries * 99 / 100] / 1e3, latencies[queries - 1] / 1e3);
+
+        AssignmentStrategy strategy = new StayPurposeAssignment();
+        int assigned = 0;
+        for (int i = 0; i < queries; i++) {
+            int from = random.nextInt(358);
+            Reservation guest = new Reservation("Late" + i, "Guest", 1 + random.nextInt(2), random.nextBoolean(), Reservation.StayPurpose.values()[i % 3], 0,
+                    day0.plusDays(from), day0.plusDays(from + 1 + random.nextInt(3)));
+            long t = System.nanoTime();
+            if (hotel.assignReservation(strategy, guest) != null) assigned++;
+            latencies[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("assign    p50 %6.1f us, p99 %7.1f us, max %7.1f us per dated assignment (%,d placed)%n",
+                latencies[queries / 2] / 1e3, latencies[queries * 99 / 100] / 1e3, latencies[queries - 1] / 1e3, assigned);
+
+        start = System.nanoTime();
+        int week = hotel.getAvailableRooms(day0.plusDays(180), day0.plusDays(187)).size();
+        System.out.printf("count     %6.1f ms to count the %,d rooms free for a week%n", (System.nanoTime() - start) / 1e6, week);
+    }
+
+    /* nightBitmaps
+    Description: The occupancy calendar alone over 365 nights x 1,000,448 rooms, filled with stays of 1 to 7 nights at
+    5% and at 80% of the nights. Reports the fill time, the heap per night against a plain bitmap (one bit per room),
+    and the time to answer "rooms of type L free every night of a week", building-wide and on one floor. */
+    private static void nightBitmaps() {
+        FloorLayout layout = new FloorLayout(mixedLayout(32));
+        int floors = 977, rooms = floors * layout.getNumRooms();
+        System.out.printf("== Night bitmaps, 365 nights x %,d rooms%n", rooms);
+        for (double rate : new double[] {0.05, 0.8}) {
+            OccupancyCalendar calendar = new OccupancyCalendar(layout, floors);
+            int meanGap = (int) Math.round(4 * (1 - rate) / rate); // Stays average 4 nights
+            long start = System.nanoTime();
+            long stays = 0;
+            for (int id = 0; id < rooms; id++) {
+                for (int night = random.nextInt(2 * meanGap + 1); ; ) {
+                    int checkOut = night + 1 + random.nextInt(7);
+                    if (checkOut > 365) break;
+                    calendar.occupy(id, night, checkOut);
+                    stays++;
+                    night = checkOut + random.nextInt(2 * meanGap + 1);
+                }
+            }
+            long fill = System.nanoTime() - start;
+            long occupied = 0;
+            for (int night = 0; night < 365; night++) { occupied += calendar.getOccupiedRooms(night); }
+            System.out.printf("%2.0f%% booked  %,d stays in %.1f s; %,7.1f KB/night vs %,d KB plain (%.0f%% of nights occupied)%n",
+                    rate * 100, stays, fill / 1e9, calendar.getSizeInBytes() / 365.0 / 1024, rooms / 8 / 1024, 100.0 * occupied / 365 / rooms);
+
+            RoomBitmap luxury = calendar.getTypeMask('L');
+            RoomBitmap luxuryOnFloor = luxury.and(calendar.getFloorMask(500));
+            int queries = 200;
+            long building = 0, floor = 0, free = 0;
+            for (int i = 0; i < queries; i++) {
+                int from = random.nextInt(358);
+                long t = System.nanoTime();
+                free += calendar.freeRooms(from, from + 7, luxury).cardinality();
+                building += System.nanoTime() - t;
+                t = System.nanoTime();
+                calendar.freeRooms(from, from + 7, luxuryOnFloor);
+                floor += System.nanoTime() - t;
+            }
+            System.out.printf("           L free for a week: %6.2f ms building-wide (%,d rooms on average), %6.3f ms on one floor%n",
+                    building / 1e6 / queries, free / queries, floor / 1e6 / queries);
+        }
+    }
+
+    /* journal
+    Description: A 1,000,448-room hotel filled to 80% through journaled batches of 1,000 rooms, then 16 threads reserving
+    one room at a time (group commit: records per fsync), a snapshot, a tail of 100,000 records, and the recovery of a
+    fresh hotel from the snapshot and the tail; for both room storages. */
+    private static void journal() {
+        int floors = 977, threads = 16, singles = 20_000, tail = 100_000;
+        List<Reservation> guests = randomReservations(1_000);
+        for (Hotel.RoomStorage storage : Hotel.RoomStorage.values()) {
+            try {
+                Path file = Files.createTempDirectory("journal_bench_").resolve("reservation.csv.journal");
+                Hotel hotel = new Hotel(floors, mixedLayout(32), new NullObserver(), storage);
+                int rooms = hotel.getNumberOfRooms(), filled = rooms / 10 * 8;
+                System.out.printf("== Journal, %,d rooms, %s storage%n", rooms, storage);
+                HotelJournal journal = new HotelJournal(file, hotel, 0);
+                hotel.setJournal(journal);
+
+                long start = System.nanoTime();
+                List<AssignmentRequest> batch = new ArrayList<>(1_000);
+                for (int id = 0; id < filled; id++) {
+                    batch.add(new AssignmentRequest(guests.get(id % guests.size()), hotel.getRoom(id)));
+                    if (batch.size() == 1_000) { hotel.reserveRooms(batch); batch.clear(); }
+                }
+                hotel.reserveRooms(batch);
+                long fill = System.nanoTime() - start;
+
+                long syncsBefore = journal.getSyncCount();
+                CountDownLatch done = new CountDownLatch(threads);
+                start = System.nanoTime();
+                for (int t = 0; t < threads; t++) {
+                    int first = filled + t * (singles / threads);
+                    new Thread(() -> {
+                        for (int id = first; id < first + singles / threads; id++) {
+                            hotel.reserveRoom(new AssignmentRequest(guests.get(id % guests.size()), hotel.getRoom(id)));
+                        }
+                        done.countDown();
+                    }).start();
+                }
+                done.await();
+                long concurrent = System.nanoTime() - start;
+                System.out.printf("fill %,d rooms in batches: %.1f s; %d threads committing one by one: %,.0f commits/s, %.1f records per fsync%n",
+                        filled, fill / 1e9, threads, singles / (concurrent / 1e9), (double) singles / (journal.getSyncCount() - syncsBefore));
+
+                start = System.nanoTime();
+                journal.snapshot();
+                long snapshot = System.nanoTime() - start;
+                for (int i = 0; i < tail / 2; i++) {
+                    int id = random.nextInt(filled);
+                    hotel.freeRoom(id);
+                    hotel.reserveRoom(new AssignmentRequest(guests.get(i % guests.size()), hotel.getRoom(id)));
+                }
+                journal.close();
+                long snapshotBytes = Files.size(file.resolveSibling(file.getFileName() + ".snapshot"));
+                long journalBytes = Files.size(file.resolveSibling(file.getFileName() + ".2"));
+
+                for (int round = 0; round <= WARMUP_ROUNDS; round++) { // Each round opens one more (empty) segment
+                    start = System.nanoTime();
+                    Hotel recovered = new Hotel(floors, mixedLayout(32), new NullObserver(), storage);
+                    try (HotelJournal reopened = new HotelJournal(file, recovered, 0)) {
+                        long recovery = System.nanoTime() - start;
+                        if (round < WARMUP_ROUNDS) continue;
+                        System.out.printf("snapshot %.2f s, %,d KB (%.1f bytes/room); tail %,d KB; recovery %.2f s: %,d reservations, %,d records replayed%n",
+                                snapshot / 1e9, snapshotBytes / 1024, (double) snapshotBytes / reopened.getRecoveredReservations(),
+                                journalBytes / 1024, recovery / 1e9, reopened.getRecoveredReservations(), reopened.getRecoveredRecords());
+                    }
+                }
+            } catch (java.io.IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /* hotelImage
+    Description: Start-up of a hotel of 4 floors of 1,000x1,000 cells (about 3.9 million rooms): parsing and compiling
+    the .hconfig, against opening its memory-mapped image; each up to a first answer (a free L room, a room's
+    neighbours). Then layout lookups over every room on the compiled and on the mapped tables, and an image holding
+    500,000 reservations loaded into a fresh hotel. */
+    private static void hotelImage() {
+        int side = 1_000, floors = 4;
+        System.out.printf("== Hotel image, %d floors of %dx%d cells%n", floors, side, side);
+        try {
+            Path directory = Files.createTempDirectory("image_bench_");
+            Path configuration = directory.resolve("configuration.hconfig"), imageFile = directory.resolve("configuration.himg");
+            StringBuilder text = new StringBuilder().append(floors).append('\n');
+            String[] codes = {"E", "B", "L", "E", "B", "L", "Z"}; // One void cell in seven
+            for (int row = 0; row < side; row++) {
+                for (int col = 0; col < side; col++) { text.append(col == 0 ? "" : ",").append(codes[random.nextInt(codes.length)]); }
+                text.append('\n');
+            }
+            Files.write(configuration, text.toString().getBytes(StandardCharsets.UTF_8));
+
+            long parse = 0, mapped = 0, convert = 0;
+            Hotel fromText = null, fromImage = null;
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                long start = System.nanoTime();
+                ConfigurationParser parser = new ConfigurationParser(configuration.toString());
+                fromText = new Hotel(parser.getNumberOfFloors(), parser.getFloorLayout(), new NullObserver(), Hotel.RoomStorage.ARRAYS);
+                firstAnswers(fromText);
+                parse = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                HotelImage.convert(configuration, imageFile);
+                convert = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                fromImage = new Hotel(HotelImage.open(imageFile), new NullObserver(), Hotel.RoomStorage.ARRAYS);
+                firstAnswers(fromImage);
+                mapped = System.nanoTime() - start;
+            }
+            System.out.printf("%,d rooms: .hconfig parse + compile %7.1f ms; image open %5.1f ms (converted in %.0f ms, %,d KB)%n",
+                    fromImage.getNumberOfRooms(), parse / 1e6, mapped / 1e6, convert / 1e6, Files.size(imageFile) / 1024);
+
+            for (Hotel hotel : new Hotel[] {fromText, fromImage}) {
+                FloorLayout layout = hotel.getLayout();
+                long sum = 0, best = Long.MAX_VALUE;
+                for (int round = 0; round <= 2 * WARMUP_ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    sum += sweep(layout);
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                System.out.printf("%-8s layout: %5.2f ns per room (type, edge, row, neighbours) [%d]%n",
+                        hotel == fromText ? "compiled" : "mapped", (double) best / layout.getNumRooms(), sum % 10);
+            }
+
+            Hotel booked = fromImage;
+            List<Reservation> guests = randomReservations(1_000);
+            for (int id = 0; id < 500_000; id++) { booked.getRoom(id * 6).reserveRoom(guests.get(id % guests.size())); }
+            Path withReservations = directory.resolve("booked.himg");
+            HotelImage.write(withReservations, floors, booked.getLayout(), booked);
+            long restore = 0;
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                long start = System.nanoTime();
+                HotelImage image = HotelImage.open(withReservations);
+                Hotel reopened = new Hotel(image, new NullObserver(), Hotel.RoomStorage.ARRAYS);
+                image.restoreReservations(reopened);
+                restore = System.nanoTime() - start;
+                if (reopened.getAvailableRooms().size() != booked.getAvailableRooms().size()) throw new IllegalStateException();
+            }
+            System.out.printf("image with 500,000 reservations (%,d KB): open and restore %.0f ms%n", Files.size(withReservations) / 1024, restore / 1e6);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Reads every room's layout entries
+    private static long sweep(FloorLayout layout) {
+        long sum = 0;
+        for (int room = 0; room < layout.getNumRooms(); room++) {
+            sum += layout.getType(room) + (layout.isEdge(room) ? 1 : 0) + layout.getRow(room);
+            for (int i = 0, count = layout.getNeighbourCount(room); i < count; i++) { sum += layout.getNeighbour(room, i); }
+        }
+        return sum;
+    }
+
+    // A free L room and the neighbours of a room in the middle of the last floor: what the first request needs
+    private static void firstAnswers(Hotel hotel) {
+        if (hotel.getAvailableRooms().firstOfType('L') == null) throw new IllegalStateException();
+        Room room = hotel.getRoom(hotel.getNumberOfRooms() - hotel.getLayout().getNumRooms() / 2);
+        if (hotel.getFloor(room.getLevel()).getNeighbours(room).length > 4) throw new IllegalStateException();
+    }
+
+    /* pipelineSurge
+    Description: A surge of 100,000 lines appended at once. Inline (the former timer tick): the UI thread reads, parses
+    and assigns the whole surge in one go. Pipeline: a reader feeds ReservationPipeline and a simulated UI thread drains
+    it once per 16 ms frame; reports the longest frame, the largest batch a frame had to show, and the stage metrics. */
+    private static void pipelineSurge() {
+        int lines = 100_000;
+        System.out.printf("== Booking surge, %,d lines%n", lines);
+        try {
+            Path directory = Files.createTempDirectory("pipeline_bench_");
+            Path source = directory.resolve("reservation.csv");
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < lines; i++) { content.append("Guest").append(i).append(",Surge,2,").append(i % 2 == 0 ? "fumeur" : "non-fumeur").append(",tourisme,1\n"); }
+            Files.write(source, content.toString().getBytes(StandardCharsets.UTF_8));
+
+            Hotel inlineHotel = new Hotel(100, mixedLayout(32), new NullObserver());
+            long start = System.nanoTime();
+            List<Reservation> parsed = new ReservationTailReader(source.toString()).poll();
+            inlineHotel.reserveRooms(new StayPurposeAssignment().createAssignmentRequests(parsed, inlineHotel.newBatch()));
+            System.out.printf("inline    UI thread blocked %6.0f ms in one tick%n", (System.nanoTime() - start) / 1e6);
+            Files.delete(directory.resolve("reservation.csv.offset"));
+
+            Hotel hotel = new Hotel(100, mixedLayout(32), new NullObserver());
+            try (ReservationPipeline pipeline = new ReservationPipeline(hotel, StayPurposeAssignment::new, 2, 1, 2,
+                    ReservationPipeline.DEFAULT_QUEUE_CAPACITY, () -> {}, line -> {})) {
+                pipeline.start();
+                ReservationTailReader reader = new ReservationTailReader(source.toString());
+                start = System.nanoTime();
+                Thread feeder = new Thread(() -> {
+                    try { reader.pollLines(pipeline::submit); } catch (InterruptedException e) { /* Stopped */ }
+                }, "reader");
+                feeder.start();
+
+                int shown = 0, largestFrame = 0;
+                long longestFrameNanos = 0;
+                while (shown < lines) {
+                    Thread.sleep(16);
+                    long frameStart = System.nanoTime();
+                    List<AssignmentRequest> frame = pipeline.drainAssigned();
+                    shown += frame.size();
+                    largestFrame = Math.max(largestFrame, frame.size());
+                    longestFrameNanos = Math.max(longestFrameNanos, System.nanoTime() - frameStart);
+                }
+                feeder.join();
+                System.out.printf("pipeline  all shown after %6.0f ms, longest UI frame %.2f ms, largest frame %,d assignments%n",
+                        (System.nanoTime() - start) / 1e6, longestFrameNanos / 1e6, largestFrame);
+                for (PipelineStage<?, ?> stage : pipeline.getStages()) { System.out.println("  " + stage); }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* spoolIngestion
+    Description: 5,000 channel files of 5 lines dropped into a spool directory as fast as possible, with an assigner
+    thread draining the queue into a 100-floor hotel; reports files per minute from first drop to last file archived. */
+    private static void spoolIngestion() {
+        int files = 5_000, linesPerFile = 5;
+        System.out.printf("== Spool ingestion, %,d files of %d lines%n", files, linesPerFile);
+        try {
+            Path spool = Files.createTempDirectory("spool_bench_");
+            Hotel hotel = new Hotel(100, mixedLayout(16), new NullObserver());
+            StayPurposeAssignment strategy = new StayPurposeAssignment();
+            Object signal = new Object();
+            try (ReservationSpool reservationSpool = new ReservationSpool(spool, () -> { synchronized (signal) { signal.notifyAll(); } })) {
+                reservationSpool.start();
+                int[] assigned = {0};
+                Thread assigner = new Thread(() -> {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        List<Reservation> latest = reservationSpool.drain();
+                        if (latest.isEmpty()) {
+                            synchronized (signal) {
+                                try { signal.wait(5); } catch (InterruptedException e) { return; }
+                            }
+                            continue;
+                        }
+                        List<AssignmentRequest> requests = strategy.createAssignmentRequests(latest, hotel.newBatch());
+                        hotel.reserveRooms(requests);
+                        assigned[0] += requests.size();
+                    }
+                }, "assigner");
+                assigner.start();
+
+                long start = System.nanoTime();
+                for (int file = 0; file < files; file++) {
+                    StringBuilder content = new StringBuilder();
+                    for (int i = 0; i < linesPerFile; i++) { content.append("G").append(file).append('-').append(i).append(",Spool,2,fumeur,tourisme,1\n"); }
+                    Path partial = spool.resolve(".channel" + file + ".csv");
+                    Files.write(partial, content.toString().getBytes(StandardCharsets.UTF_8));
+                    Files.move(partial, spool.resolve("channel" + file + ".csv"), java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+                }
+                long dropped = System.nanoTime();
+                while (reservationSpool.getFilesDone() < files) { Thread.sleep(1); }
+                long archived = System.nanoTime();
+                assigner.interrupt();
+                assigner.join();
+                System.out.printf("dropped in %6.0f ms, all archived after %6.0f ms -> %,.0f files/min, %,d rooms assigned%n",
+                        (dropped - start) / 1e6, (archived - start) / 1e6, files / ((archived - start) / 6e10), assigned[0]);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* bulkImport
+    Inputs: lines – size of the generated reservation file (10M by default, run with -Xmx3g).
+    Description: ReservationBulkImporter with 1, 2, 4 and 8 workers against the single-threaded mapped parser. */
+    private static void bulkImport(int lines) {
+        System.out.printf("== Bulk import, %,d lines, %d processors%n", lines, Runtime.getRuntime().availableProcessors());
+        try {
+            Path file = reservationFile(lines);
+            for (int workers : new int[] {0, 1, 2, 4, 8}) {
+                long nanos = 0;
+                int parsed = 0, rejected = 0;
+                for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                    System.gc();
+                    long start = System.nanoTime();
+                    if (workers == 0) {
+                        parsed = ReservationBufferParser.parseFile(file).size();
+                    } else {
+                        ReservationBulkImporter.Result result = new ReservationBulkImporter(workers, ReservationBulkImporter.DEFAULT_CHUNK_SIZE).importFile(file);
+                        parsed = result.getReservations().size();
+                        rejected = result.getRejected().size();
+                    }
+                    nanos = System.nanoTime() - start;
+                }
+                System.out.printf("%-12s %8.0f ms %6.1f M lines/s  (%,d valid, %,d rejected)%n", workers == 0 ? "parseFile" : workers + " workers",
+                        nanos / 1e6, lines / (nanos / 1e9) / 1e6, parsed, rejected);
+            }
+            Files.delete(file);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* reservationFile
+    Inputs: lines – number of lines.
+    Outputs: a temporary file in the reservation.csv format, one line in twenty invalid (5 persons).
+    Description: Shared by the parsing benchmarks. */
+    private static Path reservationFile(int lines) throws java.io.IOException {
+        Path file = Files.createTempFile("csvparse_bench_", ".csv");
+        try (java.io.BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            String[] purposes = {"tourisme", "affaire", "autre"};
+            for (int i = 0; i < lines; i++) {
+                int persons = 1 + random.nextInt(4);
+                writer.write("Guest" + i + ",Name" + (i % 1000) + "," + (i % 20 == 0 ? 5 : persons) + ","
+                        + (random.nextBoolean() ? "fumeur" : "non-fumeur") + "," + purposes[random.nextInt(3)] + "," + random.nextInt(persons));
+                writer.write('\n');
+            }
+        }
+        System.out.printf("file: %,d MB%n", Files.size(file) >> 20);
+        return file;
+    }
+
+    /* reservationBurst
+    Description: Assigns a burst of reservations the way the controller's poll cycle does (check availability, assign, reserve); the time per reservation should not grow with the burst size. */
+    private static void reservationBurst() {
+        System.out.println("== Poll-cycle burst (Stay Purpose, 100 floors of 20x20)");
+        StayPurposeAssignment strategy = new StayPurposeAssignment();
+
+        for (int burst : new int[] {1_000, 5_000, 20_000}) {
+            Hotel hotel = new Hotel(100, mixedLayout(20), new NullObserver());
+            List<Reservation> reservations = randomReservations(burst);
+
+            long start = System.nanoTime();
+            for (Reservation reservation : reservations) {
+                if (!hotel.getAvailableRooms().isEmpty()) {
+                    hotel.reserveRoom(strategy.createAssignmentRequest(hotel.getAvailableRooms(), reservation));
+                }
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.printf("burst=%6d  %8.1f us total  %8.1f ns/reservation%n", burst, nanos / 1e3, (double) nanos / burst);
+        }
+    }
+
+    /* typePick
+    Description: Stay Purpose on 1M rooms with 1M reservations using the per-type bitsets, compared with the former
+    linear scan of the candidates (measured on the first 20k reservations only, it would take hours otherwise). */
+    private static void typePick() {
+        System.out.println("== Stay Purpose type pick (250 floors of 40x100 = 1M rooms, 1M reservations)");
+        List<Reservation> reservations = randomReservations(1_000_000);
+        StayPurposeAssignment strategy = new StayPurposeAssignment();
+
+        Hotel scanned = new Hotel(250, mixedLayout(40, 100), new NullObserver());
+        int scannedCount = 20_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < scannedCount; i++) {
+            Reservation reservation = reservations.get(i);
+            char type = AssignmentStrategy.determineTargetType(reservation);
+            Room match = null;
+            for (Room room : scanned.getAvailableRooms()) { // Former fallbackByType: walk the candidates
+                if (room.getType() == type) { match = room; break; }
+            }
+            scanned.reserveRoom(new AssignmentRequest(reservation, match != null ? match : scanned.getAvailableRooms().first()));
+        }
+        double scanNanos = (double) (System.nanoTime() - start) / scannedCount;
+
+        Hotel indexed = new Hotel(250, mixedLayout(40, 100), new NullObserver());
+        start = System.nanoTime();
+        for (Reservation reservation : reservations) {
+            if (!indexed.getAvailableRooms().isEmpty()) {
+                indexed.reserveRoom(strategy.createAssignmentRequest(indexed.getAvailableRooms(), reservation));
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("linear scan : %10.1f ns/reservation (first %d)%n", scanNanos, scannedCount);
+        System.out.printf("type bitsets: %10.1f ns/reservation (%d reservations, %.1f ms total)%n",
+                (double) nanos / reservations.size(), reservations.size(), nanos / 1e6);
+    }
+
+    /* randomReservations
+    Inputs: count – number of reservations.
+    Outputs: reservations with random purpose, smoker flag and children.
+    Description: HotelFixtures.randomReservations on the benchmark's seeded random. */
+    static List<Reservation> randomReservations(int count) {
+        return HotelFixtures.randomReservations(random, count);
+    }
+
+    private static boolean selected(String scenario, String name) {
+        return scenario.equals("all") || scenario.equals(name);
+    }
+
+    private static class NullObserver implements HotelObserver {
+        public void reserveRoom(String roomName) {}
+        public void freeRoom(String roomName, char type) {}
+    }
+}
@@ -0,0 +1,153 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HotelConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    /* testConcurrentAssignersNeverShareARoom
+    Description: Eight threads fill the hotel through the live availability view and tryReserveRoom, all aiming at the
+    same first rooms; every room must end up with exactly one winner, for both storage backends. */
+    @Test
+    public void testConcurrentAssignersNeverShareARoom() throws Exception {
+        for (Hotel.RoomStorage storage : Hotel.RoomStorage.values()) {
+            Hotel hotel = new Hotel(50, HotelFixtures.mixedLayout(4, 5), new DummyObserver(), storage);
+            Map<Integer, Reservation> winners = new ConcurrentHashMap<>();
+            AtomicInteger wins = new AtomicInteger();
+
+            runConcurrently(thread -> {
+                Random random = new Random(thread);
+                int attempt = 0;
+                while (!hotel.getAvailableRooms().isEmpty()) {
+                    Reservation reservation = new Reservation("T" + thread, "#" + attempt++, 1 + random.nextInt(3), false, Reservation.StayPurpose.OTHER, random.nextInt(2));
+                    Room room = hotel.getAvailableRooms().firstOfType(FloorLayout.ROOM_TYPES[random.nextInt(3)]);
+                    if (room == null) room = hotel.getAvailableRooms().first();
+                    if (room != null && hotel.tryReserveRoom(new AssignmentRequest(reservation, room))) {
+                        assertNull(winners.put(room.getId(), reservation), "Room " + room.getName() + " won twice");
+                        wins.incrementAndGet();
+                    }
+                }
+            });
+
+            assertEquals(hotel.getNumberOfRooms(), wins.get(), storage + ": every room reserved exactly once");
+            assertNull(hotel.getAvailableRooms().first());
+            for (int id = 0; id < hotel.getNumberOfRooms(); id++) {
+                assertSame(winners.get(id), hotel.getRoom(id).getReservation(), storage + ": the winner holds the room");
+            }
+        }
+    }
+
+    /* testOptimisticWorkersFillTheHotel
+    Description: Eight workers assign through Hotel.assignReservation with Quiet Zone; every room is reserved once and
+    the metrics account for every attempt. */
+    @Test
+    public void testOptimisticWorkersFillTheHotel() throws Exception {
+        Hotel hotel = new Hotel(50, HotelFixtures.mixedLayout(4, 5), new DummyObserver());
+        AssignmentStrategy strategy = new QuietZoneAssignment(hotel);
+        AtomicInteger committed = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; ; i++) {
+                Reservation reservation = new Reservation("T" + thread, "#" + i, 2, random.nextBoolean(), Reservation.StayPurpose.OTHER, random.nextInt(2));
+                if (hotel.assignReservation(strategy, reservation) == null) return; // Hotel full
+                committed.incrementAndGet();
+            }
+        });
+
+        AssignmentMetrics metrics = hotel.getAssignmentMetrics();
+        assertEquals(hotel.getNumberOfRooms(), committed.get());
+        assertEquals(committed.get(), metrics.getCommits());
+        assertEquals(metrics.getAttempts(), metrics.getCommits() + metrics.getConflicts() + metrics.getStaleCandidates());
+        assertEquals(THREADS, metrics.getExhausted(), "Each worker stops on a full hotel");
+        assertTrue(hotel.getAvailableRooms().isEmpty());
+    }
+
+    /* testChurnKeepsIndexesConsistent
+    Description: Eight threads reserve and free random rooms; afterwards the availability index and the neighbour
+    counters must match the rooms' actual state. */
+    @Test
+    public void testChurnKeepsIndexesConsistent() throws Exception {
+        for (Hotel.RoomStorage storage : Hotel.RoomStorage.values()) {
+            Hotel hotel = new Hotel(20, HotelFixtures.mixedLayout(5, 5), new DummyObserver(), storage);
+
+            runConcurrently(thread -> {
+                Random random = new Random(thread);
+                for (int i = 0; i < 20_000; i++) {
+                    int roomId = random.nextInt(hotel.getNumberOfRooms());
+                    if (random.nextBoolean()) {
+                        Reservation reservation = new Reservation("T" + thread, "#" + i, 2, false, Reservation.StayPurpose.OTHER, random.nextInt(2));
+                        hotel.tryReserveRoom(new AssignmentRequest(reservation, hotel.getRoom(roomId)));
+                    } else {
+                        hotel.freeRoom(roomId);
+                    }
+                }
+            });
+
+            AvailabilityIndex index = (AvailabilityIndex) hotel.getAvailableRooms();
+            FloorLayout layout = hotel.getLayout();
+            int free = 0;
+            for (int id = 0; id < hotel.getNumberOfRooms(); id++) {
+                Room room = hotel.getRoom(id);
+                if (!room.isReserved()) free++;
+                assertEquals(!room.isReserved(), index.isFree(id), storage + ": index disagrees on " + room.getName());
+
+                boolean adultsNear = false, childrenNear = false;
+                for (Room neighbour : hotel.getFloor(room.getLevel()).getNeighbours(room)) {
+                    if (neighbour.isReserved() && neighbour.hasChildren()) childrenNear = true;
+                    if (neighbour.isReserved() && !neighbour.hasChildren()) adultsNear = true;
+                }
+                Floor floor = hotel.getFloor(room.getLevel());
+                int roomIndex = layout.getRoomIndexOf(id);
+                assertEquals(adultsNear, floor.hasNeighbourConflict(roomIndex, true), storage + ": adult counter of " + room.getName());
+                assertEquals(childrenNear, floor.hasNeighbourConflict(roomIndex, false), storage + ": child counter of " + room.getName());
+            }
+            assertEquals(free, hotel.getAvailableRooms().size(), storage + ": free count");
+        }
+    }
+
+    /* runConcurrently
+    Inputs: task – work for one thread, given its number.
+    Outputs: none.
+    Description: Starts all threads behind a latch so they really overlap, and rethrows the first failure. */
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int number = thread;
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run(number);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) { future.get(60, TimeUnit.SECONDS); }
+        pool.shutdown();
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+
+    private static class DummyObserver implements HotelObserver {
+        public void reserveRoom(String roomName) {}
+        public void freeRoom(String roomName, char type) {}
+    }
+}
@@ -0,0 +1,60 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/* HotelFixtures
+Description: Layouts and guests shared by the unit tests and HotelBenchmark. */
+final class HotelFixtures {
+
+    private HotelFixtures() {}
+
+    static ArrayList<ArrayList<String>> mixedLayout(int side) {
+        return mixedLayout(side, side);
+    }
+
+    /* mixedLayout
+    Inputs: rows – number of rows; cols – number of columns.
+    Outputs: a layout cycling through E, B and L rooms.
+    Description: Builds a floor where every room type is represented evenly. */
+    static ArrayList<ArrayList<String>> mixedLayout(int rows, int cols) {
+        String[] codes = {"E", "B", "L"};
+        ArrayList<ArrayList<String>> layout = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            ArrayList<String> cells = new ArrayList<>();
+            for (int col = 0; col < cols; col++) { cells.add(codes[(row * cols + col) % codes.length]); }
+            layout.add(cells);
+        }
+        return layout;
+    }
+
+    /* squareLayout
+    Inputs: side – number of rows and columns; code – room code used for every cell.
+    Outputs: a layout in the ConfigurationParser format.
+    Description: Builds a square floor layout filled with a single room type. */
+    static ArrayList<ArrayList<String>> squareLayout(int side, String code) {
+        ArrayList<ArrayList<String>> layout = new ArrayList<>();
+        for (int row = 0; row < side; row++) {
+            layout.add(new ArrayList<>(Collections.nCopies(side, code)));
+        }
+        return layout;
+    }
+
+    /* randomReservations
+    Inputs: random – source of the guests' traits; count – number of reservations.
+    Outputs: reservations with random purpose, smoker flag and children.
+    Description: Generates a reproducible mix of guests for a seeded random. */
+    static List<Reservation> randomReservations(Random random, int count) {
+        Reservation.StayPurpose[] purposes = Reservation.StayPurpose.values();
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int persons = 1 + random.nextInt(4);
+            reservations.add(new Reservation("Guest" + i, "Bench", persons, random.nextBoolean(),
+                    purposes[random.nextInt(purposes.length)], random.nextInt(persons)));
+        }
+        return reservations;
+    }
+
+}
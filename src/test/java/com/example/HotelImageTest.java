@@ -0,0 +1,137 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class HotelImageTest {
+
+    private static final String CONFIGURATION = "3\nB,B,E,B,L\nE,Z,B,L\nL,Z,Z,L,E\nB,Z,E,L,B\n"; // Ragged, with voids
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("image_test_");
+    }
+
+    /* testImageAnswersLikeCompiledLayout
+    Description: Every layout query on the mapped image – cells inside and around the grid, rows, columns, types,
+    edges, neighbours – must match the layout compiled from the text, and both hotels assign the same rooms. */
+    @Test
+    public void testImageAnswersLikeCompiledLayout() throws Exception {
+        Path configuration = write("configuration.hconfig", CONFIGURATION);
+        Path imageFile = directory.resolve("configuration.himg");
+        HotelImage.convert(configuration, imageFile);
+        HotelImage image = HotelImage.open(imageFile);
+        ConfigurationParser parser = new ConfigurationParser(configuration.toString());
+        FloorLayout expected = new FloorLayout(parser.getFloorLayout()), actual = image.getLayout();
+
+        assertEquals(3, image.getNumberOfFloors());
+        assertFalse(image.hasReservations());
+        assertEquals(expected.getNumRows(), actual.getNumRows());
+        assertEquals(expected.getNumCols(), actual.getNumCols());
+        assertEquals(expected.getNumRooms(), actual.getNumRooms());
+        for (int row = -1; row <= expected.getNumRows(); row++) {
+            for (int col = -1; col <= expected.getNumCols(); col++) { assertEquals(expected.getRoomIndexAt(row, col), actual.getRoomIndexAt(row, col)); }
+        }
+        for (int room = 0; room < expected.getNumRooms(); room++) {
+            assertEquals(expected.getRow(room), actual.getRow(room));
+            assertEquals(expected.getCol(room), actual.getCol(room));
+            assertEquals(expected.getType(room), actual.getType(room));
+            assertEquals(expected.isEdge(room), actual.isEdge(room), "Room " + room);
+            assertEquals(expected.getNeighbourCount(room), actual.getNeighbourCount(room));
+            for (int i = 0; i < expected.getNeighbourCount(room); i++) { assertEquals(expected.getNeighbour(room, i), actual.getNeighbour(room, i)); }
+        }
+
+        Hotel fromText = new Hotel(parser.getNumberOfFloors(), parser.getFloorLayout(), new DummyObserver());
+        Hotel fromImage = new Hotel(image, new DummyObserver(), Hotel.RoomStorage.ARRAYS);
+        for (Reservation reservation : HotelFixtures.randomReservations(new Random(25), 30)) {
+            AssignmentRequest a = fromText.assignReservation(new StayPurposeAssignment(), reservation);
+            AssignmentRequest b = fromImage.assignReservation(new StayPurposeAssignment(), reservation);
+            assertEquals(a == null ? null : a.room.getName(), b == null ? null : b.room.getName());
+        }
+        assertEquals(new FloorLayout(fromImage.getFloorLayout()).getNumRooms(), expected.getNumRooms());
+    }
+
+    /* testReservationsRoundTrip
+    Description: An image written with a hotel's reservations loads them back, stays included. */
+    @Test
+    public void testReservationsRoundTrip() throws Exception {
+        Hotel hotel = new Hotel(4, HotelFixtures.mixedLayout(5, 6), new DummyObserver());
+        for (Reservation reservation : HotelFixtures.randomReservations(new Random(25), 50)) { hotel.assignReservation(new StayPurposeAssignment(), reservation); }
+        LocalDate day = LocalDate.of(2025, 7, 1);
+        hotel.assignReservation(new StayPurposeAssignment(), new Reservation("Léa", "Stay", 2, false, Reservation.StayPurpose.OTHER, 0, day, day.plusDays(3)));
+        Path imageFile = directory.resolve("hotel.himg");
+        HotelImage.write(imageFile, hotel.getNumberOfFloors(), hotel.getLayout(), hotel);
+
+        HotelImage image = HotelImage.open(imageFile);
+        Hotel reopened = new Hotel(image, new DummyObserver(), Hotel.RoomStorage.OBJECTS);
+        assertTrue(image.restoreReservations(reopened));
+        assertEquals(describe(hotel), describe(reopened));
+        assertEquals(hotel.getAvailableRooms().size(), reopened.getAvailableRooms().size());
+    }
+
+    /* testDamagedImageIsRejected
+    Description: A truncated image, a damaged header and a file of another kind all fail to open. */
+    @Test
+    public void testDamagedImageIsRejected() throws Exception {
+        Path imageFile = directory.resolve("configuration.himg");
+        HotelImage.convert(write("configuration.hconfig", CONFIGURATION), imageFile);
+        byte[] bytes = Files.readAllBytes(imageFile);
+
+        try (FileChannel channel = FileChannel.open(imageFile, StandardOpenOption.WRITE)) { channel.truncate(bytes.length - 8); }
+        assertThrows(IOException.class, () -> HotelImage.open(imageFile));
+        bytes[12]++; // Rows
+        Files.write(imageFile, bytes);
+        assertThrows(IOException.class, () -> HotelImage.open(imageFile));
+        assertThrows(IOException.class, () -> HotelImage.open(write("configuration.hconfig", CONFIGURATION)));
+    }
+
+    /* testOpenCompiledConvertsAgainAfterEdit
+    Description: The image is converted when missing, reused while current, and converted again once the .hconfig is
+    newer. */
+    @Test
+    public void testOpenCompiledConvertsAgainAfterEdit() throws Exception {
+        Path configuration = write("configuration.hconfig", CONFIGURATION);
+        Path imageFile = directory.resolve("configuration.himg");
+        assertEquals(3, HotelImage.openCompiled(configuration, imageFile).getNumberOfFloors());
+
+        write("configuration.hconfig", CONFIGURATION.replaceFirst("3", "7"));
+        Files.setLastModifiedTime(configuration, FileTime.fromMillis(Files.getLastModifiedTime(imageFile).toMillis() + 1_000));
+        assertEquals(7, HotelImage.openCompiled(configuration, imageFile).getNumberOfFloors());
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Every assignment of the hotel as text, in room order
+    private static List<String> describe(Hotel hotel) {
+        List<String> lines = new ArrayList<>();
+        for (AssignmentRequest request : hotel.getAssignments()) {
+            Reservation r = request.reservation;
+            lines.add(request.room.getName() + " " + r.getFirstName() + " " + r.getLastName() + " " + r.getNumPersons() + " "
+                    + r.getNumChildren() + " " + r.isSmoker() + " " + r.getStayPurpose() + " " + r.getCheckIn() + " " + r.getCheckOut());
+        }
+        return lines;
+    }
+
+    private static class DummyObserver implements HotelObserver {
+        public void reserveRoom(String roomName) {}
+        public void freeRoom(String roomName, char type) {}
+    }
+}
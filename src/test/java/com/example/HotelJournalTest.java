@@ -0,0 +1,170 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HotelJournalTest {
+
+    private static final LocalDate DAY0 = LocalDate.of(2025, 6, 1);
+
+    private Path journalFile;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        journalFile = Files.createTempDirectory("journal_test_").resolve("reservation.csv.journal");
+    }
+
+    /* testRecoverSnapshotAndTail
+    Description: Rooms reserved, freed and reassigned and stays booked and cancelled, both before and after a snapshot;
+    a fresh hotel recovered from the files must hold exactly the same reservations, for both room storages. */
+    @Test
+    public void testRecoverSnapshotAndTail() throws Exception {
+        for (Hotel.RoomStorage storage : Hotel.RoomStorage.values()) {
+            Path file = journalFile.resolveSibling(storage + ".journal");
+            Hotel hotel = newHotel(storage);
+            List<String> expected;
+            try (HotelJournal journal = new HotelJournal(file, hotel, 0)) {
+                hotel.setJournal(journal);
+                List<AssignmentRequest> stays = fill(hotel, 0);
+                journal.snapshot();
+                hotel.cancelStay(stays.get(0)); // Tail: cancel a stay the snapshot holds
+                fill(hotel, 100);
+                expected = describe(hotel);
+                assertTrue(journal.getSyncCount() > 0);
+            }
+
+            Hotel recovered = newHotel(storage);
+            try (HotelJournal journal = new HotelJournal(file, recovered, 0)) {
+                assertEquals(expected, describe(recovered));
+                assertTrue(journal.getRecoveredRecords() > 0);
+                assertEquals(expected.size(), journal.getRecoveredReservations());
+            }
+        }
+    }
+
+    /* testTornTailIsIgnored
+    Description: A record cut by a crash is dropped with whatever follows it; the records before it are kept, and the
+    journal goes on after the cut. */
+    @Test
+    public void testTornTailIsIgnored() throws Exception {
+        Hotel hotel = newHotel(Hotel.RoomStorage.OBJECTS);
+        List<String> expected;
+        try (HotelJournal journal = new HotelJournal(journalFile, hotel, 0)) {
+            hotel.setJournal(journal);
+            fill(hotel, 0);
+            expected = describe(hotel);
+        }
+        Path segment = journalFile.resolveSibling(journalFile.getFileName() + ".1");
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 0, 0, 0}, StandardOpenOption.APPEND); // Torn record
+
+        Hotel recovered = newHotel(Hotel.RoomStorage.OBJECTS);
+        try (HotelJournal journal = new HotelJournal(journalFile, recovered, 0)) {
+            recovered.setJournal(journal);
+            assertEquals(expected, describe(recovered));
+            recovered.freeRoom(0);
+            expected = describe(recovered);
+        }
+        Hotel again = newHotel(Hotel.RoomStorage.OBJECTS);
+        try (HotelJournal journal = new HotelJournal(journalFile, again, 0)) {
+            assertEquals(expected, describe(again));
+            assertTrue(journal.getRecoveredRecords() > 0); // Records after the cut were replayed
+        }
+    }
+
+    /* testSnapshotOfAnotherHotelIsRejected
+    Description: A snapshot only loads into a hotel of the same number of rooms. */
+    @Test
+    public void testSnapshotOfAnotherHotelIsRejected() throws Exception {
+        Hotel hotel = newHotel(Hotel.RoomStorage.OBJECTS);
+        try (HotelJournal journal = new HotelJournal(journalFile, hotel, 0)) {
+            hotel.setJournal(journal);
+            fill(hotel, 0);
+            journal.snapshot();
+        }
+        Hotel smaller = new Hotel(2, HotelFixtures.mixedLayout(4, 4), new DummyObserver());
+        assertThrows(IOException.class, () -> new HotelJournal(journalFile, smaller, 0));
+    }
+
+    /* testKeysLostBeforeDedupCommitAreReclaimed
+    Description: A crash after the journal's fsync but before the key file's: the recovered reservations keep their
+    source, from the journal and from a snapshot, and the key file rebuilt from them refuses the line read again. */
+    @Test
+    public void testKeysLostBeforeDedupCommitAreReclaimed() throws Exception {
+        Reservation snapshotted = ReservationParser.parseValidLine("Alice,Dupont,2,fumeur,tourisme,1").withSource(0);
+        Reservation journaled = ReservationParser.parseValidLine("Bob,Martin,1,non-fumeur,affaire,0").withSource(34);
+        Hotel hotel = newHotel(Hotel.RoomStorage.OBJECTS);
+        try (HotelJournal journal = new HotelJournal(journalFile, hotel, 0)) {
+            hotel.setJournal(journal);
+            assertNotNull(hotel.assignReservation(new StayPurposeAssignment(), snapshotted));
+            journal.snapshot();
+            assertNotNull(hotel.assignReservation(new StayPurposeAssignment(), journaled));
+        } // No key was committed
+
+        Hotel recovered = newHotel(Hotel.RoomStorage.OBJECTS);
+        Path keyFile = journalFile.resolveSibling("reservation.csv.keys");
+        try (HotelJournal journal = new HotelJournal(journalFile, recovered, 0);
+             ReservationDedupIndex dedup = new ReservationDedupIndex(keyFile)) {
+            List<Long> sources = new ArrayList<>();
+            for (AssignmentRequest request : recovered.getAssignments()) { sources.add(request.reservation.getSource()); }
+            assertEquals(List.of(0L, 34L), sources);
+            assertEquals(2, journal.getRecoveredReservations());
+            dedup.claimAssigned(recovered);
+            assertFalse(dedup.claim(journaled.getIdempotencyKey()), "The line read again is a duplicate");
+            assertFalse(dedup.claim(snapshotted.getIdempotencyKey()));
+            assertTrue(dedup.claim(journaled.withSource(99).getIdempotencyKey()), "The same guest on another line is new");
+        }
+    }
+
+    private static Hotel newHotel(Hotel.RoomStorage storage) {
+        return new Hotel(3, HotelFixtures.mixedLayout(4, 4), new DummyObserver(), storage);
+    }
+
+    /* fill
+    Description: Assigns a dozen guests, frees and reassigns some, and books three stays; returns the stays. */
+    private static List<AssignmentRequest> fill(Hotel hotel, int first) {
+        List<AssignmentRequest> requests = new ArrayList<>();
+        for (int i = first; i < first + 12; i++) {
+            Reservation guest = new Reservation("Guest" + i, i % 2 == 0 ? "Durand" : "Martin", 1 + i % 3, i % 4 == 0,
+                    Reservation.StayPurpose.values()[i % 3], i % 2);
+            requests.add(hotel.assignReservation(new StayPurposeAssignment(), guest));
+        }
+        hotel.freeRoom(requests.get(1).room.getId());
+        hotel.freeRoom(requests.get(2).room.getId());
+        hotel.reserveRoom(new AssignmentRequest(requests.get(3).reservation, requests.get(2).room)); // Reassigned
+        hotel.freeRoom(requests.get(3).room.getId());
+
+        List<AssignmentRequest> stays = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Reservation stay = new Reservation("Stay" + (first + i), "Été", 2, false, Reservation.StayPurpose.OTHER, 1,
+                    DAY0.plusDays(first + 3 * i), DAY0.plusDays(first + 3 * i + 2));
+            stays.add(hotel.assignReservation(new StayPurposeAssignment(), stay));
+        }
+        return stays;
+    }
+
+    // Every assignment of the hotel as text, in room order
+    private static List<String> describe(Hotel hotel) {
+        List<String> lines = new ArrayList<>();
+        for (AssignmentRequest request : hotel.getAssignments()) {
+            Reservation r = request.reservation;
+            lines.add(request.room.getName() + " " + r.getFirstName() + " " + r.getLastName() + " " + r.getNumPersons() + " "
+                    + r.getNumChildren() + " " + r.isSmoker() + " " + r.getStayPurpose() + " " + r.getCheckIn() + " " + r.getCheckOut());
+        }
+        return lines;
+    }
+
+    private static class DummyObserver implements HotelObserver {
+        public void reserveRoom(String roomName) {}
+        public void freeRoom(String roomName, char type) {}
+    }
+}
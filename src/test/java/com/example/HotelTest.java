@@ -0,0 +1,369 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class HotelTest {
+
+    private Hotel hotel;
+
+    /* setUp
+    Description: Builds a 30-floor hotel on a 2x3 layout with one void cell, so floors go past the letter Z. */
+    @BeforeEach
+    public void setUp() {
+        hotel = new Hotel(30, twoRowLayout(), new DummyObserver());
+    }
+
+    /* testRoomIdEncodesFloorAndPosition
+    Description: Verifies that room IDs are dense, floor after floor, and decode back to the floor and position of the room. */
+    @Test
+    public void testRoomIdEncodesFloorAndPosition() {
+        FloorLayout layout = hotel.getLayout();
+        Room room = hotel.getFloor(28).getRoomAt(1, 2); // Last room of floor 28
+
+        assertEquals(27 * 5 + 4, room.getId(), "IDs should be dense over real rooms");
+        assertEquals(28, layout.getLevelOf(room.getId()), "Floor should decode from the ID");
+        assertEquals(room, hotel.getFloor(28).getRoom(layout.getRoomIndexOf(room.getId())), "Position should decode from the ID");
+        assertSame(room, hotel.getRoom(room.getId()), "Directory lookup by ID");
+        assertSame(room, hotel.getRoom(room.getName()), "Directory lookup by name");
+    }
+
+    /* testFloorLettersPastZ
+    Description: Verifies that floors beyond the 26th get two-letter names and still report their level. */
+    @Test
+    public void testFloorLettersPastZ() {
+        assertEquals("Z", Hotel.getLetterFromNumber(25));
+        assertEquals("AA", Hotel.getLetterFromNumber(26));
+        assertEquals("AD1E", hotel.getFloor(30).getRoomAt(0, 0).getName());
+        assertEquals(30, hotel.getRoom("AD1E").getLevel(), "Level must not be parsed from the name");
+    }
+
+    /* testReserveAndFreeById
+    Description: Verifies that reserving and freeing go through the ID directory. */
+    @Test
+    public void testReserveAndFreeById() {
+        Room room = hotel.getRoom("B3L");
+        hotel.reserveRoom(new AssignmentRequest(new Reservation("Ada", "Lovelace", 1, false, Reservation.StayPurpose.OTHER, 0), room));
+        assertTrue(room.isReserved());
+
+        hotel.freeRoom(room.getId());
+        assertFalse(room.isReserved());
+    }
+
+    /* testAvailableRoomsFollowReservations
+    Description: Verifies that the live availability view tracks reserve/free without being rebuilt, and that per-floor type buckets are in room order. */
+    @Test
+    public void testAvailableRoomsFollowReservations() {
+        AvailableRooms available = hotel.getAvailableRooms();
+        assertEquals(150, available.size());
+
+        Room room = hotel.getRoom("C4E");
+        hotel.reserveRoom(new AssignmentRequest(new Reservation("Ada", "Lovelace", 1, false, Reservation.StayPurpose.OTHER, 0), room));
+        assertEquals(149, available.size(), "The same view should see the reservation");
+
+        List<String> economic = new ArrayList<>();
+        for (Room free : available.ofType('E', 3)) { economic.add(free.getName()); }
+        assertEquals(List.of("C1E", "C5E"), economic, "Only free E rooms of floor 3, in room order");
+
+        hotel.freeRoom(room.getId());
+        assertEquals(150, available.size());
+        assertEquals("A1E", available.first().getName());
+    }
+
+    /* testSequentialFollowsFrontier
+    Description: Verifies that Sequential picks the lowest free room of the target type next to a reserved room, and that freeing the neighbour removes it from the frontier. */
+    @Test
+    public void testSequentialFollowsFrontier() {
+        SequentialAssignment strategy = new SequentialAssignment(hotel);
+        Reservation solo = new Reservation("Ada", "Lovelace", 1, false, Reservation.StayPurpose.TOURISM, 0); // Target type L
+        Room anchor = hotel.getRoom("E4E"); // Center of floor 5, next to E3L
+
+        hotel.reserveRoom(new AssignmentRequest(solo, anchor));
+        assertEquals("E3L", strategy.createAssignmentRequest(hotel.getAvailableRooms(), solo).room.getName(), "Adjacent L room should win");
+
+        hotel.freeRoom(anchor.getId());
+        assertEquals("A3L", strategy.createAssignmentRequest(hotel.getAvailableRooms(), solo).room.getName(), "Without neighbours, fall back to the first L room");
+    }
+
+    /* testArrayStorageHandsOutConsistentViews
+    Description: Verifies that with the struct-of-arrays backend, rooms are views over shared state and the indexes still follow them. */
+    @Test
+    public void testArrayStorageHandsOutConsistentViews() {
+        ArrayList<ArrayList<String>> layout = new ArrayList<>();
+        layout.add(new ArrayList<>(Arrays.asList("E", "L", "E")));
+        Hotel arrays = new Hotel(2, layout, new DummyObserver(), Hotel.RoomStorage.ARRAYS);
+        Reservation family = new Reservation("Ada", "Lovelace", 3, false, Reservation.StayPurpose.OTHER, 1);
+
+        arrays.reserveRoom(new AssignmentRequest(family, arrays.getRoom("B1E")));
+
+        Room view = arrays.getFloor(2).getRoomAt(0, 0);
+        assertNotSame(view, arrays.getRoom("B1E"), "Rooms are created on demand");
+        assertTrue(view.isReserved(), "Every view reads the same store");
+        assertSame(family, view.getReservation());
+        assertEquals(5, arrays.getAvailableRooms().size());
+        assertTrue(arrays.getFloor(2).hasNeighbourConflict(1, false), "Neighbour counters follow the store");
+        assertEquals("B2L", arrays.getFrontierRoom('L').getName());
+
+        view.freeRoom();
+        assertFalse(arrays.getRoom("B1E").isReserved());
+        assertSame(EmptyReservation.getInstance(), arrays.getRoom("B1E").getReservation());
+        assertNull(arrays.getFrontierRoom('L'));
+    }
+
+    /* testFloorsMaterializeOnFirstAccess
+    Description: Verifies that floors are only built when something touches them, and that availability is known without them. */
+    @Test
+    public void testFloorsMaterializeOnFirstAccess() {
+        assertFalse(hotel.isFloorMaterialized(12), "No floor is built up front");
+        assertEquals(150, hotel.getAvailableRooms().size(), "Availability does not need the floors");
+
+        hotel.reserveRoom(new AssignmentRequest(new Reservation("Ada", "Lovelace", 1, false, Reservation.StayPurpose.OTHER, 0), hotel.getRoom("L1E")));
+        assertTrue(hotel.isFloorMaterialized(12));
+        assertFalse(hotel.isFloorMaterialized(13), "Neighbouring floors stay untouched");
+    }
+
+    /* testBatchMatchesOneByOne
+    Description: Verifies that planning a batch gives the same rooms as assigning and reserving one reservation at a time, and that nothing is reserved before the commit. */
+    @Test
+    public void testBatchMatchesOneByOne() {
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            reservations.add(new Reservation("Guest" + i, "Batch", 1 + i % 4, i % 3 == 0, Reservation.StayPurpose.values()[i % 3], i % 2));
+        }
+
+        for (int s = 0; s < 2; s++) {
+            Hotel single = new Hotel(30, twoRowLayout(), new DummyObserver());
+            Hotel batched = new Hotel(30, twoRowLayout(), new DummyObserver());
+            AssignmentStrategy singleStrategy = s == 0 ? new QuietZoneAssignment(single) : new SequentialAssignment(single);
+            AssignmentStrategy batchStrategy = s == 0 ? new QuietZoneAssignment(batched) : new SequentialAssignment(batched);
+
+            List<String> expected = new ArrayList<>();
+            for (Reservation reservation : reservations) {
+                AssignmentRequest request = singleStrategy.createAssignmentRequest(single.getAvailableRooms(), reservation);
+                single.reserveRoom(request);
+                expected.add(request.room.getName());
+            }
+
+            List<AssignmentRequest> requests = batchStrategy.createAssignmentRequests(reservations, batched.newBatch());
+            assertEquals(150, batched.getAvailableRooms().size(), "Planning must not reserve anything");
+            batched.reserveRooms(requests);
+
+            List<String> actual = new ArrayList<>();
+            for (AssignmentRequest request : requests) { actual.add(request.room.getName()); }
+            assertEquals(expected, actual, batchStrategy.getClass().getSimpleName());
+            assertEquals(110, batched.getAvailableRooms().size());
+        }
+    }
+
+    /* testOptimisticCommitMovesToNextCandidate
+    Description: Verifies that assignReservation skips a candidate that was taken and one that no longer meets the
+    strategy's constraints, commits the next one, and counts both failures. */
+    @Test
+    public void testOptimisticCommitMovesToNextCandidate() {
+        Reservation guest = new Reservation("Ada", "Lovelace", 1, false, Reservation.StayPurpose.OTHER, 0);
+        hotel.reserveRoom(new AssignmentRequest(guest, hotel.getRoom("A1E"))); // Taken before the commit
+        Room stale = hotel.getRoom("A2B");
+        List<Room> proposals = List.of(hotel.getRoom("A1E"), stale, hotel.getRoom("A3L"));
+
+        AssignmentStrategy strategy = new StayPurposeAssignment() {
+            @Override
+            public AssignmentCandidates candidates(AvailableRooms availableRooms, Reservation reservation) {
+                return new AssignmentCandidates() {
+                    private int next;
+                    public Room next() { return next < proposals.size() ? proposals.get(next++) : null; }
+                    public boolean isStillValid(Room room) { return room.getId() != stale.getId(); }
+                };
+            }
+        };
+
+        AssignmentRequest request = hotel.assignReservation(strategy, guest);
+        assertEquals("A3L", request.room.getName());
+        assertTrue(hotel.getRoom("A3L").isReserved());
+        assertFalse(stale.isReserved(), "A stale candidate is not reserved");
+
+        AssignmentMetrics metrics = hotel.getAssignmentMetrics();
+        assertEquals(3, metrics.getAttempts());
+        assertEquals(1, metrics.getConflicts());
+        assertEquals(1, metrics.getStaleCandidates());
+        assertEquals(2, metrics.getRetries());
+        assertEquals(1, metrics.getCommits());
+    }
+
+    /* testDatedStaysShareARoom
+    Description: Verifies that stays on different nights go to the same room, an overlapping one goes elsewhere, the
+    room's current state is untouched, and cancelling gives the nights back. */
+    @Test
+    public void testDatedStaysShareARoom() {
+        LocalDate march12 = LocalDate.of(2025, 3, 12);
+        AssignmentStrategy strategy = new StayPurposeAssignment();
+        AssignmentRequest week = hotel.assignReservation(strategy, stay("Ada", march12, march12.plusDays(7)));
+        AssignmentRequest after = hotel.assignReservation(strategy, stay("Bob", march12.plusDays(7), march12.plusDays(9))); // Checks in as Ada leaves
+        AssignmentRequest overlapping = hotel.assignReservation(strategy, stay("Cy", march12.plusDays(6), march12.plusDays(8)));
+
+        assertEquals("A3L", week.room.getName()); // First L room
+        assertEquals("A3L", after.room.getName());
+        assertEquals("B3L", overlapping.room.getName()); // Next L room free for those nights
+        assertFalse(hotel.getRoom("A3L").isReserved(), "Stays do not reserve the room now");
+        assertEquals(hotel.getNumberOfRooms(), hotel.getAvailableRooms().size());
+
+        int id = week.room.getId();
+        assertSame(week.reservation, hotel.getStay(id, march12.plusDays(6)));
+        assertSame(after.reservation, hotel.getStay(id, march12.plusDays(7)));
+        assertNull(hotel.getStay(id, march12.plusDays(9)));
+        assertEquals(hotel.getNumberOfRooms() - 2, hotel.getAvailableRooms(march12.plusDays(6), march12.plusDays(8)).size());
+        assertFalse(hotel.getAvailableRooms(march12, march12.plusDays(9)).ofType('L', 1).iterator().hasNext());
+
+        assertTrue(hotel.cancelStay(week));
+        assertFalse(hotel.cancelStay(week), "Already cancelled");
+        assertTrue(hotel.isFreeForStay(id, march12, march12.plusDays(7)));
+        assertFalse(hotel.isFreeForStay(id, march12, march12.plusDays(8)));
+    }
+
+    /* testStayAvailabilityMatchesNightByNight
+    Description: Random stays booked in one room; every range query must agree with a night-by-night check. */
+    @Test
+    public void testStayAvailabilityMatchesNightByNight() {
+        Room room = hotel.getRoom("A1E");
+        Reservation[] nights = new Reservation[60];
+        java.util.Random random = new java.util.Random(22);
+        LocalDate day0 = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(55), to = from + 1 + random.nextInt(5);
+            Reservation guest = stay("Guest" + i, day0.plusDays(from), day0.plusDays(to));
+            boolean free = true;
+            for (int night = from; night < to; night++) { free &= nights[night] == null; }
+            assertEquals(free, hotel.isFreeForStay(room.getId(), guest.getCheckIn(), guest.getCheckOut()));
+            if (free && random.nextBoolean()) {
+                AssignmentRequest request = hotel.assignReservation(new SequentialAssignment(hotel) {
+                    public AssignmentCandidates candidatesForStay(AvailableRooms freeForStay, Reservation reservation) {
+                        return new AssignmentCandidates() {
+                            private boolean proposed;
+                            public Room next() {
+                                if (proposed) return null;
+                                proposed = true;
+                                return room;
+                            }
+                            public boolean isStillValid(Room candidate) { return true; }
+                        };
+                    }
+                }, guest);
+                assertEquals(room.getId(), request.room.getId());
+                for (int night = from; night < to; night++) { nights[night] = guest; }
+            }
+        }
+        for (int night = 0; night < nights.length; night++) { assertSame(nights[night], hotel.getStay(room.getId(), day0.plusDays(night))); }
+    }
+
+    /* testDatedAndUndatedExcludeEachOther
+    Description: A room reserved now takes no stay reaching tonight, but still takes a past one; a room with a stay
+    from tonight on is skipped by undated reservations until the stay is cancelled, and the current availability
+    counts it out meanwhile. */
+    @Test
+    public void testDatedAndUndatedExcludeEachOther() {
+        LocalDate today = LocalDate.now();
+        AssignmentStrategy strategy = new StayPurposeAssignment();
+        AssignmentRequest ann = hotel.assignReservation(strategy, guest("Ann"));
+        assertEquals("A3L", ann.room.getName());
+        assertTrue(hotel.isFreeForStay(ann.room.getId(), today, today.plusDays(3)), "The calendar itself is empty");
+        assertFalse(hotel.getAvailableRooms(today, today.plusDays(3)).ofType('L', 1).iterator().hasNext());
+        assertEquals(hotel.getNumberOfRooms() - 1, hotel.getAvailableRooms(today.minusDays(1), today.plusDays(3)).size());
+        assertEquals(hotel.getNumberOfRooms(), hotel.getAvailableRooms(today.minusDays(9), today.minusDays(2)).size());
+
+        AssignmentRequest past = hotel.assignReservation(strategy, stay("Past", today.minusDays(9), today.minusDays(2)));
+        AssignmentRequest coming = hotel.assignReservation(strategy, stay("Coming", today.plusDays(5), today.plusDays(8)));
+        assertEquals("A3L", past.room.getName(), "A past stay does not meet Ann");
+        assertEquals("B3L", coming.room.getName());
+        assertEquals(hotel.getNumberOfRooms() - 2, hotel.getAvailableRooms().size(), "B3L is held for its stay");
+
+        AssignmentRequest ben = hotel.assignReservation(strategy, guest("Ben"));
+        assertEquals("C3L", ben.room.getName(), "B3L is skipped");
+        assertFalse(hotel.tryReserveRoom(new AssignmentRequest(guest("Cy"), coming.room)));
+
+        assertTrue(hotel.cancelStay(coming));
+        assertEquals(hotel.getNumberOfRooms() - 2, hotel.getAvailableRooms().size(), "B3L is free again");
+        assertEquals("B3L", hotel.assignReservation(strategy, guest("Cy")).room.getName());
+        hotel.freeRoom(ann.room.getId());
+        assertEquals("A3L", hotel.assignReservation(strategy, stay("Dee", today, today.plusDays(1))).room.getName());
+    }
+
+    /* testTryReserveRoomBooksStays
+    Description: Moving a reservation by hand: a dated one is booked in the given room's calendar, leaving its current
+    state alone, and isFreeFor answers like the commit for both kinds. */
+    @Test
+    public void testTryReserveRoomBooksStays() {
+        LocalDate today = LocalDate.now();
+        Room a = hotel.getRoom("A3L"), b = hotel.getRoom("B3L");
+        Reservation week = stay("Ada", today.plusDays(2), today.plusDays(9));
+        assertTrue(hotel.isFreeFor(a.getId(), week));
+        assertTrue(hotel.tryReserveRoom(new AssignmentRequest(week, a)));
+        assertFalse(a.isReserved(), "A stay does not reserve the room now");
+        assertSame(week, hotel.getStay(a.getId(), today.plusDays(4)));
+
+        Reservation overlapping = stay("Bob", today.plusDays(8), today.plusDays(10));
+        assertFalse(hotel.isFreeFor(a.getId(), overlapping));
+        assertFalse(hotel.tryReserveRoom(new AssignmentRequest(overlapping, a)));
+        assertFalse(hotel.isFreeFor(a.getId(), guest("Cy")), "Held by Ada's stay");
+
+        assertTrue(hotel.tryReserveRoom(new AssignmentRequest(guest("Cy"), b)));
+        assertFalse(hotel.isFreeFor(b.getId(), overlapping), "Cy is in it");
+        assertTrue(hotel.isFreeFor(b.getId(), stay("Dee", today.minusDays(5), today.minusDays(1))));
+        assertFalse(hotel.tryReserveRoom(new AssignmentRequest(overlapping, b)));
+    }
+
+    /* testStalePlanNeverEvicts
+    Description: A batch planned before other commits: the requests whose room was taken meanwhile, by a guest or by a
+    stay from tonight on, are returned and the others committed; nobody is replaced, and a dated request is booked
+    in the calendar rather than as an occupant. */
+    @Test
+    public void testStalePlanNeverEvicts() {
+        LocalDate today = LocalDate.now();
+        List<Reservation> guests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) { guests.add(guest("Planned" + i)); }
+        List<AssignmentRequest> plan = new StayPurposeAssignment().createAssignmentRequests(guests, hotel.newBatch());
+        Reservation walkIn = guest("WalkIn");
+        assertTrue(hotel.tryReserveRoom(new AssignmentRequest(walkIn, plan.get(0).room)));
+        assertTrue(hotel.tryReserveRoom(new AssignmentRequest(stay("Booked", today, today.plusDays(2)), plan.get(1).room)));
+
+        List<AssignmentRequest> lost = hotel.reserveRooms(plan);
+        assertEquals(List.of(plan.get(0), plan.get(1)), lost);
+        assertSame(walkIn, plan.get(0).room.getReservation(), "Not evicted");
+        assertFalse(plan.get(1).room.isReserved(), "Held by its stay");
+        assertSame(plan.get(2).reservation, plan.get(2).room.getReservation());
+
+        assertFalse(hotel.reserveRoom(new AssignmentRequest(guest("Late"), plan.get(0).room)));
+        assertFalse(hotel.reserveRoom(new AssignmentRequest(stay("Later", today.plusDays(30), today.plusDays(31)), plan.get(2).room)));
+        Reservation past = stay("Past", today.minusDays(9), today.minusDays(7));
+        assertTrue(hotel.reserveRoom(new AssignmentRequest(past, plan.get(2).room)), "A past stay does not meet the occupant");
+        assertSame(plan.get(2).reservation, plan.get(2).room.getReservation());
+        assertSame(past, hotel.getStay(plan.get(2).room.getId(), past.getCheckIn()));
+    }
+
+    private static Reservation guest(String name) {
+        return new Reservation(name, "Now", 1, false, Reservation.StayPurpose.OTHER, 0); // Wants L
+    }
+
+    private static Reservation stay(String name, LocalDate checkIn, LocalDate checkOut) {
+        return new Reservation(name, "Stay", 1, false, Reservation.StayPurpose.OTHER, 0, checkIn, checkOut); // Wants L
+    }
+
+    /* twoRowLayout
+    Outputs: the 2x3 layout E Z B / L E E, freshly built for each hotel. */
+    private static ArrayList<ArrayList<String>> twoRowLayout() {
+        ArrayList<ArrayList<String>> layout = new ArrayList<>();
+        layout.add(new ArrayList<>(Arrays.asList("E", "Z", "B")));
+        layout.add(new ArrayList<>(Arrays.asList("L", "E", "E")));
+        return layout;
+    }
+
+    private static class DummyObserver implements HotelObserver {
+        public void reserveRoom(String roomName) {}
+        public void freeRoom(String roomName, char type) {}
+    }
+}
@@ -0,0 +1,120 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class MatchingAssignmentTest {
+
+    /* testEarlyReservationDoesNotStarveLaterOne
+    Description: With one B and one E room, a tourist (wants L, none exists) followed by a business guest: the greedy
+    fallback hands the B room to the tourist, the matching keeps it for the business guest. */
+    @Test
+    public void testEarlyReservationDoesNotStarveLaterOne() {
+        Hotel hotel = new Hotel(1, layout("B E"), new DummyObserver());
+        Reservation tourist = new Reservation("Alice", "Smith", 1, false, Reservation.StayPurpose.TOURISM, 0);
+        Reservation business = new Reservation("Bob", "Martin", 1, false, Reservation.StayPurpose.BUSINESS, 0);
+
+        List<AssignmentRequest> greedy = new StayPurposeAssignment().createAssignmentRequests(List.of(tourist, business), hotel.newBatch());
+        assertEquals("A1B", greedy.get(0).room.getName(), "Greedy gives the first room to the tourist");
+
+        List<AssignmentRequest> requests = new MatchingAssignment(hotel).createAssignmentRequests(List.of(tourist, business), hotel.newBatch());
+        assertEquals("A2E", requests.get(0).room.getName());
+        assertEquals("A1B", requests.get(1).room.getName(), "Business guest should get the only B room");
+    }
+
+    /* testSmokerKeepsAnEdgeRoom
+    Description: On a 3x3 floor only the center is off the edge; eight non-smokers arrive before a smoker, and the smoker must still end up on the edge. */
+    @Test
+    public void testSmokerKeepsAnEdgeRoom() {
+        Hotel hotel = new Hotel(1, layout("E E E", "E E E", "E E E"), new DummyObserver());
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) { reservations.add(new Reservation("Guest" + i, "Quiet", 2, false, Reservation.StayPurpose.OTHER, 1)); }
+        Reservation smoker = new Reservation("Sam", "Smoke", 2, true, Reservation.StayPurpose.OTHER, 1);
+        reservations.add(smoker);
+
+        List<AssignmentRequest> requests = new MatchingAssignment(hotel).createAssignmentRequests(reservations, hotel.newBatch());
+
+        Set<String> rooms = new HashSet<>();
+        for (AssignmentRequest request : requests) { rooms.add(request.room.getName()); }
+        assertEquals(9, rooms.size(), "Every reservation gets its own room");
+        assertNotEquals("A5E", requests.get(8).room.getName(), "The center room is the only one off the edge");
+    }
+
+    /* testFamiliesAndAdultsAreKeptApart
+    Description: On a single row, two families and two adult stays should not end up side by side when the batch can avoid it. */
+    @Test
+    public void testFamiliesAndAdultsAreKeptApart() {
+        Hotel hotel = new Hotel(1, layout("E E E E E"), new DummyObserver());
+        Reservation family = new Reservation("Claire", "Dupont", 3, false, Reservation.StayPurpose.OTHER, 1);
+        Reservation adults = new Reservation("Dan", "Brown", 2, true, Reservation.StayPurpose.OTHER, 0);
+
+        List<AssignmentRequest> requests = new MatchingAssignment(hotel).createAssignmentRequests(List.of(family, adults, family, adults), hotel.newBatch());
+        hotel.reserveRooms(requests);
+
+        for (AssignmentRequest request : requests) {
+            int roomIndex = hotel.getLayout().getRoomIndexOf(request.room.getId());
+            boolean withChildren = request.reservation.getNumChildren() > 0;
+            assertFalse(hotel.getFloor(1).hasNeighbourConflict(roomIndex, withChildren), request.room.getName() + " has a conflicting neighbour");
+        }
+    }
+
+    /* testStopsWhenHotelIsFull
+    Description: When there are more reservations than rooms, the earliest ones are placed. */
+    @Test
+    public void testStopsWhenHotelIsFull() {
+        Hotel hotel = new Hotel(1, layout("E L"), new DummyObserver());
+        Reservation first = new Reservation("Ada", "Lovelace", 1, false, Reservation.StayPurpose.OTHER, 0);
+        Reservation second = new Reservation("Alan", "Turing", 1, false, Reservation.StayPurpose.OTHER, 0);
+        Reservation third = new Reservation("Grace", "Hopper", 1, false, Reservation.StayPurpose.OTHER, 0);
+
+        List<AssignmentRequest> requests = new MatchingAssignment(hotel).createAssignmentRequests(List.of(first, second, third), hotel.newBatch());
+        assertEquals(2, requests.size());
+        assertSame(first, requests.get(0).reservation);
+        assertSame(second, requests.get(1).reservation);
+    }
+
+    /* testRoomChangingClassIsTakenOnce
+    Description: An adult checks in next to a room after the batch bucketed it, which changes the room's class; the
+    room must still leave its bucket once handed out, so no two families of the batch get it. */
+    @Test
+    public void testRoomChangingClassIsTakenOnce() {
+        Hotel hotel = new Hotel(1, layout("E E E E E"), new DummyObserver());
+        Reservation adult = new Reservation("Dan", "Brown", 1, false, Reservation.StayPurpose.OTHER, 0);
+        RoomBatch batch = new RoomBatch(hotel, (AvailabilityIndex) hotel.getAvailableRooms()) {
+            @Override
+            public void claim(AssignmentRequest request) {
+                super.claim(request);
+                if (request.room.getId() == 0) hotel.tryReserveRoom(new AssignmentRequest(adult, hotel.getRoom("A3E"))); // A2E now has an adult next door
+            }
+        };
+        List<Reservation> families = new ArrayList<>();
+        for (int i = 0; i < 3; i++) { families.add(new Reservation("Child" + i, "Dupont", 2, false, Reservation.StayPurpose.OTHER, 1)); }
+
+        List<AssignmentRequest> requests = new MatchingAssignment(hotel).createAssignmentRequests(families, batch);
+
+        Set<String> rooms = new HashSet<>();
+        for (AssignmentRequest request : requests) { rooms.add(request.room.getName()); }
+        assertEquals(3, rooms.size(), "Each family gets its own room: " + rooms);
+    }
+
+    /* layout
+    Inputs: rows – room codes separated by spaces, one string per row.
+    Outputs: a layout in the ConfigurationParser format. */
+    private static ArrayList<ArrayList<String>> layout(String... rows) {
+        ArrayList<ArrayList<String>> layout = new ArrayList<>();
+        for (String row : rows) { layout.add(new ArrayList<>(Arrays.asList(row.split(" ")))); }
+        return layout;
+    }
+
+    private static class DummyObserver implements HotelObserver {
+        public void reserveRoom(String roomName) {}
+        public void freeRoom(String roomName, char type) {}
+    }
+}
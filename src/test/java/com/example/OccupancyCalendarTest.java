@@ -0,0 +1,90 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class OccupancyCalendarTest {
+
+    /* testBitmapMatchesBitSet
+    Description: Random adds and removes over three chunks, dense enough to cross the array/bitmap limit both ways;
+    every query must agree with java.util.BitSet. */
+    @Test
+    public void testBitmapMatchesBitSet() {
+        int capacity = 3 * RoomBitmap.CHUNK_SIZE - 123;
+        RoomBitmap bitmap = new RoomBitmap(capacity);
+        BitSet expected = new BitSet(capacity);
+        Random random = new Random(23);
+        for (int round = 0; round < 4; round++) {
+            int span = round % 2 == 0 ? 8_000 : capacity; // Dense in one chunk, then spread
+            for (int i = 0; i < 20_000; i++) {
+                int id = random.nextInt(span);
+                boolean add = random.nextInt(3) != 0 || round == 3;
+                assertEquals(add != expected.get(id), add ? bitmap.add(id) : bitmap.remove(id));
+                expected.set(id, add);
+            }
+            assertEquals(expected.cardinality(), bitmap.cardinality());
+            for (int probe = 0; probe < 2_000; probe++) {
+                int id = random.nextInt(capacity);
+                assertEquals(expected.get(id), bitmap.contains(id));
+                assertEquals(expected.nextSetBit(id), bitmap.nextSetBit(id));
+            }
+            BitSet seen = new BitSet(capacity);
+            bitmap.forEach(seen::set);
+            assertEquals(expected, seen);
+        }
+
+        RoomBitmap range = RoomBitmap.range(capacity, 60_000, 70_000);
+        BitSet both = (BitSet) expected.clone();
+        both.and(rangeOf(60_000, 70_000));
+        BitSet seen = new BitSet(capacity);
+        bitmap.and(range).forEach(seen::set);
+        assertEquals(both, seen);
+    }
+
+    /* testFreeRoomsByTypeAndFloor
+    Description: Random stays on a 3-floor hotel; the L rooms of floor 2 free for a range must be exactly those a
+    night-by-night check finds, and releasing a stay frees its nights again. */
+    @Test
+    public void testFreeRoomsByTypeAndFloor() {
+        FloorLayout layout = new FloorLayout(HotelFixtures.mixedLayout(10, 10));
+        OccupancyCalendar calendar = new OccupancyCalendar(layout, 3);
+        int rooms = 3 * layout.getNumRooms();
+        boolean[][] occupied = new boolean[rooms][30];
+        Random random = new Random(230);
+        for (int i = 0; i < 400; i++) {
+            int room = random.nextInt(rooms), from = random.nextInt(25), to = from + 1 + random.nextInt(5);
+            if (!calendar.isFree(room, from, to)) continue;
+            calendar.occupy(room, from, to);
+            for (int night = from; night < to; night++) { occupied[room][night] = true; }
+        }
+
+        RoomBitmap mask = calendar.getTypeMask('L').and(calendar.getFloorMask(2));
+        for (int from = 0; from < 28; from++) {
+            int to = from + 3;
+            RoomBitmap free = calendar.freeRooms(from, to, mask);
+            for (int room = 0; room < rooms; room++) {
+                boolean expected = layout.getLevelOf(room) == 2 && layout.getType(layout.getRoomIndexOf(room)) == 'L';
+                for (int night = from; night < to && expected; night++) { expected = !occupied[room][night]; }
+                assertEquals(expected, free.contains(room), "Room " + room + " nights " + from + "-" + to);
+            }
+        }
+
+        int busy = 0;
+        while (calendar.isFree(busy, 0, 30)) { busy++; } // A room with stays
+        long version = calendar.getVersion();
+        calendar.release(busy, 0, 30);
+        assertTrue(calendar.isFree(busy, 0, 30));
+        assertTrue(calendar.getVersion() > version);
+        assertEquals(0, calendar.getOccupiedRooms(100));
+    }
+
+    private static BitSet rangeOf(int from, int to) {
+        BitSet range = new BitSet();
+        range.set(from, to);
+        return range;
+    }
+}
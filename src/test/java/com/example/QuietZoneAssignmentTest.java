@@ -64,6 +64,39 @@ public class QuietZoneAssignmentTest {
     }
 
 
+    /* testFreedNeighborNoLongerConflicts
+    Description: Verifies that releasing the solo adult next door lifts the conflict for a family. */
+    @Test
+    public void testFreedNeighborNoLongerConflicts() {
+        Room neighbor = hotel.getFloor(1).getRoomAt(1, 0); // Neighbor room (next to center)
+        neighbor.reserveRoom(new Reservation("Paul", "Solo", 1, false, Reservation.StayPurpose.BUSINESS, 0)); // Reserve for solo adult
+        neighbor.freeRoom(); // Then release it
+
+        Reservation family = new Reservation("Famille", "Durand", 3, false, Reservation.StayPurpose.TOURISM, 1); // Family reservation with children
+        Room fallback = hotel.getFloor(1).getRoomAt(0, 2); // top-right corner (isolated)
+
+        AssignmentRequest assigned = strategy.createAssignmentRequest(List.of(centerRoom, fallback), family); // Assign room based on strategy
+
+        assertEquals(centerRoom.getName(), assigned.room.getName(), "Center room should be valid again once the neighbor left");
+    }
+
+    /* testParallelSearchMatchesSequential
+    Description: Verifies that splitting the search across floors returns exactly the room of the sequential walk, on a tall hotel filled at random. */
+    @Test
+    public void testParallelSearchMatchesSequential() {
+        Hotel tall = new Hotel(120, HotelFixtures.mixedLayout(4, 4), new DummyObserver());
+        QuietZoneAssignment sequential = new QuietZoneAssignment(tall, Integer.MAX_VALUE);
+        QuietZoneAssignment parallel = new QuietZoneAssignment(tall, 1); // Split down to single floors
+        Random random = new Random(7);
+
+        for (int i = 0; i < 300; i++) {
+            Reservation reservation = new Reservation("Guest" + i, "Tall", 2, random.nextBoolean(), Reservation.StayPurpose.OTHER, random.nextInt(2));
+            AssignmentRequest expected = sequential.createAssignmentRequest(tall.getAvailableRooms(), reservation);
+            AssignmentRequest actual = parallel.createAssignmentRequest(tall.getAvailableRooms(), reservation);
+            assertEquals(expected.room.getName(), actual.room.getName(), "Reservation " + i);
+            tall.reserveRoom(new AssignmentRequest(reservation, tall.getRoom(random.nextInt(tall.getNumberOfRooms())))); // Scatter stays
+        }
+    }
 
     private static class DummyObserver implements HotelObserver {
         public void reserveRoom(String roomName) {}
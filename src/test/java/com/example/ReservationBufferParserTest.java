@@ -0,0 +1,128 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ReservationBufferParserTest {
+
+    private static final String[] EDGE_CASES = {
+            "Alice,Dupont,2,fumeur,tourisme,1",
+            "  Alice , Dupont , 2 , FUMEUR , Tourisme , 1 ",
+            "Bob,Martin,1,non-fumeur,affaire,0",
+            "Bob,Martin,1,non-fumeur,AFFAIRE,0,,,",
+            "Bob,Martin,1,non-fumeur,affaire,0, ,",
+            "Bob,Martin,1,non-fumeur,affaire",
+            "Bob,,1,non-fumeur,affaire,0",
+            " ,Martin,1,non-fumeur,affaire,0",
+            "Bob,Martin,+3,x,y,-7",
+            "Bob,Martin,3,x,y,-2147483648",
+            "Bob,Martin,3,x,y,-2147483649",
+            "Bob,Martin,2147483648,x,y,0",
+            "Bob,Martin,-,x,y,0",
+            "Bob,Martin,5,fumeur,autre,0",
+            "Bob,Martin,2,fumeur,autre,2",
+            "Bob,Martin,2 1,fumeur,autre,0",
+            "Bob,Martin,,fumeur,autre,0",
+            "Élodie,Müller,2,fumeur,vacances,1",
+            ",,,,,",
+            "not a reservation",
+            "Alice,Dupont,2,fumeur,tourisme,1,2025-03-12,2025-03-19",
+            " Alice,Dupont,2,fumeur,tourisme,1, 2025-03-12 , 2025-03-19 ,,",
+            "Alice,Dupont,2,fumeur,tourisme,1,2024-02-28,2024-03-01",
+            "Alice,Dupont,2,fumeur,tourisme,1,2025-03-19,2025-03-12",
+            "Alice,Dupont,2,fumeur,tourisme,1,2025-03-12,2025-03-12",
+            "Alice,Dupont,2,fumeur,tourisme,1,2025-02-29,2025-03-02",
+            "Alice,Dupont,2,fumeur,tourisme,1,2025-3-12,2025-03-19",
+            "Alice,Dupont,2,fumeur,tourisme,1,+12025-03-12,+12025-03-19",
+            "Alice,Dupont,2,fumeur,tourisme,1,2025-03-12",
+            "Alice,Dupont,2,fumeur,tourisme,1,2025-03-12,2025-03-19,x",
+            "Alice,Dupont,2,fumeur,tourisme,1,,2025-03-19",
+            "Alice,Dupont,2,fumeur,tourisme,1,2025-03-12, ",
+    };
+
+    /* testSameDecisionsAsReservationParser
+    Description: Every edge case, and many random lines built from the same pieces, must give the same result as ReservationParser. */
+    @Test
+    public void testSameDecisionsAsReservationParser() {
+        for (String line : EDGE_CASES) { assertSameAsReference(line); }
+
+        String[] pieces = {"", " ", "Ann", "Ng", "0", "1", "2", "4", "9", "-1", "+2", "fumeur", "Fumeur", "tourisme", "affaire", "autre", ",", ",,", "2025-03-12", "2025-03-19"};
+        Random random = new Random(16);
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder line = new StringBuilder();
+            int fields = 4 + random.nextInt(6);
+            for (int field = 0; field < fields; field++) {
+                if (field > 0) line.append(',');
+                line.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String trimmed = line.toString().trim();
+            if (!trimmed.isEmpty()) assertSameAsReference(trimmed);
+        }
+    }
+
+    /* testIncompleteLineStaysInBuffer
+    Description: Without endOfInput, the line after the last newline is not consumed; blank and Windows lines are handled like the reader does. */
+    @Test
+    public void testIncompleteLineStaysInBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("Alice,Dupont,2,fumeur,tourisme,1\r\n\nbad line\nBob,Martin,1,non-fu".getBytes(StandardCharsets.UTF_8));
+        List<Reservation> reservations = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+
+        int lines = ReservationBufferParser.parse(buffer, false, reservations, rejected);
+        assertEquals(1, reservations.size());
+        assertEquals("Dupont", reservations.get(0).getLastName());
+        assertEquals(List.of("bad line"), rejected);
+        assertEquals(3, lines, "The blank line counts");
+        assertEquals("Alice,Dupont,2,fumeur,tourisme,1\r\n\nbad line\n".length(), buffer.position());
+
+        ReservationBufferParser.parse(buffer, true, reservations, rejected);
+        assertEquals(2, rejected.size(), "At the end of input the cut line is judged as it is");
+    }
+
+    /* testParseFileMapsTheWholeFile
+    Description: Verifies that the memory-mapped file parser returns the valid lines in order, last line without newline included. */
+    @Test
+    public void testParseFileMapsTheWholeFile() throws Exception {
+        Path file = Files.createTempFile("buffer_parser_test_", ".csv");
+        Files.write(file, "Alice,Dupont,2,fumeur,tourisme,1\nBob,,5,fumeur,tourisme,5\nClaire,Durand,3,non-fumeur,autre,2".getBytes(StandardCharsets.UTF_8));
+
+        List<Reservation> result = ReservationBufferParser.parseFile(file);
+        assertEquals(2, result.size());
+        assertEquals("Claire", result.get(1).getFirstName());
+        assertEquals(Reservation.StayPurpose.OTHER, result.get(1).getStayPurpose());
+        assertEquals(3, Files.readAllLines(file).size(), "The file is only read");
+    }
+
+    /* assertSameAsReference
+    Inputs: line – one trimmed, non-empty line.
+    Outputs: none.
+    Description: Compares every field of both parsers' results, or that both reject the line. */
+    private static void assertSameAsReference(String line) {
+        Reservation expected = ReservationParser.parseValidLine(line);
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        Reservation actual = ReservationBufferParser.parseLine(ByteBuffer.wrap(bytes), 0, bytes.length, new byte[1][1]);
+        if (expected == null) {
+            assertNull(actual, "Should be rejected: " + line);
+            return;
+        }
+        assertNotNull(actual, "Should be accepted: " + line);
+        assertEquals(expected.getFirstName(), actual.getFirstName(), line);
+        assertEquals(expected.getLastName(), actual.getLastName(), line);
+        assertEquals(expected.getNumPersons(), actual.getNumPersons(), line);
+        assertEquals(expected.isSmoker(), actual.isSmoker(), line);
+        assertEquals(expected.getStayPurpose(), actual.getStayPurpose(), line);
+        assertEquals(expected.getNumChildren(), actual.getNumChildren(), line);
+        assertEquals(expected.getCheckIn(), actual.getCheckIn(), line);
+        assertEquals(expected.getCheckOut(), actual.getCheckOut(), line);
+    }
+
+}
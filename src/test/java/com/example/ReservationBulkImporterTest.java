@@ -0,0 +1,67 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReservationBulkImporterTest {
+
+    /* testChunksMergeInFileOrder
+    Description: With chunks of a few lines on four workers, reservations come back in file order and every rejected
+    line keeps its line number, whatever the chunk size. */
+    @Test
+    public void testChunksMergeInFileOrder() throws Exception {
+        StringBuilder content = new StringBuilder();
+        List<Long> invalidLines = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            if (i % 7 == 0) {
+                content.append("Guest").append(i).append(",,2,fumeur,autre,0\n");
+                invalidLines.add((long) i);
+            } else if (i % 50 == 0) {
+                content.append('\n'); // Blank lines are skipped but counted
+            } else {
+                content.append("Guest").append(i).append(",Bulk,2,fumeur,tourisme,1\r\n");
+            }
+        }
+        content.append("Last,Line,1,non-fumeur,affaire,0"); // No final newline
+        Path file = Files.createTempFile("bulk_import_test_", ".csv");
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        for (int chunkSize : new int[] {1, 37, 4096, ReservationBulkImporter.DEFAULT_CHUNK_SIZE}) {
+            ReservationBulkImporter.Result result = new ReservationBulkImporter(4, chunkSize).importFile(file);
+
+            List<Reservation> reservations = result.getReservations();
+            assertEquals(1000 - 142 - 18 + 1, reservations.size(), "Chunk size " + chunkSize);
+            for (int i = 1; i < reservations.size() - 1; i++) {
+                int previous = Integer.parseInt(reservations.get(i - 1).getFirstName().substring(5));
+                int current = Integer.parseInt(reservations.get(i).getFirstName().substring(5));
+                assertTrue(previous < current, "File order, chunk size " + chunkSize);
+            }
+            assertEquals("Last", reservations.get(reservations.size() - 1).getFirstName());
+
+            List<Long> lineNumbers = new ArrayList<>();
+            for (ReservationBulkImporter.RejectedLine line : result.getRejected()) {
+                lineNumbers.add(line.getLineNumber());
+                assertEquals("Guest" + line.getLineNumber() + ",,2,fumeur,autre,0", line.getLine());
+            }
+            assertEquals(invalidLines, lineNumbers, "Chunk size " + chunkSize);
+        }
+    }
+
+    /* testEmptyFile
+    Description: An empty file imports nothing. */
+    @Test
+    public void testEmptyFile() throws Exception {
+        Path file = Files.createTempFile("bulk_import_test_", ".csv");
+        ReservationBulkImporter.Result result = new ReservationBulkImporter().importFile(file);
+        assertTrue(result.getReservations().isEmpty());
+        assertTrue(result.getRejected().isEmpty());
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class ReservationDedupIndexTest {
+
+    private Path keyFile;
+
+    /* setUp
+    Description: A key file path in a temporary directory; the index creates it. */
+    @BeforeEach
+    public void setUp() throws Exception {
+        keyFile = Files.createTempDirectory("dedup_test_").resolve("reservation.csv.keys");
+    }
+
+    /* testSameStayGetsSameKey
+    Description: Without a source the key depends on the content only: another parser, other spacing or keyword case give the same key; any field changes it. */
+    @Test
+    public void testSameStayGetsSameKey() {
+        Reservation original = ReservationParser.parseValidLine("Alice,Dupont,2,fumeur,tourisme,1");
+        Reservation resent = ReservationParser.parseValidLine(" Alice , Dupont ,2, FUMEUR ,Tourisme, 1");
+        byte[] bytes = "Alice,Dupont,2,fumeur,tourisme,1".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        Reservation fromBytes = ReservationBufferParser.parseLine(java.nio.ByteBuffer.wrap(bytes), 0, bytes.length, new byte[1][16]);
+
+        assertEquals(original.getIdempotencyKey(), resent.getIdempotencyKey());
+        assertEquals(original.getIdempotencyKey(), fromBytes.getIdempotencyKey());
+        assertNotEquals(original.getIdempotencyKey(), ReservationParser.parseValidLine("Alice,Dupont,2,fumeur,tourisme,0").getIdempotencyKey());
+        assertNotEquals(ReservationParser.parseValidLine("Ab,C,1,fumeur,autre,0").getIdempotencyKey(),
+                ReservationParser.parseValidLine("A,bC,1,fumeur,autre,0").getIdempotencyKey());
+    }
+
+    /* testUndatedKeysDependOnTheirSource
+    Description: The same undated party read from another line is a new booking, read again from the same line a
+    duplicate; a dated stay is the same stay wherever it was read. */
+    @Test
+    public void testUndatedKeysDependOnTheirSource() {
+        Reservation undated = ReservationParser.parseValidLine("Alice,Dupont,2,fumeur,tourisme,1");
+        assertEquals(undated.withSource(120).getIdempotencyKey(), undated.withSource(120).getIdempotencyKey());
+        assertNotEquals(undated.withSource(120).getIdempotencyKey(), undated.withSource(240).getIdempotencyKey());
+        assertNotEquals(undated.getIdempotencyKey(), undated.withSource(120).getIdempotencyKey());
+
+        Reservation dated = ReservationParser.parseValidLine("Alice,Dupont,2,fumeur,tourisme,1,2025-07-01,2025-07-03");
+        assertEquals(dated.getIdempotencyKey(), dated.withSource(240).getIdempotencyKey());
+    }
+
+    /* testDuplicatesRejectedAcrossRestarts
+    Description: Committed keys are duplicates for the next index opened on the same file, released ones are not; a torn last key is ignored. */
+    @Test
+    public void testDuplicatesRejectedAcrossRestarts() throws Exception {
+        try (ReservationDedupIndex index = new ReservationDedupIndex(keyFile)) {
+            assertTrue(index.claim(11));
+            assertFalse(index.claim(11), "Claimed keys are duplicates too");
+            index.commit(11);
+            assertTrue(index.claim(22));
+            index.release(22); // Hotel full
+            assertTrue(index.claim(22), "A released key can be claimed again");
+            index.release(22);
+        }
+        Files.write(keyFile, new byte[] {1, 2, 3}, StandardOpenOption.APPEND); // Crash mid-write
+
+        try (ReservationDedupIndex index = new ReservationDedupIndex(keyFile)) {
+            assertEquals(1, index.size());
+            assertFalse(index.claim(11), "Assigned before the restart");
+            assertTrue(index.claim(22));
+            index.commit(22);
+        }
+        assertEquals(2 * ReservationDedupIndex.ENTRY_BYTES, Files.size(keyFile), "The torn key was overwritten");
+    }
+
+    /* testExpiredKeysAreForgotten
+    Description: Keys committed before the retention are not loaded, and the key file is rewritten without them once
+    they are most of it; recent keys stay duplicates. */
+    @Test
+    public void testExpiredKeysAreForgotten() throws Exception {
+        long today = java.time.LocalDate.now().toEpochDay();
+        java.nio.ByteBuffer entries = java.nio.ByteBuffer.allocate(4 * ReservationDedupIndex.ENTRY_BYTES);
+        entries.putLong(11).putLong(today - 40).putLong(22).putLong(today - 31).putLong(33).putLong(today - 45).putLong(44).putLong(today - 2);
+        Files.write(keyFile, entries.array());
+
+        try (ReservationDedupIndex index = new ReservationDedupIndex(keyFile, 30)) {
+            assertEquals(1, index.size());
+            assertTrue(index.claim(11), "Expired");
+            assertFalse(index.claim(44), "Within the retention");
+        }
+        java.nio.ByteBuffer rewritten = java.nio.ByteBuffer.wrap(Files.readAllBytes(keyFile));
+        assertEquals(ReservationDedupIndex.ENTRY_BYTES, rewritten.remaining());
+        assertEquals(44, rewritten.getLong(0));
+    }
+
+    /* testConcurrentCommitsShareFsyncs
+    Description: Keys committed by several threads are all on disk once commit returns, with no more fsyncs than commits. */
+    @Test
+    public void testConcurrentCommitsShareFsyncs() throws Exception {
+        int threads = 4, perThread = 200;
+        try (ReservationDedupIndex index = new ReservationDedupIndex(keyFile)) {
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                long first = t * 1000L;
+                workers[t] = new Thread(() -> {
+                    for (long key = first; key < first + perThread; key++) {
+                        if (index.claim(key)) index.commit(key);
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) { worker.join(); }
+            assertEquals((long) threads * perThread * ReservationDedupIndex.ENTRY_BYTES, Files.size(keyFile));
+            assertTrue(index.getSyncCount() <= threads * perThread);
+        }
+        try (ReservationDedupIndex index = new ReservationDedupIndex(keyFile)) {
+            assertEquals(threads * perThread, index.size());
+        }
+    }
+
+    /* testManyKeysNeverFalselyRejected
+    Description: 300,000 distinct keys (past the initial filter capacity) are all accepted once, then all rejected; most first lookups are answered by the filter. */
+    @Test
+    public void testManyKeysNeverFalselyRejected() throws Exception {
+        Random random = new Random(20);
+        long[] keys = new long[300_000];
+        for (int i = 0; i < keys.length; i++) { keys[i] = random.nextLong(); }
+        try (ReservationDedupIndex index = new ReservationDedupIndex(keyFile)) {
+            for (long key : keys) { assertTrue(index.claim(key)); }
+            for (long key : keys) { assertFalse(index.claim(key)); }
+            assertTrue(index.getBloomNegatives() > keys.length * 0.95, "Filter answered " + index.getBloomNegatives());
+        }
+    }
+
+    /* testExactSetMatchesHashSet
+    Description: Random adds and removes on a small key range, to exercise collisions and backward-shift deletion, against java.util.HashSet. */
+    @Test
+    public void testExactSetMatchesHashSet() {
+        Random random = new Random(7);
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> reference = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2000) - 5; // Includes 0 and negative keys
+            if (random.nextInt(3) == 0) assertEquals(reference.remove(key), set.remove(key));
+            else assertEquals(reference.add(key), set.add(key));
+        }
+        assertEquals(reference.size(), set.size());
+        for (long key = -5; key < 1995; key++) { assertEquals(reference.contains(key), set.contains(key), "Key " + key); }
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReservationFileWatcherTest {
+
+    private Path source;
+
+    /* setUp
+    Description: Creates an empty reservation file in a temporary directory. */
+    @BeforeEach
+    public void setUp() throws Exception {
+        source = Files.createTempDirectory("watcher_test_").resolve("reservation.csv");
+        Files.createFile(source);
+    }
+
+    /* testAppendTriggersCallback
+    Description: Verifies that appending to the file calls back, and that a burst of appends is coalesced into far fewer callbacks. */
+    @Test
+    public void testAppendTriggersCallback() throws Exception {
+        Semaphore changes = new Semaphore(0);
+        AtomicInteger callbacks = new AtomicInteger();
+        try (ReservationFileWatcher watcher = new ReservationFileWatcher(source, 50, 100, () -> { callbacks.incrementAndGet(); changes.release(); })) {
+            watcher.start();
+            append("Alice,Dupont,2,fumeur,tourisme,1\n");
+            assertTrue(changes.tryAcquire(10, TimeUnit.SECONDS), "A change should be reported");
+
+            callbacks.set(0);
+            for (int i = 0; i < 100; i++) { append("Guest" + i + ",Burst,1,non-fumeur,autre,0\n"); }
+            assertTrue(changes.tryAcquire(10, TimeUnit.SECONDS), "The burst should be reported");
+            Thread.sleep(300); // Let any trailing callback arrive
+            assertTrue(callbacks.get() < 100, "Bursts are coalesced, got " + callbacks.get() + " callbacks");
+        }
+    }
+
+    /* testPollingFallback
+    Description: Verifies that the polling mode notices an append as well. */
+    @Test
+    public void testPollingFallback() throws Exception {
+        Semaphore changes = new Semaphore(0);
+        try (ReservationFileWatcher watcher = new ReservationFileWatcher(source, 20, 50, changes::release)) {
+            watcher.startPolling();
+            assertTrue(changes.tryAcquire(10, TimeUnit.SECONDS), "The first check reports the existing file");
+            assertFalse(watcher.isWatching());
+
+            append("Alice,Dupont,2,fumeur,tourisme,1\n");
+            assertTrue(changes.tryAcquire(10, TimeUnit.SECONDS), "A change should be reported");
+        }
+    }
+
+    /* append
+    Inputs: text – bytes to add at the end of the reservation file.
+    Outputs: none.
+    Description: Appends like an external writer would. */
+    private void append(String text) throws Exception {
+        Files.write(source, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+}
@@ -45,6 +45,22 @@ public class ReservationParserTest {
         assertEquals(0, result.size(), "No valid reservation should be parsed"); // Ensure no valid reservations are parsed
     }
 
+    /* testParseFileWithDatedReservation
+    Description: Tests that check-in and check-out dates are read when present, and that a stay must last at least one night. */
+    @Test
+    public void testParseFileWithDatedReservation() throws Exception {
+        writeLine("Alice,Dupont,2,fumeur,tourisme,1,2025-03-12,2025-03-19"); // Seven nights
+
+        List<Reservation> result = ReservationParser.parseFile(tempFile.toString());
+
+        assertEquals(1, result.size());
+        assertEquals(java.time.LocalDate.of(2025, 3, 12), result.get(0).getCheckIn());
+        assertEquals(java.time.LocalDate.of(2025, 3, 19), result.get(0).getCheckOut());
+        assertEquals("Alice,Dupont,2,fumeur,tourisme,1,2025-03-12,2025-03-19", ReservationParser.format(result.get(0))); // Round trip
+        assertNull(ReservationParser.parseValidLine("Alice,Dupont,2,fumeur,tourisme,1,2025-03-12,2025-03-12"), "No night");
+        assertFalse(ReservationParser.parseValidLine("Alice,Dupont,2,fumeur,tourisme,1").isDated());
+    }
+
     /* writeLine
     Inputs: line – a string to write to the temporary CSV file.
     Outputs: none.
@@ -0,0 +1,185 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ReservationPipelineTest {
+
+    /* testLinesFlowThroughEveryStage
+    Description: Valid lines come out assigned, malformed and invalid ones are reported, and every stage accounts for its items. */
+    @Test
+    public void testLinesFlowThroughEveryStage() throws Exception {
+        Hotel hotel = new Hotel(2, HotelFixtures.mixedLayout(3, 3), new DummyObserver());
+        ConcurrentLinkedQueue<String> rejected = new ConcurrentLinkedQueue<>();
+        try (ReservationPipeline pipeline = new ReservationPipeline(hotel, StayPurposeAssignment::new, 2, 1, 2, 4, () -> {}, rejected::add)) {
+            pipeline.start();
+            for (int i = 0; i < 10; i++) { pipeline.submit("Guest" + i + ",Pipe,2,fumeur,tourisme,1"); }
+            pipeline.submit("not a reservation");
+            pipeline.submit("Bob,,5,fumeur,tourisme,5");
+
+            Set<String> assigned = new HashSet<>();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (assigned.size() < 10 && System.currentTimeMillis() < deadline) {
+                for (AssignmentRequest request : pipeline.drainAssigned()) {
+                    assertSame(request.reservation, request.room.getReservation());
+                    assertTrue(assigned.add(request.reservation.getFirstName()));
+                }
+                Thread.sleep(5);
+            }
+            assertEquals(10, assigned.size());
+            while (rejected.size() < 2 && System.currentTimeMillis() < deadline) { Thread.sleep(5); }
+            assertEquals(Set.of("not a reservation", "Bob,,5,fumeur,tourisme,5"), new HashSet<>(rejected));
+
+            List<PipelineStage<?, ?>> stages = pipeline.getStages();
+            assertEquals(List.of("parse", "validate", "assign", "notify"), List.of(stages.get(0).getName(), stages.get(1).getName(), stages.get(2).getName(), stages.get(3).getName()));
+            assertEquals(12, stages.get(0).getProcessed());
+            assertEquals(1, stages.get(0).getDropped(), "Malformed");
+            assertEquals(1, stages.get(1).getDropped(), "Invalid");
+            assertEquals(10, stages.get(3).getProcessed());
+        }
+    }
+
+    /* testSlowConsumerBlocksTheReader
+    Description: While nobody drains the output, submit must block once every queue is full instead of buffering the
+    whole surge; draining lets it finish. */
+    @Test
+    public void testSlowConsumerBlocksTheReader() throws Exception {
+        Hotel hotel = new Hotel(20, HotelFixtures.mixedLayout(10, 10), new DummyObserver());
+        int capacity = 4, lines = 1000;
+        try (ReservationPipeline pipeline = new ReservationPipeline(hotel, StayPurposeAssignment::new, 1, 1, 1, capacity, () -> {}, line -> {})) {
+            pipeline.start();
+            int[] submitted = {0};
+            CountDownLatch finished = new CountDownLatch(1);
+            Thread reader = new Thread(() -> {
+                try {
+                    for (int i = 0; i < lines; i++) {
+                        pipeline.submit("Guest" + i + ",Pipe,2,fumeur,autre,1");
+                        synchronized (submitted) { submitted[0]++; }
+                    }
+                    finished.countDown();
+                } catch (InterruptedException e) {
+                    // Test over
+                }
+            });
+            reader.start();
+
+            assertFalse(finished.await(500, TimeUnit.MILLISECONDS), "The reader must be held back");
+            int inFlight;
+            synchronized (submitted) { inFlight = submitted[0]; }
+            assertTrue(inFlight <= 5 * capacity + 4, "Bounded by the queues and the workers' items, got " + inFlight);
+
+            List<AssignmentRequest> assigned = new ArrayList<>();
+            long deadline = System.currentTimeMillis() + 20_000;
+            while (assigned.size() < lines && System.currentTimeMillis() < deadline) { assigned.addAll(pipeline.drainAssigned()); }
+            assertTrue(finished.await(1, TimeUnit.SECONDS));
+            assertEquals(lines, assigned.size());
+            reader.interrupt();
+        }
+    }
+
+    /* testDuplicatesAreNotAssignedTwice
+    Description: A line sent twice, and again to a pipeline restarted on the same key file, gets a single room. */
+    @Test
+    public void testDuplicatesAreNotAssignedTwice() throws Exception {
+        java.nio.file.Path keyFile = java.nio.file.Files.createTempDirectory("pipeline_dedup_").resolve("keys");
+        Hotel hotel = new Hotel(2, HotelFixtures.mixedLayout(3, 3), new DummyObserver());
+        for (int run = 0; run < 2; run++) {
+            try (ReservationDedupIndex dedup = new ReservationDedupIndex(keyFile);
+                 ReservationPipeline pipeline = new ReservationPipeline(hotel, StayPurposeAssignment::new, 1, 1, 2, 4, () -> {}, line -> {}, dedup)) {
+                pipeline.start();
+                pipeline.submit("Alice,Dupont,2,fumeur,tourisme,1");
+                pipeline.submit("Alice,Dupont,2,fumeur,tourisme,1");
+                pipeline.submitValid(ReservationParser.parseValidLine(" Alice, Dupont,2,FUMEUR,tourisme,1"));
+
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (pipeline.getStages().get(2).getProcessed() < 3 && System.currentTimeMillis() < deadline) { Thread.sleep(5); }
+                Thread.sleep(50); // Let notify hand over
+                assertEquals(run == 0 ? 1 : 0, pipeline.drainAssigned().size(), "Run " + run);
+                assertEquals(run == 0 ? 2 : 3, pipeline.getDuplicates(), "Run " + run);
+            }
+        }
+        assertEquals(hotel.getNumberOfRooms() - 1, hotel.getAvailableRooms().size());
+    }
+
+    /* testByteLinesAreParsedInPlace
+    Description: Lines handed over as byte ranges, as pollLines does, are assigned or rejected with their text, and every position is finished. */
+    @Test
+    public void testByteLinesAreParsedInPlace() throws Exception {
+        Hotel hotel = new Hotel(2, HotelFixtures.mixedLayout(3, 3), new DummyObserver());
+        ConcurrentLinkedQueue<String> rejected = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> finished = new ConcurrentLinkedQueue<>();
+        java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap("Alice,Dupont,2,fumeur,tourisme,1\nnot a reservation\nBob,,5,fumeur,tourisme,5\n"
+                .getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        try (ReservationPipeline pipeline = new ReservationPipeline(hotel, StayPurposeAssignment::new, 1, 1, 1, 4, () -> {}, rejected::add, null, finished::add)) {
+            pipeline.start();
+            pipeline.submit(bytes, 0, 32, 0);
+            pipeline.submit(bytes, 33, 50, 33);
+            pipeline.submit(bytes, 51, 75, 51);
+
+            List<AssignmentRequest> assigned = new ArrayList<>();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while ((assigned.isEmpty() || finished.size() < 3) && System.currentTimeMillis() < deadline) {
+                assigned.addAll(pipeline.drainAssigned());
+                Thread.sleep(5);
+            }
+            assertEquals(1, assigned.size());
+            assertEquals("Alice", assigned.get(0).reservation.getFirstName());
+            assertEquals(0, assigned.get(0).reservation.getSource());
+            assertEquals(Set.of("not a reservation", "Bob,,5,fumeur,tourisme,5"), new HashSet<>(rejected));
+            assertEquals(Set.of(0L, 33L, 51L), new HashSet<>(finished));
+        }
+    }
+
+    /* testFailedAssignmentIsRejectedAndReleased
+    Description: A strategy that throws once: the line is reported as rejected and finished, and its key is released,
+    so the same line read again gets a room. */
+    @Test
+    public void testFailedAssignmentIsRejectedAndReleased() throws Exception {
+        java.nio.file.Path keyFile = java.nio.file.Files.createTempDirectory("pipeline_failure_").resolve("keys");
+        Hotel hotel = new Hotel(2, HotelFixtures.mixedLayout(3, 3), new DummyObserver());
+        java.util.concurrent.atomic.AtomicBoolean fail = new java.util.concurrent.atomic.AtomicBoolean(true);
+        AssignmentStrategy failingOnce = new StayPurposeAssignment() {
+            @Override
+            public AssignmentCandidates candidates(AvailableRooms availableRooms, Reservation reservation) {
+                if (fail.getAndSet(false)) throw new IllegalStateException("Strategy failure");
+                return super.candidates(availableRooms, reservation);
+            }
+        };
+        ConcurrentLinkedQueue<String> rejected = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> finished = new ConcurrentLinkedQueue<>();
+        String line = "Alice,Dupont,2,fumeur,tourisme,1";
+        try (ReservationDedupIndex dedup = new ReservationDedupIndex(keyFile);
+             ReservationPipeline pipeline = new ReservationPipeline(hotel, () -> failingOnce, 1, 1, 1, 4, () -> {}, rejected::add, dedup, finished::add)) {
+            pipeline.start();
+            pipeline.submit(line, 42);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (pipeline.getStages().get(2).getProcessed() < 1 && System.currentTimeMillis() < deadline) { Thread.sleep(5); }
+            assertEquals(List.of(42L), new ArrayList<>(finished));
+            assertEquals(List.of(line), new ArrayList<>(rejected));
+            assertEquals(1, pipeline.getStages().get(2).getDropped());
+
+            pipeline.submit(line, 42); // Read again, or sent again by hand
+            List<AssignmentRequest> assigned = new ArrayList<>();
+            while (assigned.isEmpty() && System.currentTimeMillis() < deadline) {
+                assigned.addAll(pipeline.drainAssigned());
+                Thread.sleep(5);
+            }
+            assertEquals(1, assigned.size(), "The failed claim was released");
+            assertEquals(0, pipeline.getDuplicates());
+        }
+    }
+
+    private static class DummyObserver implements HotelObserver {
+        public void reserveRoom(String roomName) {}
+        public void freeRoom(String roomName, char type) {}
+    }
+}
@@ -0,0 +1,95 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class ReservationSpoolTest {
+
+    private Path spool;
+    private Path done;
+
+    /* setUp
+    Description: Creates an empty spool directory; the done directory is created by the spool. */
+    @BeforeEach
+    public void setUp() throws Exception {
+        spool = Files.createTempDirectory("spool_test_");
+        done = spool.resolve("done");
+    }
+
+    /* testDroppedFilesReachTheQueue
+    Description: Files dropped before and after start are all ingested through a queue much smaller than the total,
+    moved to the done directory, with their rejected lines kept next to them. */
+    @Test
+    public void testDroppedFilesReachTheQueue() throws Exception {
+        Semaphore queued = new Semaphore(0);
+        drop("early.csv", "Early,Bird,1,non-fumeur,autre,0\n");
+        try (ReservationSpool reservationSpool = new ReservationSpool(spool, done, 8, 4, queued::release)) {
+            reservationSpool.start();
+            for (int channel = 0; channel < 50; channel++) {
+                StringBuilder lines = new StringBuilder();
+                for (int i = 0; i < 5; i++) { lines.append("C").append(channel).append("-").append(i).append(",Spool,2,fumeur,tourisme,1\n"); }
+                if (channel == 7) lines.append("Bob,,5,fumeur,tourisme,5\n");
+                drop("channel" + channel + ".csv", lines.toString());
+            }
+
+            Set<String> received = new HashSet<>();
+            long deadline = System.currentTimeMillis() + 20_000;
+            while (received.size() < 251 && System.currentTimeMillis() < deadline) {
+                queued.tryAcquire(100, TimeUnit.MILLISECONDS);
+                for (Reservation reservation : reservationSpool.drain()) { assertTrue(received.add(reservation.getFirstName()), "Delivered twice"); }
+            }
+            assertEquals(251, received.size(), "Every reservation of every file");
+
+            while (reservationSpool.getFilesDone() < 51 && System.currentTimeMillis() < deadline) { Thread.sleep(10); }
+            assertEquals(51, reservationSpool.getFilesDone());
+            assertEquals(1, reservationSpool.getRejectedLines());
+        }
+        assertTrue(Files.exists(done.resolve("channel0.csv")));
+        assertEquals(List.of("Bob,,5,fumeur,tourisme,5"), Files.readAllLines(done.resolve("channel7.csv.rejected")));
+        assertEquals(List.of(done), list(spool), "Only the done directory is left in the spool");
+    }
+
+    /* testOtherFilesAreIgnored
+    Description: Files that are not *.csv, or hidden ones still being written, are left alone. */
+    @Test
+    public void testOtherFilesAreIgnored() throws Exception {
+        Files.write(spool.resolve("notes.txt"), "Alice,Dupont,2,fumeur,tourisme,1\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(spool.resolve(".partial.csv"), "Alice,Dupont,2,fumeur,tourisme,1\n".getBytes(StandardCharsets.UTF_8));
+        try (ReservationSpool reservationSpool = new ReservationSpool(spool, () -> {})) {
+            reservationSpool.start();
+            Thread.sleep(200);
+            assertTrue(reservationSpool.drain().isEmpty());
+            assertEquals(0, reservationSpool.getFilesDone());
+        }
+    }
+
+    /* drop
+    Inputs: name – file name in the spool; content – its lines.
+    Outputs: none.
+    Description: Writes under a hidden name, then renames, like a well-behaved channel. */
+    private void drop(String name, String content) throws Exception {
+        Path partial = spool.resolve("." + name);
+        Files.write(partial, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(partial, spool.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static List<Path> list(Path directory) throws Exception {
+        List<Path> entries = new ArrayList<>();
+        try (java.util.stream.Stream<Path> stream = Files.list(directory)) { stream.forEach(entries::add); }
+        return entries;
+    }
+
+}
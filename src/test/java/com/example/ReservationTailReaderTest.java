@@ -0,0 +1,143 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class ReservationTailReaderTest {
+
+    private Path directory;
+    private Path source;
+
+    /* setUp
+    Description: Creates an empty reservation file in a temporary directory. */
+    @BeforeEach
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("tail_reader_test_");
+        source = directory.resolve("reservation.csv");
+        Files.createFile(source);
+    }
+
+    /* testReadsOnlyAppendedLines
+    Description: Verifies that each poll returns only the lines appended since the previous one and leaves the source untouched. */
+    @Test
+    public void testReadsOnlyAppendedLines() throws Exception {
+        ReservationTailReader reader = new ReservationTailReader(source.toString());
+        append("Alice,Dupont,2,fumeur,tourisme,1\n");
+        assertEquals(1, reader.poll().size());
+
+        append("Bob,Martin,1,non-fumeur,affaire,0\nClaire,Durand,3,non-fumeur,autre,2\n");
+        List<Reservation> second = reader.poll();
+        assertEquals(2, second.size(), "Only the new lines");
+        assertEquals("Bob", second.get(0).getFirstName());
+        assertTrue(reader.poll().isEmpty(), "Nothing appended");
+
+        assertEquals(3, Files.readAllLines(source).size(), "The source file is never rewritten");
+    }
+
+    /* testIncompleteLineWaitsForItsNewline
+    Description: Verifies that a line caught mid-write is not parsed until the writer finishes it. */
+    @Test
+    public void testIncompleteLineWaitsForItsNewline() throws Exception {
+        ReservationTailReader reader = new ReservationTailReader(source.toString());
+        append("Alice,Dupont,2,fumeur,tour");
+        assertTrue(reader.poll().isEmpty());
+        assertEquals(0, reader.getOffset());
+
+        append("isme,1\n");
+        List<Reservation> result = reader.poll();
+        assertEquals(1, result.size());
+        assertEquals(Reservation.StayPurpose.TOURISM, result.get(0).getStayPurpose());
+    }
+
+    /* testRejectedLinesAreAppendedElsewhere
+    Description: Verifies that invalid lines go to the append-only rejected file, poll after poll. */
+    @Test
+    public void testRejectedLinesAreAppendedElsewhere() throws Exception {
+        ReservationTailReader reader = new ReservationTailReader(source.toString());
+        append("Bob,,5,fumeur,tourisme,5\nAlice,Dupont,2,fumeur,tourisme,1\n");
+        assertEquals(1, reader.poll().size());
+        append("not a reservation\n");
+        assertTrue(reader.poll().isEmpty());
+
+        assertEquals(List.of("Bob,,5,fumeur,tourisme,5", "not a reservation"), Files.readAllLines(directory.resolve("reservation.csv.rejected")));
+    }
+
+    /* testOffsetSurvivesRestart
+    Description: Verifies that a new reader resumes after the lines consumed by the previous one, and starts over if the file was replaced by a shorter one. */
+    @Test
+    public void testOffsetSurvivesRestart() throws Exception {
+        append("Alice,Dupont,2,fumeur,tourisme,1\n");
+        new ReservationTailReader(source.toString()).poll();
+
+        append("Bob,Martin,1,non-fumeur,affaire,0\n");
+        List<Reservation> afterRestart = new ReservationTailReader(source.toString()).poll();
+        assertEquals(1, afterRestart.size());
+        assertEquals("Bob", afterRestart.get(0).getFirstName());
+
+        Files.write(source, "Zoe,Roy,1,non-fumeur,autre,0\n".getBytes(StandardCharsets.UTF_8)); // Replaced by hand
+        List<Reservation> afterReplace = new ReservationTailReader(source.toString()).poll();
+        assertEquals("Zoe", afterReplace.get(0).getFirstName());
+    }
+
+    /* testPollLinesStreamsRawLines
+    Description: Verifies that pollLines hands over the new complete lines unparsed and trimmed with their positions, and that reject appends to the rejected file. */
+    @Test
+    public void testPollLinesStreamsRawLines() throws Exception {
+        ReservationTailReader reader = new ReservationTailReader(source.toString());
+        append("Alice,Dupont,2,fumeur,tourisme,1\r\n\nnot a reservation\nBob,Mar");
+        List<String> lines = new java.util.ArrayList<>();
+        List<Long> positions = new java.util.ArrayList<>();
+        reader.pollLines((bytes, from, to, position) -> { lines.add(ReservationBufferParser.decode(bytes, from, to)); positions.add(position); });
+        assertEquals(List.of("Alice,Dupont,2,fumeur,tourisme,1", "not a reservation"), lines);
+        assertEquals(List.of(0L, 35L), positions);
+        for (long position : positions) { reader.finished(position); }
+
+        append("tin,1,non-fumeur,affaire,0\n");
+        lines.clear();
+        new ReservationTailReader(source.toString()).pollLines((bytes, from, to, position) -> lines.add(ReservationBufferParser.decode(bytes, from, to))); // Offset was saved
+        assertEquals(List.of("Bob,Martin,1,non-fumeur,affaire,0"), lines);
+
+        reader.reject("not a reservation");
+        assertEquals(List.of("not a reservation"), Files.readAllLines(directory.resolve("reservation.csv.rejected")));
+    }
+
+    /* testUnfinishedLinesAreReadAgain
+    Description: Verifies that the saved offset never passes a line the pipeline has not finished, whatever the order
+    lines are finished in, so a restart reads it and the lines after it again (finished lines before it may be read
+    again too, saves are batched), and that it catches up once every line is finished. */
+    @Test
+    public void testUnfinishedLinesAreReadAgain() throws Exception {
+        ReservationTailReader reader = new ReservationTailReader(source.toString());
+        append("Alice,Dupont,2,fumeur,tourisme,1\nBob,Martin,1,non-fumeur,affaire,0\nClaire,Durand,3,non-fumeur,autre,2\n");
+        List<Long> positions = new java.util.ArrayList<>();
+        reader.pollLines((bytes, from, to, position) -> positions.add(position));
+        reader.finished(positions.get(0));
+        reader.finished(positions.get(2)); // Out of order: Bob is still in flight
+
+        List<String> lines = new java.util.ArrayList<>();
+        new ReservationTailReader(source.toString()).pollLines((bytes, from, to, position) -> lines.add(ReservationBufferParser.decode(bytes, from, to))); // After a crash
+        assertEquals(List.of("Bob,Martin,1,non-fumeur,affaire,0", "Claire,Durand,3,non-fumeur,autre,2"), lines.subList(lines.size() - 2, lines.size()));
+
+        reader.finished(positions.get(1));
+        lines.clear();
+        new ReservationTailReader(source.toString()).pollLines((bytes, from, to, position) -> lines.add(ReservationBufferParser.decode(bytes, from, to)));
+        assertTrue(lines.isEmpty(), "Everything finished");
+    }
+
+    /* append
+    Inputs: text – bytes to add at the end of the reservation file.
+    Outputs: none.
+    Description: Appends like an external writer would. */
+    private void append(String text) throws Exception {
+        Files.write(source, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReservationWaitlistTest {
+
+    private static final Reservation SMOKER = ReservationParser.parseValidLine("Alice,Dupont,2,fumeur,tourisme,1"); // Wants E
+    private static final Reservation BUSINESS = ReservationParser.parseValidLine("Bob,Martin,1,non-fumeur,affaire,0"); // Wants B
+    private static final Reservation QUIET = ReservationParser.parseValidLine("Claire,Durand,2,non-fumeur,autre,0"); // Wants L
+
+    private Path logFile;
+    private Hotel hotel;
+    private final List<AssignmentRequest> assigned = java.util.Collections.synchronizedList(new ArrayList<>()); // Also filled by pipeline workers
+
+    /* setUp
+    Description: A full hotel of one E, one B and one L room, and a log path in a temporary directory. */
+    @BeforeEach
+    public void setUp() throws Exception {
+        logFile = Files.createTempDirectory("waitlist_test_").resolve("reservation.csv.waitlist");
+        hotel = new Hotel(1, HotelFixtures.mixedLayout(1, 3), new DummyObserver());
+        for (int i = 0; i < 3; i++) { assertNotNull(hotel.assignReservation(new StayPurposeAssignment(), QUIET)); }
+    }
+
+    /* testFreedRoomGoesToEarliestArrival
+    Description: In arrival mode, freeing a room serves the oldest reservation whatever room it would prefer. */
+    @Test
+    public void testFreedRoomGoesToEarliestArrival() throws Exception {
+        try (ReservationWaitlist waitlist = open(false)) {
+            waitlist.add(SMOKER);
+            waitlist.add(BUSINESS);
+            hotel.freeRoom(roomOfType('B').getId());
+            waitlist.awaitDrains();
+
+            assertEquals(1, assigned.size());
+            assertSame(SMOKER, assigned.get(0).reservation);
+            assertEquals(List.of(BUSINESS), waitlist.getReservations());
+        }
+    }
+
+    /* testFreedRoomGoesToWhoWantsItsType
+    Description: In room-type mode, the earliest reservation wanting the freed room's type goes first, then arrival order. */
+    @Test
+    public void testFreedRoomGoesToWhoWantsItsType() throws Exception {
+        try (ReservationWaitlist waitlist = open(true)) {
+            waitlist.add(SMOKER);
+            waitlist.add(BUSINESS);
+            waitlist.add(QUIET);
+            hotel.freeRoom(roomOfType('B').getId());
+            waitlist.awaitDrains();
+            hotel.freeRoom(roomOfType('B').getId()); // Same room again: nobody else wants B
+            waitlist.awaitDrains();
+
+            assertEquals(2, assigned.size());
+            assertSame(BUSINESS, assigned.get(0).reservation);
+            assertSame(SMOKER, assigned.get(1).reservation);
+            assertEquals(List.of(QUIET), waitlist.getReservations());
+            assertEquals(1, waitlist.size());
+        }
+    }
+
+    /* testWaitlistSurvivesRestart
+    Description: Reservations still waiting are reloaded in arrival order, served ones are not, and later arrivals queue behind them. */
+    @Test
+    public void testWaitlistSurvivesRestart() throws Exception {
+        try (ReservationWaitlist waitlist = open(false)) {
+            waitlist.add(SMOKER);
+            waitlist.add(BUSINESS);
+            waitlist.add(QUIET);
+            hotel.freeRoom(roomOfType('E').getId());
+        }
+        Files.write(logFile, "+99,Bob,Mar".getBytes(java.nio.charset.StandardCharsets.UTF_8), java.nio.file.StandardOpenOption.APPEND); // Torn line
+        try (ReservationWaitlist waitlist = open(false)) {
+            assertEquals(2, waitlist.size());
+            waitlist.add(SMOKER);
+            assertEquals(List.of("Bob", "Claire", "Alice"), firstNames(waitlist.getReservations()));
+            assertEquals(2, Files.readAllLines(logFile).size() - 1, "Compacted on open, then one append");
+        }
+    }
+
+    /* testFullHotelQueuesWithoutAssigning
+    Description: The pipeline puts reservations on the waitlist while the hotel is full; they get the rooms freed later, in order. */
+    @Test
+    public void testFullHotelQueuesWithoutAssigning() throws Exception {
+        ReservationWaitlist waitlist = open(false);
+        try (ReservationPipeline pipeline = new ReservationPipeline(hotel, StayPurposeAssignment::new, 1, 1, 1, 4, () -> {}, line -> {})) {
+            pipeline.start();
+            pipeline.submit("Alice,Dupont,2,fumeur,tourisme,1");
+            pipeline.submit("Bob,Martin,1,non-fumeur,affaire,0");
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (pipeline.getStages().get(2).getProcessed() < 2 && System.currentTimeMillis() < deadline) { Thread.sleep(5); }
+            assertEquals(2, waitlist.size());
+            assertTrue(pipeline.drainAssigned().isEmpty());
+
+            hotel.freeRoom(roomOfType('L').getId());
+            hotel.freeRoom(roomOfType('E').getId());
+            waitlist.awaitDrains();
+            assertEquals(List.of("Alice", "Bob"), firstNames(requestsOf(assigned)));
+            assertTrue(waitlist.isEmpty());
+        } finally {
+            waitlist.close();
+        }
+    }
+
+    /* testFreeRoomDoesNotDrainOnItsThread
+    Description: The waiting reservation is placed on the waitlist's thread, not on the one freeing the room; a drain
+    that fails is reported there, freeRoom still returns normally and the reservation keeps waiting. */
+    @Test
+    public void testFreeRoomDoesNotDrainOnItsThread() throws Exception {
+        List<String> drainThreads = java.util.Collections.synchronizedList(new ArrayList<>());
+        int[] strategies = {0};
+        try (ReservationWaitlist waitlist = new ReservationWaitlist(logFile, false, () -> {
+            if (strategies[0]++ == 0) throw new IllegalStateException("No strategy yet");
+            return new StayPurposeAssignment();
+        }, request -> drainThreads.add(Thread.currentThread().getName()))) {
+            hotel.setWaitlist(waitlist);
+            waitlist.add(SMOKER);
+            hotel.freeRoom(roomOfType('E').getId()); // The drain fails
+            waitlist.awaitDrains();
+            assertEquals(List.of(SMOKER), waitlist.getReservations());
+
+            hotel.freeRoom(roomOfType('E').getId());
+            waitlist.awaitDrains();
+            assertEquals(List.of("waitlist-drain"), drainThreads);
+            assertTrue(waitlist.isEmpty());
+        }
+    }
+
+    /* testConcurrentAddsShareFsyncs
+    Description: Reservations added by several threads are all in the log once add returns, with no more fsyncs than
+    adds, and come back after a restart. */
+    @Test
+    public void testConcurrentAddsShareFsyncs() throws Exception {
+        int threads = 4, perThread = 100;
+        try (ReservationWaitlist waitlist = open(false)) {
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) { waitlist.add(QUIET); }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) { worker.join(); }
+            assertEquals(threads * perThread, Files.readAllLines(logFile).size());
+            assertTrue(waitlist.getSyncCount() > 0 && waitlist.getSyncCount() <= threads * perThread);
+        }
+        try (ReservationWaitlist waitlist = open(false)) {
+            assertEquals(threads * perThread, waitlist.size());
+        }
+    }
+
+    private ReservationWaitlist open(boolean byRoomType) throws Exception {
+        ReservationWaitlist waitlist = new ReservationWaitlist(logFile, byRoomType, StayPurposeAssignment::new, assigned::add);
+        hotel.setWaitlist(waitlist); // Served by Hotel.freeRoom
+        return waitlist;
+    }
+
+    private Room roomOfType(char type) {
+        for (Room room : hotel.getFloor(1).getRoomMap().values()) {
+            if (room.getType() == type) return room;
+        }
+        throw new AssertionError("No room of type " + type);
+    }
+
+    private static List<Reservation> requestsOf(List<AssignmentRequest> requests) {
+        List<Reservation> reservations = new ArrayList<>();
+        for (AssignmentRequest request : requests) { reservations.add(request.reservation); }
+        return reservations;
+    }
+
+    private static List<String> firstNames(List<Reservation> reservations) {
+        List<String> names = new ArrayList<>();
+        for (Reservation reservation : reservations) { names.add(reservation.getFirstName()); }
+        return names;
+    }
+
+    private static class DummyObserver implements HotelObserver {
+        public void reserveRoom(String roomName) {}
+        public void freeRoom(String roomName, char type) {}
+    }
+}